@@ -31,9 +31,13 @@ import alluxio.grpc.ExistsPRequest;
 import alluxio.grpc.ExistsPResponse;
 import alluxio.grpc.GetStatusPRequest;
 import alluxio.grpc.GetStatusPResponse;
+import alluxio.grpc.GetStatusesRequest;
+import alluxio.grpc.GetStatusesResponse;
 import alluxio.grpc.GrpcServerAddress;
 import alluxio.grpc.ListStatusPRequest;
 import alluxio.grpc.ListStatusPResponse;
+import alluxio.grpc.ListStatusPartialPRequest;
+import alluxio.grpc.ListStatusPartialPResponse;
 import alluxio.grpc.LoadFileRequest;
 import alluxio.grpc.LoadFileResponse;
 import alluxio.grpc.LoadRequest;
@@ -218,6 +222,20 @@ public interface BlockWorkerClient extends Closeable {
    */
   Iterator<ListStatusPResponse> listStatus(ListStatusPRequest request);
 
+  /**
+   * List a part of a directory from Worker.
+   * @param request the partial listing request
+   * @return the part of the directory
+   */
+  ListStatusPartialPResponse listStatusPartial(ListStatusPartialPRequest request);
+
+  /**
+   * Gets the statuses of many paths from Worker.
+   * @param request the request with the paths
+   * @return the statuses, in batches
+   */
+  Iterator<GetStatusesResponse> getStatuses(GetStatusesRequest request);
+
   /**
    * copy files from src to dst.
    *
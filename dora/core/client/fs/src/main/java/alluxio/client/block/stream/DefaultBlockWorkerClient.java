@@ -38,6 +38,8 @@ import alluxio.grpc.ExistsPResponse;
 import alluxio.grpc.FreeWorkerRequest;
 import alluxio.grpc.GetStatusPRequest;
 import alluxio.grpc.GetStatusPResponse;
+import alluxio.grpc.GetStatusesRequest;
+import alluxio.grpc.GetStatusesResponse;
 import alluxio.grpc.GrpcChannel;
 import alluxio.grpc.GrpcChannelBuilder;
 import alluxio.grpc.GrpcNetworkGroup;
@@ -45,6 +47,8 @@ import alluxio.grpc.GrpcSerializationUtils;
 import alluxio.grpc.GrpcServerAddress;
 import alluxio.grpc.ListStatusPRequest;
 import alluxio.grpc.ListStatusPResponse;
+import alluxio.grpc.ListStatusPartialPRequest;
+import alluxio.grpc.ListStatusPartialPResponse;
 import alluxio.grpc.LoadFileRequest;
 import alluxio.grpc.LoadFileResponse;
 import alluxio.grpc.LoadRequest;
@@ -355,6 +359,18 @@ public class DefaultBlockWorkerClient implements BlockWorkerClient {
         .listStatus(request);
   }
 
+  @Override
+  public ListStatusPartialPResponse listStatusPartial(ListStatusPartialPRequest request) {
+    return mRpcBlockingStub.withDeadlineAfter(mRpcTimeoutMs, TimeUnit.MILLISECONDS)
+        .listStatusPartial(request);
+  }
+
+  @Override
+  public Iterator<GetStatusesResponse> getStatuses(GetStatusesRequest request) {
+    return mRpcBlockingStub.withDeadlineAfter(mRpcTimeoutMs, TimeUnit.MILLISECONDS)
+        .getStatuses(request);
+  }
+
   @Override
   public ListenableFuture<CopyResponse> copy(CopyRequest request) {
     return mRpcFutureStub.copy(request);
@@ -232,8 +232,9 @@ public final class GrpcDataReader implements DataReader {
 
     @Override
     public DataReader create(long offset, long len) throws IOException {
+      // clone the builder so that readers can be created concurrently
       return new GrpcDataReader(mContext, mAddress,
-          mReadRequestBuilder.setOffset(offset).setLength(len).build());
+          mReadRequestBuilder.clone().setOffset(offset).setLength(len).build());
     }
 
     @Override
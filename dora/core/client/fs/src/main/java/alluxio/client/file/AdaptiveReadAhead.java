@@ -0,0 +1,417 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file;
+
+import alluxio.Constants;
+import alluxio.PositionReader;
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.network.protocol.databuffer.PooledDirectNioByteBuf;
+import alluxio.util.ThreadFactoryUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Reads a file ahead of a sequential reader in the background.
+ *
+ * Once a read continues the previous one, the file is read ahead in windows, each in a single
+ * request on a background thread, while the reader consumes the window before them. The size of
+ * the windows adapts to the rate the data arrives at and the rate the reader consumes it at:
+ * when the reader has to wait for a window, the data arrives slower than it is consumed and the
+ * window doubles, up to a maximum size; when a window was ready for longer than it took to read,
+ * the data arrives faster than it is consumed and the window halves. The windows of all the
+ * streams of a client are bounded by a memory budget and read by a bounded number of threads.
+ * A read out of the windows cancels them.
+ */
+@NotThreadSafe
+class AdaptiveReadAhead implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveReadAhead.class);
+  /** The size of the first window of a sequential read. */
+  @VisibleForTesting
+  static final int MIN_WINDOW_SIZE = Constants.MB;
+  /** The number of windows read ahead of the window being consumed. */
+  private static final int WINDOWS_AHEAD = 2;
+
+  private final PositionReader mReader;
+  private final long mFileLength;
+  private final int mMaxWindowSize;
+  private final Budget mBudget;
+  private final Executor mExecutor;
+  private final Clock mClock;
+  private final Deque<Window> mWindows = new ArrayDeque<>();
+  private int mWindowSize;
+  /** The position a read continuing the previous read starts at. */
+  private long mNextPosition = -1;
+
+  /**
+   * Creates a read-ahead sharing the memory budget and the threads of the client.
+   *
+   * @param reader the reader of the file
+   * @param fileLength the length of the file
+   * @param conf the configuration of the client
+   * @return the read-ahead
+   */
+  public static AdaptiveReadAhead create(PositionReader reader, long fileLength,
+      AlluxioConfiguration conf) {
+    return new AdaptiveReadAhead(reader, fileLength,
+        (int) Math.min(Integer.MAX_VALUE,
+            conf.getBytes(PropertyKey.USER_POSITION_READER_READ_AHEAD_MAX_SIZE)),
+        ClientResources.getBudget(conf), ClientResources.getExecutor(conf), Clock.systemUTC());
+  }
+
+  /**
+   * @param reader the reader of the file
+   * @param fileLength the length of the file
+   * @param maxWindowSize the maximum size of a window
+   * @param budget the memory budget the windows are taken from
+   * @param executor the executor reading the windows
+   * @param clock the clock to time the windows with
+   */
+  @VisibleForTesting
+  AdaptiveReadAhead(PositionReader reader, long fileLength, int maxWindowSize, Budget budget,
+      Executor executor, Clock clock) {
+    mReader = reader;
+    mFileLength = fileLength;
+    mMaxWindowSize = Math.max(MIN_WINDOW_SIZE, maxWindowSize);
+    mBudget = budget;
+    mExecutor = executor;
+    mClock = clock;
+    mWindowSize = MIN_WINDOW_SIZE;
+  }
+
+  /**
+   * Reads from the file into the buffer, from the windows read ahead if possible and from the
+   * reader otherwise.
+   *
+   * @param position the position in the file to read from
+   * @param buffer the buffer to read into, up to its remaining bytes
+   * @return the number of bytes read, or -1 if the position is at the end of the file
+   */
+  public int read(long position, ByteBuffer buffer) throws IOException {
+    boolean sequential = position == mNextPosition;
+    long pos = position;
+    int totalBytesRead = 0;
+    while (buffer.hasRemaining() && pos < mFileLength) {
+      // drop the windows already consumed or skipped over
+      while (!mWindows.isEmpty() && pos >= mWindows.peekFirst().end()) {
+        mWindows.pollFirst().discard();
+      }
+      Window window = mWindows.peekFirst();
+      if (window != null && pos < window.mStart) {
+        cancel();
+        window = null;
+      }
+      if (window == null) {
+        if (!sequential || !readAhead(pos)) {
+          break;
+        }
+        continue;
+      }
+      int bytesRead = window.copyTo(pos, buffer);
+      if (bytesRead <= 0) {
+        // the window failed or is short, the rest is read from the reader
+        cancel();
+        break;
+      }
+      pos += bytesRead;
+      totalBytesRead += bytesRead;
+      readAhead(pos);
+    }
+    if (buffer.hasRemaining()) {
+      int bytesRead = mReader.read(pos, buffer, buffer.remaining());
+      if (bytesRead > 0) {
+        pos += bytesRead;
+        totalBytesRead += bytesRead;
+      }
+    }
+    if (totalBytesRead == 0) {
+      return buffer.hasRemaining() ? -1 : 0;
+    }
+    mNextPosition = pos;
+    return totalBytesRead;
+  }
+
+  /**
+   * Issues windows until {@link #WINDOWS_AHEAD} windows are ahead of the window being consumed.
+   *
+   * @param pos the position being read
+   * @return whether there is a window at the position
+   */
+  private boolean readAhead(long pos) {
+    long next = mWindows.isEmpty() ? pos : mWindows.peekLast().end();
+    while (mWindows.size() <= WINDOWS_AHEAD && next < mFileLength) {
+      int size = (int) Math.min(mWindowSize, mFileLength - next);
+      if (!mBudget.tryReserve(size)) {
+        size = Math.min(size, MIN_WINDOW_SIZE);
+        if (!mBudget.tryReserve(size)) {
+          break;
+        }
+      }
+      Window window = new Window(next, size);
+      try {
+        mExecutor.execute(window);
+      } catch (RejectedExecutionException e) {
+        // all the threads are busy, the window is left to a later read, and running the
+        // discarded window releases its buffer without reading
+        window.discard();
+        window.run();
+        break;
+      }
+      mWindows.addLast(window);
+      next += size;
+    }
+    return !mWindows.isEmpty();
+  }
+
+  /**
+   * Cancels the windows read ahead.
+   */
+  private void cancel() {
+    Window window;
+    while ((window = mWindows.pollFirst()) != null) {
+      window.discard();
+    }
+    mWindowSize = MIN_WINDOW_SIZE;
+  }
+
+  /**
+   * @return the size of the next window
+   */
+  @VisibleForTesting
+  int getWindowSize() {
+    return mWindowSize;
+  }
+
+  /**
+   * @return the number of windows read ahead
+   */
+  @VisibleForTesting
+  int getNumWindows() {
+    return mWindows.size();
+  }
+
+  @Override
+  public void close() {
+    Deque<Window> windows = new ArrayDeque<>(mWindows);
+    cancel();
+    // the reader may be closed once no window is being read from it
+    for (Window window : windows) {
+      window.mBytesRead.join();
+    }
+  }
+
+  /**
+   * A range of the file read ahead into a buffer.
+   */
+  private final class Window implements Runnable {
+    private final long mStart;
+    private final int mLength;
+    private final ByteBuf mBuffer;
+    private final long mIssuedMs = mClock.millis();
+    private final CompletableFuture<Integer> mBytesRead = new CompletableFuture<>();
+    private volatile long mCompletedMs;
+    private boolean mConsumed;
+    @GuardedBy("this")
+    private boolean mDone;
+    @GuardedBy("this")
+    private boolean mDiscarded;
+
+    Window(long start, int length) {
+      mStart = start;
+      mLength = length;
+      mBuffer = PooledDirectNioByteBuf.allocate(length);
+    }
+
+    long end() {
+      return mStart + mLength;
+    }
+
+    @Override
+    public void run() {
+      int bytesRead = -1;
+      try {
+        if (!isDiscarded()) {
+          bytesRead = mReader.read(mStart, mBuffer, mLength);
+        }
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("Failed to read ahead {} bytes at position {}", mLength, mStart, e);
+      }
+      mCompletedMs = mClock.millis();
+      synchronized (this) {
+        mDone = true;
+        if (mDiscarded) {
+          release();
+        }
+      }
+      mBytesRead.complete(bytesRead);
+    }
+
+    /**
+     * Copies the bytes of the window at the position into the buffer, waiting for the window to
+     * be read.
+     *
+     * @return the number of bytes copied, or -1 if the window was not read up to the position
+     */
+    int copyTo(long pos, ByteBuffer buffer) throws IOException {
+      if (!mConsumed) {
+        mConsumed = true;
+        adapt();
+      }
+      int bytesRead;
+      try {
+        bytesRead = mBytesRead.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for read-ahead");
+      } catch (ExecutionException e) {
+        return -1;
+      }
+      int posInWindow = (int) (pos - mStart);
+      if (posInWindow >= bytesRead) {
+        return -1;
+      }
+      int size = Math.min(buffer.remaining(), bytesRead - posInWindow);
+      ByteBuffer slice = buffer.slice();
+      slice.limit(size);
+      mBuffer.getBytes(posInWindow, slice);
+      buffer.position(buffer.position() + size);
+      return size;
+    }
+
+    /**
+     * Adapts the window size when the window is first consumed.
+     */
+    private void adapt() {
+      if (!mBytesRead.isDone()) {
+        // the reader waits for the data
+        mWindowSize = (int) Math.min(mMaxWindowSize, 2L * mWindowSize);
+        return;
+      }
+      long readMs = mCompletedMs - mIssuedMs;
+      long readyMs = mClock.millis() - mCompletedMs;
+      if (readyMs > 2 * readMs) {
+        // the data waits for the reader
+        mWindowSize = Math.max(MIN_WINDOW_SIZE, mWindowSize / 2);
+      }
+    }
+
+    private synchronized boolean isDiscarded() {
+      return mDiscarded;
+    }
+
+    /**
+     * Discards the window, releasing its buffer once it is not being read into.
+     */
+    synchronized void discard() {
+      if (mDiscarded) {
+        return;
+      }
+      mDiscarded = true;
+      if (mDone) {
+        release();
+      }
+    }
+
+    @GuardedBy("this")
+    private void release() {
+      mBuffer.release();
+      mBudget.release(mLength);
+    }
+  }
+
+  /**
+   * The memory the windows of the streams of a client can take.
+   */
+  @ThreadSafe
+  @VisibleForTesting
+  static final class Budget {
+    private final long mCapacity;
+    private final AtomicLong mReserved = new AtomicLong();
+
+    /**
+     * @param capacity the number of bytes of the budget
+     */
+    Budget(long capacity) {
+      mCapacity = capacity;
+    }
+
+    boolean tryReserve(long bytes) {
+      while (true) {
+        long reserved = mReserved.get();
+        if (reserved + bytes > mCapacity) {
+          return false;
+        }
+        if (mReserved.compareAndSet(reserved, reserved + bytes)) {
+          return true;
+        }
+      }
+    }
+
+    void release(long bytes) {
+      mReserved.addAndGet(-bytes);
+    }
+
+    long getReserved() {
+      return mReserved.get();
+    }
+  }
+
+  /**
+   * The memory budget and the threads shared by the streams of a client.
+   */
+  private static final class ClientResources {
+    private static ExecutorService sExecutor;
+    private static Budget sBudget;
+
+    static synchronized ExecutorService getExecutor(AlluxioConfiguration conf) {
+      if (sExecutor == null) {
+        int threads = conf.getInt(PropertyKey.USER_POSITION_READER_READ_AHEAD_THREADS);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60,
+            TimeUnit.SECONDS, new SynchronousQueue<>(),
+            ThreadFactoryUtils.build("position-reader-read-ahead-%d", true));
+        executor.allowCoreThreadTimeOut(true);
+        sExecutor = executor;
+      }
+      return sExecutor;
+    }
+
+    static synchronized Budget getBudget(AlluxioConfiguration conf) {
+      if (sBudget == null) {
+        sBudget = new Budget(
+            conf.getBytes(PropertyKey.USER_POSITION_READER_READ_AHEAD_MEMORY_BUDGET));
+      }
+      return sBudget;
+    }
+  }
+}
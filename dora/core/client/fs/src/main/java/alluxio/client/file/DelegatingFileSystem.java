@@ -131,6 +131,12 @@ public class DelegatingFileSystem implements FileSystem {
     return mDelegatedFileSystem.getStatus(path, options);
   }
 
+  @Override
+  public Map<AlluxioURI, URIStatus> getStatuses(List<AlluxioURI> paths,
+      GetStatusPOptions options) throws IOException, AlluxioException {
+    return mDelegatedFileSystem.getStatuses(paths, options);
+  }
+
   @Override
   public List<URIStatus> listStatus(AlluxioURI path, ListStatusPOptions options)
       throws FileDoesNotExistException, IOException, AlluxioException {
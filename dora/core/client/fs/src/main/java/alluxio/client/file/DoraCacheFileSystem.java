@@ -37,6 +37,8 @@ import alluxio.grpc.DeletePOptions;
 import alluxio.grpc.ExistsPOptions;
 import alluxio.grpc.GetStatusPOptions;
 import alluxio.grpc.ListStatusPOptions;
+import alluxio.grpc.ListStatusPartialPOptions;
+import alluxio.grpc.ListStatusPartialPResponse;
 import alluxio.grpc.OpenFilePOptions;
 import alluxio.grpc.RenamePOptions;
 import alluxio.grpc.SetAttributePOptions;
@@ -59,9 +61,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Dora Cache file system implementation.
@@ -153,6 +159,45 @@ public class DoraCacheFileSystem extends DelegatingFileSystem {
     }
   }
 
+  @Override
+  public Map<AlluxioURI, URIStatus> getStatuses(List<AlluxioURI> paths,
+      GetStatusPOptions options) throws IOException, AlluxioException {
+    Map<String, AlluxioURI> pathsByUfsPath = new HashMap<>();
+    for (AlluxioURI path : paths) {
+      pathsByUfsPath.put(convertAlluxioPathToUFSPath(path).toString(), path);
+    }
+    if (!mMetadataCacheEnabled) {
+      return getStatusesFromUfs(pathsByUfsPath, options);
+    }
+    try {
+      GetStatusPOptions mergedOptions = FileSystemOptionsUtils.getStatusDefaults(
+          mFsContext.getClusterConf()).toBuilder().mergeFrom(options).build();
+
+      Map<AlluxioURI, URIStatus> statuses = new HashMap<>();
+      mDoraClient.getStatuses(new ArrayList<>(pathsByUfsPath.keySet()), mergedOptions)
+          .forEach((ufsPath, status) -> statuses.put(pathsByUfsPath.get(ufsPath), status));
+      return statuses;
+    } catch (RuntimeException ex) {
+      if (!mUfsFallbackEnabled) {
+        throw ex;
+      }
+      UFS_FALLBACK_COUNTER.inc();
+      LOG.debug("Dora client get statuses error ({} times). Fall back to UFS.",
+          UFS_FALLBACK_COUNTER.getCount(), ex);
+      return getStatusesFromUfs(pathsByUfsPath, options);
+    }
+  }
+
+  private Map<AlluxioURI, URIStatus> getStatusesFromUfs(Map<String, AlluxioURI> pathsByUfsPath,
+      GetStatusPOptions options) throws IOException, AlluxioException {
+    List<AlluxioURI> ufsPaths = pathsByUfsPath.keySet().stream()
+        .map(AlluxioURI::new).collect(Collectors.toList());
+    Map<AlluxioURI, URIStatus> statuses = new HashMap<>();
+    mDelegatedFileSystem.getStatuses(ufsPaths, options).forEach(
+        (ufsPath, status) -> statuses.put(pathsByUfsPath.get(ufsPath.toString()), status));
+    return statuses;
+  }
+
   @Override
   public FileInStream openFile(AlluxioURI path, OpenFilePOptions options)
       throws IOException, AlluxioException {
@@ -253,6 +298,35 @@ public class DoraCacheFileSystem extends DelegatingFileSystem {
     }
   }
 
+  @Override
+  public ListStatusPartialResult listStatusPartial(AlluxioURI path,
+      ListStatusPartialPOptions options) throws AlluxioException, IOException {
+    AlluxioURI ufsFullPath = convertAlluxioPathToUFSPath(path);
+    ufsFullPath = new AlluxioURI(PathUtils.normalizePath(ufsFullPath.toString(), "/"));
+
+    try {
+      ListStatusPartialPOptions mergedOptions = FileSystemOptionsUtils.listStatusPartialDefaults(
+          mFsContext.getPathConf(path)).toBuilder().mergeFrom(options).build();
+
+      return mDoraClient.listStatusPartial(ufsFullPath.toString(), mergedOptions);
+    } catch (RuntimeException ex) {
+      if (ex instanceof StatusRuntimeException) {
+        if (((StatusRuntimeException) ex).getStatus().getCode() == Status.NOT_FOUND.getCode()) {
+          return ListStatusPartialResult.fromProto(
+              ListStatusPartialPResponse.getDefaultInstance());
+        }
+      }
+      if (!mUfsFallbackEnabled) {
+        throw ex;
+      }
+
+      UFS_FALLBACK_COUNTER.inc();
+      LOG.debug("Dora client list status partial error ({} times). Fall back to UFS.",
+          UFS_FALLBACK_COUNTER.getCount(), ex);
+      return mDelegatedFileSystem.listStatusPartial(ufsFullPath, options);
+    }
+  }
+
   @Override
   public FileOutStream createFile(AlluxioURI alluxioPath, CreateFilePOptions options)
       throws FileAlreadyExistsException, InvalidPathException, IOException, AlluxioException {
@@ -275,7 +349,9 @@ public class DoraCacheFileSystem extends DelegatingFileSystem {
       outStreamOptions.setMountId(status.getMountId());
       outStreamOptions.setAcl(status.getAcl());
 
-      FileOutStream ufsOutStream = mDelegatedFileSystem.createFile(ufsFullPath, options);
+      // in the write-back mode, the client writes only to the worker, which persists the file
+      FileOutStream ufsOutStream = outStreamOptions.getUnderStorageType().isAsyncPersist()
+          ? null : mDelegatedFileSystem.createFile(ufsFullPath, options);
 
       FileOutStream doraOutStream = mDoraClient.getOutStream(ufsFullPath, mFsContext,
           outStreamOptions, ufsOutStream, uuid);
@@ -482,4 +558,10 @@ public class DoraCacheFileSystem extends DelegatingFileSystem {
     }
     return listBuilder.build();
   }
+
+  @Override
+  public void close() throws IOException {
+    mDoraClient.close();
+    super.close();
+  }
 }
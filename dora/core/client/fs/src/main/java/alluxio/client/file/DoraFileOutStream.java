@@ -40,7 +40,9 @@ import javax.annotation.concurrent.ThreadSafe;
  * blocks in the file and abstracts the switching between streams. The backing streams can write to
  * Alluxio space in the local machine or remote machines. If the {@link UnderStorageType} is
  * {@link UnderStorageType#SYNC_PERSIST}, another stream will write the data to the under storage
- * system.
+ * system. If it is {@link UnderStorageType#ASYNC_PERSIST}, the data is written only to the worker,
+ * which persists the file to the under storage after it is completed, so the stream fails to
+ * close if the worker fails to complete the file.
  */
 @NotThreadSafe
 public class DoraFileOutStream extends FileOutStream {
@@ -128,6 +130,8 @@ public class DoraFileOutStream extends FileOutStream {
     if (mClosed) {
       return;
     }
+    // the worker holds the only copy of a file written back
+    boolean writeBack = mUnderStorageType.isAsyncPersist() && !mCanceled;
     try (Timer.Context ctx = MetricsSystem
         .uniformTimer(MetricKey.CLOSE_ALLUXIO_OUTSTREAM_LATENCY.getName()).time()) {
       try {
@@ -139,7 +143,9 @@ public class DoraFileOutStream extends FileOutStream {
           }
         }
       } catch (Exception e) {
-        // Ignore.
+        if (writeBack) {
+          throw e;
+        }
       } finally {
         try {
           mNettyDataWriter.close();
@@ -176,7 +182,9 @@ public class DoraFileOutStream extends FileOutStream {
       mClosed = true;
       mDoraClient.completeFile(mUri.toString(), options, mUuid);
     } catch (Exception e) {
-      // Ignore.
+      if (writeBack) {
+        throw new IOException(String.format("Failed to write back file %s", mUri), e);
+      }
     } finally {
       mClosed = true;
       mCloser.close();
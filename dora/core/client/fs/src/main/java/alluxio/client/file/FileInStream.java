@@ -16,13 +16,18 @@ import alluxio.client.BoundedStream;
 import alluxio.client.CanUnbuffer;
 import alluxio.client.PositionedReadable;
 import alluxio.exception.PreconditionMessage;
+import alluxio.file.FileRange;
 import alluxio.util.io.BufferUtils;
 
 import com.google.common.base.Preconditions;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
 
 /**
  * A streaming API to read a file. This API represents a file as a stream of bytes and provides a
@@ -103,6 +108,45 @@ public abstract class FileInStream extends InputStream
     return nread;
   }
 
+  /**
+   * Reads the given ranges of the file, without changing the position of the stream.
+   * Implementations may read the ranges in fewer requests than there are ranges.
+   *
+   * @param ranges the ranges to read
+   * @param allocate allocates the buffer of a range, given its length
+   * @return the data of the ranges, in the order of the ranges, each from position 0 to the
+   *         length of its range
+   * @throws EOFException if a range extends past the end of the file
+   */
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    List<ByteBuffer> buffers = new ArrayList<>(ranges.size());
+    for (FileRange range : ranges) {
+      ByteBuffer buffer = allocate.apply(range.getLength());
+      byte[] data = buffer.hasArray() ? buffer.array() : new byte[range.getLength()];
+      int offset = buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : 0;
+      int totalBytesRead = 0;
+      while (totalBytesRead < range.getLength()) {
+        int bytesRead = positionedRead(range.getOffset() + totalBytesRead, data,
+            offset + totalBytesRead, range.getLength() - totalBytesRead);
+        if (bytesRead <= 0) {
+          throw new EOFException(String.format(
+              "Reached the end of the file after reading %d bytes of range %s",
+              totalBytesRead, range));
+        }
+        totalBytesRead += bytesRead;
+      }
+      if (buffer.hasArray()) {
+        buffer.limit(buffer.position() + range.getLength());
+      } else {
+        buffer.put(data);
+        buffer.flip();
+      }
+      buffers.add(buffer);
+    }
+    return buffers;
+  }
+
   @Override
   public void unbuffer() {
   }
@@ -69,6 +69,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -429,6 +430,27 @@ public interface FileSystem extends Closeable {
   URIStatus getStatus(AlluxioURI path, GetStatusPOptions options)
       throws FileDoesNotExistException, IOException, AlluxioException;
 
+  /**
+   * Gets the {@link URIStatus} objects of many Alluxio paths at once. A path which does not exist
+   * is left out of the result, so this also checks the existence of the paths.
+   *
+   * @param paths the paths to obtain information about
+   * @param options options to associate with this operation
+   * @return the {@link URIStatus} of each path which exists, by path
+   */
+  default Map<AlluxioURI, URIStatus> getStatuses(List<AlluxioURI> paths,
+      GetStatusPOptions options) throws IOException, AlluxioException {
+    Map<AlluxioURI, URIStatus> statuses = new HashMap<>();
+    for (AlluxioURI path : paths) {
+      try {
+        statuses.put(path, getStatus(path, options));
+      } catch (FileDoesNotExistException e) {
+        // left out of the result
+      }
+    }
+    return statuses;
+  }
+
   /**
    * Performs a specific action on each {@code URIStatus} in the result of {@link #listStatus}.
    * This method is preferred when iterating over directories with a large number of files or
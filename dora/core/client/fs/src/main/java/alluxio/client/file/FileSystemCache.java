@@ -292,6 +292,15 @@ public class FileSystemCache {
       return super.getStatus(path, options);
     }
 
+    @Override
+    public Map<AlluxioURI, URIStatus> getStatuses(List<AlluxioURI> paths,
+        GetStatusPOptions options) throws IOException, AlluxioException {
+      if (mClosed) {
+        throw new IOException(CLOSED_FS_ERROR_MESSAGE);
+      }
+      return super.getStatuses(paths, options);
+    }
+
     @Override
     public List<URIStatus> listStatus(AlluxioURI path, ListStatusPOptions options)
         throws FileDoesNotExistException, IOException, AlluxioException {
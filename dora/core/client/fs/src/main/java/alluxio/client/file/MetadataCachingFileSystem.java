@@ -42,7 +42,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
@@ -161,6 +163,33 @@ public class MetadataCachingFileSystem extends DelegatingFileSystem {
     return status;
   }
 
+  @Override
+  public Map<AlluxioURI, URIStatus> getStatuses(List<AlluxioURI> paths,
+      GetStatusPOptions options) throws IOException, AlluxioException {
+    Map<AlluxioURI, URIStatus> statuses = new HashMap<>();
+    List<AlluxioURI> missing = new ArrayList<>();
+    for (AlluxioURI path : paths) {
+      URIStatus status = mMetadataCache.get(path);
+      if (status == null || !status.isCompleted()) {
+        missing.add(path);
+      } else if (status != NOT_FOUND_STATUS) {
+        if (options.getUpdateTimestamps()) {
+          asyncUpdateFileAccessTime(path);
+        }
+        statuses.put(path, status);
+      }
+    }
+    if (!missing.isEmpty()) {
+      Map<AlluxioURI, URIStatus> loaded = mDelegatedFileSystem.getStatuses(missing, options);
+      for (AlluxioURI path : missing) {
+        URIStatus status = loaded.get(path);
+        mMetadataCache.put(path, status == null ? NOT_FOUND_STATUS : status);
+      }
+      statuses.putAll(loaded);
+    }
+    return statuses;
+  }
+
   @Override
   public void iterateStatus(AlluxioURI path, ListStatusPOptions options,
       Consumer<? super URIStatus> action)
@@ -15,6 +15,7 @@ import alluxio.PositionReader;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.PreconditionMessage;
+import alluxio.file.FileRange;
 import alluxio.network.protocol.databuffer.PooledDirectNioByteBuf;
 
 import com.amazonaws.annotation.NotThreadSafe;
@@ -26,7 +27,10 @@ import io.netty.buffer.Unpooled;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
+import javax.annotation.Nullable;
 
 /**
  * Implementation of {@link FileInStream} that reads from a dora cache if possible.
@@ -38,6 +42,8 @@ public class PositionReadFileInStream extends FileInStream {
   private boolean mClosed;
   private final PositionReader mPositionReader;
   private final PrefetchCache mCache;
+  @Nullable
+  private final AdaptiveReadAhead mReadAhead;
 
   private static class PrefetchCache implements AutoCloseable {
     private final long mFileLength;
@@ -162,6 +168,8 @@ public class PositionReadFileInStream extends FileInStream {
     mLength = length;
     mCache = new PrefetchCache(
         Configuration.getInt(PropertyKey.USER_POSITION_READER_STREAMING_MULTIPLIER), mLength);
+    mReadAhead = Configuration.getBoolean(PropertyKey.USER_POSITION_READER_READ_AHEAD_ENABLED)
+        ? AdaptiveReadAhead.create(reader, length, Configuration.global()) : null;
   }
 
   @Override
@@ -193,6 +201,13 @@ public class PositionReadFileInStream extends FileInStream {
   @Override
   public int read(ByteBuffer byteBuffer, int off, int len) throws IOException {
     byteBuffer.position(off).limit(off + len);
+    if (mReadAhead != null) {
+      int bytesRead = mReadAhead.read(mPos, byteBuffer);
+      if (bytesRead > 0) {
+        mPos += bytesRead;
+      }
+      return bytesRead;
+    }
     mCache.addTrace(mPos, len);
     int totalBytesRead = 0;
     int bytesReadFromCache = mCache.fillWithCache(mPos, byteBuffer);
@@ -231,6 +246,9 @@ public class PositionReadFileInStream extends FileInStream {
       throws IOException {
     long pos = position;
     ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, offset, len);
+    if (mReadAhead != null) {
+      return mReadAhead.read(position, byteBuffer);
+    }
     mCache.addTrace(position, len);
     int totalBytesRead = 0;
     int bytesReadFromCache = mCache.fillWithCache(pos, byteBuffer);
@@ -264,6 +282,18 @@ public class PositionReadFileInStream extends FileInStream {
     return totalBytesRead;
   }
 
+  /**
+   * Reads the ranges through the position reader, which may read them together, bypassing the
+   * prefetch cache.
+   */
+  @Override
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    Preconditions.checkState(!mClosed, "Cannot do operations on a closed BlockInStream");
+    FileRange.checkWithinFile(ranges, mLength);
+    return mPositionReader.readVectored(ranges, allocate);
+  }
+
   @Override
   public long getPos() throws IOException {
     return mPos;
@@ -298,6 +328,9 @@ public class PositionReadFileInStream extends FileInStream {
       return;
     }
     mClosed = true;
+    if (mReadAhead != null) {
+      mReadAhead.close();
+    }
     mPositionReader.close();
     mCache.close();
   }
@@ -219,6 +219,27 @@ public interface CacheManager extends AutoCloseable, CacheStatus {
    */
   boolean put(PageId pageId, ByteBuffer page, CacheContext cacheContext);
 
+  /**
+   * Puts a page into the cache manager with scope and quota respected, and runs the callback once
+   * the page data is no longer used by the cache manager. When pages are written asynchronously,
+   * that is after the page is written, which may be after this method returns. This method is
+   * best effort. It is possible that this put operation returns without page written.
+   *
+   * @param pageId page identifier
+   * @param page page data
+   * @param cacheContext cache related context
+   * @param onReleased the callback run once the page data is no longer used
+   * @return true if the put was successful, false otherwise
+   */
+  default boolean put(PageId pageId, ByteBuffer page, CacheContext cacheContext,
+      Runnable onReleased) {
+    try {
+      return put(pageId, page, cacheContext);
+    } finally {
+      onReleased.run();
+    }
+  }
+
   /**
    * Reads the entire page if the queried page is found in the cache, stores the result in buffer.
    *
@@ -306,6 +327,17 @@ public interface CacheManager extends AutoCloseable, CacheStatus {
   int getAndLoad(PageId pageId, int pageOffset, int bytesToRead,
       ReadTargetBuffer buffer, CacheContext cacheContext, Supplier<byte[]> externalDataSupplier);
 
+  /**
+   * Checks whether a page is in the cache, without reading it or refreshing its position in the
+   * eviction policy. The callers read the pages this returns false for from the under storage
+   * rather than from the cache, so a cache manager which cannot read its pages, as it is not in
+   * use or failed to check, returns false.
+   *
+   * @param pageId page identifier
+   * @return true if the page is in the cache and can be read from it, false otherwise
+   */
+  boolean hasPage(PageId pageId);
+
   /**
    * Get page ids by the given file id.
    * @param fileId file identifier
@@ -364,6 +396,14 @@ public interface CacheManager extends AutoCloseable, CacheStatus {
   @Override
   Optional<CacheUsage> getUsage();
 
+  /**
+   * @return the advisor recommending cache quotas from the shadow cache, none if the shadow
+   *         cache is not enabled
+   */
+  default Optional<CacheQuotaAdvisor> getQuotaAdvisor() {
+    return Optional.empty();
+  }
+
   /**
    * Commit the File.
    * @param fileId the file ID
@@ -27,12 +27,20 @@ public class CacheManagerOptions {
   private int mAsyncWriteThreads;
   private CacheEvictorOptions mCacheEvictorOptions;
   private int mMaxEvictionRetries;
+  private boolean mConcurrentMetaStoreEnabled;
+  private boolean mMissCoalescingEnabled;
+  private long mMissCoalescingTimeoutMs;
   private long mPageSize;
+  private long mPageIndexCheckpointIntervalMs;
   private List<PageStoreOptions> mPageStoreOptions;
   private boolean mQuotaEnabled;
   private boolean mTtlEnabled;
   private long mTtlCheckIntervalSeconds;
   private long mTtlThresholdSeconds;
+  private boolean mWriteBehindEnabled;
+  private WriteBehindOverflowPolicy mWriteBehindOverflowPolicy = WriteBehindOverflowPolicy.DROP;
+  private long mWriteBehindQueueSize;
+  private boolean mWriteBehindSyncEnabled;
 
   /**
    * @param conf
@@ -51,12 +59,26 @@ public class CacheManagerOptions {
         .setIsAsyncWriteEnabled(
             conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_ASYNC_WRITE_ENABLED))
         .setMaxEvictionRetries(conf.getInt(PropertyKey.USER_CLIENT_CACHE_EVICTION_RETRIES))
+        .setMissCoalescingEnabled(
+            conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_MISS_COALESCING_ENABLED))
+        .setMissCoalescingTimeoutMs(
+            conf.getMs(PropertyKey.USER_CLIENT_CACHE_MISS_COALESCING_TIMEOUT))
+        .setConcurrentMetaStoreEnabled(
+            conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_META_STORE_CONCURRENT_ENABLED))
         .setPageSize(conf.getBytes(PropertyKey.USER_CLIENT_CACHE_PAGE_SIZE))
         .setQuotaEnabled(conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_QUOTA_ENABLED))
         .setTtlEnabled(conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_TTL_ENABLED))
         .setTtlCheckIntervalSeconds(
             conf.getLong(PropertyKey.USER_CLIENT_CACHE_TTL_CHECK_INTERVAL_SECONDS))
         .setTtlThresholdSeconds(conf.getLong(PropertyKey.USER_CLIENT_CACHE_TTL_THRESHOLD_SECONDS))
+        .setWriteBehindEnabled(conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_WRITE_BEHIND_ENABLED))
+        .setWriteBehindOverflowPolicy(
+            conf.getEnum(PropertyKey.USER_CLIENT_CACHE_WRITE_BEHIND_OVERFLOW_POLICY,
+                WriteBehindOverflowPolicy.class))
+        .setWriteBehindQueueSize(
+            conf.getBytes(PropertyKey.USER_CLIENT_CACHE_WRITE_BEHIND_QUEUE_SIZE))
+        .setWriteBehindSyncEnabled(
+            conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_WRITE_BEHIND_SYNC_ENABLED))
         .setCacheEvictorOptions(cacheEvictorOptions)
         .setPageStoreOptions(PageStoreOptions.create(conf));
     return options;
@@ -79,8 +101,24 @@ public class CacheManagerOptions {
         .setIsAsyncWriteEnabled(
             conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_ASYNC_WRITE_ENABLED))
         .setMaxEvictionRetries(conf.getInt(PropertyKey.WORKER_PAGE_STORE_EVICTION_RETRIES))
+        .setPageIndexCheckpointIntervalMs(
+            conf.getMs(PropertyKey.WORKER_PAGE_STORE_INDEX_CHECKPOINT_INTERVAL))
+        .setMissCoalescingEnabled(
+            conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_MISS_COALESCING_ENABLED))
+        .setMissCoalescingTimeoutMs(
+            conf.getMs(PropertyKey.WORKER_PAGE_STORE_MISS_COALESCING_TIMEOUT))
+        .setConcurrentMetaStoreEnabled(
+            conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_META_STORE_CONCURRENT_ENABLED))
         .setPageSize(conf.getBytes(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE))
         .setQuotaEnabled(conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_QUOTA_ENABLED))
+        .setWriteBehindEnabled(conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_WRITE_BEHIND_ENABLED))
+        .setWriteBehindOverflowPolicy(
+            conf.getEnum(PropertyKey.WORKER_PAGE_STORE_WRITE_BEHIND_OVERFLOW_POLICY,
+                WriteBehindOverflowPolicy.class))
+        .setWriteBehindQueueSize(
+            conf.getBytes(PropertyKey.WORKER_PAGE_STORE_WRITE_BEHIND_QUEUE_SIZE))
+        .setWriteBehindSyncEnabled(
+            conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_WRITE_BEHIND_SYNC_ENABLED))
         .setCacheEvictorOptions(cacheEvictorOptions)
         .setPageStoreOptions(PageStoreOptions.createForWorkerPageStore(conf));
     return options;
@@ -113,6 +151,13 @@ public class CacheManagerOptions {
     return mAsyncWriteThreads;
   }
 
+  /**
+   * @return if the concurrent page meta store is enabled
+   */
+  public boolean isConcurrentMetaStoreEnabled() {
+    return mConcurrentMetaStoreEnabled;
+  }
+
   /**
    * @return if quota is enabled
    */
@@ -149,6 +194,55 @@ public class CacheManagerOptions {
     return mMaxEvictionRetries;
   }
 
+  /**
+   * @return the interval between the snapshots of the page indexes of the dirs
+   */
+  public long getPageIndexCheckpointIntervalMs() {
+    return mPageIndexCheckpointIntervalMs;
+  }
+
+  /**
+   * @return if concurrent misses on the same page share one external read
+   */
+  public boolean isMissCoalescingEnabled() {
+    return mMissCoalescingEnabled;
+  }
+
+  /**
+   * @return the maximum time in ms a miss waits for the external read of another miss
+   */
+  public long getMissCoalescingTimeoutMs() {
+    return mMissCoalescingTimeoutMs;
+  }
+
+  /**
+   * @return if pages read on cache misses are written to the page store in the background
+   */
+  public boolean isWriteBehindEnabled() {
+    return mWriteBehindEnabled;
+  }
+
+  /**
+   * @return what write-behind does with a page when its queue is full
+   */
+  public WriteBehindOverflowPolicy getWriteBehindOverflowPolicy() {
+    return mWriteBehindOverflowPolicy;
+  }
+
+  /**
+   * @return the maximum size of the pages queued by write-behind for each directory
+   */
+  public long getWriteBehindQueueSize() {
+    return mWriteBehindQueueSize;
+  }
+
+  /**
+   * @return if write-behind forces each batch of pages to the storage device
+   */
+  public boolean isWriteBehindSyncEnabled() {
+    return mWriteBehindSyncEnabled;
+  }
+
   /**
    * @return the page size
    */
@@ -215,6 +309,79 @@ public class CacheManagerOptions {
     return this;
   }
 
+  /**
+   * @param isConcurrentMetaStoreEnabled
+   * @return the updated options
+   */
+  public CacheManagerOptions setConcurrentMetaStoreEnabled(boolean isConcurrentMetaStoreEnabled) {
+    mConcurrentMetaStoreEnabled = isConcurrentMetaStoreEnabled;
+    return this;
+  }
+
+  /**
+   * @param isMissCoalescingEnabled
+   * @return the updated options
+   */
+  public CacheManagerOptions setMissCoalescingEnabled(boolean isMissCoalescingEnabled) {
+    mMissCoalescingEnabled = isMissCoalescingEnabled;
+    return this;
+  }
+
+  /**
+   * @param missCoalescingTimeoutMs
+   * @return the updated options
+   */
+  public CacheManagerOptions setMissCoalescingTimeoutMs(long missCoalescingTimeoutMs) {
+    mMissCoalescingTimeoutMs = missCoalescingTimeoutMs;
+    return this;
+  }
+
+  /**
+   * @param isWriteBehindEnabled
+   * @return the updated options
+   */
+  public CacheManagerOptions setWriteBehindEnabled(boolean isWriteBehindEnabled) {
+    mWriteBehindEnabled = isWriteBehindEnabled;
+    return this;
+  }
+
+  /**
+   * @param overflowPolicy
+   * @return the updated options
+   */
+  public CacheManagerOptions setWriteBehindOverflowPolicy(
+      WriteBehindOverflowPolicy overflowPolicy) {
+    mWriteBehindOverflowPolicy = overflowPolicy;
+    return this;
+  }
+
+  /**
+   * @param queueSize
+   * @return the updated options
+   */
+  public CacheManagerOptions setWriteBehindQueueSize(long queueSize) {
+    mWriteBehindQueueSize = queueSize;
+    return this;
+  }
+
+  /**
+   * @param isWriteBehindSyncEnabled
+   * @return the updated options
+   */
+  public CacheManagerOptions setWriteBehindSyncEnabled(boolean isWriteBehindSyncEnabled) {
+    mWriteBehindSyncEnabled = isWriteBehindSyncEnabled;
+    return this;
+  }
+
+  /**
+   * @param intervalMs the interval between the snapshots of the page indexes of the dirs
+   * @return the updated options
+   */
+  public CacheManagerOptions setPageIndexCheckpointIntervalMs(long intervalMs) {
+    mPageIndexCheckpointIntervalMs = intervalMs;
+    return this;
+  }
+
   /**
    * @param pageSize
    * @return the updated options
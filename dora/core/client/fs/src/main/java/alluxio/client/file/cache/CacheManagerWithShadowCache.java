@@ -14,6 +14,7 @@ package alluxio.client.file.cache;
 import static alluxio.client.file.CacheContext.StatsUnit.BYTE;
 
 import alluxio.client.file.CacheContext;
+import alluxio.client.quota.CacheQuota;
 import alluxio.client.quota.CacheScope;
 import alluxio.conf.AlluxioConfiguration;
 import alluxio.exception.PageNotFoundException;
@@ -38,6 +39,7 @@ import javax.annotation.Nonnull;
 public class CacheManagerWithShadowCache implements CacheManager {
   private final CacheManager mCacheManager;
   private final ShadowCacheManager mShadowCacheManager;
+  private final CacheQuotaAdvisor mQuotaAdvisor;
   private long mShadowCachePages = 0;
   private long mShadowCacheBytes = 0;
 
@@ -48,6 +50,7 @@ public class CacheManagerWithShadowCache implements CacheManager {
   public CacheManagerWithShadowCache(CacheManager cacheManager, AlluxioConfiguration conf) {
     mCacheManager = cacheManager;
     mShadowCacheManager = ShadowCacheManager.create(conf);
+    mQuotaAdvisor = new CacheQuotaAdvisor(mShadowCacheManager, cacheManager::getUsage, conf);
   }
 
   @Override
@@ -58,25 +61,66 @@ public class CacheManagerWithShadowCache implements CacheManager {
   @Override
   public boolean put(PageId pageId, ByteBuffer page, CacheContext cacheContext) {
     updateShadowCache(pageId, page.remaining(), cacheContext);
-    return mCacheManager.put(pageId, page, cacheContext);
+    return mCacheManager.put(pageId, page, withAdvisedQuota(cacheContext));
+  }
+
+  @Override
+  public boolean put(PageId pageId, ByteBuffer page, CacheContext cacheContext,
+      Runnable onReleased) {
+    updateShadowCache(pageId, page.remaining(), cacheContext);
+    return mCacheManager.put(pageId, page, withAdvisedQuota(cacheContext), onReleased);
   }
 
   @Override
   public int get(PageId pageId, int pageOffset, int bytesToRead, ReadTargetBuffer target,
       CacheContext cacheContext) {
-    getOrUpdateShadowCache(pageId, bytesToRead, cacheContext);
-    return mCacheManager.get(pageId, pageOffset, bytesToRead, target, cacheContext);
+    int shadowHitBytes = getOrUpdateShadowCache(pageId, bytesToRead, cacheContext);
+    int bytesRead = mCacheManager.get(pageId, pageOffset, bytesToRead, target,
+        withAdvisedQuota(cacheContext));
+    mQuotaAdvisor.recordRead(getCacheScope(cacheContext), bytesToRead, Math.max(bytesRead, 0),
+        shadowHitBytes);
+    return bytesRead;
   }
 
   @Override
   public int getAndLoad(PageId pageId, int pageOffset, int bytesToRead,
       ReadTargetBuffer buffer, CacheContext cacheContext, Supplier<byte[]> externalDataSupplier) {
-    getOrUpdateShadowCache(pageId, bytesToRead, cacheContext);
-    return mCacheManager.getAndLoad(pageId, pageOffset, bytesToRead,
-        buffer, cacheContext, externalDataSupplier);
+    int shadowHitBytes = getOrUpdateShadowCache(pageId, bytesToRead, cacheContext);
+    CacheContext context = withAdvisedQuota(cacheContext);
+    // only the bytes read from the cache are hits, not those loaded from the external storage
+    int cachedBytes = mCacheManager.get(pageId, pageOffset, bytesToRead, buffer, context);
+    int bytesRead = cachedBytes > 0 ? cachedBytes : mCacheManager.getAndLoad(pageId, pageOffset,
+        bytesToRead, buffer, context, externalDataSupplier);
+    mQuotaAdvisor.recordRead(getCacheScope(cacheContext), bytesToRead, Math.max(cachedBytes, 0),
+        shadowHitBytes);
+    return bytesRead;
+  }
+
+  /**
+   * Limits the scope of the context to the quota applied by the quota advisor, if any. The context
+   * of the caller is left as it is, and a copy of it is limited instead.
+   *
+   * @param cacheContext cache related context
+   * @return the context
+   */
+  private CacheContext withAdvisedQuota(CacheContext cacheContext) {
+    if (cacheContext == null) {
+      return null;
+    }
+    CacheQuota quota = mQuotaAdvisor.getQuota(cacheContext.getCacheQuota());
+    if (quota == cacheContext.getCacheQuota()) {
+      return cacheContext;
+    }
+    return new AdvisedCacheContext(cacheContext, quota);
   }
 
-  private void getOrUpdateShadowCache(PageId pageId, int bytesToRead, CacheContext cacheContext) {
+  /**
+   * @param pageId page identifier
+   * @param bytesToRead bytes to read from the page
+   * @param cacheContext cache related context
+   * @return the bytes which hit the shadow cache
+   */
+  private int getOrUpdateShadowCache(PageId pageId, int bytesToRead, CacheContext cacheContext) {
     int nread = mShadowCacheManager.get(pageId, bytesToRead, getCacheScope(cacheContext));
     if (nread > 0) {
       Metrics.SHADOW_CACHE_PAGES_HIT.inc();
@@ -86,6 +130,7 @@ public class CacheManagerWithShadowCache implements CacheManager {
     }
     Metrics.SHADOW_CACHE_PAGES_READ.inc();
     Metrics.SHADOW_CACHE_BYTES_READ.inc(bytesToRead);
+    return Math.max(nread, 0);
   }
 
   /**
@@ -148,6 +193,11 @@ public class CacheManagerWithShadowCache implements CacheManager {
     mShadowCacheManager.stopUpdate();
   }
 
+  @Override
+  public boolean hasPage(PageId pageId) {
+    return mCacheManager.hasPage(pageId);
+  }
+
   @Override
   public State state() {
     return mCacheManager.state();
@@ -178,6 +228,11 @@ public class CacheManagerWithShadowCache implements CacheManager {
     return mCacheManager.getUsage();
   }
 
+  @Override
+  public Optional<CacheQuotaAdvisor> getQuotaAdvisor() {
+    return Optional.of(mQuotaAdvisor);
+  }
+
   @Override
   public Optional<DataFileChannel> getDataFileChannel(PageId pageId, int pageOffset,
       int bytesToRead, CacheContext cacheContext) throws PageNotFoundException {
@@ -268,4 +323,31 @@ public class CacheManagerWithShadowCache implements CacheManager {
     private static final Counter SHADOW_CACHE_FALSE_POSITIVE_RATIO =
         MetricsSystem.counter(MetricKey.CLIENT_CACHE_SHADOW_CACHE_FALSE_POSITIVE_RATIO.getName());
   }
+
+  /**
+   * A copy of a cache context with the quota applied by the quota advisor, which passes the
+   * counters on to the context it is copied from.
+   */
+  private static final class AdvisedCacheContext extends CacheContext {
+    private final CacheContext mContext;
+
+    private AdvisedCacheContext(CacheContext context, CacheQuota quota) {
+      mContext = context;
+      setCacheIdentifier(context.getCacheIdentifier());
+      setCacheScope(context.getCacheScope());
+      setHiveCacheContext(context.getHiveCacheContext());
+      setTemporary(context.isTemporary());
+      setCacheQuota(quota);
+    }
+
+    @Override
+    public void incrementCounter(String name, long value) {
+      mContext.incrementCounter(name, value);
+    }
+
+    @Override
+    public void incrementCounter(String name, StatsUnit unit, long value) {
+      mContext.incrementCounter(name, unit, value);
+    }
+  }
 }
@@ -0,0 +1,460 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import alluxio.client.quota.CacheQuota;
+import alluxio.client.quota.CacheScope;
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.metrics.Metric;
+import alluxio.metrics.MetricInfo;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+import alluxio.util.CommonUtils;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Recommends how to split the cache among cache scopes from the hit ratio curves measured by the
+ * shadow cache, and optionally applies the recommendations as cache quotas.
+ *
+ * The hit ratio curve of each scope is approximated by two points: the hit ratio of the cache at
+ * the space the scope currently uses, and the hit ratio of the shadow cache at the working set
+ * of the scope. The curve rises linearly to the first point, then to the second, and stays flat
+ * beyond the working set. The capacity of the cache is allocated greedily to the segments which
+ * gain the most cache hits per byte, so a scope whose hits no longer grow with more space, e.g.
+ * one scanning data which is read only once, gives its space up to the others.
+ *
+ * The statistics are halved every interval, so that the recommendations follow the workload.
+ */
+@ThreadSafe
+public class CacheQuotaAdvisor {
+  private static final Logger LOG = LoggerFactory.getLogger(CacheQuotaAdvisor.class);
+
+  private final ShadowCacheManager mShadowCacheManager;
+  private final Supplier<Optional<CacheUsage>> mUsage;
+  private final boolean mAdaptive;
+  private final long mIntervalMs;
+  private final ConcurrentHashMap<CacheScope, ScopeStats> mStats = new ConcurrentHashMap<>();
+  private final AtomicLong mNextUpdateMs;
+  private volatile Map<CacheScope, Recommendation> mRecommendations = Collections.emptyMap();
+  private volatile Map<CacheScope, Long> mQuotas = Collections.emptyMap();
+  private volatile AdvisedQuota mLastQuota;
+
+  /**
+   * @param shadowCacheManager the shadow cache measuring the working sets
+   * @param usage the supplier of the usage of the cache
+   * @param conf the Alluxio configuration
+   */
+  public CacheQuotaAdvisor(ShadowCacheManager shadowCacheManager,
+      Supplier<Optional<CacheUsage>> usage, AlluxioConfiguration conf) {
+    mShadowCacheManager = shadowCacheManager;
+    mUsage = usage;
+    boolean adaptive = conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED);
+    if (adaptive && !conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_QUOTA_ENABLED)) {
+      LOG.warn("{} is enabled while {} is disabled, the recommended cache quotas are not applied",
+          PropertyKey.Name.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED,
+          PropertyKey.Name.USER_CLIENT_CACHE_QUOTA_ENABLED);
+      adaptive = false;
+    }
+    mAdaptive = adaptive;
+    mIntervalMs = conf.getMs(PropertyKey.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_INTERVAL);
+    mNextUpdateMs = new AtomicLong(CommonUtils.getCurrentMs() + mIntervalMs);
+  }
+
+  /**
+   * Records a read from the cache. Once per interval, the read also updates the recommendations,
+   * and applies them if adaptive quotas are enabled.
+   *
+   * @param scope the cache scope of the page read
+   * @param bytesRead the bytes read
+   * @param cacheHitBytes the bytes read from the cache
+   * @param shadowHitBytes the bytes which hit the shadow cache
+   */
+  public void recordRead(CacheScope scope, long bytesRead, long cacheHitBytes,
+      long shadowHitBytes) {
+    ScopeStats stats = mStats.get(scope);
+    if (stats == null) {
+      stats = mStats.computeIfAbsent(scope, this::createStats);
+    }
+    stats.mBytesRead.add(bytesRead);
+    stats.mCacheHitBytes.add(cacheHitBytes);
+    stats.mShadowHitBytes.add(shadowHitBytes);
+    long nextUpdateMs = mNextUpdateMs.get();
+    long nowMs = CommonUtils.getCurrentMs();
+    if (nowMs >= nextUpdateMs && mNextUpdateMs.compareAndSet(nextUpdateMs, nowMs + mIntervalMs)) {
+      update();
+    }
+  }
+
+  private void update() {
+    try {
+      List<Recommendation> recommendations = recommend();
+      if (mAdaptive) {
+        apply(recommendations);
+      }
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to update the recommended cache quotas", e);
+    }
+    for (ScopeStats stats : mStats.values()) {
+      stats.decay();
+    }
+  }
+
+  /**
+   * Computes the quota recommended for each cache scope read since the statistics were last
+   * reset.
+   *
+   * @return the recommendations, ordered by scope
+   */
+  public List<Recommendation> recommend() {
+    Optional<CacheUsage> usage = mUsage.get();
+    long capacity = usage.map(CacheUsage::capacity).orElse(0L);
+    long totalRead = 0;
+    Map<CacheScope, long[]> reads = new HashMap<>();
+    for (Map.Entry<CacheScope, ScopeStats> entry : mStats.entrySet()) {
+      long[] read = entry.getValue().get();
+      if (read[0] > 0) {
+        reads.put(entry.getKey(), read);
+        totalRead += read[0];
+      }
+    }
+    if (reads.isEmpty() || capacity <= 0) {
+      mRecommendations = Collections.emptyMap();
+      return Collections.emptyList();
+    }
+    long totalWorkingSet = mShadowCacheManager.getShadowCacheBytes();
+    List<Recommendation> recommendations = new ArrayList<>();
+    List<Segment> segments = new ArrayList<>();
+    for (Map.Entry<CacheScope, long[]> entry : reads.entrySet()) {
+      CacheScope scope = entry.getKey();
+      long bytesRead = entry.getValue()[0];
+      double share = (double) bytesRead / totalRead;
+      // the usage and the working set are only tracked per scope by some page meta stores and
+      // shadow caches, so they are estimated from the share of the reads otherwise
+      long used = usage
+          .flatMap(u -> u.partitionedBy(CacheUsage.PartitionDescriptor.scope(scope)))
+          .map(CacheUsage::used)
+          .orElse((long) (capacity * share));
+      long workingSet = mShadowCacheManager.getShadowCacheBytes(scope);
+      if (workingSet <= 0) {
+        workingSet = (long) (totalWorkingSet * share);
+      }
+      workingSet = Math.max(workingSet, used);
+      double hitRatio = Math.min(1.0, (double) entry.getValue()[1] / bytesRead);
+      double shadowHitRatio =
+          Math.max(hitRatio, Math.min(1.0, (double) entry.getValue()[2] / bytesRead));
+      Recommendation recommendation =
+          new Recommendation(scope, used, workingSet, bytesRead, hitRatio, shadowHitRatio);
+      recommendations.add(recommendation);
+      double cacheHits = hitRatio * bytesRead;
+      double shadowHits = shadowHitRatio * bytesRead;
+      Segment first = new Segment(recommendation, used, cacheHits);
+      Segment second = new Segment(recommendation, workingSet - used, shadowHits - cacheHits);
+      if (used == 0 || second.mGain > first.mGain) {
+        // keeps the curve concave, so the space is allocated in order along the curve
+        segments.add(new Segment(recommendation, workingSet, shadowHits));
+      } else {
+        segments.add(first);
+        segments.add(second);
+      }
+    }
+    segments.sort(Comparator.comparingDouble((Segment segment) -> segment.mGain).reversed());
+    long remaining = capacity;
+    for (Segment segment : segments) {
+      Recommendation recommendation = segment.mRecommendation;
+      long allocated = Math.min(segment.mLength, remaining);
+      recommendation.mRecommendedQuota += allocated;
+      remaining -= allocated;
+      if (allocated < segment.mLength && recommendation.mMarginalGain == 0) {
+        recommendation.mMarginalGain = segment.mGain;
+      }
+    }
+    // the space left once every working set fits is shared evenly
+    for (Recommendation recommendation : recommendations) {
+      recommendation.mRecommendedQuota += remaining / recommendations.size();
+    }
+    recommendations.sort(Comparator.comparing(Recommendation::getScope));
+    Map<CacheScope, Recommendation> byScope = new HashMap<>();
+    for (Recommendation recommendation : recommendations) {
+      byScope.put(recommendation.mScope, recommendation);
+    }
+    mRecommendations = byScope;
+    return recommendations;
+  }
+
+  /**
+   * Computes the recommended quotas, and applies them to the cache.
+   *
+   * @return the applied recommendations, ordered by scope
+   */
+  public List<Recommendation> apply() {
+    List<Recommendation> recommendations = recommend();
+    apply(recommendations);
+    return recommendations;
+  }
+
+  private void apply(List<Recommendation> recommendations) {
+    ImmutableMap.Builder<CacheScope, Long> quotas = ImmutableMap.builder();
+    for (Recommendation recommendation : recommendations) {
+      quotas.put(recommendation.mScope, recommendation.mRecommendedQuota);
+    }
+    mQuotas = quotas.build();
+    LOG.info("Applied cache quotas {}", recommendations);
+  }
+
+  /**
+   * Removes the applied quotas, and forgets the statistics.
+   */
+  public void reset() {
+    mQuotas = Collections.emptyMap();
+    mRecommendations = Collections.emptyMap();
+    for (ScopeStats stats : mStats.values()) {
+      stats.reset();
+    }
+  }
+
+  /**
+   * @return the quotas applied to the cache scopes
+   */
+  public Map<CacheScope, Long> getQuotas() {
+    return mQuotas;
+  }
+
+  /**
+   * @param quota the cache quota requested for a read or write
+   * @return the cache quota which also limits each scope to its applied quota
+   */
+  public CacheQuota getQuota(CacheQuota quota) {
+    Map<CacheScope, Long> quotas = mQuotas;
+    CacheQuota base = quota instanceof AdvisedQuota ? ((AdvisedQuota) quota).mBase : quota;
+    if (quotas.isEmpty()) {
+      return base;
+    }
+    AdvisedQuota lastQuota = mLastQuota;
+    if (lastQuota != null && lastQuota.mBase == base && lastQuota.mQuotas == quotas) {
+      return lastQuota;
+    }
+    lastQuota = new AdvisedQuota(base, quotas);
+    mLastQuota = lastQuota;
+    return lastQuota;
+  }
+
+  private ScopeStats createStats(CacheScope scope) {
+    // the scope ids are dot separated, so they are escaped like paths in metric names
+    String tag = scope.getId().replace("%", "%25").replace(".", "%2E");
+    MetricsSystem.registerGaugeIfAbsent(MetricsSystem.getMetricName(Metric.getMetricNameWithTags(
+        MetricKey.CLIENT_CACHE_SHADOW_QUOTA_RECOMMENDED_BYTES.getName(),
+        MetricInfo.TAG_CACHE_SCOPE, tag)), () -> {
+          Recommendation recommendation = mRecommendations.get(scope);
+          return recommendation == null ? 0L : recommendation.mRecommendedQuota;
+        });
+    MetricsSystem.registerGaugeIfAbsent(MetricsSystem.getMetricName(Metric.getMetricNameWithTags(
+        MetricKey.CLIENT_CACHE_SHADOW_QUOTA_MARGINAL_GAIN.getName(),
+        MetricInfo.TAG_CACHE_SCOPE, tag)), () -> {
+          Recommendation recommendation = mRecommendations.get(scope);
+          return recommendation == null ? 0.0 : recommendation.mMarginalGain;
+        });
+    return new ScopeStats();
+  }
+
+  /**
+   * The statistics of the reads of a cache scope.
+   */
+  private static final class ScopeStats {
+    private final LongAdder mBytesRead = new LongAdder();
+    private final LongAdder mCacheHitBytes = new LongAdder();
+    private final LongAdder mShadowHitBytes = new LongAdder();
+
+    /**
+     * @return the bytes read, the bytes read from the cache and the bytes hit the shadow cache
+     */
+    long[] get() {
+      return new long[] {mBytesRead.sum(), mCacheHitBytes.sum(), mShadowHitBytes.sum()};
+    }
+
+    void decay() {
+      for (LongAdder adder : new LongAdder[] {mBytesRead, mCacheHitBytes, mShadowHitBytes}) {
+        adder.add(-(adder.sum() / 2));
+      }
+    }
+
+    void reset() {
+      mBytesRead.reset();
+      mCacheHitBytes.reset();
+      mShadowHitBytes.reset();
+    }
+  }
+
+  /**
+   * A linear segment of the hit ratio curve of a scope.
+   */
+  private static final class Segment {
+    private final Recommendation mRecommendation;
+    private final long mLength;
+    /** The cache hits in bytes gained per byte of cache space. */
+    private final double mGain;
+
+    Segment(Recommendation recommendation, long length, double hits) {
+      mRecommendation = recommendation;
+      mLength = length;
+      mGain = length <= 0 ? 0 : hits / length;
+    }
+  }
+
+  /**
+   * A cache quota which limits the scopes to the quotas applied by the advisor, in addition to
+   * the quota requested by the client.
+   */
+  private static final class AdvisedQuota extends CacheQuota {
+    private final CacheQuota mBase;
+    private final Map<CacheScope, Long> mQuotas;
+
+    AdvisedQuota(CacheQuota base, Map<CacheScope, Long> quotas) {
+      mBase = base;
+      mQuotas = quotas;
+    }
+
+    @Override
+    public long getQuota(CacheScope cacheScope) {
+      return Math.min(mBase.getQuota(cacheScope),
+          mQuotas.getOrDefault(cacheScope, Long.MAX_VALUE));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      AdvisedQuota that = (AdvisedQuota) o;
+      return mBase.equals(that.mBase) && mQuotas.equals(that.mQuotas);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * mBase.hashCode() + mQuotas.hashCode();
+    }
+  }
+
+  /**
+   * The cache quota recommended for a cache scope.
+   */
+  public static final class Recommendation {
+    private final CacheScope mScope;
+    private final long mUsedBytes;
+    private final long mWorkingSetBytes;
+    private final long mBytesRead;
+    private final double mHitRatio;
+    private final double mShadowHitRatio;
+    private long mRecommendedQuota;
+    private double mMarginalGain;
+
+    private Recommendation(CacheScope scope, long usedBytes, long workingSetBytes,
+        long bytesRead, double hitRatio, double shadowHitRatio) {
+      mScope = scope;
+      mUsedBytes = usedBytes;
+      mWorkingSetBytes = workingSetBytes;
+      mBytesRead = bytesRead;
+      mHitRatio = hitRatio;
+      mShadowHitRatio = shadowHitRatio;
+    }
+
+    /**
+     * @return the id of the cache scope
+     */
+    public String getScope() {
+      return mScope.getId();
+    }
+
+    /**
+     * @return the bytes of the cache used by the scope
+     */
+    public long getUsedBytes() {
+      return mUsedBytes;
+    }
+
+    /**
+     * @return the working set of the scope in bytes, as measured by the shadow cache
+     */
+    public long getWorkingSetBytes() {
+      return mWorkingSetBytes;
+    }
+
+    /**
+     * @return the bytes read from the scope
+     */
+    public long getBytesRead() {
+      return mBytesRead;
+    }
+
+    /**
+     * @return the ratio of the bytes read from the cache
+     */
+    public double getHitRatio() {
+      return mHitRatio;
+    }
+
+    /**
+     * @return the ratio of the bytes which would be read from a cache fitting the working set
+     */
+    public double getShadowHitRatio() {
+      return mShadowHitRatio;
+    }
+
+    /**
+     * @return the recommended quota in bytes
+     */
+    public long getRecommendedQuota() {
+      return mRecommendedQuota;
+    }
+
+    /**
+     * @return the cache hits in bytes gained per extra byte of cache at the recommended quota
+     */
+    public double getMarginalGain() {
+      return mMarginalGain;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("scope", getScope())
+          .add("usedBytes", mUsedBytes)
+          .add("workingSetBytes", mWorkingSetBytes)
+          .add("bytesRead", mBytesRead)
+          .add("hitRatio", mHitRatio)
+          .add("shadowHitRatio", mShadowHitRatio)
+          .add("recommendedQuota", mRecommendedQuota)
+          .add("marginalGain", mMarginalGain)
+          .toString();
+    }
+  }
+}
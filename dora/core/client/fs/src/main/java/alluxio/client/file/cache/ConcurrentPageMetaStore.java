@@ -0,0 +1,820 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import static java.util.Objects.requireNonNull;
+
+import alluxio.client.file.cache.allocator.Allocator;
+import alluxio.client.file.cache.allocator.HashAllocator;
+import alluxio.client.file.cache.evictor.CacheEvictor;
+import alluxio.client.file.cache.store.PageStoreDir;
+import alluxio.client.quota.CacheScope;
+import alluxio.exception.FileDoesNotExistException;
+import alluxio.exception.PageNotFoundException;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+
+import com.codahale.metrics.Counter;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A thread safe metadata store for pages stored in cache, designed for caches holding a large
+ * number of pages.
+ *
+ * Pages are indexed by file ID in a concurrent map. The pages of a file are kept in chunks of
+ * {@link #CHUNK_SIZE} consecutive page indexes, each with a bitmap of the cached pages and
+ * primitive arrays of their sizes and creation times, instead of a {@link PageInfo} object per
+ * page. The arrays of a chunk grow up to the highest page index cached in it, so a file of a
+ * few pages takes a few slots. {@link PageInfo} objects are created on lookup. The pages of a
+ * file share the cache scope and the directory of the file, as the allocator places every page
+ * of a file in the same directory.
+ *
+ * Lookups only synchronize on the file they access, so the read locks do not block. The write
+ * lock of a directory returned by {@link #getLock(PageStoreDir)} is exclusive, so that the
+ * compound operations of the cache manager in the directory, e.g. evicting a page to make room
+ * for another, do not interleave, while the pages of different directories are added
+ * concurrently. The write lock returned by {@link #getLock()} locks every directory.
+ */
+@ThreadSafe
+public class ConcurrentPageMetaStore implements PageMetaStore {
+  private static final Logger LOG = LoggerFactory.getLogger(ConcurrentPageMetaStore.class);
+  /** The number of consecutive page indexes tracked by a chunk. */
+  private static final int CHUNK_SIZE = Long.SIZE;
+  private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_SIZE);
+
+  /** A map from file ID to the pages of the file. */
+  private final ConcurrentHashMap<String, FileEntry> mFiles = new ConcurrentHashMap<>();
+  private final ImmutableList<PageStoreDir> mDirs;
+  /** The number of logical bytes used. */
+  private final AtomicLong mBytes = new AtomicLong(0);
+  private final AtomicLong mNumPages = new AtomicLong(0);
+  /** The locks of the directories. */
+  private final Map<PageStoreDir, ReadWriteLock> mDirLocks = new IdentityHashMap<>();
+  private final ReadWriteLock mLock;
+  private final Allocator mAllocator;
+
+  /**
+   * @param dirs storage directories
+   */
+  public ConcurrentPageMetaStore(List<PageStoreDir> dirs) {
+    this(dirs, new HashAllocator(dirs));
+  }
+
+  /**
+   * @param dirs storage directories
+   * @param allocator storage allocator
+   */
+  public ConcurrentPageMetaStore(List<PageStoreDir> dirs, Allocator allocator) {
+    mDirs = ImmutableList.copyOf(requireNonNull(dirs));
+    mAllocator = requireNonNull(allocator);
+    List<Lock> dirLocks = new ArrayList<>(mDirs.size());
+    for (PageStoreDir dir : mDirs) {
+      Lock dirLock = new ReentrantLock();
+      dirLocks.add(dirLock);
+      mDirLocks.put(dir, new WriteOnlyReadWriteLock(dirLock));
+    }
+    mLock = new WriteOnlyReadWriteLock(new MultiLock(dirLocks));
+    //metrics for the num of pages stored in the cache
+    MetricsSystem.registerGaugeIfAbsent(MetricKey.CLIENT_CACHE_PAGES.getName(),
+        mNumPages::intValue);
+  }
+
+  @Override
+  public ReadWriteLock getLock() {
+    return mLock;
+  }
+
+  @Override
+  public ReadWriteLock getLock(PageStoreDir dir) {
+    return mDirLocks.getOrDefault(dir, mLock);
+  }
+
+  @Override
+  public boolean hasPage(PageId pageId) {
+    FileEntry entry = mFiles.get(pageId.getFileId());
+    return entry != null && entry.contains(pageId.getPageIndex());
+  }
+
+  @Override
+  @GuardedBy("getLock().writeLock()")
+  public void addPage(PageId pageId, PageInfo pageInfo) {
+    addPageInternal(pageId, pageInfo);
+    pageInfo.getLocalCacheDir().putPage(pageInfo);
+  }
+
+  @Override
+  @GuardedBy("getLock().writeLock()")
+  public void addTempPage(PageId pageId, PageInfo pageInfo) {
+    addPageInternal(pageId, pageInfo);
+    pageInfo.getLocalCacheDir().putTempPage(pageInfo);
+  }
+
+  private void addPageInternal(PageId pageId, PageInfo pageInfo) {
+    Preconditions.checkArgument(pageId.equals(pageInfo.getPageId()), "page id mismatch");
+    Preconditions.checkArgument(pageInfo.getPageSize() <= Integer.MAX_VALUE,
+        "page size %s is too large", pageInfo.getPageSize());
+    while (true) {
+      FileEntry entry = mFiles.computeIfAbsent(pageId.getFileId(),
+          fileId -> new FileEntry(pageInfo.getScope(), pageInfo.getLocalCacheDir()));
+      long previousSize = entry.put(pageId.getPageIndex(), (int) pageInfo.getPageSize(),
+          pageInfo.getCreatedTimestamp(), pageInfo.getScope(), pageInfo.getLocalCacheDir());
+      if (previousSize == FileEntry.REMOVED) {
+        // the entry was removed from the map after the last page of the file was removed
+        continue;
+      }
+      if (previousSize == FileEntry.ABSENT) {
+        mNumPages.incrementAndGet();
+        previousSize = 0;
+      }
+      long delta = pageInfo.getPageSize() - previousSize;
+      mBytes.addAndGet(delta);
+      Metrics.SPACE_USED.inc(delta);
+      return;
+    }
+  }
+
+  @Override
+  @GuardedBy("getLock().writeLock()")
+  public void commitFile(String fileId, String newFileId) throws PageNotFoundException {
+    FileEntry entry = mFiles.get(fileId);
+    if (entry == null || !entry.markRemoved()) {
+      throw new PageNotFoundException(
+          String.format("No Pages found for file %s when committing", fileId));
+    }
+    mFiles.remove(fileId, entry);
+    // moves the pages to the new file, replacing the pages it may already have at the same index
+    entry.forEach(fileId, pageInfo -> {
+      mNumPages.decrementAndGet();
+      mBytes.addAndGet(-pageInfo.getPageSize());
+      Metrics.SPACE_USED.dec(pageInfo.getPageSize());
+      PageId newPageId = new PageId(newFileId, pageInfo.getPageId().getPageIndex());
+      addPageInternal(newPageId, new PageInfo(newPageId, pageInfo.getPageSize(),
+          pageInfo.getScope(), pageInfo.getLocalCacheDir(), pageInfo.getCreatedTimestamp()));
+    });
+  }
+
+  @Override
+  public PageStoreDir getStoreDirOfFile(String fileId) throws FileDoesNotExistException {
+    FileEntry entry = mFiles.get(fileId);
+    PageStoreDir dir = entry == null ? null : entry.getDir();
+    if (dir == null) {
+      throw new FileDoesNotExistException(String.format("File %s does not exist in cache", fileId));
+    }
+    return dir;
+  }
+
+  @Override
+  public List<PageStoreDir> getStoreDirs() {
+    return mDirs;
+  }
+
+  @Override
+  public PageStoreDir allocate(String fileId, long fileLength) {
+    return mAllocator.allocate(fileId, fileLength);
+  }
+
+  @Override
+  public PageInfo getPageInfo(PageId pageId) throws PageNotFoundException {
+    PageInfo pageInfo = getPageInfoInternal(pageId);
+    if (pageInfo == null) {
+      throw new PageNotFoundException(String.format("Page %s could not be found", pageId));
+    }
+    pageInfo.getLocalCacheDir().getEvictor().updateOnGet(pageId);
+    return pageInfo;
+  }
+
+  @Nullable
+  private PageInfo getPageInfoInternal(PageId pageId) {
+    FileEntry entry = mFiles.get(pageId.getFileId());
+    return entry == null ? null : entry.get(pageId);
+  }
+
+  @Override
+  @GuardedBy("getLock().writeLock()")
+  public PageInfo removePage(PageId pageId, boolean isTemporary) throws PageNotFoundException {
+    FileEntry entry = mFiles.get(pageId.getFileId());
+    PageInfo pageInfo = entry == null ? null : entry.remove(pageId);
+    if (pageInfo == null) {
+      throw new PageNotFoundException(String.format("Page %s could not be found", pageId));
+    }
+    if (entry.markRemovedIfEmpty()) {
+      mFiles.remove(pageId.getFileId(), entry);
+    }
+    mNumPages.decrementAndGet();
+    mBytes.addAndGet(-pageInfo.getPageSize());
+    Metrics.SPACE_USED.dec(pageInfo.getPageSize());
+    if (isTemporary) {
+      pageInfo.getLocalCacheDir().deleteTempPage(pageInfo);
+    } else {
+      pageInfo.getLocalCacheDir().deletePage(pageInfo);
+    }
+    return pageInfo;
+  }
+
+  @Override
+  @GuardedBy("getLock().writeLock()")
+  public PageInfo removePage(PageId pageId) throws PageNotFoundException {
+    return removePage(pageId, false);
+  }
+
+  @Override
+  public long bytes() {
+    return mBytes.get();
+  }
+
+  @Override
+  public long numPages() {
+    return mNumPages.get();
+  }
+
+  @Override
+  @GuardedBy("getLock().writeLock()")
+  public void reset() {
+    mFiles.clear();
+    mNumPages.set(0);
+    mBytes.set(0);
+    Metrics.SPACE_USED.dec(Metrics.SPACE_USED.getCount());
+  }
+
+  @Override
+  @Nullable
+  @GuardedBy("getLock().writeLock()")
+  public PageInfo evict(CacheScope scope, PageStoreDir pageStoreDir) {
+    CacheEvictor evictor = pageStoreDir.getEvictor();
+    PageId victim = evictor.evict();
+    if (victim == null) {
+      return null;
+    }
+    PageInfo victimInfo = getPageInfoInternal(victim);
+    if (victimInfo == null) {
+      LOG.error("Invalid result returned by evictor: page {} not available", victim);
+      evictor.updateOnDelete(victim);
+      return null;
+    }
+    return victimInfo;
+  }
+
+  @Override
+  public Set<PageInfo> getAllPagesByFileId(String fileId) {
+    FileEntry entry = mFiles.get(fileId);
+    if (entry == null) {
+      return new HashSet<>();
+    }
+    Set<PageInfo> pages = new HashSet<>();
+    entry.forEach(fileId, pages::add);
+    return pages;
+  }
+
+  @Override
+  public Optional<CacheUsage> getUsage() {
+    return Optional.of(new Usage());
+  }
+
+  class Usage implements CacheUsage {
+
+    @Override
+    public long used() {
+      return bytes();
+    }
+
+    @Override
+    public long available() {
+      return capacity() - used();
+    }
+
+    @Override
+    public long capacity() {
+      return mDirs.stream().mapToLong(PageStoreDir::getCapacityBytes).sum();
+    }
+
+    @Override
+    public Optional<CacheUsage> partitionedBy(PartitionDescriptor<?> partition) {
+      if (partition instanceof FilePartition) {
+        String fileId = ((FilePartition) partition).getIdentifier();
+        FileEntry entry = mFiles.get(fileId);
+        long used = entry == null ? 0 : entry.bytes();
+        long capacity = capacity();
+        long available = capacity - bytes();
+        return Optional.of(new ImmutableCacheUsageView(used, available, capacity));
+      }
+      if (partition instanceof DirPartition) {
+        int dirIndex = ((DirPartition) partition).getIdentifier();
+        if (dirIndex < 0 || dirIndex >= mDirs.size()) {
+          return Optional.empty();
+        }
+        return mDirs.get(dirIndex).getUsage();
+      }
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * The pages of a file. Readers use optimistic reads, which do not block and only retry with a
+   * read lock when a writer modified the file concurrently.
+   */
+  private static final class FileEntry {
+    /** Returned by {@link #put} if the page was not cached. */
+    static final long ABSENT = -1;
+    /** Returned by {@link #put} if the entry was removed from the store. */
+    static final long REMOVED = -2;
+
+    private final StampedLock mLock = new StampedLock();
+    private Chunk[] mChunks = new Chunk[1];
+    private CacheScope mScope;
+    private PageStoreDir mDir;
+    private int mNumPages;
+    /** The number of pages not in the directory of the file. */
+    private int mNumPagesInOtherDirs;
+    private long mBytes;
+    private boolean mRemoved;
+
+    FileEntry(CacheScope scope, PageStoreDir dir) {
+      mScope = scope;
+      mDir = dir;
+    }
+
+    boolean contains(long pageIndex) {
+      long stamp = mLock.tryOptimisticRead();
+      boolean contains = containsInternal(pageIndex);
+      if (!mLock.validate(stamp)) {
+        stamp = mLock.readLock();
+        try {
+          contains = containsInternal(pageIndex);
+        } finally {
+          mLock.unlockRead(stamp);
+        }
+      }
+      return contains;
+    }
+
+    private boolean containsInternal(long pageIndex) {
+      Chunk chunk = getChunk(pageIndex);
+      return chunk != null && chunk.contains(offset(pageIndex));
+    }
+
+    @Nullable
+    PageInfo get(PageId pageId) {
+      long pageIndex = pageId.getPageIndex();
+      long stamp = mLock.tryOptimisticRead();
+      Chunk chunk = getChunk(pageIndex);
+      int offset = offset(pageIndex);
+      boolean contains = chunk != null && chunk.contains(offset);
+      // the arrays may be replaced by a concurrent writer, which the validation detects
+      int[] sizes = contains ? chunk.mSizes : null;
+      long[] createdTimes = contains ? chunk.mCreatedTimes : null;
+      contains = contains && offset < sizes.length && offset < createdTimes.length;
+      int size = contains ? sizes[offset] : 0;
+      long createdTime = contains ? createdTimes[offset] : 0;
+      CacheScope scope = mScope;
+      PageStoreDir dir = contains ? chunk.getDir(offset, mDir) : null;
+      if (!mLock.validate(stamp)) {
+        stamp = mLock.readLock();
+        try {
+          return getInternal(pageId);
+        } finally {
+          mLock.unlockRead(stamp);
+        }
+      }
+      return contains ? new PageInfo(pageId, size, scope, dir, createdTime) : null;
+    }
+
+    @Nullable
+    private PageInfo getInternal(PageId pageId) {
+      Chunk chunk = getChunk(pageId.getPageIndex());
+      int offset = offset(pageId.getPageIndex());
+      if (chunk == null || !chunk.contains(offset)) {
+        return null;
+      }
+      return new PageInfo(pageId, chunk.mSizes[offset], mScope, chunk.getDir(offset, mDir),
+          chunk.mCreatedTimes[offset]);
+    }
+
+    /**
+     * @return the size of the page that is replaced, {@link #ABSENT} if the page was not cached,
+     *         or {@link #REMOVED} if the entry was removed and the page must be added to a new one
+     */
+    long put(long pageIndex, int size, long createdTime, CacheScope scope, PageStoreDir dir) {
+      long stamp = mLock.writeLock();
+      try {
+        if (mRemoved) {
+          return REMOVED;
+        }
+        int chunkIndex = chunkIndex(pageIndex);
+        if (chunkIndex >= mChunks.length) {
+          mChunks = Arrays.copyOf(mChunks, Math.max(chunkIndex + 1, mChunks.length * 2));
+        }
+        Chunk chunk = mChunks[chunkIndex];
+        if (chunk == null) {
+          chunk = new Chunk();
+          mChunks[chunkIndex] = chunk;
+        }
+        int offset = offset(pageIndex);
+        long previousSize = ABSENT;
+        if (chunk.contains(offset)) {
+          previousSize = chunk.mSizes[offset];
+          if (chunk.getDir(offset, null) != null) {
+            mNumPagesInOtherDirs--;
+          }
+        } else {
+          mNumPages++;
+        }
+        if (mNumPages == 1) {
+          // the first page of the file decides the directory of the file
+          mDir = dir;
+        }
+        mScope = scope;
+        if (dir != mDir) {
+          mNumPagesInOtherDirs++;
+        }
+        chunk.set(offset, size, createdTime, dir == mDir ? null : dir);
+        mBytes += size - Math.max(previousSize, 0);
+        return previousSize;
+      } finally {
+        mLock.unlockWrite(stamp);
+      }
+    }
+
+    @Nullable
+    PageInfo remove(PageId pageId) {
+      long stamp = mLock.writeLock();
+      try {
+        PageInfo pageInfo = getInternal(pageId);
+        if (pageInfo == null) {
+          return null;
+        }
+        Chunk chunk = getChunk(pageId.getPageIndex());
+        if (pageInfo.getLocalCacheDir() != mDir) {
+          mNumPagesInOtherDirs--;
+        }
+        if (chunk.clear(offset(pageId.getPageIndex()))) {
+          mChunks[chunkIndex(pageId.getPageIndex())] = null;
+        }
+        mNumPages--;
+        mBytes -= pageInfo.getPageSize();
+        return pageInfo;
+      } finally {
+        mLock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * Marks the entry as removed if it is not already, after which no page can be added to it.
+     *
+     * @return whether the entry is marked by this call
+     */
+    boolean markRemoved() {
+      long stamp = mLock.writeLock();
+      try {
+        if (mRemoved) {
+          return false;
+        }
+        mRemoved = true;
+        return true;
+      } finally {
+        mLock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * Marks the entry as removed if it has no page left.
+     *
+     * @return whether the entry is marked by this call
+     */
+    boolean markRemovedIfEmpty() {
+      long stamp = mLock.writeLock();
+      try {
+        if (mRemoved || mNumPages > 0) {
+          return false;
+        }
+        mRemoved = true;
+        return true;
+      } finally {
+        mLock.unlockWrite(stamp);
+      }
+    }
+
+    long bytes() {
+      long stamp = mLock.readLock();
+      try {
+        return mBytes;
+      } finally {
+        mLock.unlockRead(stamp);
+      }
+    }
+
+    /**
+     * @return the directory of the file, which is the directory of any page of the file if none
+     *         is left in the directory of its first page, or null if the file has no page
+     */
+    @Nullable
+    PageStoreDir getDir() {
+      long stamp = mLock.readLock();
+      try {
+        if (mNumPages == 0) {
+          return null;
+        }
+        if (mNumPages > mNumPagesInOtherDirs) {
+          return mDir;
+        }
+        for (Chunk chunk : mChunks) {
+          PageStoreDir dir = chunk == null ? null : chunk.getAnyOtherDir();
+          if (dir != null) {
+            return dir;
+          }
+        }
+        return mDir;
+      } finally {
+        mLock.unlockRead(stamp);
+      }
+    }
+
+    void forEach(String fileId, Consumer<PageInfo> consumer) {
+      long stamp = mLock.readLock();
+      PageInfo[] pages = new PageInfo[mNumPages];
+      int i = 0;
+      try {
+        for (int chunkIndex = 0; chunkIndex < mChunks.length; chunkIndex++) {
+          Chunk chunk = mChunks[chunkIndex];
+          if (chunk == null) {
+            continue;
+          }
+          for (long bits = chunk.mBits; bits != 0; bits &= bits - 1) {
+            int offset = Long.numberOfTrailingZeros(bits);
+            PageId pageId = new PageId(fileId, ((long) chunkIndex << CHUNK_SHIFT) + offset);
+            pages[i++] = new PageInfo(pageId, chunk.mSizes[offset], mScope,
+                chunk.getDir(offset, mDir), chunk.mCreatedTimes[offset]);
+          }
+        }
+      } finally {
+        mLock.unlockRead(stamp);
+      }
+      // the consumer is called without the lock, as it may modify the store
+      for (PageInfo page : pages) {
+        consumer.accept(page);
+      }
+    }
+
+    @Nullable
+    private Chunk getChunk(long pageIndex) {
+      Chunk[] chunks = mChunks;
+      int chunkIndex = chunkIndex(pageIndex);
+      return chunkIndex < chunks.length ? chunks[chunkIndex] : null;
+    }
+
+    private static int chunkIndex(long pageIndex) {
+      Preconditions.checkArgument(pageIndex >= 0 && (pageIndex >>> CHUNK_SHIFT) < Integer.MAX_VALUE,
+          "invalid page index %s", pageIndex);
+      return (int) (pageIndex >>> CHUNK_SHIFT);
+    }
+
+    private static int offset(long pageIndex) {
+      return (int) (pageIndex & (CHUNK_SIZE - 1));
+    }
+  }
+
+  /**
+   * The pages of {@link #CHUNK_SIZE} consecutive page indexes of a file. The arrays are only as
+   * long as needed for the highest offset set, and grow by doubling.
+   */
+  private static final class Chunk {
+    private int[] mSizes = new int[1];
+    private long[] mCreatedTimes = new long[1];
+    /** The bitmap of the cached pages. */
+    private long mBits;
+    /** The directories of the pages that are not in the directory of the file, if any. */
+    @Nullable
+    private PageStoreDir[] mDirs;
+
+    boolean contains(int offset) {
+      return (mBits & (1L << offset)) != 0;
+    }
+
+    /**
+     * @return the directory of the page, or the given directory of the file if the page is in it
+     */
+    PageStoreDir getDir(int offset, PageStoreDir fileDir) {
+      PageStoreDir[] dirs = mDirs;
+      return dirs == null || offset >= dirs.length || dirs[offset] == null
+          ? fileDir : dirs[offset];
+    }
+
+    /**
+     * @return the directory of a page that is not in the directory of the file, or null
+     */
+    @Nullable
+    PageStoreDir getAnyOtherDir() {
+      if (mDirs == null) {
+        return null;
+      }
+      for (long bits = mBits; bits != 0; bits &= bits - 1) {
+        int offset = Long.numberOfTrailingZeros(bits);
+        if (offset < mDirs.length && mDirs[offset] != null) {
+          return mDirs[offset];
+        }
+      }
+      return null;
+    }
+
+    void set(int offset, int size, long createdTime, @Nullable PageStoreDir dir) {
+      if (offset >= mSizes.length) {
+        // the arrays are grown before the page is marked cached, for the optimistic readers
+        int length = Math.min(CHUNK_SIZE, Math.max(offset + 1, mSizes.length * 2));
+        mSizes = Arrays.copyOf(mSizes, length);
+        mCreatedTimes = Arrays.copyOf(mCreatedTimes, length);
+        if (mDirs != null) {
+          mDirs = Arrays.copyOf(mDirs, length);
+        }
+      }
+      mSizes[offset] = size;
+      mCreatedTimes[offset] = createdTime;
+      if (dir != null && mDirs == null) {
+        mDirs = new PageStoreDir[mSizes.length];
+      }
+      if (mDirs != null) {
+        mDirs[offset] = dir;
+      }
+      mBits |= 1L << offset;
+    }
+
+    /**
+     * @return whether the chunk is empty after clearing the page
+     */
+    boolean clear(int offset) {
+      mBits &= ~(1L << offset);
+      if (mDirs != null) {
+        mDirs[offset] = null;
+      }
+      return mBits == 0;
+    }
+  }
+
+  /**
+   * A read-write lock whose read lock does not block, since the store is thread safe on its own,
+   * and whose write lock is exclusive.
+   */
+  private static final class WriteOnlyReadWriteLock implements ReadWriteLock {
+    private final Lock mReadLock = new NoopLock();
+    private final Lock mWriteLock;
+
+    WriteOnlyReadWriteLock(Lock writeLock) {
+      mWriteLock = writeLock;
+    }
+
+    @Override
+    public Lock readLock() {
+      return mReadLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+      return mWriteLock;
+    }
+  }
+
+  /**
+   * A lock which holds all the given locks, taken in order and released in reverse order.
+   */
+  private static final class MultiLock implements Lock {
+    private final List<Lock> mLocks;
+
+    MultiLock(List<Lock> locks) {
+      mLocks = locks;
+    }
+
+    @Override
+    public void lock() {
+      for (Lock lock : mLocks) {
+        lock.lock();
+      }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+      int locked = 0;
+      try {
+        for (Lock lock : mLocks) {
+          lock.lockInterruptibly();
+          locked++;
+        }
+      } finally {
+        if (locked < mLocks.size()) {
+          unlock(locked);
+        }
+      }
+    }
+
+    @Override
+    public boolean tryLock() {
+      int locked = 0;
+      while (locked < mLocks.size() && mLocks.get(locked).tryLock()) {
+        locked++;
+      }
+      if (locked < mLocks.size()) {
+        unlock(locked);
+        return false;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(time);
+      int locked = 0;
+      try {
+        while (locked < mLocks.size() && mLocks.get(locked)
+            .tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+          locked++;
+        }
+      } finally {
+        if (locked < mLocks.size()) {
+          unlock(locked);
+        }
+      }
+      return locked == mLocks.size();
+    }
+
+    @Override
+    public void unlock() {
+      unlock(mLocks.size());
+    }
+
+    private void unlock(int count) {
+      for (int i = count - 1; i >= 0; i--) {
+        mLocks.get(i).unlock();
+      }
+    }
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException("newCondition is not supported");
+    }
+  }
+
+  private static final class NoopLock implements Lock {
+    @Override
+    public void lock() {}
+
+    @Override
+    public void lockInterruptibly() {}
+
+    @Override
+    public boolean tryLock() {
+      return true;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) {
+      return true;
+    }
+
+    @Override
+    public void unlock() {}
+
+    @Override
+    public Condition newCondition() {
+      throw new UnsupportedOperationException("newCondition is not supported");
+    }
+  }
+
+  private static final class Metrics {
+    // Note that only counter can be added here.
+    // Both meter and timer need to be used inline
+    // because new meter and timer will be created after {@link MetricsSystem.resetAllMetrics()}
+    /** Bytes used in the cache. */
+    private static final Counter SPACE_USED =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_SPACE_USED_COUNT.getName());
+  }
+}
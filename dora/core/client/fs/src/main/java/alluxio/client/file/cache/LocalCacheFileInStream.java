@@ -24,9 +24,11 @@ import alluxio.exception.AlluxioException;
 import alluxio.file.ByteArrayTargetBuffer;
 import alluxio.file.ByteBufferTargetBuffer;
 import alluxio.file.ReadTargetBuffer;
+import alluxio.metrics.MetricHandle;
 import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
 
+import com.codahale.metrics.Meter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
@@ -166,8 +168,7 @@ public class LocalCacheFileInStream extends FileInStream {
     mBufferEndOffset = position + bytesRead;
     int dataReadFromBuffer = Math.min(bytesRead, length);
     targetBuffer.writeBytes(mBuffer, 0, dataReadFromBuffer);
-    MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_READ_IN_STREAM_BUFFER.getName())
-        .mark(dataReadFromBuffer);
+    Metrics.BYTES_READ_IN_STREAM_BUFFER.get().mark(dataReadFromBuffer);
     return dataReadFromBuffer;
   }
 
@@ -193,7 +194,7 @@ public class LocalCacheFileInStream extends FileInStream {
         mCacheManager.get(pageId, currentPageOffset, bytesToReadInPage, bytesBuffer, mCacheContext);
     stopwatch.stop();
     if (bytesRead > 0) {
-      MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getName()).mark(bytesRead);
+      Metrics.BYTES_READ_CACHE.get().mark(bytesRead);
       if (cacheContext != null) {
         cacheContext.incrementCounter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getMetricName(), BYTE,
             bytesRead);
@@ -211,8 +212,7 @@ public class LocalCacheFileInStream extends FileInStream {
     if (page.length > 0) {
       bytesBuffer.writeBytes(page, currentPageOffset, bytesToReadInPage);
       // cache misses
-      MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_REQUESTED_EXTERNAL.getName())
-          .mark(bytesToReadInPage);
+      Metrics.BYTES_REQUESTED_EXTERNAL.get().mark(bytesToReadInPage);
       if (cacheContext != null) {
         cacheContext.incrementCounter(
             MetricKey.CLIENT_CACHE_BYTES_REQUESTED_EXTERNAL.getMetricName(), BYTE,
@@ -407,7 +407,7 @@ public class LocalCacheFileInStream extends FileInStream {
       totalBytesRead += bytesRead;
     }
     // Bytes read from external, may be larger than requests due to reading complete pages
-    MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_READ_EXTERNAL.getName()).mark(totalBytesRead);
+    Metrics.BYTES_READ_EXTERNAL.get().mark(totalBytesRead);
     if (totalBytesRead != pageSize) {
       throw new IOException("Failed to read complete page from external storage. Bytes read: "
           + totalBytesRead + " Page size: " + pageSize);
@@ -416,9 +416,28 @@ public class LocalCacheFileInStream extends FileInStream {
   }
 
   private static final class Metrics {
-    // Note that only counter/guage can be added here.
-    // Both meter and timer need to be used inline
+    // Note that meters and timers can only be added here as handles,
     // because new meter and timer will be created after {@link MetricsSystem.resetAllMetrics()}
+    /**
+     * Bytes read from the cache.
+     */
+    private static final MetricHandle<Meter> BYTES_READ_CACHE =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE);
+    /**
+     * Bytes requested on cache misses.
+     */
+    private static final MetricHandle<Meter> BYTES_REQUESTED_EXTERNAL =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_REQUESTED_EXTERNAL);
+    /**
+     * Bytes read from external storage on cache misses.
+     */
+    private static final MetricHandle<Meter> BYTES_READ_EXTERNAL =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_READ_EXTERNAL);
+    /**
+     * Bytes read from the in-stream buffer.
+     */
+    private static final MetricHandle<Meter> BYTES_READ_IN_STREAM_BUFFER =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_READ_IN_STREAM_BUFFER);
 
     private static void registerGauges() {
       // Cache hit rate = Cache hits / (Cache hits + Cache misses).
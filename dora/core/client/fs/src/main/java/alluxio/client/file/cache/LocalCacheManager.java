@@ -21,23 +21,28 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 import alluxio.client.file.CacheContext;
 import alluxio.client.file.cache.store.PageStoreDir;
+import alluxio.client.file.cache.store.PageStoreOptions;
 import alluxio.client.quota.CacheQuota;
 import alluxio.client.quota.CacheScope;
 import alluxio.collections.ConcurrentHashSet;
 import alluxio.collections.Pair;
 import alluxio.exception.FileDoesNotExistException;
 import alluxio.exception.PageNotFoundException;
+import alluxio.exception.runtime.CancelledRuntimeException;
 import alluxio.exception.status.ResourceExhaustedException;
 import alluxio.file.ByteArrayTargetBuffer;
 import alluxio.file.ReadTargetBuffer;
+import alluxio.metrics.MetricHandle;
 import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
 import alluxio.network.protocol.databuffer.DataFileChannel;
 import alluxio.resource.LockResource;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +53,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
@@ -55,6 +63,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -88,6 +98,9 @@ public class LocalCacheManager implements CacheManager {
   private static final Logger LOG = LoggerFactory.getLogger(LocalCacheManager.class);
 
   private static final int LOCK_SIZE = 1024;
+  /** The maximum time to wait for the page index tasks in progress when closing. */
+  private static final long PAGE_INDEX_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
   private final long mCacheSize;
   /**
    * A readwrite lock pool to guard individual pages based on striping.
@@ -104,9 +117,23 @@ public class LocalCacheManager implements CacheManager {
    * Executor service for execute the async cache tasks.
    */
   private final Optional<ExecutorService> mAsyncCacheExecutor;
+  /**
+   * Writer of the pages read on cache misses to the page store in the background.
+   */
+  private final Optional<WriteBehindPageWriter> mWriteBehindWriter;
   /** Executor service for execute the cache ttl check tasks. */
   private final Optional<ScheduledExecutorService> mTtlEnforcerExecutor;
+  /**
+   * Executor service for the validation of the pages restored from the page indexes of the dirs,
+   * and the checkpoints of the indexes.
+   */
+  private final Optional<ScheduledExecutorService> mPageIndexExecutor;
   private final ConcurrentHashSet<PageId> mPendingRequests;
+  /**
+   * Pages being read from external storage on cache misses, so that concurrent misses of the same
+   * page wait for a single external read instead of each issuing their own.
+   */
+  private final ConcurrentHashMap<PageId, CompletableFuture<byte[]>> mPendingExternalReads;
   /**
    * State of this cache.
    */
@@ -151,12 +178,19 @@ public class LocalCacheManager implements CacheManager {
       mPageLocks[i] = new ReentrantReadWriteLock(true /* fair ordering */);
     }
     mPendingRequests = new ConcurrentHashSet<>();
+    mPendingExternalReads = new ConcurrentHashMap<>();
     mAsyncCacheExecutor =
         options.isAsyncWriteEnabled()
             ? Optional.of(new ThreadPoolExecutor(mOptions.getAsyncWriteThreads(),
             mOptions.getAsyncWriteThreads(), 60, TimeUnit.SECONDS,
                 new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy()))
             : Optional.empty();
+    mWriteBehindWriter =
+        options.isWriteBehindEnabled()
+            ? Optional.of(new WriteBehindPageWriter(mPageStoreDirs, new WriteBehindCacheWriter(),
+            options.getWriteBehindQueueSize(), options.getWriteBehindOverflowPolicy(),
+            options.isWriteBehindSyncEnabled()))
+            : Optional.empty();
     mInitService =
         options.isAsyncRestoreEnabled() ? Optional.of(Executors.newSingleThreadExecutor()) :
             Optional.empty();
@@ -175,6 +209,9 @@ public class LocalCacheManager implements CacheManager {
     } else {
       mTtlEnforcerExecutor = Optional.empty();
     }
+    mPageIndexExecutor = options.getPageStoreOptions() != null
+        && options.getPageStoreOptions().stream().anyMatch(PageStoreOptions::isPageIndexEnabled)
+        ? Optional.of(newScheduledThreadPool(1)) : Optional.empty();
     Metrics.registerGauges(mCacheSize, mPageMetaStore);
     mState.set(READ_ONLY);
     Metrics.STATE.inc();
@@ -209,7 +246,7 @@ public class LocalCacheManager implements CacheManager {
         DataFileChannel dataFileChannel = pageInfo.getLocalCacheDir().getPageStore()
             .getDataFileChannel(pageInfo.getPageId(), pageOffset, bytesToRead,
                 cacheContext.isTemporary());
-        MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getName()).mark(bytesToRead);
+        Metrics.BYTES_READ_CACHE.get().mark(bytesToRead);
         cacheContext.incrementCounter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getMetricName(), BYTE,
             bytesToRead);
         LOG.debug("getDataChannel({},pageOffset={}) exits", pageId, pageOffset);
@@ -313,48 +350,65 @@ public class LocalCacheManager implements CacheManager {
 
   @Override
   public boolean put(PageId pageId, ByteBuffer page, CacheContext cacheContext) {
+    return put(pageId, page, cacheContext, () -> { });
+  }
+
+  @Override
+  public boolean put(PageId pageId, ByteBuffer page, CacheContext cacheContext,
+      Runnable onReleased) {
     LOG.debug("put({},{} bytes) enters", pageId, page.remaining());
-    if (mState.get() != READ_WRITE) {
-      Metrics.PUT_NOT_READY_ERRORS.inc();
-      Metrics.PUT_ERRORS.inc();
-      return false;
-    }
-    int originPosition = page.position();
-    if (!mOptions.isAsyncWriteEnabled()) {
-      boolean ok = putInternal(pageId, page, cacheContext);
-      LOG.debug("put({},{} bytes) exits: {}", pageId, page.position() - originPosition, ok);
-      if (!ok) {
+    // the page is released here unless it is handed to the asynchronous writer
+    boolean released = true;
+    try {
+      if (mState.get() != READ_WRITE) {
+        Metrics.PUT_NOT_READY_ERRORS.inc();
         Metrics.PUT_ERRORS.inc();
+        return false;
+      }
+      int originPosition = page.position();
+      if (!mOptions.isAsyncWriteEnabled()) {
+        boolean ok = putInternal(pageId, page, cacheContext);
+        LOG.debug("put({},{} bytes) exits: {}", pageId, page.position() - originPosition, ok);
+        if (!ok) {
+          Metrics.PUT_ERRORS.inc();
+        }
+        return ok;
       }
-      return ok;
-    }
 
-    if (!mPendingRequests.add(pageId)) { // already queued
-      return false;
-    }
-    try {
-      mAsyncCacheExecutor.get().submit(() -> {
-        try {
-          boolean ok = putInternal(pageId, page, cacheContext);
-          if (!ok) {
-            Metrics.PUT_ERRORS.inc();
+      if (!mPendingRequests.add(pageId)) { // already queued
+        return false;
+      }
+      try {
+        mAsyncCacheExecutor.get().submit(() -> {
+          try {
+            boolean ok = putInternal(pageId, page, cacheContext);
+            if (!ok) {
+              Metrics.PUT_ERRORS.inc();
+            }
+          } finally {
+            mPendingRequests.remove(pageId);
+            onReleased.run();
           }
-        } finally {
-          mPendingRequests.remove(pageId);
-        }
-      });
-    } catch (RejectedExecutionException e) { // queue is full, skip
-      // RejectedExecutionException may be thrown in extreme cases when the
-      // highly concurrent caching workloads. In these cases, return false
-      mPendingRequests.remove(pageId);
-      Metrics.PUT_ASYNC_REJECTION_ERRORS.inc();
-      Metrics.PUT_ERRORS.inc();
-      LOG.debug("put({},{} bytes) fails due to full queue", pageId,
+        });
+        released = false;
+      } catch (RejectedExecutionException e) { // queue is full, skip
+        // RejectedExecutionException may be thrown in extreme cases when the
+        // highly concurrent caching workloads. In these cases, return false
+        mPendingRequests.remove(pageId);
+        Metrics.PUT_ASYNC_REJECTION_ERRORS.inc();
+        Metrics.PUT_ERRORS.inc();
+        LOG.debug("put({},{} bytes) fails due to full queue", pageId,
+            page.position() - originPosition);
+        return false;
+      }
+      LOG.debug("put({},{} bytes) exits with async write", pageId,
           page.position() - originPosition);
-      return false;
+      return true;
+    } finally {
+      if (released) {
+        onReleased.run();
+      }
     }
-    LOG.debug("put({},{} bytes) exits with async write", pageId, page.position() - originPosition);
-    return true;
   }
 
   private boolean putInternal(PageId pageId, ByteBuffer page, CacheContext cacheContext) {
@@ -420,13 +474,15 @@ public class LocalCacheManager implements CacheManager {
     ReadWriteLock pageLock = getPageLock(pageId);
     PageStoreDir pageStoreDir;
     try (LockResource r = new LockResource(pageLock.writeLock())) {
-      try (LockResource r2 = new LockResource(mPageMetaStore.getLock().writeLock())) {
+      // the pages of a file are allocated to the same directory, so only that one is locked
+      pageStoreDir = mPageMetaStore.allocate(pageId.getFileId(), page.remaining());
+      try (LockResource r2 =
+          new LockResource(mPageMetaStore.getLock(pageStoreDir).writeLock())) {
         if (mPageMetaStore.hasPage(pageId)) {
           LOG.debug("{} is already inserted before", pageId);
           // TODO(binfan): we should return more informative result in the future
           return PutResult.OK;
         }
-        pageStoreDir = mPageMetaStore.allocate(pageId.getFileId(), page.remaining());
         scopeToEvict = checkScopeToEvict(page.remaining(), pageStoreDir,
             cacheContext.getCacheScope(),
             cacheContext.getCacheQuota(), forcedToEvict);
@@ -452,8 +508,7 @@ public class LocalCacheManager implements CacheManager {
           int bytesToWrite = page.remaining();
           pageStoreDir.getPageStore().put(pageId, page, cacheContext.isTemporary());
           // Bytes written to the cache
-          MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_WRITTEN_CACHE.getName())
-              .mark(bytesToWrite);
+          Metrics.BYTES_WRITTEN_CACHE.get().mark(bytesToWrite);
           return PutResult.OK;
         } catch (ResourceExhaustedException e) {
           undoAddPage(pageId);
@@ -476,7 +531,8 @@ public class LocalCacheManager implements CacheManager {
       // Excise a two-phase commit to evict victim and add new page:
       // phase1: remove victim and add new page in metastore in a critical section protected by
       // metalock. Evictor will be updated inside metastore.
-      try (LockResource r3 = new LockResource(mPageMetaStore.getLock().writeLock())) {
+      try (LockResource r3 =
+          new LockResource(mPageMetaStore.getLock(pageStoreDir).writeLock())) {
         if (mPageMetaStore.hasPage(pageId)) {
           return PutResult.OK;
         }
@@ -500,10 +556,9 @@ public class LocalCacheManager implements CacheManager {
       try {
         pageStoreDir.getPageStore().delete(victim);
         // Bytes evicted from the cache
-        MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_EVICTED.getName())
-            .mark(victimPageInfo.getPageSize());
+        Metrics.BYTES_EVICTED.get().mark(victimPageInfo.getPageSize());
         // Errors when adding pages
-        MetricsSystem.meter(MetricKey.CLIENT_CACHE_PAGES_EVICTED.getName()).mark();
+        Metrics.PAGES_EVICTED.get().mark();
       } catch (IOException | PageNotFoundException e) {
         if (scopeToEvict == null) {
           // Failed to evict page, remove new page from metastore as there will not be enough space
@@ -524,8 +579,7 @@ public class LocalCacheManager implements CacheManager {
         int bytesToWrite = page.remaining();
         pageStoreDir.getPageStore().put(pageId, page, cacheContext.isTemporary());
         // Bytes written to the cache
-        MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_WRITTEN_CACHE.getName())
-            .mark(bytesToWrite);
+        Metrics.BYTES_WRITTEN_CACHE.get().mark(bytesToWrite);
         return PutResult.OK;
       } catch (ResourceExhaustedException e) {
         undoAddPage(pageId);
@@ -603,7 +657,7 @@ public class LocalCacheManager implements CacheManager {
         pageInfo = mPageMetaStore.getPageInfo(pageId); //check if page exists and refresh LRU items
       } catch (PageNotFoundException e) {
         LOG.debug("get({},pageOffset={}) fails due to page not found", pageId, pageOffset);
-        return 0;
+        return getWriteBehindPage(pageId, pageOffset, bytesToRead, buffer, cacheContext);
       }
       int bytesRead =
           getPage(pageInfo, pageOffset, bytesToRead, buffer, cacheContext);
@@ -619,7 +673,7 @@ public class LocalCacheManager implements CacheManager {
         }
         return -1;
       }
-      MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getName()).mark(bytesRead);
+      Metrics.BYTES_READ_CACHE.get().mark(bytesRead);
       cacheContext.incrementCounter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getMetricName(), BYTE,
           bytesRead);
       LOG.debug("get({},pageOffset={}) exits", pageId, pageOffset);
@@ -631,6 +685,25 @@ public class LocalCacheManager implements CacheManager {
     }
   }
 
+  /**
+   * Reads a page which is not in the cache yet, but queued to be written by write-behind.
+   *
+   * @return number of bytes read, 0 if the page is not queued
+   */
+  private int getWriteBehindPage(PageId pageId, int pageOffset, int bytesToRead,
+      ReadTargetBuffer buffer, CacheContext cacheContext) {
+    if (!mWriteBehindWriter.isPresent()) {
+      return 0;
+    }
+    int bytesRead = mWriteBehindWriter.get().read(pageId, pageOffset, bytesToRead, buffer);
+    if (bytesRead > 0) {
+      Metrics.BYTES_READ_CACHE.get().mark(bytesRead);
+      cacheContext.incrementCounter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getMetricName(), BYTE,
+          bytesRead);
+    }
+    return bytesRead;
+  }
+
   @Override
   public int getAndLoad(PageId pageId, int pageOffset, int bytesToRead, ReadTargetBuffer buffer,
                         CacheContext cacheContext, Supplier<byte[]> externalDataSupplier) {
@@ -641,28 +714,110 @@ public class LocalCacheManager implements CacheManager {
     }
     // on local cache miss, read a complete page from external storage. This will always make
     // progress or throw an exception
-    // Note that we cannot synchronize on the new page, as this will cause deadlock due to
-    // incompatible lock order within putAttempt
-    // Not synchronizing may cause the same page to be read multiple times from UFS by two or more
-    // concurrent requests,
-    // but this is acceptable, and is expected to be rare as long as the number of striping locks
-    // is big enough
     long startTime = System.nanoTime();
-    byte[] page = externalDataSupplier.get();
+    byte[] page = readExternalPage(pageId, cacheContext, externalDataSupplier);
     long timeElapse = System.nanoTime() - startTime;
     buffer.writeBytes(page, pageOffset, bytesToRead);
-    MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_REQUESTED_EXTERNAL.getName())
-        .mark(bytesToRead);
+    Metrics.BYTES_REQUESTED_EXTERNAL.get().mark(bytesToRead);
     cacheContext.incrementCounter(
         MetricKey.CLIENT_CACHE_BYTES_REQUESTED_EXTERNAL.getMetricName(), BYTE,
         bytesToRead);
     cacheContext.incrementCounter(
         MetricKey.CLIENT_CACHE_PAGE_READ_EXTERNAL_TIME_NS.getMetricName(), NANO,
         timeElapse);
-    put(pageId, page, cacheContext);
     return bytesToRead;
   }
 
+  /**
+   * Reads a complete page from external storage and adds it to the cache. When miss coalescing
+   * is enabled, only the first of concurrent callers missing the same page invokes the supplier;
+   * the others wait for and share its result, or its failure. A caller which waits longer than
+   * the coalescing timeout reads the page itself.
+   * Note that we cannot synchronize on the page lock here, as this will cause deadlock due to
+   * incompatible lock order within putAttempt.
+   *
+   * @param pageId page identifier
+   * @param cacheContext cache related context
+   * @param externalDataSupplier the supplier reading the page from external storage
+   * @return the page content
+   */
+  private byte[] readExternalPage(PageId pageId, CacheContext cacheContext,
+      Supplier<byte[]> externalDataSupplier) {
+    if (!mOptions.isMissCoalescingEnabled()) {
+      Metrics.EXTERNAL_READS.inc();
+      byte[] page = externalDataSupplier.get();
+      cachePage(pageId, page, cacheContext);
+      return page;
+    }
+    CompletableFuture<byte[]> pendingRead = new CompletableFuture<>();
+    CompletableFuture<byte[]> existingRead =
+        mPendingExternalReads.putIfAbsent(pageId, pendingRead);
+    if (existingRead != null) {
+      LOG.debug("getAndLoad({}) waits for an in-flight external read", pageId);
+      try {
+        byte[] page =
+            existingRead.get(mOptions.getMissCoalescingTimeoutMs(), TimeUnit.MILLISECONDS);
+        Metrics.EXTERNAL_READS_COALESCED.inc();
+        return page;
+      } catch (ExecutionException e) {
+        Metrics.EXTERNAL_READS_COALESCED.inc();
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new RuntimeException(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancelledRuntimeException(
+            String.format("Interrupted while waiting for the read of page %s", pageId), e);
+      } catch (TimeoutException e) {
+        LOG.debug("getAndLoad({}) timed out waiting for an in-flight external read", pageId);
+        Metrics.EXTERNAL_READS.inc();
+        byte[] page = externalDataSupplier.get();
+        // the read waited for may still fail, so the page is cached by this read as well
+        cachePage(pageId, page, cacheContext);
+        return page;
+      }
+    }
+    try {
+      Metrics.EXTERNAL_READS.inc();
+      byte[] page;
+      try {
+        page = externalDataSupplier.get();
+      } catch (Throwable t) {
+        pendingRead.completeExceptionally(t);
+        throw t;
+      }
+      // hand the page to the waiting readers before caching it, and keep the pending read
+      // visible until the page is in the cache so late readers do not issue another read
+      pendingRead.complete(page);
+      cachePage(pageId, page, cacheContext);
+      return page;
+    } finally {
+      mPendingExternalReads.remove(pageId, pendingRead);
+    }
+  }
+
+  /**
+   * Adds a page read from external storage to the cache, in the background if write-behind is
+   * enabled.
+   *
+   * @param pageId page identifier
+   * @param page page data, which is not modified afterwards
+   * @param cacheContext cache related context
+   */
+  private void cachePage(PageId pageId, byte[] page, CacheContext cacheContext) {
+    if (!mWriteBehindWriter.isPresent()) {
+      put(pageId, page, cacheContext);
+      return;
+    }
+    if (mState.get() != READ_WRITE) {
+      Metrics.PUT_NOT_READY_ERRORS.inc();
+      Metrics.PUT_ERRORS.inc();
+      return;
+    }
+    // the queue is chosen by the directory the page would be allocated to now
+    PageStoreDir pageStoreDir = mPageMetaStore.allocate(pageId.getFileId(), page.length);
+    mWriteBehindWriter.get().write(pageId, page, cacheContext, pageStoreDir);
+  }
+
   /**
    * delete the specified page.
    *
@@ -676,6 +831,16 @@ public class LocalCacheManager implements CacheManager {
       Metrics.DELETE_ERRORS.inc();
       return false;
     }
+    mWriteBehindWriter.ifPresent(writer -> writer.cancel(pageId));
+    return deleteInternal(pageId, isTemporary);
+  }
+
+  @Override
+  public boolean delete(PageId pageId) {
+    return delete(pageId, false);
+  }
+
+  private boolean deleteInternal(PageId pageId, boolean isTemporary) {
     ReadWriteLock pageLock = getPageLock(pageId);
     try (LockResource r = new LockResource(pageLock.writeLock())) {
       PageInfo pageInfo;
@@ -699,11 +864,6 @@ public class LocalCacheManager implements CacheManager {
     }
   }
 
-  @Override
-  public boolean delete(PageId pageId) {
-    return delete(pageId, false);
-  }
-
   @Override
   public State state() {
     return mState.get();
@@ -756,6 +916,15 @@ public class LocalCacheManager implements CacheManager {
     LOG.info("Cache is in READ_WRITE.");
     mState.set(READ_WRITE);
     Metrics.STATE.inc();
+    mPageIndexExecutor.ifPresent(executor -> {
+      executor.submit(this::validateRestoredPages);
+      if (mOptions.getPageIndexCheckpointIntervalMs() > 0) {
+        executor.scheduleWithFixedDelay(this::checkpointPageIndexes, 0,
+            mOptions.getPageIndexCheckpointIntervalMs(), TimeUnit.MILLISECONDS);
+      } else {
+        executor.submit(this::checkpointPageIndexes);
+      }
+    });
   }
 
   private boolean restore(PageStoreDir pageStoreDir) {
@@ -763,6 +932,7 @@ public class LocalCacheManager implements CacheManager {
     long restoredBytes = mPageMetaStore.bytes();
     long discardPages = Metrics.PAGE_DISCARDED.getCount();
     long discardBytes = Metrics.BYTE_DISCARDED.getCount();
+    long startTimeMs = System.currentTimeMillis();
     LOG.info("Restoring PageStoreDir ({})", pageStoreDir.getRootPath());
 
     if (!Files.exists(pageStoreDir.getRootPath())) {
@@ -770,32 +940,103 @@ public class LocalCacheManager implements CacheManager {
           pageStoreDir.getRootPath());
       return false;
     }
+    boolean restoredFromIndex;
     try {
-      pageStoreDir.scanPages(pageInfo -> {
-        if (pageInfo.isPresent()) {
-          addPageToDir(pageStoreDir, pageInfo.get());
-        }
-      });
+      restoredFromIndex = pageStoreDir.restoreFromIndex(
+          pageInfo -> addPageToDir(pageStoreDir, pageInfo));
+      if (!restoredFromIndex) {
+        pageStoreDir.scanPages(pageInfo -> {
+          if (pageInfo.isPresent()) {
+            addPageToDir(pageStoreDir, pageInfo.get());
+          }
+        });
+      }
     } catch (IOException | RuntimeException e) {
       LOG.error("Failed to restore PageStore", e);
       return false;
     }
-    LOG.info("PageStore ({}) restored with {} pages ({} bytes), "
+    long durationMs = System.currentTimeMillis() - startTimeMs;
+    Metrics.RESTORE_DURATION_MS.inc(durationMs);
+    LOG.info("PageStore ({}) restored with {} pages ({} bytes) {} in {} ms, "
             + "discarded {} pages ({} bytes)",
         pageStoreDir.getRootPath(), mPageMetaStore.numPages() - restoredPages,
-        mPageMetaStore.bytes() - restoredBytes, Metrics.PAGE_DISCARDED.getCount() - discardPages,
+        mPageMetaStore.bytes() - restoredBytes,
+        restoredFromIndex ? "from its page index" : "by scanning the pages", durationMs,
+        Metrics.PAGE_DISCARDED.getCount() - discardPages,
         Metrics.BYTE_DISCARDED.getCount() - discardBytes);
     return true;
   }
 
+  /**
+   * Checks the pages restored from the page indexes of the dirs against the page files, while
+   * the cache is in use. Pages with a page file but missed by an index are added, and restored
+   * pages whose page file is missing or of a different size are removed. Pages whose page file
+   * is removed after it is checked are removed when they fail to be read.
+   */
+  private void validateRestoredPages() {
+    for (PageStoreDir pageStoreDir : mPageStoreDirs) {
+      AtomicLong orphanPages = new AtomicLong();
+      long invalidPages = Metrics.PAGES_INVALIDATED_ON_RESTORE.getCount();
+      try {
+        pageStoreDir.validateRestoredPages(pageInfo -> {
+          orphanPages.incrementAndGet();
+          addPageToDir(pageStoreDir, pageInfo);
+        }, this::removeInvalidPage);
+      } catch (IOException | RuntimeException e) {
+        LOG.error("Failed to validate the pages restored to {}", pageStoreDir.getRootPath(), e);
+        continue;
+      }
+      LOG.info("Validated the pages restored to {}: found {} pages missing from the page index, "
+              + "removed {} invalid pages", pageStoreDir.getRootPath(), orphanPages.get(),
+          Metrics.PAGES_INVALIDATED_ON_RESTORE.getCount() - invalidPages);
+    }
+  }
+
+  private void removeInvalidPage(PageInfo pageInfo) {
+    PageId pageId = pageInfo.getPageId();
+    try (LockResource r = new LockResource(getPageLock(pageId).writeLock())) {
+      try (LockResource r2 = new LockResource(mPageMetaStore.getLock().writeLock())) {
+        if (!mPageMetaStore.hasPage(pageId)) {
+          return;
+        }
+        mPageMetaStore.removePage(pageId);
+      } catch (PageNotFoundException e) {
+        return;
+      }
+      try {
+        pageInfo.getLocalCacheDir().getPageStore().delete(pageId);
+      } catch (PageNotFoundException e) {
+        // the page file is missing
+      } catch (IOException e) {
+        LOG.warn("Failed to delete invalid page {}", pageId, e);
+      }
+    }
+    Metrics.PAGES_INVALIDATED_ON_RESTORE.inc();
+  }
+
+  private void checkpointPageIndexes() {
+    for (PageStoreDir pageStoreDir : mPageStoreDirs) {
+      try {
+        pageStoreDir.checkpointIndex();
+      } catch (IOException | RuntimeException e) {
+        LOG.warn("Failed to checkpoint the page index of {}", pageStoreDir.getRootPath(), e);
+      }
+    }
+  }
+
   private void addPageToDir(PageStoreDir pageStoreDir, PageInfo pageInfo) {
     PageId pageId = pageInfo.getPageId();
     ReadWriteLock pageLock = getPageLock(pageId);
     try (LockResource r = new LockResource(pageLock.writeLock())) {
       boolean enoughSpace;
-      try (LockResource r2 = new LockResource(mPageMetaStore.getLock().writeLock())) {
+      try (LockResource r2 =
+          new LockResource(mPageMetaStore.getLock(pageStoreDir).writeLock())) {
         enoughSpace = pageStoreDir.getCachedBytes() + pageInfo.getPageSize()
             <= pageStoreDir.getCapacityBytes();
+        if (mPageMetaStore.hasPage(pageId)) {
+          // put since the page file was found, when validating the restored pages
+          return;
+        }
         if (enoughSpace) {
           mPageMetaStore.addPage(pageId, pageInfo);
         }
@@ -812,6 +1053,16 @@ public class LocalCacheManager implements CacheManager {
     }
   }
 
+  @Override
+  public boolean hasPage(PageId pageId) {
+    if (mState.get() == NOT_IN_USE) {
+      return false;
+    }
+    try (LockResource r = new LockResource(mPageMetaStore.getLock().readLock())) {
+      return mPageMetaStore.hasPage(pageId);
+    }
+  }
+
   @Override
   public List<PageId> getCachedPageIdsByFileId(String fileId, long fileLength) {
     //ceiling round the result
@@ -830,6 +1081,7 @@ public class LocalCacheManager implements CacheManager {
 
   @Override
   public void deleteFile(String fileId) {
+    mWriteBehindWriter.ifPresent(writer -> writer.cancelFile(fileId));
     Set<PageInfo> pages;
     try (LockResource r = new LockResource(mPageMetaStore.getLock().readLock())) {
       pages = mPageMetaStore.getAllPagesByFileId(fileId);
@@ -839,6 +1091,7 @@ public class LocalCacheManager implements CacheManager {
 
   @Override
   public void deleteTempFile(String fileId) {
+    mWriteBehindWriter.ifPresent(writer -> writer.cancelFile(fileId));
     Set<PageInfo> pages;
     try (LockResource r = new LockResource(mPageMetaStore.getLock().readLock())) {
       pages = mPageMetaStore.getAllPagesByFileId(fileId);
@@ -863,6 +1116,22 @@ public class LocalCacheManager implements CacheManager {
 
   @Override
   public void close() throws Exception {
+    mWriteBehindWriter.ifPresent(WriteBehindPageWriter::close);
+    mPageIndexExecutor.ifPresent(executor -> {
+      executor.shutdownNow();
+      // the dirs are closed below, so a checkpoint or validation in progress must be done first
+      try {
+        if (!executor.awaitTermination(PAGE_INDEX_SHUTDOWN_TIMEOUT_SECONDS, SECONDS)) {
+          LOG.warn("The page index tasks did not terminate in {} seconds",
+              PAGE_INDEX_SHUTDOWN_TIMEOUT_SECONDS);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    if (mState.get() == READ_WRITE) {
+      checkpointPageIndexes();
+    }
     for (PageStoreDir pageStoreDir : mPageStoreDirs) {
       pageStoreDir.close();
     }
@@ -914,6 +1183,31 @@ public class LocalCacheManager implements CacheManager {
     return Optional.of(new Usage());
   }
 
+  /**
+   * Writes the pages queued by write-behind to the cache.
+   */
+  private final class WriteBehindCacheWriter implements WriteBehindPageWriter.PageWriter {
+    @Override
+    public boolean write(PageId pageId, ByteBuffer page, CacheContext cacheContext) {
+      if (mState.get() != READ_WRITE) {
+        Metrics.PUT_NOT_READY_ERRORS.inc();
+        Metrics.PUT_ERRORS.inc();
+        return false;
+      }
+      boolean ok = putInternal(pageId, page, cacheContext);
+      if (!ok) {
+        Metrics.PUT_ERRORS.inc();
+      }
+      return ok;
+    }
+
+    @Override
+    public void delete(PageId pageId, CacheContext cacheContext) {
+      // the queued page of the same id, if any, is newer and stays queued
+      deleteInternal(pageId, cacheContext.isTemporary());
+    }
+  }
+
   private final class Usage implements CacheUsage {
     @Override
     public long used() {
@@ -946,14 +1240,48 @@ public class LocalCacheManager implements CacheManager {
   }
 
   private static final class Metrics {
-    // Note that only counter/guage can be added here.
-    // Both meter and timer need to be used inline
+    // Note that meters and timers can only be added here as handles,
     // because new meter and timer will be created after {@link MetricsSystem.resetAllMetrics()}
+    /**
+     * Bytes read from the cache.
+     */
+    private static final MetricHandle<Meter> BYTES_READ_CACHE =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE);
+    /**
+     * Bytes written to the cache.
+     */
+    private static final MetricHandle<Meter> BYTES_WRITTEN_CACHE =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_WRITTEN_CACHE);
+    /**
+     * Bytes evicted from the cache.
+     */
+    private static final MetricHandle<Meter> BYTES_EVICTED =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_EVICTED);
+    /**
+     * Pages evicted from the cache.
+     */
+    private static final MetricHandle<Meter> PAGES_EVICTED =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_PAGES_EVICTED);
+    /**
+     * Bytes requested on cache misses.
+     */
+    private static final MetricHandle<Meter> BYTES_REQUESTED_EXTERNAL =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_REQUESTED_EXTERNAL);
     /**
      * Total number of bytes discarded when restoring the page store.
      */
     private static final Counter BYTE_DISCARDED =
         MetricsSystem.counter(MetricKey.CLIENT_CACHE_BYTES_DISCARDED.getName());
+    /**
+     * Total number of page reads issued to external storage on cache misses.
+     */
+    private static final Counter EXTERNAL_READS =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_EXTERNAL_READS.getName());
+    /**
+     * Total number of cache misses served by an in-flight external read of the same page.
+     */
+    private static final Counter EXTERNAL_READS_COALESCED =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_EXTERNAL_READS_COALESCED.getName());
     /**
      * Errors when cleaning up a failed get operation.
      */
@@ -1004,6 +1332,17 @@ public class LocalCacheManager implements CacheManager {
      */
     private static final Counter PAGE_DISCARDED =
         MetricsSystem.counter(MetricKey.CLIENT_CACHE_PAGES_DISCARDED.getName());
+    /**
+     * Pages restored from the page indexes and removed, as their page files are missing or of a
+     * different size.
+     */
+    private static final Counter PAGES_INVALIDATED_ON_RESTORE =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_PAGES_INVALIDATED_ON_RESTORE.getName());
+    /**
+     * Total time taken to restore the page store dirs, in milliseconds.
+     */
+    private static final Counter RESTORE_DURATION_MS =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_RESTORE_DURATION_MS.getName());
     /**
      * Errors when adding pages.
      */
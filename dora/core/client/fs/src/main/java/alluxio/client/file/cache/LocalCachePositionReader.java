@@ -21,19 +21,32 @@ import alluxio.conf.PropertyKey;
 import alluxio.exception.PageNotFoundException;
 import alluxio.exception.runtime.AlluxioRuntimeException;
 import alluxio.exception.runtime.FailedPreconditionRuntimeException;
+import alluxio.file.ByteBufferTargetBuffer;
 import alluxio.file.FileId;
+import alluxio.file.FileRange;
 import alluxio.file.ReadTargetBuffer;
+import alluxio.metrics.MetricHandle;
 import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
 import alluxio.network.protocol.databuffer.DataFileChannel;
 
+import com.codahale.metrics.Meter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Ticker;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -58,6 +71,10 @@ public class LocalCachePositionReader implements PositionReader {
    * External position reader to read data from source and cache.
    */
   private final CloseableSupplier<PositionReader> mFallbackReader;
+  /**
+   * Max number of consecutive missing pages read from the fallback reader in one request.
+   */
+  private final long mMaxExternalReadPages;
   private final FileId mFileId;
   private final long mFileSize;
   private volatile boolean mClosed;
@@ -82,7 +99,25 @@ public class LocalCachePositionReader implements PositionReader {
         ? new AlluxioURI(status.getUfsPath()).hash() :
         Long.toString(status.getFileId());
     return LocalCachePositionReader.create(cacheManager, fallbackReader,
-        FileId.of(fileId), status.getLength(), pageSize, cacheContext);
+        FileId.of(fileId), status.getLength(), pageSize,
+        conf.getBytes(PropertyKey.USER_CLIENT_CACHE_EXTERNAL_READ_MAX_SIZE), cacheContext);
+  }
+
+  /**
+   * @param cacheManager
+   * @param fallbackReader
+   * @param fileId
+   * @param fileSize
+   * @param pageSize
+   * @param cacheContext
+   * @return LocalCachePositionReader
+   */
+  public static LocalCachePositionReader create(CacheManager cacheManager,
+                                                CloseableSupplier<PositionReader> fallbackReader,
+                                                FileId fileId, long fileSize, long pageSize,
+                                                CacheContext cacheContext) {
+    return create(cacheManager, fallbackReader, fileId, fileSize, pageSize, pageSize,
+        cacheContext);
   }
 
   /**
@@ -91,22 +126,29 @@ public class LocalCachePositionReader implements PositionReader {
    * @param fileId
    * @param fileSize
    * @param pageSize
+   * @param maxExternalReadSize max bytes to read from the fallback reader in one request when
+   *                            consecutive pages are missing from the cache
    * @param cacheContext
    * @return LocalCachePositionReader
    */
   public static LocalCachePositionReader create(CacheManager cacheManager,
                                                 CloseableSupplier<PositionReader> fallbackReader,
                                                 FileId fileId, long fileSize, long pageSize,
+                                                long maxExternalReadSize,
                                                 CacheContext cacheContext) {
     return new LocalCachePositionReader(cacheManager, fallbackReader,
-        fileId, fileSize, pageSize, cacheContext);
+        fileId, fileSize, pageSize, maxExternalReadSize, cacheContext);
   }
 
   private LocalCachePositionReader(CacheManager cacheManager,
                                    CloseableSupplier<PositionReader> fallbackReader, FileId fileId,
-                                   long fileSize, long pageSize, CacheContext context) {
+                                   long fileSize, long pageSize, long maxExternalReadSize,
+                                   CacheContext context) {
     mCacheManager = Preconditions.checkNotNull(cacheManager);
     mFallbackReader = Preconditions.checkNotNull(fallbackReader);
+    // the pages read together fit in one array
+    mMaxExternalReadPages =
+        Math.max(1, Math.min(maxExternalReadSize, Integer.MAX_VALUE) / pageSize);
     mFileId = fileId;
     mFileSize = fileSize;
     mPageSize = pageSize;
@@ -116,6 +158,12 @@ public class LocalCachePositionReader implements PositionReader {
   @Override
   public int readInternal(long position, ReadTargetBuffer buffer, int length)
       throws IOException {
+    // pages read from the fallback reader ahead of their turn, as part of a multi-page read
+    return readInternal(position, buffer, length, new HashMap<>());
+  }
+
+  private int readInternal(long position, ReadTargetBuffer buffer, int length,
+      Map<Long, byte[]> externalPages) throws IOException {
     Preconditions.checkArgument(!mClosed, "position reader is closed");
     if (position >= mFileSize) { // at end of file
       return -1;
@@ -123,11 +171,12 @@ public class LocalCachePositionReader implements PositionReader {
     Stopwatch stopwatch = createUnstartedStopwatch();
     int totalBytesRead = 0;
     long lengthToRead = Math.min(length, mFileSize - position);
+    long endPosition = position + lengthToRead;
     // used in positionedRead, so make stopwatch a local variable rather than class member
     // for each page, check if it is available in the cache
     while (totalBytesRead < lengthToRead) {
       int bytesRead = localCachedRead(buffer,
-          (int) (lengthToRead - totalBytesRead), position, stopwatch);
+          (int) (lengthToRead - totalBytesRead), position, endPosition, externalPages, stopwatch);
       if (bytesRead <= 0) {
         break;
       }
@@ -143,6 +192,45 @@ public class LocalCachePositionReader implements PositionReader {
     return totalBytesRead;
   }
 
+  /**
+   * Reads the ranges from the cache. The pages of all the ranges which are missing from the cache
+   * are read from the fallback reader first, in a single vectored read of the runs of consecutive
+   * missing pages, and put into the cache as the ranges are read.
+   */
+  @Override
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    Preconditions.checkArgument(!mClosed, "position reader is closed");
+    FileRange.checkWithinFile(ranges, mFileSize);
+    TreeSet<Long> missingPages = new TreeSet<>();
+    for (FileRange range : ranges) {
+      if (range.getLength() == 0) {
+        continue;
+      }
+      for (long page = range.getOffset() / mPageSize; page <= (range.getEnd() - 1) / mPageSize;
+           page++) {
+        if (!mCacheManager.hasPage(getPageId(page))) {
+          missingPages.add(page);
+        }
+      }
+    }
+    Map<Long, byte[]> externalPages = readExternalPages(missingPages);
+    List<ByteBuffer> buffers = new ArrayList<>(ranges.size());
+    for (FileRange range : ranges) {
+      ByteBuffer buffer = allocate.apply(range.getLength());
+      if (range.getLength() > 0) {
+        int bytesRead = readInternal(range.getOffset(), new ByteBufferTargetBuffer(buffer),
+            range.getLength(), externalPages);
+        if (bytesRead != range.getLength()) {
+          throw new EOFException(String.format("Read %d bytes of range %s", bytesRead, range));
+        }
+      }
+      buffer.flip();
+      buffers.add(buffer);
+    }
+    return buffers;
+  }
+
   @Override
   public synchronized void close() throws IOException {
     if (mClosed) {
@@ -160,13 +248,7 @@ public class LocalCachePositionReader implements PositionReader {
    * @return an object of {@link DataFileChannel}
    */
   public Optional<DataFileChannel> getDataFileChannel(long position, int length) {
-    long currentPage = position / mPageSize;
-    PageId pageId;
-    if (mCacheContext.getCacheIdentifier() != null) {
-      pageId = new PageId(mCacheContext.getCacheIdentifier(), currentPage);
-    } else {
-      pageId = new PageId(mFileId.toString(), currentPage);
-    }
+    PageId pageId = getPageId(position / mPageSize);
     int currentPageOffset = (int) (position % mPageSize);
     int bytesLeftInPage = (int) (mPageSize - currentPageOffset);
     int bytesToReadInPage = Math.min(bytesLeftInPage, length);
@@ -180,31 +262,121 @@ public class LocalCachePositionReader implements PositionReader {
   }
 
   private int localCachedRead(ReadTargetBuffer bytesBuffer, int length,
-                              long position, Stopwatch stopwatch) {
+                              long position, long endPosition, Map<Long, byte[]> externalPages,
+                              Stopwatch stopwatch) {
     long currentPage = position / mPageSize;
-    PageId pageId;
-    if (mCacheContext.getCacheIdentifier() != null) {
-      pageId = new PageId(mCacheContext.getCacheIdentifier(), currentPage);
-    } else {
-      pageId = new PageId(mFileId.toString(), currentPage);
-    }
+    PageId pageId = getPageId(currentPage);
     int currentPageOffset = (int) (position % mPageSize);
     int bytesLeftInPage = (int) (mPageSize - currentPageOffset);
     int bytesToReadInPage = Math.min(bytesLeftInPage, length);
     return mCacheManager.getAndLoad(pageId, currentPageOffset, bytesToReadInPage,
-        bytesBuffer, mCacheContext, () -> readExternalPage(position));
+        bytesBuffer, mCacheContext,
+        () -> loadExternalPage(currentPage, endPosition, externalPages));
   }
 
-  private byte[] readExternalPage(long position) {
-    long pageStart = position - (position % mPageSize);
-    int pageSize = (int) Math.min(mPageSize, mFileSize - pageStart);
-    byte[] page = new byte[pageSize];
+  private PageId getPageId(long pageIndex) {
+    if (mCacheContext.getCacheIdentifier() != null) {
+      return new PageId(mCacheContext.getCacheIdentifier(), pageIndex);
+    }
+    return new PageId(mFileId.toString(), pageIndex);
+  }
+
+  /**
+   * Loads a page missing from the cache. If the following pages up to the end of the requested
+   * range are missing as well, they are read together with this page in a single request to the
+   * fallback reader, bounded by {@link #mMaxExternalReadPages}, and kept in externalPages until
+   * the read reaches them.
+   *
+   * @param pageIndex index of the page to load
+   * @param endPosition end position (exclusive) of the requested range
+   * @param externalPages pages read ahead from the fallback reader, by page index
+   * @return the content of the page
+   */
+  private byte[] loadExternalPage(long pageIndex, long endPosition,
+      Map<Long, byte[]> externalPages) {
+    byte[] page = externalPages.remove(pageIndex);
+    if (page != null) {
+      return page;
+    }
+    long lastPage = Math.min(pageIndex + mMaxExternalReadPages, (endPosition - 1) / mPageSize + 1)
+        - 1;
+    long endPage = pageIndex + 1;
+    while (endPage <= lastPage && !mCacheManager.hasPage(getPageId(endPage))) {
+      endPage++;
+    }
+    long start = pageIndex * mPageSize;
+    byte[] pages = readExternal(start, getLength(pageIndex, endPage));
+    if (endPage == pageIndex + 1) {
+      return pages;
+    }
+    for (long index = pageIndex + 1; index < endPage; index++) {
+      int offset = (int) ((index - pageIndex) * mPageSize);
+      externalPages.put(index,
+          Arrays.copyOfRange(pages, offset, (int) Math.min(offset + mPageSize, pages.length)));
+    }
+    return Arrays.copyOf(pages, (int) mPageSize);
+  }
+
+  /**
+   * Reads the given pages from the fallback reader, each run of consecutive pages in one range of
+   * a vectored read, bounded by {@link #mMaxExternalReadPages}.
+   *
+   * @param pages the indexes of the pages
+   * @return the content of the pages, by page index
+   */
+  private Map<Long, byte[]> readExternalPages(TreeSet<Long> pages) throws IOException {
+    Map<Long, byte[]> externalPages = new HashMap<>();
+    if (pages.isEmpty()) {
+      return externalPages;
+    }
+    List<FileRange> runs = new ArrayList<>();
+    long runStart = -1;
+    long runEnd = -1;
+    for (long page : pages) {
+      if (page != runEnd || runEnd - runStart >= mMaxExternalReadPages) {
+        if (runStart >= 0) {
+          runs.add(pageRange(runStart, runEnd));
+        }
+        runStart = page;
+      }
+      runEnd = page + 1;
+    }
+    runs.add(pageRange(runStart, runEnd));
+    List<ByteBuffer> data = mFallbackReader.get().readVectored(runs, ByteBuffer::allocate);
+    long bytesRead = 0;
+    for (int i = 0; i < runs.size(); i++) {
+      ByteBuffer run = data.get(i);
+      bytesRead += run.remaining();
+      for (long page = runs.get(i).getOffset() / mPageSize; run.hasRemaining(); page++) {
+        byte[] content = new byte[(int) Math.min(mPageSize, run.remaining())];
+        run.get(content);
+        externalPages.put(page, content);
+      }
+    }
+    Metrics.BYTES_READ_EXTERNAL.get().mark(bytesRead);
+    return externalPages;
+  }
+
+  private FileRange pageRange(long startPage, long endPage) {
+    return new FileRange(startPage * mPageSize, getLength(startPage, endPage));
+  }
+
+  /**
+   * @return the length of the pages from the start page to the end page (exclusive), up to the
+   *         end of the file
+   */
+  private int getLength(long startPage, long endPage) {
+    return Math.toIntExact(Math.min(endPage * mPageSize, mFileSize) - startPage * mPageSize);
+  }
+
+  private byte[] readExternal(long start, int length) {
+    byte[] data = new byte[length];
     int totalBytesRead = 0;
     int bytesRead;
-    while (totalBytesRead < pageSize) {
+    while (totalBytesRead < length) {
       try {
         bytesRead = mFallbackReader.get()
-            .read(pageStart + totalBytesRead, page, totalBytesRead, pageSize - totalBytesRead);
+            .read(start + totalBytesRead, data, totalBytesRead, length - totalBytesRead);
       } catch (IOException e) {
         throw AlluxioRuntimeException.from(e);
       }
@@ -214,13 +386,13 @@ public class LocalCachePositionReader implements PositionReader {
       totalBytesRead += bytesRead;
     }
     // Bytes read from external, may be larger than requests due to reading complete pages
-    MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_READ_EXTERNAL.getName()).mark(totalBytesRead);
-    if (totalBytesRead != pageSize) {
+    Metrics.BYTES_READ_EXTERNAL.get().mark(totalBytesRead);
+    if (totalBytesRead != length) {
       throw new FailedPreconditionRuntimeException(
-          "Failed to read complete page from external storage. Bytes read: "
-              + totalBytesRead + " Page size: " + pageSize);
+          "Failed to read complete pages from external storage. Bytes read: "
+              + totalBytesRead + " Bytes expected: " + length);
     }
-    return page;
+    return data;
   }
 
   @VisibleForTesting
@@ -253,4 +425,12 @@ public class LocalCachePositionReader implements PositionReader {
           return 0;
         });
   }
+
+  private static final class Metrics {
+    /**
+     * Bytes read from external storage on cache misses.
+     */
+    private static final MetricHandle<Meter> BYTES_READ_EXTERNAL =
+        MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_READ_EXTERNAL);
+  }
 }
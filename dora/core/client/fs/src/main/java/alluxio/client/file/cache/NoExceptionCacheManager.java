@@ -73,6 +73,18 @@ public class NoExceptionCacheManager implements CacheManager {
     }
   }
 
+  @Override
+  public boolean put(PageId pageId, ByteBuffer page, CacheContext cacheContext,
+      Runnable onReleased) {
+    try {
+      return mCacheManager.put(pageId, page, cacheContext, onReleased);
+    } catch (Exception e) {
+      LOG.error("Failed to put page {}, cacheContext {}", pageId, cacheContext, e);
+      Metrics.PUT_ERRORS.inc();
+      return false;
+    }
+  }
+
   @Override
   public int get(PageId pageId, int pageOffset, ReadTargetBuffer buffer,
                  CacheContext cacheContext) {
@@ -198,6 +210,16 @@ public class NoExceptionCacheManager implements CacheManager {
     }
   }
 
+  @Override
+  public boolean hasPage(PageId pageId) {
+    try {
+      return mCacheManager.hasPage(pageId);
+    } catch (Exception e) {
+      LOG.error("Failed to check page {}", pageId, e);
+      return false;
+    }
+  }
+
   @Override
   public List<PageId> getCachedPageIdsByFileId(String fileId, long fileLength) {
     return mCacheManager.getCachedPageIdsByFileId(fileId, fileLength);
@@ -226,6 +248,11 @@ public class NoExceptionCacheManager implements CacheManager {
     return mCacheManager.getUsage();
   }
 
+  @Override
+  public Optional<CacheQuotaAdvisor> getQuotaAdvisor() {
+    return mCacheManager.getQuotaAdvisor();
+  }
+
   private static final class Metrics {
     // Note that only counter/guage can be added here.
     // Both meter and timer need to be used inline
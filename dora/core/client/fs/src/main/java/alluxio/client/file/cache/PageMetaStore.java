@@ -35,6 +35,9 @@ public interface PageMetaStore extends CacheStatus {
     if (options.isQuotaEnabled()) {
       return new QuotaPageMetaStore(options.getCacheEvictorOptions(), dirs);
     }
+    if (options.isConcurrentMetaStoreEnabled()) {
+      return new ConcurrentPageMetaStore(dirs);
+    }
     return new DefaultPageMetaStore(dirs);
   }
 
@@ -43,6 +46,17 @@ public interface PageMetaStore extends CacheStatus {
    */
   ReadWriteLock getLock();
 
+  /**
+   * Gets the lock of the pages in a directory. The write lock guards the operations which must
+   * see a consistent state of the directory, e.g. checking its space and adding a page to it.
+   *
+   * @param dir the directory
+   * @return the lock of the directory, the lock of the store unless it locks directories apart
+   */
+  default ReadWriteLock getLock(PageStoreDir dir) {
+    return getLock();
+  }
+
   /**
    * @param pageId page identifier
    * @return if a page is stored in cache
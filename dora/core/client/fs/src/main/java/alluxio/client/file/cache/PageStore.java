@@ -15,6 +15,7 @@ import alluxio.client.file.cache.store.LocalPageStore;
 import alluxio.client.file.cache.store.MemoryPageStore;
 import alluxio.client.file.cache.store.PageStoreOptions;
 import alluxio.client.file.cache.store.RocksPageStore;
+import alluxio.client.file.cache.store.SegmentPageStore;
 import alluxio.exception.PageNotFoundException;
 import alluxio.exception.status.ResourceExhaustedException;
 import alluxio.file.ReadTargetBuffer;
@@ -28,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 
 /**
  * A simple abstraction on the storage to put, get and delete pages. The implementation of this
@@ -55,6 +57,9 @@ public interface PageStore extends AutoCloseable {
       case MEM:
         pageStore = new MemoryPageStore((int) options.getPageSize());
         break;
+      case SEGMENT:
+        pageStore = SegmentPageStore.open(options);
+        break;
       default:
         throw new IllegalArgumentException(
             "Incompatible PageStore " + options.getType() + " specified");
@@ -216,6 +221,17 @@ public interface PageStore extends AutoCloseable {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Forces pages put to this store to the storage device, along with the entries of the
+   * directories holding them. Forcing a group of pages at once lets the device merge their writes,
+   * and forces each directory once for the group.
+   *
+   * @param pageIds the pages to force
+   * @param isTemporary whether the pages are temporary
+   */
+  default void sync(Collection<PageId> pageIds, boolean isTemporary) throws IOException {
+  }
+
   /**
    * Get a {@link DataFileChannel} which wraps a {@link io.netty.channel.FileRegion}.
    * @param pageId the page id
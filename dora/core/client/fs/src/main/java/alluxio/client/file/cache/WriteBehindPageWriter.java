@@ -0,0 +1,365 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.store.PageStoreDir;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+import alluxio.resource.LockResource;
+import alluxio.util.ThreadFactoryUtils;
+
+import com.codahale.metrics.Counter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Writes pages read on cache misses to the page store in the background, so that readers do not
+ * wait for the page store.
+ *
+ * Each cache directory has a queue bounded in bytes and a thread which writes the queued pages in
+ * batches, and optionally forces each batch to the storage device at once. When a queue is full,
+ * the {@link WriteBehindOverflowPolicy} decides whether the page is dropped, the reader waits, or
+ * the reader writes the page itself. Pages are readable from the queue until they are written.
+ */
+@ThreadSafe
+final class WriteBehindPageWriter implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBehindPageWriter.class);
+  private static final int MAX_BATCH_PAGES = 64;
+  private static final long CLOSE_TIMEOUT_MS = 5000;
+
+  /**
+   * Writes a page to the cache.
+   */
+  interface PageWriter {
+    /**
+     * @param pageId page identifier
+     * @param page page data
+     * @param cacheContext cache related context
+     * @return true if the page is written
+     */
+    boolean write(PageId pageId, ByteBuffer page, CacheContext cacheContext);
+
+    /**
+     * Deletes a page written while it was cancelled, without cancelling the queued pages.
+     *
+     * @param pageId page identifier
+     * @param cacheContext cache related context
+     */
+    void delete(PageId pageId, CacheContext cacheContext);
+  }
+
+  private final List<PageStoreDir> mPageStoreDirs;
+  private final PageWriter mPageWriter;
+  private final long mQueueSizeBytes;
+  private final WriteBehindOverflowPolicy mOverflowPolicy;
+  private final boolean mSyncEnabled;
+  private final DirQueue[] mQueues;
+  private final ExecutorService mExecutor;
+  /** The queued pages, until they are written to the cache. */
+  private final ConcurrentHashMap<PageId, PendingPage> mPendingPages = new ConcurrentHashMap<>();
+  private final AtomicLong mPendingBytes = new AtomicLong();
+  private volatile boolean mClosed;
+
+  /**
+   * @param pageStoreDirs the cache directories
+   * @param pageWriter writes the pages to the cache
+   * @param queueSizeBytes the maximum size of the queued pages of each directory
+   * @param overflowPolicy what to do with a page when the queue of its directory is full
+   * @param syncEnabled whether to force each batch to the storage device
+   */
+  WriteBehindPageWriter(List<PageStoreDir> pageStoreDirs, PageWriter pageWriter,
+      long queueSizeBytes, WriteBehindOverflowPolicy overflowPolicy, boolean syncEnabled) {
+    mPageStoreDirs = pageStoreDirs;
+    mPageWriter = pageWriter;
+    mQueueSizeBytes = queueSizeBytes;
+    mOverflowPolicy = overflowPolicy;
+    mSyncEnabled = syncEnabled;
+    mQueues = new DirQueue[pageStoreDirs.size()];
+    mExecutor = Executors.newFixedThreadPool(pageStoreDirs.size(),
+        ThreadFactoryUtils.build("cache-write-behind-%d", true));
+    for (int i = 0; i < mQueues.length; i++) {
+      mQueues[i] = new DirQueue(pageStoreDirs.get(i));
+      mExecutor.submit(mQueues[i]::run);
+    }
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.CLIENT_CACHE_WRITE_BEHIND_PENDING_PAGES.getName()),
+        mPendingPages::size);
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.CLIENT_CACHE_WRITE_BEHIND_PENDING_BYTES.getName()),
+        mPendingBytes::get);
+  }
+
+  /**
+   * Queues a page to be written to a cache directory. The page must not be modified afterwards.
+   *
+   * @param pageId page identifier
+   * @param page page data
+   * @param cacheContext cache related context
+   * @param dir the cache directory the page is likely allocated to
+   * @return false if the page is dropped or failed to be written
+   */
+  boolean write(PageId pageId, byte[] page, CacheContext cacheContext, PageStoreDir dir) {
+    PendingPage pendingPage = new PendingPage(pageId, page, cacheContext);
+    if (mClosed || mPendingPages.putIfAbsent(pageId, pendingPage) != null) {
+      return false;
+    }
+    int index = mPageStoreDirs.indexOf(dir);
+    DirQueue queue = mQueues[Math.max(index, 0)];
+    if (queue.offer(pendingPage)) {
+      return true;
+    }
+    mPendingPages.remove(pageId, pendingPage);
+    if (mOverflowPolicy == WriteBehindOverflowPolicy.CALLER_RUNS && !mClosed) {
+      Metrics.CALLER_RUNS_PAGES.inc();
+      return mPageWriter.write(pageId, ByteBuffer.wrap(page), cacheContext);
+    }
+    Metrics.DROPPED_PAGES.inc();
+    return false;
+  }
+
+  /**
+   * Reads a page which is queued to be written.
+   *
+   * @param pageId page identifier
+   * @param pageOffset offset into the page
+   * @param bytesToRead number of bytes to read in this page
+   * @param buffer destination buffer to write
+   * @return number of bytes read, 0 if the page is not queued
+   */
+  int read(PageId pageId, int pageOffset, int bytesToRead, ReadTargetBuffer buffer) {
+    PendingPage pendingPage = mPendingPages.get(pageId);
+    if (pendingPage == null || pageOffset >= pendingPage.mPage.length) {
+      return 0;
+    }
+    int bytesRead = Math.min(bytesToRead, pendingPage.mPage.length - pageOffset);
+    buffer.writeBytes(pendingPage.mPage, pageOffset, bytesRead);
+    return bytesRead;
+  }
+
+  /**
+   * Stops a queued page from being written.
+   *
+   * @param pageId page identifier
+   */
+  void cancel(PageId pageId) {
+    mPendingPages.remove(pageId);
+  }
+
+  /**
+   * Stops the queued pages of a file from being written.
+   *
+   * @param fileId the file ID
+   */
+  void cancelFile(String fileId) {
+    mPendingPages.keySet().removeIf(pageId -> pageId.getFileId().equals(fileId));
+  }
+
+  /**
+   * @return the number of queued pages
+   */
+  int size() {
+    return mPendingPages.size();
+  }
+
+  @Override
+  public void close() {
+    mClosed = true;
+    for (DirQueue queue : mQueues) {
+      queue.close();
+    }
+    mExecutor.shutdown();
+    try {
+      // lets the batches being written complete, the queued pages are dropped
+      if (!mExecutor.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        mExecutor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      mExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    mPendingPages.clear();
+  }
+
+  /**
+   * A page queued to be written.
+   */
+  private static final class PendingPage {
+    private final PageId mPageId;
+    private final byte[] mPage;
+    private final CacheContext mCacheContext;
+
+    PendingPage(PageId pageId, byte[] page, CacheContext cacheContext) {
+      mPageId = pageId;
+      mPage = page;
+      mCacheContext = cacheContext;
+    }
+  }
+
+  /**
+   * The queue of the pages of a cache directory, and the loop writing them.
+   */
+  private final class DirQueue {
+    private final PageStoreDir mDir;
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final Condition mNotEmpty = mLock.newCondition();
+    private final Condition mNotFull = mLock.newCondition();
+    @GuardedBy("mLock")
+    private final ArrayDeque<PendingPage> mQueue = new ArrayDeque<>();
+    /** The size of the queued pages, including the batch being written. */
+    @GuardedBy("mLock")
+    private long mBytes;
+    @GuardedBy("mLock")
+    private boolean mClosed;
+
+    DirQueue(PageStoreDir dir) {
+      mDir = dir;
+    }
+
+    /**
+     * @return false if the queue is full and the page is to be handled by the overflow policy
+     */
+    boolean offer(PendingPage page) {
+      int length = page.mPage.length;
+      try (LockResource r = new LockResource(mLock)) {
+        // a page larger than the queue is accepted when the queue is empty
+        while (!mClosed && mBytes > 0 && mBytes + length > mQueueSizeBytes) {
+          if (mOverflowPolicy != WriteBehindOverflowPolicy.BLOCK) {
+            return false;
+          }
+          Metrics.BLOCKED_PAGES.inc();
+          try {
+            mNotFull.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+        }
+        if (mClosed) {
+          return false;
+        }
+        mQueue.add(page);
+        mBytes += length;
+        mPendingBytes.addAndGet(length);
+        mNotEmpty.signal();
+        return true;
+      }
+    }
+
+    void run() {
+      List<PendingPage> batch = new ArrayList<>(MAX_BATCH_PAGES);
+      while (true) {
+        try (LockResource r = new LockResource(mLock)) {
+          while (mQueue.isEmpty() && !mClosed) {
+            mNotEmpty.await();
+          }
+          if (mClosed) {
+            return;
+          }
+          while (!mQueue.isEmpty() && batch.size() < MAX_BATCH_PAGES) {
+            batch.add(mQueue.poll());
+          }
+        } catch (InterruptedException e) {
+          return;
+        }
+        long batchBytes = writeBatch(batch);
+        try (LockResource r = new LockResource(mLock)) {
+          mBytes -= batchBytes;
+          mPendingBytes.addAndGet(-batchBytes);
+          mNotFull.signalAll();
+        }
+        batch.clear();
+      }
+    }
+
+    /**
+     * @return the size of the pages in the batch
+     */
+    private long writeBatch(List<PendingPage> batch) {
+      long batchBytes = 0;
+      List<PageId> written = new ArrayList<>();
+      List<PageId> writtenTemporary = new ArrayList<>();
+      for (PendingPage page : batch) {
+        batchBytes += page.mPage.length;
+        // skips the pages cancelled while queued
+        if (mPendingPages.get(page.mPageId) != page
+            || !mPageWriter.write(page.mPageId, ByteBuffer.wrap(page.mPage), page.mCacheContext)) {
+          continue;
+        }
+        // a page is cancelled before it is deleted from the cache, so a page cancelled while it
+        // was written may have been written after it was deleted, and is deleted again here
+        if (mPendingPages.get(page.mPageId) != page) {
+          mPageWriter.delete(page.mPageId, page.mCacheContext);
+          continue;
+        }
+        if (mSyncEnabled) {
+          (page.mCacheContext.isTemporary() ? writtenTemporary : written).add(page.mPageId);
+        }
+      }
+      try {
+        if (!written.isEmpty()) {
+          mDir.getPageStore().sync(written, false);
+        }
+        if (!writtenTemporary.isEmpty()) {
+          mDir.getPageStore().sync(writtenTemporary, true);
+        }
+      } catch (IOException e) {
+        LOG.warn("Failed to sync {} pages to {}", written.size() + writtenTemporary.size(),
+            mDir.getRootPath(), e);
+      }
+      // the pages stay readable from the queue until they are readable from the cache
+      for (PendingPage page : batch) {
+        mPendingPages.remove(page.mPageId, page);
+      }
+      return batchBytes;
+    }
+
+    void close() {
+      try (LockResource r = new LockResource(mLock)) {
+        mClosed = true;
+        mPendingBytes.addAndGet(-mQueue.stream().mapToLong(page -> page.mPage.length).sum());
+        mQueue.clear();
+        mNotEmpty.signalAll();
+        mNotFull.signalAll();
+      }
+    }
+  }
+
+  private static final class Metrics {
+    // Note that only counter can be added here.
+    // Both meter and timer need to be used inline
+    // because new meter and timer will be created after {@link MetricsSystem.resetAllMetrics()}
+    private static final Counter DROPPED_PAGES =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_WRITE_BEHIND_DROPPED_PAGES.getName());
+    private static final Counter BLOCKED_PAGES =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_WRITE_BEHIND_BLOCKED_PAGES.getName());
+    private static final Counter CALLER_RUNS_PAGES =
+        MetricsSystem.counter(MetricKey.CLIENT_CACHE_WRITE_BEHIND_CALLER_RUNS_PAGES.getName());
+  }
+}
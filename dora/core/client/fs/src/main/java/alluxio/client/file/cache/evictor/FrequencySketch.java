@@ -0,0 +1,137 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache.evictor;
+
+import java.util.Arrays;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A count-min sketch estimating the popularity of pages with 4-bit counters, used as the
+ * admission filter of {@link TinyLFUCacheEvictor}.
+ *
+ * Each item is counted in 4 counters, and its frequency is the minimum of them. Once the number
+ * of increments reaches 10 times the capacity, all counters are halved, so that the popularity of
+ * pages that are no longer accessed decays over time.
+ */
+@NotThreadSafe
+final class FrequencySketch {
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_FREQUENCY = 15;
+  private static final int SAMPLE_FACTOR = 10;
+
+  private long[] mTable = new long[0];
+  private int mTableMask;
+  private int mSampleSize;
+  private int mSize;
+
+  /**
+   * Resizes the sketch so that it counts the given number of items accurately. Growing the sketch
+   * forgets the counted frequencies.
+   *
+   * @param capacity the number of items to count
+   */
+  void ensureCapacity(long capacity) {
+    int maximum = (int) Math.min(Math.max(capacity, 1), Integer.MAX_VALUE >>> 1);
+    if (mTable.length >= maximum) {
+      return;
+    }
+    int length = 1;
+    while (length < maximum) {
+      length <<= 1;
+    }
+    mTable = new long[length];
+    mTableMask = length - 1;
+    mSampleSize = (int) Math.min((long) SAMPLE_FACTOR * maximum, Integer.MAX_VALUE);
+    mSize = 0;
+  }
+
+  /**
+   * @param hash the hash of the item
+   * @return the estimated number of occurrences of the item, up to 15
+   */
+  int frequency(int hash) {
+    if (mTable.length == 0) {
+      return 0;
+    }
+    int spread = spread(hash);
+    int start = (spread & 3) << 2;
+    int frequency = MAX_FREQUENCY;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(spread, i);
+      int count = (int) ((mTable[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Increments the popularity of an item, unless it is already at the maximum.
+   *
+   * @param hash the hash of the item
+   */
+  void increment(int hash) {
+    if (mTable.length == 0) {
+      return;
+    }
+    int spread = spread(hash);
+    int start = (spread & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(spread, i), start + i);
+    }
+    if (added && ++mSize == mSampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * Forgets all the counted frequencies.
+   */
+  void clear() {
+    Arrays.fill(mTable, 0L);
+    mSize = 0;
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((mTable[index] & mask) != mask) {
+      mTable[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /** Halves every counter. */
+  private void reset() {
+    int count = 0;
+    for (int i = 0; i < mTable.length; i++) {
+      count += Long.bitCount(mTable[i] & 0x1111111111111111L);
+      mTable[i] = (mTable[i] >>> 1) & RESET_MASK;
+    }
+    mSize = (mSize >>> 1) - (count >>> 2);
+  }
+
+  private int indexOf(int item, int i) {
+    long hash = (item + SEEDS[i]) * SEEDS[i];
+    hash += hash >>> 32;
+    return ((int) hash) & mTableMask;
+  }
+
+  private static int spread(int hash) {
+    int x = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
@@ -0,0 +1,376 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache.evictor;
+
+import alluxio.client.file.cache.PageId;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * W-TinyLFU client-side cache eviction policy, which keeps frequently accessed pages cached
+ * through scans of pages that are accessed only once.
+ *
+ * New pages enter a small admission window. When a page has to be evicted and the window is over
+ * its share of the cache, the oldest page of the window competes with the victim of the main
+ * region, and the one which is less popular according to a {@link FrequencySketch} is evicted.
+ * The main region is split into a probation segment, for pages admitted from the window, and a
+ * protected segment, for pages accessed again while on probation. Each segment is a CLOCK: an
+ * access only sets the reference bit of a page, and a referenced page gets a second chance
+ * instead of being evicted.
+ *
+ * Accesses to cached pages do not take the lock of the evictor. They set the reference bit, and
+ * are recorded in lossy striped buffers which are drained into the sketch by whichever thread
+ * gets the lock next.
+ */
+@ThreadSafe
+public class TinyLFUCacheEvictor implements CacheEvictor {
+  /** The share of the pages in the admission window. */
+  private static final double WINDOW_RATIO = 0.01;
+  /** The share of the pages of the main region in the protected segment. */
+  private static final double PROTECTED_RATIO = 0.8;
+  private static final int BUFFER_SIZE = 128;
+  private static final int BUFFER_MASK = BUFFER_SIZE - 1;
+  private static final int NUM_BUFFERS =
+      ceilingPowerOfTwo(4 * Runtime.getRuntime().availableProcessors());
+
+  private final ConcurrentHashMap<PageId, Node> mNodes = new ConcurrentHashMap<>();
+  private final ReadBuffer[] mReadBuffers = new ReadBuffer[NUM_BUFFERS];
+  private final ReentrantLock mLock = new ReentrantLock();
+  @GuardedBy("mLock")
+  private final FrequencySketch mSketch = new FrequencySketch();
+  @GuardedBy("mLock")
+  private final Clock mWindow = new Clock();
+  @GuardedBy("mLock")
+  private final Clock mProbation = new Clock();
+  @GuardedBy("mLock")
+  private final Clock mProtected = new Clock();
+
+  /**
+   * Required constructor.
+   *
+   * @param options
+   */
+  public TinyLFUCacheEvictor(CacheEvictorOptions options) {
+    for (int i = 0; i < NUM_BUFFERS; i++) {
+      mReadBuffers[i] = new ReadBuffer();
+    }
+  }
+
+  @Override
+  public void updateOnGet(PageId pageId) {
+    Node node = mNodes.get(pageId);
+    if (node == null) {
+      updateOnPut(pageId);
+      return;
+    }
+    if (!node.mReferenced) {
+      // avoids writing to the cache line of a hot page that is already referenced
+      node.mReferenced = true;
+    }
+    ReadBuffer buffer = mReadBuffers[(int) Thread.currentThread().getId() & (NUM_BUFFERS - 1)];
+    if (!buffer.offer(node) && !mLock.isLocked() && mLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        mLock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void updateOnPut(PageId pageId) {
+    mLock.lock();
+    try {
+      drainReadBuffers();
+      mSketch.increment(pageId.hashCode());
+      Node node = mNodes.get(pageId);
+      if (node != null) {
+        node.mReferenced = true;
+        return;
+      }
+      node = new Node(pageId);
+      mNodes.put(pageId, node);
+      mWindow.addLast(node);
+      mSketch.ensureCapacity(mNodes.size());
+    } finally {
+      mLock.unlock();
+    }
+  }
+
+  @Override
+  public void updateOnDelete(PageId pageId) {
+    mLock.lock();
+    try {
+      Node node = mNodes.remove(pageId);
+      if (node != null) {
+        node.mClock.remove(node);
+      }
+    } finally {
+      mLock.unlock();
+    }
+  }
+
+  @Nullable
+  @Override
+  public PageId evict() {
+    mLock.lock();
+    try {
+      drainReadBuffers();
+      int windowSize = (int) Math.max(1, mNodes.size() * WINDOW_RATIO);
+      if (mProbation.size() + mProtected.size() == 0) {
+        // the main region is empty, so pages leave the window without competing
+        while (mWindow.size() > windowSize) {
+          mProbation.addLast(mWindow.removeFirst());
+        }
+      }
+      Node victim = evictFromMain();
+      if (victim == null) {
+        Node candidate = mWindow.sweep();
+        return candidate == null ? null : candidate.mPageId;
+      }
+      if (mWindow.size() <= windowSize) {
+        return victim.mPageId;
+      }
+      Node candidate = mWindow.sweep();
+      if (mSketch.frequency(candidate.mPageId.hashCode())
+          > mSketch.frequency(victim.mPageId.hashCode())) {
+        mWindow.remove(candidate);
+        mProbation.addLast(candidate);
+        return victim.mPageId;
+      }
+      return candidate.mPageId;
+    } finally {
+      mLock.unlock();
+    }
+  }
+
+  @Nullable
+  @GuardedBy("mLock")
+  private Node evictFromMain() {
+    // referenced pages on probation are promoted, and demoted back when protected is full
+    for (int i = mProbation.size() + mProtected.size(); i >= 0; i--) {
+      Node node = mProbation.first();
+      if (node == null) {
+        break;
+      }
+      if (!node.mReferenced) {
+        return node;
+      }
+      node.mReferenced = false;
+      mProbation.remove(node);
+      mProtected.addLast(node);
+      int protectedSize = (int) ((mProbation.size() + mProtected.size()) * PROTECTED_RATIO);
+      while (mProtected.size() > protectedSize) {
+        Node demoted = mProtected.sweep();
+        mProtected.remove(demoted);
+        mProbation.addLast(demoted);
+      }
+    }
+    return mProtected.sweep();
+  }
+
+  @Nullable
+  @Override
+  public PageId evictMatching(Predicate<PageId> criterion) {
+    mLock.lock();
+    try {
+      drainReadBuffers();
+      for (Clock clock : new Clock[] {mProbation, mWindow, mProtected}) {
+        for (Node node = clock.first(); node != null; node = node.mNext) {
+          if (criterion.test(node.mPageId)) {
+            return node.mPageId;
+          }
+        }
+      }
+      return null;
+    } finally {
+      mLock.unlock();
+    }
+  }
+
+  @Override
+  public void reset() {
+    mLock.lock();
+    try {
+      for (ReadBuffer buffer : mReadBuffers) {
+        buffer.drain(node -> { });
+      }
+      mNodes.clear();
+      mWindow.clear();
+      mProbation.clear();
+      mProtected.clear();
+      mSketch.clear();
+    } finally {
+      mLock.unlock();
+    }
+  }
+
+  @GuardedBy("mLock")
+  private void drainReadBuffers() {
+    for (ReadBuffer buffer : mReadBuffers) {
+      buffer.drain(node -> mSketch.increment(node.mPageId.hashCode()));
+    }
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    return 1 << (Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(1, value) - 1));
+  }
+
+  /**
+   * A page tracked by the evictor.
+   */
+  private static final class Node {
+    private final PageId mPageId;
+    /** Whether the page is accessed since it was last considered for eviction. */
+    private volatile boolean mReferenced;
+    @GuardedBy("mLock")
+    private Clock mClock;
+    @GuardedBy("mLock")
+    private Node mPrev;
+    @GuardedBy("mLock")
+    private Node mNext;
+
+    Node(PageId pageId) {
+      mPageId = pageId;
+    }
+  }
+
+  /**
+   * A segment of pages in a doubly linked list, where the hand of the clock is the head.
+   */
+  private static final class Clock {
+    private Node mHead;
+    private Node mTail;
+    private int mSize;
+
+    int size() {
+      return mSize;
+    }
+
+    @Nullable
+    Node first() {
+      return mHead;
+    }
+
+    void addLast(Node node) {
+      node.mClock = this;
+      node.mPrev = mTail;
+      node.mNext = null;
+      if (mTail == null) {
+        mHead = node;
+      } else {
+        mTail.mNext = node;
+      }
+      mTail = node;
+      mSize++;
+    }
+
+    void remove(Node node) {
+      if (node.mPrev == null) {
+        mHead = node.mNext;
+      } else {
+        node.mPrev.mNext = node.mNext;
+      }
+      if (node.mNext == null) {
+        mTail = node.mPrev;
+      } else {
+        node.mNext.mPrev = node.mPrev;
+      }
+      node.mPrev = null;
+      node.mNext = null;
+      node.mClock = null;
+      mSize--;
+    }
+
+    @Nullable
+    Node removeFirst() {
+      Node node = mHead;
+      if (node != null) {
+        remove(node);
+      }
+      return node;
+    }
+
+    /**
+     * Advances the hand of the clock past the referenced pages, clearing their reference bits.
+     *
+     * @return the first page that is not referenced, which stays in the clock
+     */
+    @Nullable
+    Node sweep() {
+      for (int i = 0; i <= mSize && mHead != null; i++) {
+        Node node = mHead;
+        if (!node.mReferenced) {
+          return node;
+        }
+        node.mReferenced = false;
+        remove(node);
+        addLast(node);
+      }
+      return mHead;
+    }
+
+    void clear() {
+      mHead = null;
+      mTail = null;
+      mSize = 0;
+    }
+  }
+
+  /**
+   * A bounded buffer of accessed pages, which drops accesses when it is full instead of blocking.
+   */
+  private static final class ReadBuffer {
+    private final AtomicReferenceArray<Node> mBuffer = new AtomicReferenceArray<>(BUFFER_SIZE);
+    private final AtomicLong mWriteIndex = new AtomicLong();
+    /** Only updated when draining the buffer, with the lock of the evictor. */
+    private final AtomicLong mReadIndex = new AtomicLong();
+
+    /**
+     * @return false if the buffer is full and should be drained
+     */
+    boolean offer(Node node) {
+      long writeIndex = mWriteIndex.get();
+      if (writeIndex - mReadIndex.get() >= BUFFER_SIZE) {
+        return false;
+      }
+      if (mWriteIndex.compareAndSet(writeIndex, writeIndex + 1)) {
+        mBuffer.lazySet((int) (writeIndex & BUFFER_MASK), node);
+      }
+      return true;
+    }
+
+    void drain(Consumer<Node> consumer) {
+      long readIndex = mReadIndex.get();
+      long writeIndex = mWriteIndex.get();
+      for (; readIndex < writeIndex; readIndex++) {
+        int index = (int) (readIndex & BUFFER_MASK);
+        Node node = mBuffer.get(index);
+        if (node == null) {
+          // the slot is claimed but not written yet
+          break;
+        }
+        mBuffer.lazySet(index, null);
+        consumer.accept(node);
+      }
+      mReadIndex.lazySet(readIndex);
+    }
+  }
+}
@@ -22,20 +22,26 @@ import alluxio.network.protocol.databuffer.DataFileChannel;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -45,11 +51,15 @@ import javax.annotation.concurrent.NotThreadSafe;
 @NotThreadSafe
 public class LocalPageStore implements PageStore {
   private static final String ERROR_NO_SPACE_LEFT = "No space left on device";
+  private static final Set<StandardOpenOption> WRITE_OPTIONS = ImmutableSet.of(
+      StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
   public static final String TEMP_DIR = "TEMP";
   private final Path mRoot;
   private final long mPageSize;
   private final long mCapacity;
   private final int mFileBuckets;
+  @Nullable
+  private final MappedRegionCache mMappedRegions;
 
   /**
    * Creates a new instance of {@link LocalPageStore}.
@@ -61,6 +71,8 @@ public class LocalPageStore implements PageStore {
     mPageSize = options.getPageSize();
     mCapacity = (long) (options.getCacheSize() / (1 + options.getOverheadRatio()));
     mFileBuckets = options.getFileBuckets();
+    mMappedRegions =
+        options.isMmapEnabled() ? new MappedRegionCache(options.getMmapMaxSize()) : null;
   }
 
   @Override
@@ -71,15 +83,26 @@ public class LocalPageStore implements PageStore {
     try {
       LOG.debug("Put page: " + pageId + ", page's position: " + page.position()
           + ", page's limit: " + page.limit() + ", page's capacity: " + page.capacity());
-      if (!Files.exists(pagePath)) {
+      if (mMappedRegions != null && !isTemporary) {
+        // the file is truncated below, which must not happen while it is mapped
+        mMappedRegions.invalidate(pagePath);
+      }
+      FileChannel channel;
+      try {
+        channel = FileChannel.open(pagePath, WRITE_OPTIONS);
+      } catch (NoSuchFileException e) {
+        // the directories of a file are only created with its first page
         Path parent = Preconditions.checkNotNull(pagePath.getParent(),
             "parent of cache file should not be null");
         Files.createDirectories(parent);
-        Files.createFile(pagePath);
+        channel = FileChannel.open(pagePath, WRITE_OPTIONS);
       }
-      // extra try to ensure output stream is closed
-      try (FileOutputStream fos = new FileOutputStream(pagePath.toFile(), false)) {
-        fos.getChannel().write(page);
+      try {
+        while (page.hasRemaining()) {
+          channel.write(page);
+        }
+      } finally {
+        channel.close();
       }
     } catch (Exception e) {
       Files.deleteIfExists(pagePath);
@@ -91,11 +114,52 @@ public class LocalPageStore implements PageStore {
     }
   }
 
+  @Override
+  public void sync(Collection<PageId> pageIds, boolean isTemporary) throws IOException {
+    // each page is a file of its own, so it is forced on its own, while the directories holding
+    // the new entries of the pages are forced once for the whole group
+    Set<Path> dirs = new LinkedHashSet<>();
+    for (PageId pageId : pageIds) {
+      Path pagePath = getPagePath(pageId, isTemporary);
+      if (forceIfExists(pagePath)) {
+        // the directory of a file is created with its first page, so its entry is forced too
+        dirs.add(pagePath.getParent());
+        dirs.add(pagePath.getParent().getParent());
+      }
+    }
+    for (Path dir : dirs) {
+      forceIfExists(dir);
+    }
+  }
+
+  /**
+   * @return false if the file has been deleted
+   */
+  private static boolean forceIfExists(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      channel.force(false);
+      return true;
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
   @Override
   public int get(PageId pageId, int pageOffset, int bytesToRead, ReadTargetBuffer target,
       boolean isTemporary) throws IOException, PageNotFoundException {
     Preconditions.checkArgument(pageOffset >= 0, "page offset should be non-negative");
     Path pagePath = getPagePath(pageId, isTemporary);
+    if (mMappedRegions != null && !isTemporary) {
+      try (MappedRegionCache.Region region = mMappedRegions.acquire(pagePath)) {
+        if (region != null) {
+          Preconditions.checkArgument(pageOffset <= region.length(),
+              "page offset %s exceeded page size %s", pageOffset, region.length());
+          return region.read(pageOffset, bytesToRead, target);
+        }
+      } catch (NoSuchFileException e) {
+        throw new PageNotFoundException(pagePath.toString());
+      }
+    }
     try (RandomAccessFile localFile = new RandomAccessFile(pagePath.toString(), "r")) {
       int bytesSkipped = localFile.skipBytes(pageOffset);
       if (pageOffset != bytesSkipped) {
@@ -134,6 +198,9 @@ public class LocalPageStore implements PageStore {
     if (!Files.exists(pagePath)) {
       throw new PageNotFoundException(pagePath.toString());
     }
+    if (mMappedRegions != null && !isTemporary) {
+      mMappedRegions.invalidate(pagePath);
+    }
     Files.delete(pagePath);
     // Cleaning up parent directory may lead to a race condition if one thread is removing a page as
     // well as its parent dir corresponding to the fileId, while another thread is adding
@@ -216,6 +283,8 @@ public class LocalPageStore implements PageStore {
 
   @Override
   public void close() {
-    // no-op
+    if (mMappedRegions != null) {
+      mMappedRegions.close();
+    }
   }
 }
@@ -27,11 +27,17 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 /**
  *
@@ -42,6 +48,8 @@ public class LocalPageStoreDir extends QuotaManagedPageStoreDir {
   private final PageStoreOptions mPageStoreOptions;
   private final int mFileBuckets;
   private final Pattern mPagePattern;
+  @Nullable
+  private final PageIndex mPageIndex;
 
   private PageStore mPageStore;
 
@@ -65,6 +73,9 @@ public class LocalPageStoreDir extends QuotaManagedPageStoreDir {
         String.format("%s/%d/(\\d+)/([^/]+)/(\\d+)",
             Pattern.quote(pageStoreOptions.getRootDir().toString()),
             pageStoreOptions.getPageSize()));
+    mPageIndex = pageStoreOptions.isPageIndexEnabled()
+        ? new PageIndex(pageStoreOptions.getRootDir(), pageStoreOptions.getPageSize(), this)
+        : null;
   }
 
   /**
@@ -85,6 +96,9 @@ public class LocalPageStoreDir extends QuotaManagedPageStoreDir {
     // when cache is large, e.g. millions of pages, the clear may take a while on deletion
     PageStoreDir.clear(getRootPath());
     mPageStore = PageStore.create(mPageStoreOptions);
+    if (mPageIndex != null) {
+      mPageIndex.open();
+    }
   }
 
   /**
@@ -95,10 +109,108 @@ public class LocalPageStoreDir extends QuotaManagedPageStoreDir {
    */
   @Override
   public void scanPages(Consumer<Optional<PageInfo>> pageInfoConsumer) throws IOException {
-    Files.walk(getRootPath()).filter(Files::isRegularFile).map(this::getPageInfo)
+    Files.walk(getRootPath()).filter(Files::isRegularFile)
+        .filter(path -> mPageIndex == null || !mPageIndex.isIndexFile(path))
+        .map(this::getPageInfo)
         .forEach(pageInfoConsumer);
   }
 
+  @Override
+  public boolean restoreFromIndex(Consumer<PageInfo> pageInfoConsumer) throws IOException {
+    if (mPageIndex == null) {
+      return false;
+    }
+    // the pages are restored before the index is opened, so that they are not logged again
+    Map<PageId, PageInfo> pages = mPageIndex.restore();
+    if (pages == null) {
+      mPageIndex.clear();
+    } else {
+      pages.values().forEach(pageInfoConsumer);
+    }
+    mPageIndex.open();
+    return pages != null;
+  }
+
+  @Override
+  public void validateRestoredPages(Consumer<PageInfo> orphanPageConsumer,
+      Consumer<PageInfo> invalidPageConsumer) throws IOException {
+    Map<PageId, PageInfo> restoredPages = mPageIndex == null ? null
+        : mPageIndex.takeRestoredPages();
+    if (restoredPages == null) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(getRootPath())) {
+      paths.filter(Files::isRegularFile).forEach(path -> {
+        // unlike scanning, nothing is deleted, as the pages are being read and written
+        Optional<PageId> pageId = matchPageId(path);
+        if (!pageId.isPresent()) {
+          return;
+        }
+        BasicFileAttributes attributes;
+        try {
+          attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+          // deleted since listed
+          return;
+        }
+        PageInfo restoredPage = restoredPages.remove(pageId.get());
+        if (restoredPage == null) {
+          orphanPageConsumer.accept(new PageInfo(pageId.get(), attributes.size(),
+              CacheScope.GLOBAL, this, attributes.creationTime().toMillis()));
+        } else if (restoredPage.getPageSize() != attributes.size()) {
+          invalidPageConsumer.accept(restoredPage);
+        }
+      });
+    }
+    for (PageInfo missingPage : restoredPages.values()) {
+      // the page may not be in the page store any more, but it is still in the index
+      mPageIndex.logDelete(missingPage.getPageId());
+      invalidPageConsumer.accept(missingPage);
+    }
+  }
+
+  @Override
+  public void checkpointIndex() throws IOException {
+    if (mPageIndex != null) {
+      mPageIndex.checkpoint();
+    }
+  }
+
+  @Override
+  public void putPage(PageInfo pageInfo) {
+    super.putPage(pageInfo);
+    if (mPageIndex != null) {
+      mPageIndex.logPut(pageInfo);
+    }
+  }
+
+  @Override
+  public long deletePage(PageInfo pageInfo) {
+    long bytesUsed = super.deletePage(pageInfo);
+    if (mPageIndex != null) {
+      mPageIndex.logDelete(pageInfo.getPageId());
+    }
+    return bytesUsed;
+  }
+
+  @Override
+  public void commit(String fileId, String newFileId) throws IOException {
+    List<PageInfo> pages = mPageIndex == null ? Collections.emptyList() : getTempPages(fileId);
+    super.commit(fileId, newFileId);
+    for (PageInfo page : pages) {
+      mPageIndex.logPut(new PageInfo(new PageId(newFileId, page.getPageId().getPageIndex()),
+          page.getPageSize(), page.getScope(), this, page.getCreatedTimestamp()));
+    }
+  }
+
+  @Override
+  public void close() {
+    if (mPageIndex != null) {
+      mPageIndex.close();
+    }
+    super.close();
+  }
+
   /**
    * @param path path of a file
    * @return the corresponding page info for the file otherwise empty
@@ -138,6 +250,26 @@ public class LocalPageStoreDir extends QuotaManagedPageStoreDir {
     }
   }
 
+  /**
+   * @param path path of a file
+   * @return the corresponding page id, or empty if the file is not a page file
+   */
+  private Optional<PageId> matchPageId(Path path) {
+    Matcher matcher = mPagePattern.matcher(path.toString());
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    String fileId = Preconditions.checkNotNull(matcher.group(2));
+    if (!matcher.group(1).equals(getFileBucket(mFileBuckets, fileId))) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(new PageId(fileId, Long.parseLong(matcher.group(3))));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
   /**
    * @param path path of a file
    * @return the corresponding page id, or empty if the file name does not match the pattern
@@ -0,0 +1,187 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache.store;
+
+import alluxio.file.ReadTargetBuffer;
+import alluxio.util.io.BufferUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import io.netty.buffer.Unpooled;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A bounded cache of files mapped into memory, so that reading a cached page is a memory copy
+ * instead of opening, reading and closing the file.
+ *
+ * A region is unmapped when it is evicted or invalidated, but only once every reader that
+ * acquired it has released it, so a reader never accesses memory that has been unmapped.
+ * Mapped files must not be truncated while mapped, which callers guarantee by invalidating a file
+ * before rewriting or deleting it.
+ */
+@ThreadSafe
+public class MappedRegionCache implements Closeable {
+  private final long mMaxMappedBytes;
+  private final Cache<Path, Region> mRegions;
+
+  /**
+   * @param maxMappedBytes the maximum number of bytes mapped at any time by this cache, not
+   *        counting the regions that are evicted but still used by readers
+   */
+  public MappedRegionCache(long maxMappedBytes) {
+    mMaxMappedBytes = maxMappedBytes;
+    mRegions = CacheBuilder.newBuilder()
+        .maximumWeight(maxMappedBytes)
+        .weigher((Path path, Region region) -> region.mBuffer.capacity())
+        .removalListener((RemovalNotification<Path, Region> notification) ->
+            notification.getValue().release())
+        .build();
+  }
+
+  /**
+   * Acquires the mapped region of a file, mapping the file if it is not mapped yet. The region
+   * must be closed after use.
+   *
+   * @param path the path of the file
+   * @return the mapped region, or null if the file is empty or too large to be mapped, in which
+   *         case the caller falls back to a regular read
+   */
+  @Nullable
+  public Region acquire(Path path) throws IOException {
+    while (true) {
+      Region region = mRegions.getIfPresent(path);
+      if (region != null && region.retain()) {
+        return region;
+      }
+      region = map(path);
+      if (region == null) {
+        return null;
+      }
+      // retained before being shared, so that it stays mapped even if evicted right away
+      region.retain();
+      Region existing = mRegions.asMap().putIfAbsent(path, region);
+      if (existing == null) {
+        return region;
+      }
+      // mapped concurrently by another reader
+      region.release();
+      region.release();
+      if (existing.retain()) {
+        return existing;
+      }
+    }
+  }
+
+  /**
+   * Unmaps a file, e.g. before it is rewritten or deleted.
+   *
+   * @param path the path of the file
+   */
+  public void invalidate(Path path) {
+    mRegions.invalidate(path);
+  }
+
+  /**
+   * @return the number of mapped regions in the cache
+   */
+  @VisibleForTesting
+  long size() {
+    mRegions.cleanUp();
+    return mRegions.size();
+  }
+
+  @Override
+  public void close() {
+    mRegions.invalidateAll();
+  }
+
+  @Nullable
+  private Region map(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size == 0 || size > mMaxMappedBytes || size > Integer.MAX_VALUE) {
+        return null;
+      }
+      return new Region(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /**
+   * A file mapped into memory, which stays mapped until it is closed by every reader.
+   */
+  public static final class Region implements Closeable {
+    private final MappedByteBuffer mBuffer;
+    /** Held once by the cache, and once by each reader. */
+    private final AtomicInteger mRefCount = new AtomicInteger(1);
+
+    private Region(MappedByteBuffer buffer) {
+      mBuffer = buffer;
+    }
+
+    /**
+     * Copies a range of the file to the target buffer.
+     *
+     * @param offset the offset in the file
+     * @param length the maximum number of bytes to copy
+     * @param target the target buffer
+     * @return the number of bytes copied
+     */
+    public int read(long offset, int length, ReadTargetBuffer target) {
+      int bytesToRead = (int) Math.min(Math.min(length, target.remaining()), length() - offset);
+      ByteBuffer slice = mBuffer.asReadOnlyBuffer();
+      slice.position((int) offset).limit((int) offset + bytesToRead);
+      target.writeBytes(Unpooled.wrappedBuffer(slice));
+      return bytesToRead;
+    }
+
+    /**
+     * @return the size of the mapped file
+     */
+    public long length() {
+      return mBuffer.capacity();
+    }
+
+    private boolean retain() {
+      int count;
+      do {
+        count = mRefCount.get();
+        if (count == 0) {
+          return false;
+        }
+      } while (!mRefCount.compareAndSet(count, count + 1));
+      return true;
+    }
+
+    private void release() {
+      if (mRefCount.decrementAndGet() == 0) {
+        BufferUtils.cleanDirectBuffer(mBuffer);
+      }
+    }
+
+    @Override
+    public void close() {
+      release();
+    }
+  }
+}
@@ -0,0 +1,424 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache.store;
+
+import alluxio.client.file.cache.PageId;
+import alluxio.client.file.cache.PageInfo;
+import alluxio.client.quota.CacheScope;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * The index of the pages of a {@link LocalPageStoreDir}, so that the pages can be restored on
+ * restart without scanning the page files, which takes a stat of each of them.
+ *
+ * The index is a snapshot of the pages, and logs of the pages added and removed since the
+ * snapshot was taken, replayed in order on top of it. A checkpoint starts a new log, compacts the
+ * snapshot and the previous logs into a new snapshot, which replaces the old one atomically, and
+ * then deletes the previous logs. Replaying a log on top of a snapshot which already has its
+ * records gives the same pages, so a checkpoint interrupted at any point leaves a valid index.
+ * The logs are buffered and the last records may be lost on a crash, so the restored pages must
+ * be checked against the page files afterwards.
+ */
+final class PageIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(PageIndex.class);
+
+  private static final String SNAPSHOT_FILE = "page_index";
+  private static final String TEMP_SNAPSHOT_FILE = "page_index.tmp";
+  private static final String LOG_FILE_PREFIX = "page_index.log.";
+  private static final String FILE_PREFIX = "page_index";
+
+  private static final int MAGIC = 0x50474958;
+  private static final int VERSION = 1;
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+  private static final byte END = 3;
+
+  private final Path mRootPath;
+  private final long mPageSize;
+  private final PageStoreDir mDir;
+
+  private final Object mLogLock = new Object();
+  @GuardedBy("mLogLock")
+  @Nullable
+  private DataOutputStream mLog;
+  @GuardedBy("mLogLock")
+  private long mLogSequence;
+  @GuardedBy("mLogLock")
+  private long mLogRecords;
+
+  /** Serializes the checkpoints. */
+  private final Object mCheckpointLock = new Object();
+
+  /** The pages restored from the index and not checked against the page files yet. */
+  @Nullable
+  private volatile Map<PageId, PageInfo> mRestoredPages;
+
+  /**
+   * @param rootPath the root path of the dir, where the index files are kept
+   * @param pageSize the page size of the dir
+   * @param dir the dir
+   */
+  PageIndex(Path rootPath, long pageSize, PageStoreDir dir) {
+    mRootPath = rootPath;
+    mPageSize = pageSize;
+    mDir = dir;
+  }
+
+  /**
+   * @param path the path of a file in the dir
+   * @return whether the file is one of the files of the index
+   */
+  boolean isIndexFile(Path path) {
+    return mRootPath.equals(path.getParent())
+        && path.getFileName().toString().startsWith(FILE_PREFIX);
+  }
+
+  /**
+   * Restores the pages from the snapshot and the logs. The pages are kept until they are taken
+   * with {@link #takeRestoredPages()}.
+   *
+   * @return the restored pages, or null if there is no snapshot or the index is not valid
+   */
+  @Nullable
+  Map<PageId, PageInfo> restore() {
+    Path snapshot = mRootPath.resolve(SNAPSHOT_FILE);
+    if (!Files.exists(snapshot)) {
+      return null;
+    }
+    Map<PageId, PageInfo> pages = new HashMap<>();
+    try {
+      if (!readSnapshot(snapshot, pages)) {
+        LOG.warn("Page index snapshot {} is not complete", snapshot);
+        return null;
+      }
+      for (Path log : listLogs()) {
+        readLog(log, pages);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to read the page index of {}", mRootPath, e);
+      return null;
+    }
+    mRestoredPages = pages;
+    return pages;
+  }
+
+  /**
+   * @return the pages restored from the index, or null if they were taken already
+   */
+  @Nullable
+  Map<PageId, PageInfo> takeRestoredPages() {
+    Map<PageId, PageInfo> pages = mRestoredPages;
+    mRestoredPages = null;
+    return pages;
+  }
+
+  /**
+   * Starts logging the pages added and removed to a new log. Pages added and removed before are
+   * not logged, as when the pages are being restored.
+   */
+  void open() throws IOException {
+    synchronized (mLogLock) {
+      List<Path> logs = listLogs();
+      mLogSequence = logs.isEmpty() ? 0 : getLogSequence(logs.get(logs.size() - 1)) + 1;
+      mLog = createLog(mLogSequence);
+      mLogRecords = 0;
+    }
+  }
+
+  /**
+   * Stops logging, and writes the buffered records of the log.
+   */
+  void close() {
+    synchronized (mLogLock) {
+      if (mLog == null) {
+        return;
+      }
+      try {
+        mLog.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close the page index log of {}", mRootPath, e);
+      }
+      mLog = null;
+    }
+  }
+
+  /**
+   * Deletes the files of the index.
+   */
+  void clear() throws IOException {
+    try (Stream<Path> files = Files.list(mRootPath)) {
+      for (Path file : files.filter(this::isIndexFile).collect(Collectors.toList())) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  /**
+   * Logs a page added to the dir.
+   *
+   * @param pageInfo the page
+   */
+  void logPut(PageInfo pageInfo) {
+    synchronized (mLogLock) {
+      if (mLog == null) {
+        return;
+      }
+      try {
+        writePut(mLog, pageInfo);
+        mLogRecords++;
+      } catch (IOException e) {
+        failLog(e);
+      }
+    }
+  }
+
+  /**
+   * Logs a page removed from the dir.
+   *
+   * @param pageId the page
+   */
+  void logDelete(PageId pageId) {
+    synchronized (mLogLock) {
+      if (mLog == null) {
+        return;
+      }
+      try {
+        mLog.writeByte(DELETE);
+        mLog.writeUTF(pageId.getFileId());
+        mLog.writeLong(pageId.getPageIndex());
+        mLogRecords++;
+      } catch (IOException e) {
+        failLog(e);
+      }
+    }
+  }
+
+  /**
+   * Compacts the snapshot and the logs into a new snapshot. Nothing is done if the index is not
+   * open, or nothing was logged since the last checkpoint.
+   */
+  void checkpoint() throws IOException {
+    synchronized (mCheckpointLock) {
+      Path snapshot = mRootPath.resolve(SNAPSHOT_FILE);
+      synchronized (mLogLock) {
+        if (mLog == null || (mLogRecords == 0 && Files.exists(snapshot))) {
+          return;
+        }
+        mLog.close();
+        mLogSequence++;
+        mLog = createLog(mLogSequence);
+        mLogRecords = 0;
+      }
+      long startTimeMs = System.currentTimeMillis();
+      Map<PageId, PageInfo> pages = new HashMap<>();
+      if (Files.exists(snapshot) && !readSnapshot(snapshot, pages)) {
+        throw new IOException("Page index snapshot " + snapshot + " is not complete");
+      }
+      List<Path> logs = listLogs();
+      long sequence;
+      synchronized (mLogLock) {
+        sequence = mLogSequence;
+      }
+      logs.removeIf(log -> getLogSequence(log) >= sequence);
+      for (Path log : logs) {
+        readLog(log, pages);
+      }
+      Path tempSnapshot = mRootPath.resolve(TEMP_SNAPSHOT_FILE);
+      writeSnapshot(tempSnapshot, pages);
+      Files.move(tempSnapshot, snapshot, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      syncRootPath();
+      for (Path log : logs) {
+        Files.deleteIfExists(log);
+      }
+      LOG.info("Checkpointed the page index of {} with {} pages in {} ms", mRootPath,
+          pages.size(), System.currentTimeMillis() - startTimeMs);
+    }
+  }
+
+  /**
+   * Stops logging after a failed write, and deletes the index, so that the pages are scanned
+   * on the next restore instead of being restored from an index which misses some of them.
+   */
+  @GuardedBy("mLogLock")
+  private void failLog(IOException e) {
+    LOG.warn("Failed to write the page index log of {}, the index is dropped", mRootPath, e);
+    try {
+      mLog.close();
+    } catch (IOException ex) {
+      // ignore
+    }
+    mLog = null;
+    try {
+      clear();
+    } catch (IOException ex) {
+      LOG.warn("Failed to delete the page index of {}", mRootPath, ex);
+    }
+  }
+
+  private DataOutputStream createLog(long sequence) throws IOException {
+    DataOutputStream log = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(mRootPath.resolve(LOG_FILE_PREFIX + sequence))));
+    writeHeader(log);
+    return log;
+  }
+
+  private List<Path> listLogs() throws IOException {
+    try (Stream<Path> files = Files.list(mRootPath)) {
+      return files.filter(file -> file.getFileName().toString().startsWith(LOG_FILE_PREFIX))
+          .sorted((a, b) -> Long.compare(getLogSequence(a), getLogSequence(b)))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static long getLogSequence(Path log) {
+    return Long.parseLong(log.getFileName().toString().substring(LOG_FILE_PREFIX.length()));
+  }
+
+  private void writeHeader(DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(mPageSize);
+  }
+
+  private void readHeader(DataInputStream in, Path path) throws IOException {
+    if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != mPageSize) {
+      throw new IOException("Page index file " + path + " is not compatible");
+    }
+  }
+
+  private static void writePut(DataOutputStream out, PageInfo pageInfo) throws IOException {
+    out.writeByte(PUT);
+    out.writeUTF(pageInfo.getPageId().getFileId());
+    out.writeLong(pageInfo.getPageId().getPageIndex());
+    out.writeLong(pageInfo.getPageSize());
+    out.writeLong(pageInfo.getCreatedTimestamp());
+  }
+
+  /**
+   * Applies a record to the pages.
+   *
+   * @return false if the record is the end of the records
+   */
+  private boolean readRecord(DataInputStream in, Map<PageId, PageInfo> pages)
+      throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case PUT: {
+        PageId pageId = new PageId(in.readUTF(), in.readLong());
+        long pageSize = in.readLong();
+        long createdTime = in.readLong();
+        pages.put(pageId, new PageInfo(pageId, pageSize, CacheScope.GLOBAL, mDir, createdTime));
+        return true;
+      }
+      case DELETE:
+        pages.remove(new PageId(in.readUTF(), in.readLong()));
+        return true;
+      case END:
+        return false;
+      default:
+        throw new IOException("Unknown page index record type " + type);
+    }
+  }
+
+  /**
+   * Writes the pages to a snapshot, which is synced to the disk before it is returned, so that it
+   * is complete once it replaces the previous snapshot.
+   */
+  private void writeSnapshot(Path path, Map<PageId, PageInfo> pages) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    CheckedOutputStream checked = new CheckedOutputStream(
+        new BufferedOutputStream(Channels.newOutputStream(channel)), new CRC32());
+    try (DataOutputStream out = new DataOutputStream(checked)) {
+      writeHeader(out);
+      for (PageInfo pageInfo : pages.values()) {
+        writePut(out, pageInfo);
+      }
+      out.writeByte(END);
+      out.writeLong(checked.getChecksum().getValue());
+      out.flush();
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Syncs the entries of the root directory, so that the snapshot moved into place is not lost
+   * once the logs it replaces are deleted.
+   */
+  private void syncRootPath() {
+    try (FileChannel dir = FileChannel.open(mRootPath, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      // not all the platforms can sync a directory
+      LOG.debug("Failed to sync the directory {}", mRootPath, e);
+    }
+  }
+
+  /**
+   * @return false if the snapshot is not complete
+   */
+  private boolean readSnapshot(Path path, Map<PageId, PageInfo> pages) throws IOException {
+    CheckedInputStream checked = new CheckedInputStream(
+        new BufferedInputStream(Files.newInputStream(path)), new CRC32());
+    try (DataInputStream in = new DataInputStream(checked)) {
+      readHeader(in, path);
+      while (readRecord(in, pages)) {
+        // keep reading until the end of the records
+      }
+      long checksum = checked.getChecksum().getValue();
+      return in.readLong() == checksum;
+    } catch (EOFException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Replays a log, up to its last complete record.
+   */
+  private void readLog(Path path, Map<PageId, PageInfo> pages) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      readHeader(in, path);
+      while (readRecord(in, pages)) {
+        // keep reading until the end of the log
+      }
+    } catch (EOFException e) {
+      // the log ends with the last record written, or a partial record on a crash
+    }
+  }
+}
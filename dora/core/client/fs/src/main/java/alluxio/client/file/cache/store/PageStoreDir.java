@@ -73,6 +73,12 @@ public interface PageStoreDir extends CacheStatus {
             PageStore.create(pageStoreOptions),
             CacheEvictor.create(cacheEvictorOptions)
         );
+      case SEGMENT:
+        return new SegmentPageStoreDir(
+            pageStoreOptions,
+            PageStore.create(pageStoreOptions),
+            CacheEvictor.create(cacheEvictorOptions)
+        );
       case MEM:
         return new MemoryPageStoreDir(
             pageStoreOptions,
@@ -142,6 +148,40 @@ public interface PageStoreDir extends CacheStatus {
    */
   void scanPages(Consumer<Optional<PageInfo>> pageInfoConsumer) throws IOException;
 
+  /**
+   * Restores the pages under this dir from its page index, which is much faster than scanning
+   * the pages. The restored pages are checked against the page files afterwards with
+   * {@link #validateRestoredPages}.
+   *
+   * @param pageInfoConsumer the consumer of the restored pages
+   * @return false if the dir does not keep a page index, or the index is not valid, and the
+   *         pages must be scanned instead
+   * @throws IOException
+   */
+  default boolean restoreFromIndex(Consumer<PageInfo> pageInfoConsumer) throws IOException {
+    return false;
+  }
+
+  /**
+   * Checks the pages restored from the page index against the page files, which the index may
+   * have missed the last changes of.
+   *
+   * @param orphanPageConsumer the consumer of the pages with a page file but not restored
+   * @param invalidPageConsumer the consumer of the restored pages whose page files are missing
+   *                            or of a different size
+   * @throws IOException
+   */
+  default void validateRestoredPages(Consumer<PageInfo> orphanPageConsumer,
+      Consumer<PageInfo> invalidPageConsumer) throws IOException {
+  }
+
+  /**
+   * Takes a snapshot of the page index of this dir, if it keeps one.
+   * @throws IOException
+   */
+  default void checkpointIndex() throws IOException {
+  }
+
   /**
    * @return cached bytes in this directory
    */
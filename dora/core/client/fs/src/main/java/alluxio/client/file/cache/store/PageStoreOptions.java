@@ -42,7 +42,12 @@ public class PageStoreOptions {
           .setPageSize(conf.getBytes(PropertyKey.USER_CLIENT_CACHE_PAGE_SIZE))
           .setAlluxioVersion(conf.getString(PropertyKey.VERSION))
           .setTimeoutDuration(conf.getMs(PropertyKey.USER_CLIENT_CACHE_TIMEOUT_DURATION))
-          .setTimeoutThreads(conf.getInt(PropertyKey.USER_CLIENT_CACHE_TIMEOUT_THREADS));
+          .setTimeoutThreads(conf.getInt(PropertyKey.USER_CLIENT_CACHE_TIMEOUT_THREADS))
+          .setSegmentSize(conf.getBytes(PropertyKey.USER_CLIENT_CACHE_SEGMENT_STORE_SEGMENT_SIZE))
+          .setSegmentCompactionThreshold(
+              conf.getDouble(PropertyKey.USER_CLIENT_CACHE_SEGMENT_STORE_COMPACTION_THRESHOLD))
+          .setMmapEnabled(conf.getBoolean(PropertyKey.USER_CLIENT_CACHE_STORE_MMAP_ENABLED))
+          .setMmapMaxSize(conf.getBytes(PropertyKey.USER_CLIENT_CACHE_STORE_MMAP_MAX_SIZE));
       if (conf.isSet(PropertyKey.USER_CLIENT_CACHE_STORE_OVERHEAD)) {
         options.setOverheadRatio(conf.getDouble(PropertyKey.USER_CLIENT_CACHE_STORE_OVERHEAD));
       }
@@ -65,7 +70,13 @@ public class PageStoreOptions {
           .setPageSize(conf.getBytes(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE))
           .setAlluxioVersion(conf.getString(PropertyKey.VERSION))
           .setTimeoutDuration(conf.getMs(PropertyKey.WORKER_PAGE_STORE_TIMEOUT_DURATION))
-          .setTimeoutThreads(conf.getInt(PropertyKey.WORKER_PAGE_STORE_TIMEOUT_THREADS));
+          .setTimeoutThreads(conf.getInt(PropertyKey.WORKER_PAGE_STORE_TIMEOUT_THREADS))
+          .setSegmentSize(conf.getBytes(PropertyKey.WORKER_PAGE_STORE_SEGMENT_STORE_SEGMENT_SIZE))
+          .setSegmentCompactionThreshold(
+              conf.getDouble(PropertyKey.WORKER_PAGE_STORE_SEGMENT_STORE_COMPACTION_THRESHOLD))
+          .setMmapEnabled(conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_MMAP_ENABLED))
+          .setMmapMaxSize(conf.getBytes(PropertyKey.WORKER_PAGE_STORE_MMAP_MAX_SIZE))
+          .setPageIndexEnabled(conf.getBoolean(PropertyKey.WORKER_PAGE_STORE_INDEX_ENABLED));
       if (conf.isSet(PropertyKey.WORKER_PAGE_STORE_OVERHEAD)) {
         options.setOverheadRatio(conf.getDouble(PropertyKey.WORKER_PAGE_STORE_OVERHEAD));
       }
@@ -95,6 +106,11 @@ public class PageStoreOptions {
 
   private PageStoreType mStoreType = PageStoreType.LOCAL;
   private int mFileBuckets = 1000;
+  private long mSegmentSize = 64L * 1024 * 1024;
+  private double mSegmentCompactionThreshold = 0.5;
+  private boolean mMmapEnabled = false;
+  private long mMmapMaxSize = 1024L * 1024 * 1024;
+  private boolean mPageIndexEnabled = false;
   /**
    * Root directory where the data is stored.
    */
@@ -288,6 +304,86 @@ public class PageStoreOptions {
     return mFileBuckets;
   }
 
+  /**
+   * @param segmentSize the size of each segment file of the segment page store
+   * @return the updated options
+   */
+  public PageStoreOptions setSegmentSize(long segmentSize) {
+    mSegmentSize = segmentSize;
+    return this;
+  }
+
+  /**
+   * @return the size of each segment file of the segment page store
+   */
+  public long getSegmentSize() {
+    return mSegmentSize;
+  }
+
+  /**
+   * @param threshold the fraction of live bytes below which a segment is compacted
+   * @return the updated options
+   */
+  public PageStoreOptions setSegmentCompactionThreshold(double threshold) {
+    mSegmentCompactionThreshold = threshold;
+    return this;
+  }
+
+  /**
+   * @return the fraction of live bytes below which a segment is compacted
+   */
+  public double getSegmentCompactionThreshold() {
+    return mSegmentCompactionThreshold;
+  }
+
+  /**
+   * @param mmapEnabled whether to read pages from files mapped into memory
+   * @return the updated options
+   */
+  public PageStoreOptions setMmapEnabled(boolean mmapEnabled) {
+    mMmapEnabled = mmapEnabled;
+    return this;
+  }
+
+  /**
+   * @return whether to read pages from files mapped into memory
+   */
+  public boolean isMmapEnabled() {
+    return mMmapEnabled;
+  }
+
+  /**
+   * @param mmapMaxSize the maximum size of the files mapped into memory
+   * @return the updated options
+   */
+  public PageStoreOptions setMmapMaxSize(long mmapMaxSize) {
+    mMmapMaxSize = mmapMaxSize;
+    return this;
+  }
+
+  /**
+   * @return the maximum size of the files mapped into memory
+   */
+  public long getMmapMaxSize() {
+    return mMmapMaxSize;
+  }
+
+  /**
+   * @param pageIndexEnabled whether to keep an index of the pages to restore them from
+   * @return the updated options
+   */
+  public PageStoreOptions setPageIndexEnabled(boolean pageIndexEnabled) {
+    mPageIndexEnabled = pageIndexEnabled;
+    return this;
+  }
+
+  /**
+   * @return whether to keep an index of the pages to restore them from
+   */
+  public boolean isPageIndexEnabled() {
+    return mPageIndexEnabled;
+  }
+
   /**
    * @param storeType
    * @return the updated options
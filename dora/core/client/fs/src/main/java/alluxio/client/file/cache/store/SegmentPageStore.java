@@ -0,0 +1,907 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache.store;
+
+import alluxio.client.file.cache.PageId;
+import alluxio.client.file.cache.PageStore;
+import alluxio.exception.PageNotFoundException;
+import alluxio.exception.status.ResourceExhaustedException;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.network.protocol.databuffer.DataFileChannel;
+import alluxio.resource.LockResource;
+import alluxio.util.ThreadFactoryUtils;
+import alluxio.util.io.FileUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The {@link SegmentPageStore} is an implementation of {@link PageStore} which appends pages to
+ * large preallocated segment files on the local disk, rather than storing every page in a file of
+ * its own. The location of each page is kept in an in-memory index, so the number of files, and
+ * the filesystem metadata that comes with them, stays bounded however many pages are cached.
+ *
+ * A segment is a sequence of records, each made of a fixed-size header, the file ID and the page
+ * data, with a checksum of the record in the header. Deleting a page only marks its record as
+ * deleted. The space is reclaimed once a segment holds no live page anymore, or by compacting the
+ * segment in the background, which copies its remaining live pages to the active segment. On
+ * restart, the index is rebuilt by scanning the records, and a page is only recovered if its
+ * checksum matches, so that a record which was not entirely written before a crash is skipped.
+ * The records are only synced to the disk through {@link #sync}.
+ */
+@ThreadSafe
+public class SegmentPageStore implements PageStore {
+  private static final Logger LOG = LoggerFactory.getLogger(SegmentPageStore.class);
+  private static final String ERROR_NO_SPACE_LEFT = "No space left on device";
+  static final String SEGMENT_FILE_PREFIX = "segment-";
+  /** The minimum number of segments the capacity is divided into. */
+  private static final int MIN_SEGMENTS = 8;
+  private static final int MAX_FILE_ID_LENGTH = 4096;
+  /** The state of the space after the last record of a segment, which is zero-filled. */
+  private static final int RECORD_END = 0;
+  private static final int RECORD_LIVE = 0x50414745;
+  private static final int RECORD_TEMP = 0x54454d50;
+  private static final int RECORD_DELETED = 0x44454144;
+  // state (int), file ID length (int), page index (long), page length (int), created time (long),
+  // checksum (int)
+  private static final int HEADER_SIZE = 32;
+  /** The offset of the checksum, which covers the rest of the record but its state. */
+  private static final int CHECKSUM_OFFSET = 28;
+  private static final long COMPACTION_SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  private final Path mSegmentDir;
+  private final long mCapacity;
+  private final long mSegmentSize;
+  private final int mMaxSegments;
+  private final double mCompactionThreshold;
+  @Nullable
+  private final MappedRegionCache mMappedRegions;
+
+  private final Map<PageId, PageLocation> mPages = new ConcurrentHashMap<>();
+  private final Map<PageId, PageLocation> mTempPages = new ConcurrentHashMap<>();
+  private final Map<Long, Segment> mSegments = new ConcurrentHashMap<>();
+  /** Held to access the file of a segment, and exclusively to delete one. */
+  private final ReentrantReadWriteLock mSegmentLock = new ReentrantReadWriteLock();
+  /** Serializes allocating space in the active segment and rolling segments. */
+  private final ReentrantLock mAppendLock = new ReentrantLock();
+  /** Held to compact a segment, and to commit pages in place. */
+  private final ReentrantLock mCompactionLock = new ReentrantLock();
+  private final ExecutorService mCompactionExecutor = Executors.newSingleThreadExecutor(
+      ThreadFactoryUtils.build("segment-page-store-compaction-%d", true));
+  private final AtomicBoolean mCompactionScheduled = new AtomicBoolean();
+  private volatile boolean mClosed;
+  @GuardedBy("mAppendLock")
+  private Segment mActiveSegment;
+  @GuardedBy("mAppendLock")
+  private long mNextSegmentId;
+
+  /**
+   * Opens a segment page store, recovering the pages found in its existing segments. If the
+   * segments cannot be read, the store is cleared and starts empty.
+   *
+   * @param options options for the segment page store
+   * @return a new instance of {@link SegmentPageStore}
+   */
+  public static SegmentPageStore open(PageStoreOptions options) {
+    try {
+      return new SegmentPageStore(options);
+    } catch (IOException e) {
+      LOG.warn("Failed to recover segment page store at {}, clearing it", options.getRootDir(), e);
+      try {
+        PageStoreDir.clear(options.getRootDir());
+        return new SegmentPageStore(options);
+      } catch (IOException ex) {
+        throw new RuntimeException("Couldn't open segment page store", ex);
+      }
+    }
+  }
+
+  private SegmentPageStore(PageStoreOptions options) throws IOException {
+    mSegmentDir = Paths.get(options.getRootDir().toString(), Long.toString(options.getPageSize()));
+    mCapacity = options.getCacheSize();
+    long maxRecordLength = HEADER_SIZE + MAX_FILE_ID_LENGTH + options.getPageSize();
+    mSegmentSize = Math.max(maxRecordLength,
+        Math.min(options.getSegmentSize(), mCapacity / MIN_SEGMENTS));
+    mMaxSegments = (int) Math.max(1, mCapacity / mSegmentSize);
+    mCompactionThreshold = options.getSegmentCompactionThreshold();
+    mMappedRegions =
+        options.isMmapEnabled() ? new MappedRegionCache(options.getMmapMaxSize()) : null;
+    Files.createDirectories(mSegmentDir);
+    recover();
+  }
+
+  @Override
+  public void put(PageId pageId,
+      ByteBuffer page,
+      boolean isTemporary) throws ResourceExhaustedException, IOException {
+    byte[] fileId = pageId.getFileId().getBytes(StandardCharsets.UTF_8);
+    Preconditions.checkArgument(fileId.length <= MAX_FILE_ID_LENGTH,
+        "file ID of page %s exceeds %s bytes", pageId, MAX_FILE_ID_LENGTH);
+    int pageLength = page.remaining();
+    int headerLength = HEADER_SIZE + fileId.length;
+    Preconditions.checkArgument(headerLength + (long) pageLength <= mSegmentSize,
+        "page %s of %s bytes exceeds the segment size %s", pageId, pageLength, mSegmentSize);
+    long createdTime = System.currentTimeMillis();
+    ByteBuffer header = ByteBuffer.allocate(headerLength);
+    header.putInt(isTemporary ? RECORD_TEMP : RECORD_LIVE)
+        .putInt(fileId.length)
+        .putLong(pageId.getPageIndex())
+        .putInt(pageLength)
+        .putLong(createdTime)
+        .putInt(0)
+        .put(fileId)
+        .flip();
+    header.putInt(CHECKSUM_OFFSET, checksum(header, page));
+    Segment segment;
+    long offset;
+    try (LockResource r = new LockResource(mAppendLock)) {
+      segment = allocate(headerLength + pageLength, false);
+      offset = segment.reserve(headerLength + pageLength);
+    }
+    try {
+      try {
+        segment.writeRecord(header, page, offset);
+      } catch (IOException e) {
+        // mark the reserved space as deleted so that recovery can skip over it
+        header.putInt(0, RECORD_DELETED);
+        header.rewind();
+        segment.writeQuietly(header, offset);
+        if (e.getMessage() != null && e.getMessage().contains(ERROR_NO_SPACE_LEFT)) {
+          throw new ResourceExhaustedException(
+              String.format("%s is full, configured with %d bytes", mSegmentDir, mCapacity), e);
+        }
+        throw new IOException("Failed to write page " + pageId + " to " + segment.mPath, e);
+      }
+      PageLocation location = new PageLocation(pageId, segment, offset, headerLength, pageLength,
+          createdTime, isTemporary);
+      segment.addPage(location);
+      PageLocation previous = getIndex(isTemporary).put(pageId, location);
+      if (previous != null) {
+        release(previous);
+      }
+    } finally {
+      segment.mPendingWrites.decrementAndGet();
+      maybeRemoveSegment(segment);
+    }
+  }
+
+  @Override
+  public int get(PageId pageId, int pageOffset, int bytesToRead, ReadTargetBuffer target,
+      boolean isTemporary) throws IOException, PageNotFoundException {
+    Preconditions.checkArgument(pageOffset >= 0, "page offset should be non-negative");
+    while (true) {
+      PageLocation location = getLocation(pageId, isTemporary);
+      Preconditions.checkArgument(pageOffset <= location.mPageLength,
+          "page offset %s exceeded page size %s", pageOffset, location.mPageLength);
+      int bytesLeft = (int) Math.min(Math.min(target.remaining(), bytesToRead),
+          location.mPageLength - pageOffset);
+      try (LockResource r = new LockResource(mSegmentLock.readLock())) {
+        if (location.mSegment.mRemoved) {
+          // the page has been moved by a compaction, look it up again
+          continue;
+        }
+        long position = location.getDataOffset() + pageOffset;
+        if (mMappedRegions != null) {
+          try (MappedRegionCache.Region region = mMappedRegions.acquire(location.mSegment.mPath)) {
+            if (region != null) {
+              return region.read(position, bytesLeft, target);
+            }
+          }
+        }
+        int bytesRead = 0;
+        while (bytesLeft > 0) {
+          int bytes = target.readFromChannel(location.mSegment.mChannel, position, bytesLeft);
+          if (bytes <= 0) {
+            break;
+          }
+          bytesRead += bytes;
+          bytesLeft -= bytes;
+          position += bytes;
+        }
+        return bytesRead;
+      }
+    }
+  }
+
+  @Override
+  public void delete(PageId pageId, boolean isTemporary) throws IOException, PageNotFoundException {
+    PageLocation location = getIndex(isTemporary).remove(pageId);
+    if (location == null) {
+      throw new PageNotFoundException(pageId.toString());
+    }
+    release(location);
+  }
+
+  @Override
+  public void sync(Collection<PageId> pageIds, boolean isTemporary) throws IOException {
+    Set<Segment> segments = new HashSet<>();
+    for (PageId pageId : pageIds) {
+      PageLocation location = getIndex(isTemporary).get(pageId);
+      if (location != null) {
+        segments.add(location.mSegment);
+      }
+    }
+    try (LockResource r = new LockResource(mSegmentLock.readLock())) {
+      for (Segment segment : segments) {
+        if (!segment.mRemoved) {
+          segment.mChannel.force(false);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void commit(String fileId, String newFileId) throws IOException {
+    // holds the compaction lock so that no segment is compacted while pages are committed in place
+    try (LockResource r = new LockResource(mCompactionLock)) {
+      for (PageId pageId : new ArrayList<>(mTempPages.keySet())) {
+        if (!pageId.getFileId().equals(fileId)) {
+          continue;
+        }
+        PageLocation location = mTempPages.remove(pageId);
+        if (location == null) {
+          continue;
+        }
+        if (fileId.equals(newFileId)) {
+          PageLocation committed = location.commit();
+          location.mSegment.writeState(committed, RECORD_LIVE);
+          location.mSegment.replacePage(location, committed);
+          PageLocation previous = mPages.put(pageId, committed);
+          if (previous != null) {
+            release(previous);
+          }
+          continue;
+        }
+        ByteBuffer page = ByteBuffer.allocate(location.mPageLength);
+        try (LockResource lock = new LockResource(mSegmentLock.readLock())) {
+          location.mSegment.readFully(page, location.getDataOffset());
+        }
+        page.flip();
+        try {
+          put(new PageId(newFileId, pageId.getPageIndex()), page, false);
+        } catch (ResourceExhaustedException e) {
+          throw new IOException("Failed to commit page " + pageId, e);
+        } finally {
+          release(location);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void abort(String fileId) throws IOException {
+    for (PageId pageId : new ArrayList<>(mTempPages.keySet())) {
+      if (pageId.getFileId().equals(fileId)) {
+        PageLocation location = mTempPages.remove(pageId);
+        if (location != null) {
+          release(location);
+        }
+      }
+    }
+  }
+
+  @Override
+  public DataFileChannel getDataFileChannel(
+      PageId pageId, int pageOffset, int bytesToRead, boolean isTemporary)
+      throws PageNotFoundException {
+    Preconditions.checkArgument(pageOffset >= 0,
+        "page offset should be non-negative");
+    while (true) {
+      PageLocation location = getLocation(pageId, isTemporary);
+      Preconditions.checkArgument(pageOffset <= location.mPageLength,
+          "page offset %s exceeded page size %s", pageOffset, location.mPageLength);
+      Segment segment = location.mSegment;
+      try (LockResource r = new LockResource(mSegmentLock.readLock())) {
+        if (segment.mRemoved) {
+          // the page has been moved by a compaction, look it up again
+          continue;
+        }
+        // the segment file is kept until the channel has been read, even if it is removed
+        segment.mReaders.incrementAndGet();
+      }
+      return new DataFileChannel(segment.mPath.toFile(),
+          location.getDataOffset() + pageOffset,
+          Math.min(bytesToRead, location.mPageLength - pageOffset),
+          () -> unpin(segment));
+    }
+  }
+
+  @Override
+  public void close() {
+    // the compaction is not interrupted, since interrupting a thread closes the channel it uses
+    mClosed = true;
+    mCompactionExecutor.shutdown();
+    try {
+      if (!mCompactionExecutor.awaitTermination(COMPACTION_SHUTDOWN_TIMEOUT_SECONDS,
+          TimeUnit.SECONDS)) {
+        LOG.warn("Timed out waiting for the compaction of {} to stop", mSegmentDir);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (mMappedRegions != null) {
+      mMappedRegions.close();
+    }
+    try (LockResource r = new LockResource(mSegmentLock.writeLock())) {
+      for (Segment segment : mSegments.values()) {
+        segment.close();
+      }
+    }
+  }
+
+  /**
+   * Visits all the committed pages of this store.
+   *
+   * @param consumer the consumer of the page locations
+   */
+  void forEachPage(Consumer<PageLocation> consumer) {
+    new ArrayList<>(mPages.values()).forEach(consumer);
+  }
+
+  /**
+   * @return the number of segment files of this store
+   */
+  @VisibleForTesting
+  int getSegmentCount() {
+    return mSegments.size();
+  }
+
+  /**
+   * @return the size of the segment files of this store
+   */
+  @VisibleForTesting
+  long getSegmentSize() {
+    return mSegmentSize;
+  }
+
+  private Map<PageId, PageLocation> getIndex(boolean isTemporary) {
+    return isTemporary ? mTempPages : mPages;
+  }
+
+  private PageLocation getLocation(PageId pageId, boolean isTemporary)
+      throws PageNotFoundException {
+    PageLocation location = getIndex(isTemporary).get(pageId);
+    if (location == null) {
+      throw new PageNotFoundException(pageId.toString());
+    }
+    return location;
+  }
+
+  /**
+   * Returns the segment to append a record to, sealing the active segment and allocating a new
+   * one if the record does not fit. The pages are only appended to new segments up to one segment
+   * short of the maximum, which leaves the room for the compaction to copy pages to, so that there
+   * are never more than the maximum. When a segment is sealed or the segments are used up, a
+   * compaction is scheduled in the background.
+   *
+   * @param recordLength the length of the record
+   * @param compaction whether the record is copied by the compaction
+   */
+  @GuardedBy("mAppendLock")
+  private Segment allocate(int recordLength, boolean compaction)
+      throws IOException, ResourceExhaustedException {
+    Segment active = mActiveSegment;
+    if (active != null && active.mWritePosition + recordLength <= active.mCapacity) {
+      return active;
+    }
+    if (active != null) {
+      active.mSealed = true;
+      mActiveSegment = null;
+      maybeRemoveSegment(active);
+    }
+    int maxSegments = compaction ? mMaxSegments : Math.max(1, mMaxSegments - 1);
+    if (mSegments.size() >= maxSegments) {
+      if (!compaction) {
+        scheduleCompaction();
+      }
+      throw new ResourceExhaustedException(
+          String.format("%s is full, configured with %d bytes", mSegmentDir, mCapacity));
+    }
+    Segment segment = createSegment(mNextSegmentId++);
+    mActiveSegment = segment;
+    if (active != null && !compaction) {
+      scheduleCompaction();
+    }
+    return segment;
+  }
+
+  private void scheduleCompaction() {
+    if (mClosed || !mCompactionScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      mCompactionExecutor.execute(this::compactSegments);
+    } catch (RejectedExecutionException e) {
+      mCompactionScheduled.set(false);
+    }
+  }
+
+  /**
+   * Compacts the sealed segments whose live bytes are under the compaction threshold, fewest live
+   * bytes first. Once pages cannot be appended to new segments anymore, the segment with the
+   * fewest live bytes is compacted as well if any of its pages has been deleted.
+   */
+  private void compactSegments() {
+    // compactions scheduled from now on run again once this one is done
+    mCompactionScheduled.set(false);
+    try (LockResource r = new LockResource(mCompactionLock)) {
+      boolean compactedFull = false;
+      while (!mClosed) {
+        Segment victim = mSegments.values().stream()
+            .filter(segment -> segment.mSealed && segment.mPendingWrites.get() == 0)
+            .min(Comparator.comparingLong(segment -> segment.mLiveBytes.get()))
+            .orElse(null);
+        if (victim == null) {
+          return;
+        }
+        long liveBytes = victim.mLiveBytes.get();
+        boolean sparse = liveBytes < mCompactionThreshold * victim.mCapacity;
+        boolean full = !compactedFull && mSegments.size() >= Math.max(1, mMaxSegments - 1)
+            && liveBytes < victim.mWritePosition;
+        if (!sparse && !full) {
+          return;
+        }
+        compactedFull |= !sparse;
+        compact(victim);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to compact the segments of {}", mSegmentDir, e);
+    }
+  }
+
+  /**
+   * Copies the live pages of a sealed segment to the active segment, then deletes it. The append
+   * lock is only held to allocate the space of each page, so that the pages are put meanwhile.
+   */
+  @GuardedBy("mCompactionLock")
+  private void compact(Segment victim) throws IOException, ResourceExhaustedException {
+    LOG.debug("Compacting segment {} with {} live bytes", victim.mPath, victim.mLiveBytes.get());
+    for (PageLocation location : victim.getPages()) {
+      if (mClosed) {
+        return;
+      }
+      Map<PageId, PageLocation> index = getIndex(location.mTemporary);
+      if (index.get(location.mPageId) != location) {
+        continue;
+      }
+      ByteBuffer record = ByteBuffer.allocate(location.getRecordLength());
+      try (LockResource r = new LockResource(mSegmentLock.readLock())) {
+        if (victim.mRemoved) {
+          return;
+        }
+        victim.readFully(record, location.mOffset);
+      }
+      record.flip();
+      ByteBuffer header = record.duplicate();
+      header.limit(location.mHeaderLength);
+      record.position(location.mHeaderLength);
+      Segment target;
+      long offset;
+      try (LockResource r = new LockResource(mAppendLock)) {
+        target = allocate(location.getRecordLength(), true);
+        offset = target.reserve(location.getRecordLength());
+      }
+      try {
+        target.writeRecord(header, record, offset);
+        PageLocation moved = location.moveTo(target, offset);
+        target.addPage(moved);
+        if (index.replace(location.mPageId, location, moved)) {
+          victim.removePage(location);
+        } else {
+          // the page was deleted or overwritten while being copied
+          release(moved);
+        }
+      } finally {
+        target.mPendingWrites.decrementAndGet();
+        maybeRemoveSegment(target);
+      }
+    }
+    removeSegment(victim);
+  }
+
+  /**
+   * Marks the record of a page that is no longer indexed as deleted.
+   */
+  private void release(PageLocation location) {
+    Segment segment = location.mSegment;
+    try (LockResource r = new LockResource(mSegmentLock.readLock())) {
+      if (!segment.mRemoved) {
+        segment.writeState(location, RECORD_DELETED);
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to mark page {} as deleted in {}", location.mPageId, segment.mPath, e);
+    }
+    segment.removePage(location);
+    maybeRemoveSegment(segment);
+  }
+
+  private void maybeRemoveSegment(Segment segment) {
+    if (segment.mSealed && segment.mLiveBytes.get() == 0 && segment.mPendingWrites.get() == 0) {
+      removeSegment(segment);
+    }
+  }
+
+  /**
+   * Removes a segment from the store. Its file is deleted once no channel returned by
+   * {@link #getDataFileChannel} is reading from it anymore.
+   */
+  private void removeSegment(Segment segment) {
+    try (LockResource r = new LockResource(mSegmentLock.writeLock())) {
+      if (segment.mRemoved) {
+        return;
+      }
+      segment.mRemoved = true;
+      mSegments.remove(segment.mId);
+      segment.close();
+      if (mMappedRegions != null) {
+        mMappedRegions.invalidate(segment.mPath);
+      }
+    }
+    if (segment.mReaders.get() == 0) {
+      segment.delete();
+    } else {
+      LOG.debug("Deferring the deletion of segment {} until it is no longer read", segment.mPath);
+    }
+  }
+
+  private void unpin(Segment segment) {
+    if (segment.mReaders.decrementAndGet() == 0 && segment.mRemoved) {
+      segment.delete();
+    }
+  }
+
+  private Segment createSegment(long id) throws IOException, ResourceExhaustedException {
+    Path path = mSegmentDir.resolve(SEGMENT_FILE_PREFIX + id);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.setLength(mSegmentSize);
+    } catch (IOException e) {
+      Files.deleteIfExists(path);
+      if (e.getMessage() != null && e.getMessage().contains(ERROR_NO_SPACE_LEFT)) {
+        throw new ResourceExhaustedException(
+            String.format("%s is full, configured with %d bytes", mSegmentDir, mCapacity), e);
+      }
+      throw e;
+    }
+    Segment segment = new Segment(id, path, mSegmentSize);
+    mSegments.put(id, segment);
+    return segment;
+  }
+
+  /**
+   * Rebuilds the index from the existing segments. Temporary pages are discarded, and scanning a
+   * segment stops at the first record that is incomplete, cannot be parsed, or whose checksum
+   * does not match.
+   */
+  private void recover() throws IOException {
+    Map<Long, Path> segmentFiles = new TreeMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(mSegmentDir)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        Long id = null;
+        if (name.startsWith(SEGMENT_FILE_PREFIX) && Files.isRegularFile(path)) {
+          try {
+            id = Long.parseLong(name.substring(SEGMENT_FILE_PREFIX.length()));
+          } catch (NumberFormatException e) {
+            // not a segment
+          }
+        }
+        if (id == null) {
+          LOG.warn("Deleting unrecognized file {} in segment page store", path);
+          FileUtils.deletePathRecursively(path.toString());
+        } else {
+          segmentFiles.put(id, path);
+        }
+      }
+    }
+    for (Map.Entry<Long, Path> entry : segmentFiles.entrySet()) {
+      Segment segment = new Segment(entry.getKey(), entry.getValue(), Files.size(entry.getValue()));
+      mSegments.put(segment.mId, segment);
+      mNextSegmentId = entry.getKey() + 1;
+      recoverSegment(segment);
+      segment.mSealed = true;
+      maybeRemoveSegment(segment);
+    }
+    LOG.info("Recovered {} pages from {} segments in {}", mPages.size(), mSegments.size(),
+        mSegmentDir);
+  }
+
+  private void recoverSegment(Segment segment) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    long position = 0;
+    while (position + HEADER_SIZE <= segment.mCapacity) {
+      header.clear();
+      segment.readFully(header, position);
+      header.flip();
+      int state = header.getInt();
+      int fileIdLength = header.getInt();
+      long pageIndex = header.getLong();
+      int pageLength = header.getInt();
+      long createdTime = header.getLong();
+      int checksum = header.getInt();
+      if ((state != RECORD_LIVE && state != RECORD_TEMP && state != RECORD_DELETED)
+          || fileIdLength < 0 || fileIdLength > MAX_FILE_ID_LENGTH || pageLength < 0
+          || position + HEADER_SIZE + fileIdLength + pageLength > segment.mCapacity) {
+        if (state != RECORD_END) {
+          LOG.warn("Stopped recovering segment {} at invalid record at offset {}",
+              segment.mPath, position);
+        }
+        break;
+      }
+      int headerLength = HEADER_SIZE + fileIdLength;
+      if (state == RECORD_LIVE) {
+        ByteBuffer record = ByteBuffer.allocate(headerLength + pageLength);
+        segment.readFully(record, position);
+        record.flip();
+        ByteBuffer page = record.duplicate();
+        page.position(headerLength);
+        record.limit(headerLength);
+        if (checksum(record, page) != checksum) {
+          LOG.warn("Stopped recovering segment {} at corrupted record at offset {}",
+              segment.mPath, position);
+          break;
+        }
+        PageId pageId = new PageId(new String(record.array(), HEADER_SIZE, fileIdLength,
+            StandardCharsets.UTF_8), pageIndex);
+        PageLocation location = new PageLocation(pageId, segment, position, headerLength,
+            pageLength, createdTime, false);
+        segment.addPage(location);
+        PageLocation previous = mPages.put(pageId, location);
+        if (previous != null) {
+          release(previous);
+        }
+      } else if (state == RECORD_TEMP) {
+        segment.writeQuietly(
+            (ByteBuffer) ByteBuffer.allocate(Integer.BYTES).putInt(RECORD_DELETED).flip(),
+            position);
+      }
+      position += headerLength + pageLength;
+    }
+    segment.mWritePosition = position;
+  }
+
+  /**
+   * Computes the checksum of a record, which covers its header but the state and the checksum
+   * itself, the file ID and the page data.
+   *
+   * @param header the header of the record followed by the file ID
+   * @param page the page data
+   * @return the checksum
+   */
+  private static int checksum(ByteBuffer header, ByteBuffer page) {
+    CRC32 crc = new CRC32();
+    ByteBuffer fields = header.duplicate();
+    fields.limit(CHECKSUM_OFFSET).position(Integer.BYTES);
+    crc.update(fields);
+    ByteBuffer fileId = header.duplicate();
+    fileId.position(HEADER_SIZE);
+    crc.update(fileId);
+    crc.update(page.duplicate());
+    return (int) crc.getValue();
+  }
+
+  /**
+   * The location of a page in a segment.
+   */
+  static final class PageLocation {
+    private final PageId mPageId;
+    private final Segment mSegment;
+    private final long mOffset;
+    private final int mHeaderLength;
+    private final int mPageLength;
+    private final long mCreatedTime;
+    private final boolean mTemporary;
+
+    private PageLocation(PageId pageId, Segment segment, long offset, int headerLength,
+        int pageLength, long createdTime, boolean temporary) {
+      mPageId = pageId;
+      mSegment = segment;
+      mOffset = offset;
+      mHeaderLength = headerLength;
+      mPageLength = pageLength;
+      mCreatedTime = createdTime;
+      mTemporary = temporary;
+    }
+
+    /**
+     * @return the page id
+     */
+    PageId getPageId() {
+      return mPageId;
+    }
+
+    /**
+     * @return the page length in bytes
+     */
+    int getPageLength() {
+      return mPageLength;
+    }
+
+    /**
+     * @return the time the page was created
+     */
+    long getCreatedTime() {
+      return mCreatedTime;
+    }
+
+    private long getDataOffset() {
+      return mOffset + mHeaderLength;
+    }
+
+    private int getRecordLength() {
+      return mHeaderLength + mPageLength;
+    }
+
+    private PageLocation moveTo(Segment segment, long offset) {
+      return new PageLocation(mPageId, segment, offset, mHeaderLength, mPageLength, mCreatedTime,
+          mTemporary);
+    }
+
+    private PageLocation commit() {
+      return new PageLocation(mPageId, mSegment, mOffset, mHeaderLength, mPageLength,
+          mCreatedTime, false);
+    }
+  }
+
+  /**
+   * A segment file and the accounting of its live pages.
+   */
+  private static final class Segment {
+    private final long mId;
+    private final Path mPath;
+    private final long mCapacity;
+    private final FileChannel mChannel;
+    private final Set<PageLocation> mPages = ConcurrentHashMap.newKeySet();
+    private final AtomicLong mLiveBytes = new AtomicLong();
+    /** The number of records reserved in this segment but not indexed yet. */
+    private final AtomicInteger mPendingWrites = new AtomicInteger();
+    /** The number of channels returned to read from the file of this segment. */
+    private final AtomicInteger mReaders = new AtomicInteger();
+    private final AtomicBoolean mDeleted = new AtomicBoolean();
+    /** The offset of the next record, only advanced for the active segment. */
+    private volatile long mWritePosition;
+    /** Whether no more records will be appended to this segment. */
+    private volatile boolean mSealed;
+    private volatile boolean mRemoved;
+
+    private Segment(long id, Path path, long capacity) throws IOException {
+      mId = id;
+      mPath = path;
+      mCapacity = capacity;
+      mChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private long reserve(int recordLength) {
+      long offset = mWritePosition;
+      mWritePosition = offset + recordLength;
+      mPendingWrites.incrementAndGet();
+      return offset;
+    }
+
+    private void addPage(PageLocation location) {
+      if (mPages.add(location)) {
+        mLiveBytes.addAndGet(location.getRecordLength());
+      }
+    }
+
+    private void removePage(PageLocation location) {
+      if (mPages.remove(location)) {
+        mLiveBytes.addAndGet(-location.getRecordLength());
+      }
+    }
+
+    private void replacePage(PageLocation location, PageLocation newLocation) {
+      removePage(location);
+      addPage(newLocation);
+    }
+
+    private List<PageLocation> getPages() {
+      return new ArrayList<>(mPages);
+    }
+
+    /**
+     * Writes the page data before the header. The record is not synced to the disk, and a record
+     * whose data was not written entirely when the header was is detected by its checksum.
+     */
+    private void writeRecord(ByteBuffer header, ByteBuffer page, long offset) throws IOException {
+      writeFully(page, offset + header.remaining());
+      writeFully(header, offset);
+    }
+
+    private void writeState(PageLocation location, int state) throws IOException {
+      writeFully((ByteBuffer) ByteBuffer.allocate(Integer.BYTES).putInt(state).flip(),
+          location.mOffset);
+    }
+
+    private void writeQuietly(ByteBuffer buffer, long offset) {
+      try {
+        writeFully(buffer, offset);
+      } catch (IOException e) {
+        LOG.warn("Failed to write to segment {} at offset {}", mPath, offset, e);
+      }
+    }
+
+    private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+      long position = offset;
+      while (buffer.hasRemaining()) {
+        position += mChannel.write(buffer, position);
+      }
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+      long position = offset;
+      while (buffer.hasRemaining()) {
+        int bytesRead = mChannel.read(buffer, position);
+        if (bytesRead < 0) {
+          throw new EOFException(String.format("Unexpected end of segment %s at offset %s",
+              mPath, position));
+        }
+        position += bytesRead;
+      }
+    }
+
+    private void close() {
+      try {
+        mChannel.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close segment {}", mPath, e);
+      }
+    }
+
+    private void delete() {
+      if (!mDeleted.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        Files.deleteIfExists(mPath);
+      } catch (IOException e) {
+        LOG.warn("Failed to delete segment {}", mPath, e);
+      }
+    }
+  }
+}
@@ -22,10 +22,12 @@ import alluxio.client.block.stream.GrpcDataReader;
 import alluxio.client.file.DoraFileOutStream;
 import alluxio.client.file.FileOutStream;
 import alluxio.client.file.FileSystemContext;
+import alluxio.client.file.ListStatusPartialResult;
 import alluxio.client.file.PositionReadFileInStream;
 import alluxio.client.file.URIStatus;
 import alluxio.client.file.dora.netty.NettyDataReader;
 import alluxio.client.file.dora.netty.NettyDataWriter;
+import alluxio.client.file.dora.netty.NettyReadMultiplexer;
 import alluxio.client.file.options.OutStreamOptions;
 import alluxio.collections.Pair;
 import alluxio.conf.PropertyKey;
@@ -48,9 +50,14 @@ import alluxio.grpc.ExistsPResponse;
 import alluxio.grpc.FileInfo;
 import alluxio.grpc.GetStatusPOptions;
 import alluxio.grpc.GetStatusPRequest;
+import alluxio.grpc.GetStatusesRequest;
+import alluxio.grpc.GetStatusesResponse;
 import alluxio.grpc.GrpcUtils;
 import alluxio.grpc.ListStatusPOptions;
 import alluxio.grpc.ListStatusPRequest;
+import alluxio.grpc.ListStatusPartialPOptions;
+import alluxio.grpc.ListStatusPartialPRequest;
+import alluxio.grpc.PathStatus;
 import alluxio.grpc.ReadRequest;
 import alluxio.grpc.RenamePOptions;
 import alluxio.grpc.RenamePRequest;
@@ -61,22 +68,33 @@ import alluxio.proto.dataserver.Protocol;
 import alluxio.resource.CloseableResource;
 import alluxio.wire.WorkerNetAddress;
 
+import com.google.common.io.Closer;
+
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * Dora cache client.
  */
-public class DoraCacheClient {
+public class DoraCacheClient implements Closeable {
   public static final int DUMMY_BLOCK_ID = -1;
   public static final int PREFERRED_WORKER_COUNT = 1;
   private final FileSystemContext mContext;
   private final long mChunkSize;
   private final WorkerLocationPolicy mWorkerLocationPolicy;
+  private final WorkerLoadTracker mWorkerLoadTracker;
+  private final int mReadReplicas;
 
   private final boolean mNettyTransEnabled;
+  @Nullable
+  private final NettyReadMultiplexer mReadMultiplexer;
 
   /**
    * Constructor.
@@ -91,6 +109,13 @@ public class DoraCacheClient {
         PropertyKey.USER_STREAMING_READER_CHUNK_SIZE_BYTES);
     mNettyTransEnabled =
         context.getClusterConf().getBoolean(PropertyKey.USER_NETTY_DATA_TRANSMISSION_ENABLED);
+    mReadReplicas = Math.max(1,
+        context.getClusterConf().getInt(PropertyKey.USER_WORKER_SELECTION_REPLICAS));
+    mWorkerLoadTracker = new WorkerLoadTracker(
+        context.getClusterConf().getMs(PropertyKey.USER_WORKER_SELECTION_FAILURE_COOLDOWN));
+    mReadMultiplexer = mNettyTransEnabled && context.getClusterConf()
+        .getBoolean(PropertyKey.USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED)
+        ? new NettyReadMultiplexer(context) : null;
   }
 
   /**
@@ -102,14 +127,10 @@ public class DoraCacheClient {
    */
   public PositionReadFileInStream getInStream(URIStatus status,
       Protocol.OpenUfsBlockOptions ufsOptions) {
-    WorkerNetAddress workerNetAddress = getWorkerNetAddress(status.getUfsPath());
+    List<WorkerNetAddress> workers = getReadWorkerNetAddresses(status.getUfsPath());
     // Construct the partial read request
-    NettyDataReader reader;
-    if (mNettyTransEnabled) {
-      reader = createNettyDataReader(workerNetAddress, ufsOptions);
-    } else {
-      throw new UnsupportedOperationException("Grpc dora reader not implemented");
-    }
+    PositionReader reader = new FailoverDataReader(workers,
+        worker -> createDataReader(worker, ufsOptions), mWorkerLoadTracker);
     return new PositionReadFileInStream(reader, status.getLength());
   }
 
@@ -141,17 +162,27 @@ public class DoraCacheClient {
    * @param status
    * @param ufsOptions
    * @param externalPositionReader
-   * @return a netty position reader
+   * @return a position reader reading from the workers over netty, or over gRPC if netty data
+   *         transmission is disabled
    */
   public DoraCachePositionReader createNettyPositionReader(URIStatus status,
       Protocol.OpenUfsBlockOptions ufsOptions,
       CloseableSupplier<PositionReader> externalPositionReader) {
-    WorkerNetAddress workerNetAddress = getWorkerNetAddress(status.toString());
+    List<WorkerNetAddress> workers = getReadWorkerNetAddresses(status.toString());
     // Construct the partial read request
-    NettyDataReader reader = createNettyDataReader(workerNetAddress, ufsOptions);
+    PositionReader reader = new FailoverDataReader(workers,
+        worker -> createDataReader(worker, ufsOptions), mWorkerLoadTracker);
     return new DoraCachePositionReader(reader, status.getLength(), externalPositionReader);
   }
 
+  private PositionReader createDataReader(WorkerNetAddress workerNetAddress,
+      Protocol.OpenUfsBlockOptions ufsOptions) {
+    if (mNettyTransEnabled) {
+      return createNettyDataReader(workerNetAddress, ufsOptions);
+    }
+    return new GrpcPositionReader(createGrpcDataReader(workerNetAddress, ufsOptions));
+  }
+
   protected GrpcDataReader.Factory createGrpcDataReader(
       WorkerNetAddress workerNetAddress,
       Protocol.OpenUfsBlockOptions ufsOptions) {
@@ -169,7 +200,7 @@ public class DoraCacheClient {
         .setBlockId(DUMMY_BLOCK_ID)
         .setOpenUfsBlockOptions(ufsOptions)
         .setChunkSize(mChunkSize);
-    return new NettyDataReader(mContext, workerNetAddress, builder);
+    return new NettyDataReader(mContext, workerNetAddress, builder, mReadMultiplexer);
   }
 
   /**
@@ -196,6 +227,23 @@ public class DoraCacheClient {
     }
   }
 
+  /**
+   * List a part of a directory from Worker.
+   * @param path the path of the directory
+   * @param options the partial listing options
+   * @return the part of the directory
+   */
+  public ListStatusPartialResult listStatusPartial(String path, ListStatusPartialPOptions options)
+      throws PermissionDeniedException {
+    try (CloseableResource<BlockWorkerClient> client =
+             mContext.acquireBlockWorkerClient(getWorkerNetAddress(path))) {
+      return ListStatusPartialResult.fromProto(client.get().listStatusPartial(
+          ListStatusPartialPRequest.newBuilder().setPath(path).setOptions(options).build()));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * Get status.
    *
@@ -223,6 +271,51 @@ public class DoraCacheClient {
     }
   }
 
+  /**
+   * Get the statuses of many paths. The paths are grouped by the workers they belong to, and the
+   * statuses are got from all the workers in parallel, each with a single request.
+   *
+   * @param paths the paths
+   * @param options the options
+   * @return the statuses of the paths which exist, by path
+   */
+  public Map<String, URIStatus> getStatuses(List<String> paths, GetStatusPOptions options)
+      throws PermissionDeniedException {
+    List<BlockWorkerInfo> workers = getCachedWorkers();
+    Map<WorkerNetAddress, GetStatusesRequest.Builder> requests = new HashMap<>();
+    for (String path : paths) {
+      BlockWorkerInfo worker = mWorkerLocationPolicy.getPreferredWorker(workers, path);
+      checkState(worker != null);
+      requests.computeIfAbsent(worker.getNetAddress(),
+          address -> GetStatusesRequest.newBuilder().setOptions(options)).addPaths(path);
+    }
+    Map<String, URIStatus> result = new HashMap<>();
+    try (Closer closer = Closer.create()) {
+      // sends all the requests before reading any response, so that the workers serve them
+      // at the same time
+      List<Iterator<GetStatusesResponse>> responses = new ArrayList<>();
+      for (Map.Entry<WorkerNetAddress, GetStatusesRequest.Builder> request
+          : requests.entrySet()) {
+        CloseableResource<BlockWorkerClient> client =
+            closer.register(mContext.acquireBlockWorkerClient(request.getKey()));
+        responses.add(client.get().getStatuses(request.getValue().build()));
+      }
+      for (Iterator<GetStatusesResponse> response : responses) {
+        response.forEachRemaining(batch -> {
+          for (PathStatus status : batch.getStatusesList()) {
+            if (status.hasFileInfo()) {
+              result.put(status.getPath(),
+                  new URIStatus(GrpcUtils.fromProto(status.getFileInfo())));
+            }
+          }
+        });
+      }
+      return result;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * Create File.
    * @param path the file path
@@ -384,17 +477,47 @@ public class DoraCacheClient {
    * @return the related worker net address where file locates
    */
   public WorkerNetAddress getWorkerNetAddress(String path) {
-    List<BlockWorkerInfo> workers = null;
+    BlockWorkerInfo preferredWorker =
+        mWorkerLocationPolicy.getPreferredWorker(getCachedWorkers(), path);
+    checkState(preferredWorker != null);
+    return preferredWorker.getNetAddress();
+  }
+
+  /**
+   * Get the worker net addresses the data of the specific file path may be read from, in the
+   * order to read from them. The first one is the least loaded of the workers, preferring the
+   * worker returned by {@link #getWorkerNetAddress(String)} unless it is overloaded, and the
+   * others are the ones to fail over to.
+   *
+   * @param path the file path
+   * @return the worker net addresses to read from
+   */
+  public List<WorkerNetAddress> getReadWorkerNetAddresses(String path) {
+    List<WorkerNetAddress> workers = getPreferredWorkers(path, mReadReplicas).stream()
+        .map(BlockWorkerInfo::getNetAddress)
+        .collect(Collectors.toList());
+    return mWorkerLoadTracker.order(workers);
+  }
+
+  private List<BlockWorkerInfo> getPreferredWorkers(String path, int count) {
+    List<BlockWorkerInfo> preferredWorkers =
+        mWorkerLocationPolicy.getPreferredWorkers(getCachedWorkers(), path, count);
+    checkState(preferredWorkers.size() > 0);
+    return preferredWorkers;
+  }
+
+  private List<BlockWorkerInfo> getCachedWorkers() {
     try {
-      workers = mContext.getCachedWorkers();
+      return mContext.getCachedWorkers();
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
-    List<BlockWorkerInfo> preferredWorkers =
-        mWorkerLocationPolicy.getPreferredWorkers(workers,
-            path, PREFERRED_WORKER_COUNT);
-    checkState(preferredWorkers.size() > 0);
-    WorkerNetAddress workerNetAddress = preferredWorkers.get(0).getNetAddress();
-    return workerNetAddress;
+  }
+
+  @Override
+  public void close() {
+    if (mReadMultiplexer != null) {
+      mReadMultiplexer.close();
+    }
   }
 }
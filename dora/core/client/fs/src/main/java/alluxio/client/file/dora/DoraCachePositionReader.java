@@ -13,13 +13,16 @@ package alluxio.client.file.dora;
 
 import alluxio.CloseableSupplier;
 import alluxio.PositionReader;
-import alluxio.client.file.dora.netty.NettyDataReader;
 import alluxio.client.file.dora.netty.PartialReadException;
+import alluxio.file.FileRange;
 import alluxio.file.ReadTargetBuffer;
 
 import com.google.common.base.Throwables;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntFunction;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -27,7 +30,7 @@ import javax.annotation.concurrent.ThreadSafe;
  */
 @ThreadSafe
 public class DoraCachePositionReader implements PositionReader {
-  private final NettyDataReader mNettyReader;
+  private final PositionReader mNettyReader;
   private final long mFileLength;
   private final CloseableSupplier<PositionReader> mFallbackReader;
   private volatile boolean mClosed;
@@ -38,7 +41,7 @@ public class DoraCachePositionReader implements PositionReader {
    * @param fallbackReader the position reader to fallback to when errors happen
    */
   // TODO(lu) structure for fallback position read
-  public DoraCachePositionReader(NettyDataReader dataReader,
+  public DoraCachePositionReader(PositionReader dataReader,
       long length, CloseableSupplier<PositionReader> fallbackReader) {
     mNettyReader = dataReader;
     mFileLength = length;
@@ -65,6 +68,19 @@ public class DoraCachePositionReader implements PositionReader {
     }
   }
 
+  @Override
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    FileRange.checkWithinFile(ranges, mFileLength);
+    try {
+      return mNettyReader.readVectored(ranges, allocate);
+    } catch (PartialReadException e) {
+      // the data of the ranges read so far is not returned
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    }
+  }
+
   @Override
   public synchronized void close() throws IOException {
     if (mClosed) {
@@ -0,0 +1,146 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import alluxio.PositionReader;
+import alluxio.client.file.dora.netty.PartialReadException;
+import alluxio.file.FileRange;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.wire.WorkerNetAddress;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link PositionReader} which reads from the first of the workers a file may be read from, and
+ * fails over to the next one when a read times out or the connection to the worker fails before
+ * any data is read. The load and the failures of the workers are reported to a
+ * {@link WorkerLoadTracker}.
+ */
+@ThreadSafe
+public class FailoverDataReader implements PositionReader {
+  private static final Logger LOG = LoggerFactory.getLogger(FailoverDataReader.class);
+
+  private final List<WorkerNetAddress> mWorkers;
+  private final List<PositionReader> mReaders;
+  private final WorkerLoadTracker mLoadTracker;
+  /** The index of the worker being read from. */
+  private final AtomicInteger mIndex = new AtomicInteger();
+
+  /**
+   * @param workers the workers in the order to read from
+   * @param readerFactory creates the reader of a worker
+   * @param loadTracker the tracker of the load of the workers
+   */
+  public FailoverDataReader(List<WorkerNetAddress> workers,
+      Function<WorkerNetAddress, PositionReader> readerFactory, WorkerLoadTracker loadTracker) {
+    Preconditions.checkArgument(!workers.isEmpty(), "no worker to read from");
+    mWorkers = workers;
+    mReaders = new ArrayList<>(workers.size());
+    for (WorkerNetAddress worker : workers) {
+      mReaders.add(readerFactory.apply(worker));
+    }
+    mLoadTracker = loadTracker;
+  }
+
+  @Override
+  public int readInternal(long position, ReadTargetBuffer buffer, int length)
+      throws IOException {
+    try {
+      return readWithFailover(reader -> reader.read(position, buffer, length), true);
+    } catch (PartialReadException e) {
+      if (!isWorkerFailure(e) || e.getBytesRead() == 0) {
+        throw e;
+      }
+      // the data read so far is returned, and the next read is from the next worker, if any
+      return e.getBytesRead();
+    }
+  }
+
+  /**
+   * Reads the ranges from the worker being read from, failing over to the next one if the worker
+   * fails. The ranges are read again from the next worker even if some of their data was read.
+   */
+  @Override
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    return readWithFailover(reader -> reader.readVectored(ranges, allocate), false);
+  }
+
+  private <T> T readWithFailover(ReadFunction<T> read, boolean partialReadReturned)
+      throws IOException {
+    while (true) {
+      int index = mIndex.get();
+      WorkerNetAddress worker = mWorkers.get(index);
+      long startNs = System.nanoTime();
+      mLoadTracker.onStart(worker);
+      try {
+        T result = read.apply(mReaders.get(index));
+        mLoadTracker.onComplete(worker, System.nanoTime() - startNs);
+        return result;
+      } catch (PartialReadException e) {
+        if (!isWorkerFailure(e)) {
+          mLoadTracker.onComplete(worker, System.nanoTime() - startNs);
+          throw e;
+        }
+        mLoadTracker.onFailure(worker);
+        if (index + 1 >= mWorkers.size()) {
+          throw e;
+        }
+        if (mIndex.compareAndSet(index, index + 1)) {
+          LOG.warn("Failed to read from worker {}, failing over to worker {}: {}",
+              worker, mWorkers.get(index + 1), e.getCause().toString());
+        }
+        if (partialReadReturned && e.getBytesRead() > 0) {
+          throw e;
+        }
+      } catch (IOException | RuntimeException e) {
+        mLoadTracker.onComplete(worker, System.nanoTime() - startNs);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * @return the worker being read from
+   */
+  public WorkerNetAddress getWorker() {
+    return mWorkers.get(mIndex.get());
+  }
+
+  private static boolean isWorkerFailure(PartialReadException e) {
+    return e.getCauseType() == PartialReadException.CauseType.TIMEOUT
+        || e.getCauseType() == PartialReadException.CauseType.TRANSPORT_ERROR;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (PositionReader reader : mReaders) {
+      reader.close();
+    }
+  }
+
+  @FunctionalInterface
+  private interface ReadFunction<T> {
+    T apply(PositionReader reader) throws IOException;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import alluxio.PositionReader;
+import alluxio.client.block.stream.DataReader;
+import alluxio.client.file.dora.netty.PartialReadException;
+import alluxio.client.file.dora.netty.PartialReadException.CauseType;
+import alluxio.exception.status.AlluxioStatusException;
+import alluxio.exception.status.DeadlineExceededException;
+import alluxio.exception.status.UnavailableException;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.network.protocol.databuffer.DataBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link PositionReader} which reads from a worker over a gRPC stream, for the clusters where
+ * the netty data port of the workers is not reachable.
+ *
+ * Each positioned read opens a stream for the range read. The worker streams the range in chunks,
+ * and pauses when too many chunks are not acknowledged by the client yet. The chunks are
+ * unmarshalled without copying when zero-copy is enabled.
+ * Failures are reported as {@link PartialReadException}s, the same way as by the netty reader,
+ * so that the reads fail over to the other workers on timeouts and transport errors.
+ */
+@ThreadSafe
+public class GrpcPositionReader implements PositionReader {
+  private final DataReader.Factory mReaderFactory;
+
+  /**
+   * @param readerFactory the factory of the gRPC data readers of the worker
+   */
+  public GrpcPositionReader(DataReader.Factory readerFactory) {
+    mReaderFactory = readerFactory;
+  }
+
+  @Override
+  public int readInternal(long position, ReadTargetBuffer buffer, int length)
+      throws IOException {
+    int bytesRead = 0;
+    try (DataReader reader = mReaderFactory.create(position, length)) {
+      while (bytesRead < length) {
+        DataBuffer chunk = reader.readChunk();
+        if (chunk == null) {
+          break;
+        }
+        try {
+          int chunkLength = Math.min(chunk.readableBytes(), length - bytesRead);
+          // the chunks unmarshalled without copying are not backed by a single buffer
+          chunk.readBytes(new TargetOutputStream(buffer), chunkLength);
+          bytesRead += chunkLength;
+        } finally {
+          chunk.release();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      throw toPartialReadException(length, bytesRead, e);
+    }
+    return bytesRead == 0 ? -1 : bytesRead;
+  }
+
+  private static PartialReadException toPartialReadException(int bytesWanted, int bytesRead,
+      Exception e) {
+    if (e instanceof DeadlineExceededException) {
+      TimeoutException timeout = new TimeoutException(e.getMessage());
+      timeout.initCause(e);
+      return new PartialReadException(bytesWanted, bytesRead, CauseType.TIMEOUT, timeout);
+    }
+    if (e instanceof AlluxioStatusException && !(e instanceof UnavailableException)) {
+      return new PartialReadException(bytesWanted, bytesRead, CauseType.SERVER_ERROR, e);
+    }
+    return new PartialReadException(bytesWanted, bytesRead, CauseType.TRANSPORT_ERROR, e);
+  }
+
+  /**
+   * An output stream writing into a target buffer.
+   */
+  private static final class TargetOutputStream extends OutputStream {
+    private final ReadTargetBuffer mTarget;
+
+    TargetOutputStream(ReadTargetBuffer target) {
+      mTarget = target;
+    }
+
+    @Override
+    public void write(int b) {
+      mTarget.writeBytes(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      mTarget.writeBytes(b, off, len);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    mReaderFactory.close();
+  }
+}
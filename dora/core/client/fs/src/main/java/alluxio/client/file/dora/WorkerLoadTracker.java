@@ -0,0 +1,168 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import alluxio.wire.WorkerNetAddress;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Tracks the load of the workers as seen by this client, to choose which of the workers a file
+ * may be read from serves a read.
+ *
+ * The load of a worker is estimated as the time a new request would take, that is the number of
+ * requests in flight to the worker times its recent latency. The first candidate in consistent
+ * hash order is chosen unless it is much more loaded than another, so that the pages of a file
+ * are cached by a single worker until the file is hot enough to overload it. A worker a read
+ * failed on is chosen last until the failure cooldown expires.
+ */
+@ThreadSafe
+public class WorkerLoadTracker {
+  /** The weight of a new latency sample in the moving average. */
+  private static final double LATENCY_WEIGHT = 0.2;
+  /** A candidate is skipped if its load is more than this many times the lowest load. */
+  private static final double LOAD_IMBALANCE_FACTOR = 2.0;
+
+  private final long mFailureCooldownMs;
+  private final Clock mClock;
+  private final ConcurrentHashMap<WorkerNetAddress, Load> mLoads = new ConcurrentHashMap<>();
+
+  /**
+   * @param failureCooldownMs how long a worker is chosen last after a read from it failed
+   */
+  public WorkerLoadTracker(long failureCooldownMs) {
+    this(failureCooldownMs, Clock.systemUTC());
+  }
+
+  /**
+   * @param failureCooldownMs how long a worker is chosen last after a read from it failed
+   * @param clock the clock to expire the failures with
+   */
+  @VisibleForTesting
+  WorkerLoadTracker(long failureCooldownMs, Clock clock) {
+    mFailureCooldownMs = failureCooldownMs;
+    mClock = clock;
+  }
+
+  /**
+   * Orders the workers a file may be read from by preference. The first worker is the one to
+   * read from, and the others are the ones to fail over to.
+   *
+   * @param candidates the workers in consistent hash order
+   * @return the workers in the order to read from
+   */
+  public List<WorkerNetAddress> order(List<WorkerNetAddress> candidates) {
+    if (candidates.size() <= 1) {
+      return candidates;
+    }
+    long now = mClock.millis();
+    List<WorkerNetAddress> healthy = new ArrayList<>(candidates.size());
+    List<WorkerNetAddress> failed = new ArrayList<>();
+    double latencySum = 0;
+    int latencyCount = 0;
+    for (WorkerNetAddress candidate : candidates) {
+      Load load = mLoads.get(candidate);
+      if (load != null && load.mFailedUntilMs > now) {
+        failed.add(candidate);
+        continue;
+      }
+      healthy.add(candidate);
+      if (load != null && load.mLatencyNanos > 0) {
+        latencySum += load.mLatencyNanos;
+        latencyCount++;
+      }
+    }
+    if (healthy.size() <= 1) {
+      healthy.addAll(failed);
+      return healthy;
+    }
+    // a worker without latency samples is assumed to be as fast as the others
+    double defaultLatency = latencyCount == 0 ? 1 : latencySum / latencyCount;
+    double[] scores = new double[healthy.size()];
+    double minScore = Double.MAX_VALUE;
+    for (int i = 0; i < scores.length; i++) {
+      Load load = mLoads.get(healthy.get(i));
+      scores[i] = load == null ? defaultLatency
+          : (load.mInFlight.get() + 1) * (load.mLatencyNanos > 0
+              ? load.mLatencyNanos : defaultLatency);
+      minScore = Math.min(minScore, scores[i]);
+    }
+    List<WorkerNetAddress> ordered = new ArrayList<>(candidates.size());
+    for (int i = 0; i < scores.length; i++) {
+      if (scores[i] <= minScore * LOAD_IMBALANCE_FACTOR) {
+        ordered.add(healthy.remove(i));
+        break;
+      }
+    }
+    ordered.addAll(healthy);
+    ordered.addAll(failed);
+    return ordered;
+  }
+
+  /**
+   * Records a request sent to a worker.
+   *
+   * @param worker the worker
+   */
+  public void onStart(WorkerNetAddress worker) {
+    mLoads.computeIfAbsent(worker, w -> new Load()).mInFlight.incrementAndGet();
+  }
+
+  /**
+   * Records a request to a worker which completed, successfully or with an error from the worker.
+   *
+   * @param worker the worker
+   * @param latencyNanos the latency of the request
+   */
+  public void onComplete(WorkerNetAddress worker, long latencyNanos) {
+    Load load = mLoads.computeIfAbsent(worker, w -> new Load());
+    load.mInFlight.decrementAndGet();
+    // races between concurrent updates only lose a sample
+    load.mLatencyNanos = load.mLatencyNanos == 0 ? latencyNanos
+        : (long) (load.mLatencyNanos * (1 - LATENCY_WEIGHT) + latencyNanos * LATENCY_WEIGHT);
+  }
+
+  /**
+   * Records a request to a worker which timed out or failed to reach it.
+   *
+   * @param worker the worker
+   */
+  public void onFailure(WorkerNetAddress worker) {
+    Load load = mLoads.computeIfAbsent(worker, w -> new Load());
+    load.mInFlight.decrementAndGet();
+    load.mFailedUntilMs = mClock.millis() + mFailureCooldownMs;
+  }
+
+  /**
+   * @param worker the worker
+   * @return the number of requests in flight to the worker
+   */
+  @VisibleForTesting
+  int getInFlight(WorkerNetAddress worker) {
+    Load load = mLoads.get(worker);
+    return load == null ? 0 : load.mInFlight.get();
+  }
+
+  private static final class Load {
+    private final AtomicInteger mInFlight = new AtomicInteger();
+    /** The moving average of the latency, 0 if there is no sample yet. */
+    private volatile long mLatencyNanos;
+    private volatile long mFailedUntilMs;
+  }
+}
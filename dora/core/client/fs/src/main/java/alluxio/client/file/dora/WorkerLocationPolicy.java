@@ -19,24 +19,38 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import alluxio.client.block.BlockWorkerInfo;
 import alluxio.wire.WorkerNetAddress;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.hash.HashFunction;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * An impl of WorkerLocationPolicy.
+ *
+ * The workers are placed on a consistent hash ring with a number of virtual nodes each, and the
+ * preferred workers of a file are the owners of the positions its id hashes to. The ring is an
+ * immutable snapshot of sorted primitive arrays, rebuilt only when the membership of the workers
+ * changes, so that a lookup neither locks nor allocates.
  */
+@ThreadSafe
 public class WorkerLocationPolicy {
-  private static final ConsistentHashProvider HASH_PROVIDER = new ConsistentHashProvider();
+  private static final HashFunction HASH_FUNCTION = murmur3_32_fixed();
+  private static final int MAX_ATTEMPTS = 100;
+  /** Scratch space to encode the keys to hash, to not allocate on each lookup. */
+  private static final ThreadLocal<byte[]> KEY_BUFFER =
+      ThreadLocal.withInitial(() -> new byte[256]);
+
   private final int mNumVirtualNodes;
+  @Nullable
+  private volatile HashRing mRing;
 
   /**
    * Constructs a new {@link WorkerLocationPolicy}.
@@ -48,6 +62,8 @@ public class WorkerLocationPolicy {
   }
 
   /**
+   * Gets the preferred workers of a file, in the order of preference. The first worker is the
+   * same whatever the count is.
    *
    * @param blockWorkerInfos
    * @param fileId
@@ -60,83 +76,278 @@ public class WorkerLocationPolicy {
     if (blockWorkerInfos.size() == 0) {
       return ImmutableList.of();
     }
-    HASH_PROVIDER.refresh(blockWorkerInfos, mNumVirtualNodes);
-    return HASH_PROVIDER.getMultiple(fileId, count);
+    HashRing ring = refresh(blockWorkerInfos);
+    if (count == 1) {
+      return ImmutableList.of(ring.get(fileId, 1));
+    }
+    BlockWorkerInfo[] workers = new BlockWorkerInfo[Math.min(count, ring.mNumWorkers)];
+    int found = 0;
+    for (int attempts = 1; found < workers.length && attempts <= MAX_ATTEMPTS; attempts++) {
+      BlockWorkerInfo worker = ring.get(fileId, attempts);
+      if (!contains(workers, found, worker)) {
+        workers[found++] = worker;
+      }
+    }
+    return ImmutableList.copyOf(Arrays.asList(workers).subList(0, found));
   }
 
-  private static class ConsistentHashProvider {
-    private static final HashFunction HASH_FUNCTION = murmur3_32_fixed();
-    private static final int MAX_ATTEMPTS = 100;
-    private List<BlockWorkerInfo> mLastWorkerInfos = ImmutableList.of();
-    private NavigableMap<Integer, BlockWorkerInfo> mActiveNodesByConsistentHashing;
-
-    private volatile long mLastUpdatedTimestamp = 0L;
-
-    private final AtomicBoolean mNeedUpdate = new AtomicBoolean(false);
-
-    private static final long WORKER_INFO_UPDATE_INTERVAL_MS = 1000L;
+  /**
+   * Gets the preferred worker of a file, which is the first of
+   * {@link #getPreferredWorkers(List, String, int)}, without allocating.
+   *
+   * @param blockWorkerInfos
+   * @param fileId
+   * @return the preferred worker, or null if there is no worker
+   */
+  @Nullable
+  public BlockWorkerInfo getPreferredWorker(List<BlockWorkerInfo> blockWorkerInfos,
+      String fileId) {
+    if (blockWorkerInfos.size() == 0) {
+      return null;
+    }
+    return refresh(blockWorkerInfos).get(fileId, 1);
+  }
 
-    public void refresh(List<BlockWorkerInfo> workerInfos, int numVirtualNodes) {
-      // check if we need to update worker info
-      if (mLastUpdatedTimestamp <= 0L
-          || System.currentTimeMillis() - mLastUpdatedTimestamp > WORKER_INFO_UPDATE_INTERVAL_MS) {
-        mNeedUpdate.set(true);
-      }
-      // update worker info if needed
-      if (mNeedUpdate.compareAndSet(true, false)) {
-        if (isWorkerInfoUpdated(workerInfos, mLastWorkerInfos)) {
-          build(workerInfos, numVirtualNodes);
-        }
-        mLastUpdatedTimestamp = System.currentTimeMillis();
+  private static boolean contains(BlockWorkerInfo[] workers, int size, BlockWorkerInfo worker) {
+    for (int i = 0; i < size; i++) {
+      if (workers[i] == worker) {
+        return true;
       }
     }
+    return false;
+  }
 
-    private boolean isWorkerInfoUpdated(List<BlockWorkerInfo> workerInfoList,
-                                        List<BlockWorkerInfo> anotherWorkerInfoList) {
-      if (workerInfoList == anotherWorkerInfoList) {
-        return false;
+  /**
+   * @return the ring of the workers, rebuilt if their membership changed, or republished with
+   *         the given list if it is a new list of the same workers
+   */
+  private HashRing refresh(List<BlockWorkerInfo> workerInfos) {
+    HashRing ring = mRing;
+    // the worker list is usually the very same list as the ring is built from
+    if (ring != null && ring.mWorkerInfos == workerInfos) {
+      return ring;
+    }
+    synchronized (this) {
+      ring = mRing;
+      if (ring != null && ring.mWorkerInfos == workerInfos) {
+        return ring;
       }
-      Set<WorkerNetAddress> workerAddressSet = workerInfoList.stream()
-          .map(info -> info.getNetAddress()).collect(Collectors.toSet());
-      Set<WorkerNetAddress> anotherWorkerAddressSet = anotherWorkerInfoList.stream()
-          .map(info -> info.getNetAddress()).collect(Collectors.toSet());
-      return !workerAddressSet.equals(anotherWorkerAddressSet);
-    }
-
-    public List<BlockWorkerInfo> getMultiple(String key, int count) {
-      Set<BlockWorkerInfo> workers = new HashSet<>();
-      int attempts = 0;
-      while (workers.size() < count && attempts < MAX_ATTEMPTS) {
-        attempts++;
-        workers.add(get(key, attempts));
+      if (ring != null && ring.mFingerprint == fingerprint(workerInfos)
+          && getAddresses(ring.mWorkerInfos).equals(getAddresses(workerInfos))) {
+        ring = ring.withWorkerInfos(workerInfos);
+      } else {
+        ring = HashRing.build(workerInfos, mNumVirtualNodes);
       }
-      return ImmutableList.copyOf(workers);
+      mRing = ring;
+      return ring;
+    }
+  }
+
+  private static Set<WorkerNetAddress> getAddresses(List<BlockWorkerInfo> workerInfos) {
+    Set<WorkerNetAddress> addresses = new HashSet<>();
+    for (BlockWorkerInfo workerInfo : workerInfos) {
+      addresses.add(workerInfo.getNetAddress());
+    }
+    return addresses;
+  }
+
+  /**
+   * @return a digest of the addresses of the workers which does not depend on their order
+   */
+  @VisibleForTesting
+  static long fingerprint(List<BlockWorkerInfo> workerInfos) {
+    long sum = 0;
+    long xor = 0;
+    for (int i = 0; i < workerInfos.size(); i++) {
+      long hash = mix(workerInfos.get(i).getNetAddress().hashCode());
+      sum += hash;
+      xor ^= Long.rotateLeft(hash, 31);
+    }
+    return mix(sum ^ xor) + workerInfos.size();
+  }
+
+  private static long mix(long hash) {
+    // the finalizer of murmur3 64-bit
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  /**
+   * Hashes the concatenation of a key and an index, the same as
+   * {@code murmur3_32_fixed().hashString(key + index, UTF_8)} but without allocating.
+   *
+   * @param key the key
+   * @param index the index
+   * @return the hash
+   */
+  @VisibleForTesting
+  static int hash(String key, int index) {
+    byte[] buffer = KEY_BUFFER.get();
+    // the longest encoding of a char is 3 bytes, and of an int 11 bytes
+    int maxLength = key.length() * 3 + 11;
+    if (buffer.length < maxLength) {
+      buffer = new byte[maxLength];
+      KEY_BUFFER.set(buffer);
     }
+    int length = encodeUtf8(key, buffer);
+    length = encodeInt(index, buffer, length);
+    return murmur3(buffer, length);
+  }
 
-    public BlockWorkerInfo get(String key, int index) {
-      int hashKey = HASH_FUNCTION.hashString(format("%s%d", key, index), UTF_8).asInt();
-      Map.Entry<Integer, BlockWorkerInfo> entry =
-          mActiveNodesByConsistentHashing.ceilingEntry(hashKey);
-      if (entry != null) {
-        return mActiveNodesByConsistentHashing.ceilingEntry(hashKey).getValue();
+  private static int encodeUtf8(String key, byte[] buffer) {
+    int pos = 0;
+    for (int i = 0; i < key.length(); i++) {
+      char c = key.charAt(i);
+      if (c < 0x80) {
+        buffer[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[pos++] = (byte) (0xc0 | (c >>> 6));
+        buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+      } else if (!Character.isSurrogate(c)) {
+        buffer[pos++] = (byte) (0xe0 | (c >>> 12));
+        buffer[pos++] = (byte) (0x80 | ((c >>> 6) & 0x3f));
+        buffer[pos++] = (byte) (0x80 | (c & 0x3f));
+      } else if (Character.isHighSurrogate(c) && i + 1 < key.length()
+          && Character.isLowSurrogate(key.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, key.charAt(++i));
+        buffer[pos++] = (byte) (0xf0 | (codePoint >>> 18));
+        buffer[pos++] = (byte) (0x80 | ((codePoint >>> 12) & 0x3f));
+        buffer[pos++] = (byte) (0x80 | ((codePoint >>> 6) & 0x3f));
+        buffer[pos++] = (byte) (0x80 | (codePoint & 0x3f));
       } else {
-        return mActiveNodesByConsistentHashing.firstEntry().getValue();
+        // an unpaired surrogate is replaced as by String#getBytes
+        buffer[pos++] = '?';
       }
     }
+    return pos;
+  }
+
+  private static int encodeInt(int value, byte[] buffer, int pos) {
+    long v = value;
+    if (v < 0) {
+      buffer[pos++] = '-';
+      v = -v;
+    }
+    int digits = 1;
+    for (long n = v / 10; n > 0; n /= 10) {
+      digits++;
+    }
+    for (int i = pos + digits - 1; i >= pos; i--) {
+      buffer[i] = (byte) ('0' + v % 10);
+      v /= 10;
+    }
+    return pos + digits;
+  }
+
+  private static int murmur3(byte[] data, int length) {
+    int h1 = 0;
+    int i = 0;
+    for (; i + 4 <= length; i += 4) {
+      int k1 = (data[i] & 0xff) | (data[i + 1] & 0xff) << 8 | (data[i + 2] & 0xff) << 16
+          | (data[i + 3] & 0xff) << 24;
+      h1 ^= mixK1(k1);
+      h1 = Integer.rotateLeft(h1, 13) * 5 + 0xe6546b64;
+    }
+    int k1 = 0;
+    for (int shift = 0; i < length; i++, shift += 8) {
+      k1 ^= (data[i] & 0xff) << shift;
+    }
+    h1 ^= mixK1(k1);
+    h1 ^= length;
+    h1 ^= h1 >>> 16;
+    h1 *= 0x85ebca6b;
+    h1 ^= h1 >>> 13;
+    h1 *= 0xc2b2ae35;
+    return h1 ^ (h1 >>> 16);
+  }
+
+  private static int mixK1(int k1) {
+    k1 *= 0xcc9e2d51;
+    k1 = Integer.rotateLeft(k1, 15);
+    return k1 * 0x1b873593;
+  }
+
+  /**
+   * An immutable consistent hash ring. The positions of the virtual nodes are sorted in an array,
+   * and the worker owning each position is at the same index of another array.
+   */
+  private static final class HashRing {
+    private final List<BlockWorkerInfo> mWorkerInfos;
+    private final long mFingerprint;
+    private final int mNumWorkers;
+    private final int[] mPositions;
+    private final BlockWorkerInfo[] mOwners;
+
+    private HashRing(List<BlockWorkerInfo> workerInfos, long fingerprint, int numWorkers,
+        int[] positions, BlockWorkerInfo[] owners) {
+      mWorkerInfos = workerInfos;
+      mFingerprint = fingerprint;
+      mNumWorkers = numWorkers;
+      mPositions = positions;
+      mOwners = owners;
+    }
 
-    private void build(List<BlockWorkerInfo> workerInfos, int numVirtualNodes) {
-      NavigableMap<Integer, BlockWorkerInfo> activeNodesByConsistentHashing = new TreeMap<>();
+    static HashRing build(List<BlockWorkerInfo> workerInfos, int numVirtualNodes) {
       int weight = (int) ceil(1.0 * numVirtualNodes / workerInfos.size());
-      for (BlockWorkerInfo workerInfo : workerInfos) {
+      // each entry is a position in the high bits and the index of its worker in the low bits
+      long[] entries = new long[workerInfos.size() * weight];
+      int numEntries = 0;
+      for (int w = 0; w < workerInfos.size(); w++) {
+        String address = workerInfos.get(w).getNetAddress().dumpMainInfo();
         for (int i = 0; i < weight; i++) {
-          activeNodesByConsistentHashing.put(
-              HASH_FUNCTION.hashString(format("%s%d", workerInfo.getNetAddress().dumpMainInfo(), i),
-                  UTF_8).asInt(),
-              workerInfo);
+          int position = HASH_FUNCTION.hashString(format("%s%d", address, i), UTF_8).asInt();
+          entries[numEntries++] = ((long) position << 32) | w;
+        }
+      }
+      Arrays.sort(entries);
+      int[] positions = new int[numEntries];
+      BlockWorkerInfo[] owners = new BlockWorkerInfo[numEntries];
+      int size = 0;
+      for (int i = 0; i < numEntries; i++) {
+        int position = (int) (entries[i] >> 32);
+        BlockWorkerInfo owner = workerInfos.get((int) entries[i]);
+        // of the workers colliding on a position, the last one in the list owns it
+        if (size > 0 && positions[size - 1] == position) {
+          owners[size - 1] = owner;
+        } else {
+          positions[size] = position;
+          owners[size++] = owner;
         }
       }
-      mLastWorkerInfos = workerInfos;
-      mActiveNodesByConsistentHashing = activeNodesByConsistentHashing;
+      int numWorkers = (int) Arrays.stream(owners, 0, size).distinct().count();
+      return new HashRing(workerInfos, fingerprint(workerInfos), numWorkers,
+          Arrays.copyOf(positions, size), Arrays.copyOf(owners, size));
+    }
+
+    /**
+     * @return the ring with the same positions, owned by the workers of the given list, which has
+     *         the same addresses as the list of this ring
+     */
+    HashRing withWorkerInfos(List<BlockWorkerInfo> workerInfos) {
+      Map<WorkerNetAddress, BlockWorkerInfo> byAddress = new HashMap<>();
+      for (BlockWorkerInfo workerInfo : workerInfos) {
+        byAddress.put(workerInfo.getNetAddress(), workerInfo);
+      }
+      BlockWorkerInfo[] owners = new BlockWorkerInfo[mOwners.length];
+      for (int i = 0; i < owners.length; i++) {
+        owners[i] = byAddress.get(mOwners[i].getNetAddress());
+      }
+      return new HashRing(workerInfos, mFingerprint, mNumWorkers, mPositions, owners);
+    }
+
+    /**
+     * @return the owner of the first position at or after the hash of the key and index
+     */
+    BlockWorkerInfo get(String key, int index) {
+      int hash = hash(key, index);
+      int i = Arrays.binarySearch(mPositions, hash);
+      if (i < 0) {
+        i = -i - 1;
+      }
+      return i < mPositions.length ? mOwners[i] : mOwners[0];
     }
   }
 }
@@ -13,12 +13,23 @@ package alluxio.client.file.dora.netty;
 
 import alluxio.PositionReader;
 import alluxio.client.file.FileSystemContext;
+import alluxio.conf.PropertyKey;
+import alluxio.file.ByteBufferTargetBuffer;
+import alluxio.file.FileRange;
 import alluxio.file.ReadTargetBuffer;
 import alluxio.proto.dataserver.Protocol;
 import alluxio.wire.WorkerNetAddress;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 /**
  * Positioned Netty data reader.
@@ -27,6 +38,9 @@ public class NettyDataReader implements PositionReader {
   private final FileSystemContext mContext;
   private final WorkerNetAddress mAddress;
   private final Supplier<Protocol.ReadRequest.Builder> mRequestBuilder;
+  @Nullable
+  private final NettyReadMultiplexer mMultiplexer;
+  private final long mMaxVectoredRequestSize;
 
   /**
    * Constructor.
@@ -37,30 +51,113 @@ public class NettyDataReader implements PositionReader {
    */
   public NettyDataReader(FileSystemContext context, WorkerNetAddress address,
       Protocol.ReadRequest.Builder requestBuilder) {
+    this(context, address, requestBuilder, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param context
+   * @param address
+   * @param requestBuilder
+   * @param multiplexer the multiplexer to send the small reads through, or null if every read
+   *                    takes a channel of its own
+   */
+  public NettyDataReader(FileSystemContext context, WorkerNetAddress address,
+      Protocol.ReadRequest.Builder requestBuilder, @Nullable NettyReadMultiplexer multiplexer) {
     mContext = context;
     mAddress = address;
     // clone the builder so that the initial values does not get overridden
     mRequestBuilder = requestBuilder::clone;
+    mMultiplexer = multiplexer;
+    mMaxVectoredRequestSize = context.getClusterConf()
+        .getBytes(PropertyKey.USER_NETWORK_NETTY_READER_VECTORED_MAX_REQUEST_SIZE);
   }
 
   @Override
   public int readInternal(long position, ReadTargetBuffer buffer, int length) throws IOException {
-    Protocol.ReadRequest.Builder builder = mRequestBuilder.get()
-        .setLength(length)
-        .setOffset(position)
-        .clearCancel();
+    int bytesRead = read(mRequestBuilder.get().setLength(length).setOffset(position), buffer,
+        length);
+    return bytesRead == 0 ? -1 : bytesRead;
+  }
+
+  /**
+   * Reads the ranges in as few requests as possible, each of which reads several ranges one after
+   * another, so that the worker can serve them together. A range longer than the largest size of
+   * a request is read on its own.
+   */
+  @Override
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    ByteBuffer[] buffers = new ByteBuffer[ranges.size()];
+    List<Integer> batch = new ArrayList<>();
+    long batchLength = 0;
+    for (int i = 0; i < ranges.size(); i++) {
+      FileRange range = ranges.get(i);
+      if (range.getLength() > mMaxVectoredRequestSize) {
+        buffers[i] = PositionReader.super.readVectored(
+            Collections.singletonList(range), allocate).get(0);
+        continue;
+      }
+      if (batchLength + range.getLength() > mMaxVectoredRequestSize) {
+        readBatch(ranges, batch, batchLength, allocate, buffers);
+        batch.clear();
+        batchLength = 0;
+      }
+      batch.add(i);
+      batchLength += range.getLength();
+    }
+    readBatch(ranges, batch, batchLength, allocate, buffers);
+    return Arrays.asList(buffers);
+  }
+
+  /**
+   * Reads a batch of ranges in one request, into a single buffer of which the buffers of the
+   * ranges are slices.
+   */
+  private void readBatch(List<FileRange> ranges, List<Integer> batch, long batchLength,
+      IntFunction<ByteBuffer> allocate, ByteBuffer[] buffers) throws IOException {
+    if (batch.isEmpty()) {
+      return;
+    }
+    ByteBuffer data = allocate.apply((int) batchLength);
+    if (batchLength > 0) {
+      Protocol.ReadRequest.Builder builder = mRequestBuilder.get()
+          .setLength(batchLength)
+          .setOffset(0);
+      for (int index : batch) {
+        builder.addRanges(Protocol.ReadRange.newBuilder()
+            .setOffset(ranges.get(index).getOffset())
+            .setLength(ranges.get(index).getLength()));
+      }
+      int bytesRead = read(builder, new ByteBufferTargetBuffer(data), (int) batchLength);
+      if (bytesRead < batchLength) {
+        throw new EOFException(String.format(
+            "Read %d bytes of the %d bytes of a vectored read", bytesRead, batchLength));
+      }
+    }
+    int offset = 0;
+    for (int index : batch) {
+      ByteBuffer slice = data.duplicate();
+      slice.position(offset).limit(offset + ranges.get(index).getLength());
+      buffers[index] = slice.slice();
+      offset += ranges.get(index).getLength();
+    }
+  }
+
+  private int read(Protocol.ReadRequest.Builder builder, ReadTargetBuffer buffer, int length)
+      throws IOException {
+    builder.clearCancel();
+    if (mMultiplexer != null && length <= mMultiplexer.getMaxReadSize()) {
+      return mMultiplexer.read(mAddress, builder, buffer);
+    }
     NettyDataReaderStateMachine clientStateMachine =
         new NettyDataReaderStateMachine(mContext, mAddress, builder, buffer);
     clientStateMachine.run();
-    int bytesRead = clientStateMachine.getBytesRead();
     PartialReadException exception = clientStateMachine.getException();
     if (exception != null) {
       throw exception;
-    } else {
-      if (bytesRead == 0) {
-        return -1;
-      }
-      return bytesRead;
     }
+    return clientStateMachine.getBytesRead();
   }
 }
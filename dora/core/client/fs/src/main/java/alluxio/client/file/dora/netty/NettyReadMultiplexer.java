@@ -0,0 +1,401 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora.netty;
+
+import static alluxio.client.file.dora.netty.PartialReadException.CauseType;
+
+import alluxio.client.file.FileSystemContext;
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.status.AlluxioStatusException;
+import alluxio.exception.status.UnavailableException;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.network.protocol.RPCProtoMessage;
+import alluxio.network.protocol.databuffer.DataBuffer;
+import alluxio.proto.dataserver.Protocol;
+import alluxio.util.proto.ProtoMessage;
+import alluxio.util.proto.ProtoUtils;
+import alluxio.wire.WorkerNetAddress;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.grpc.Status;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Sends reads to the workers over a few channels to each worker, each shared by many outstanding
+ * reads. A read is tagged with a request id, which the worker tags its responses to the read
+ * with, so that the responses to the reads on a channel may interleave and the reads complete out
+ * of order. A small read then neither takes a channel of its own for a round trip nor waits for
+ * the reads ahead of it, and the number of reads in flight is not bounded by the channels.
+ *
+ * The data of a response is written into the buffer of its read on the netty I/O thread, which is
+ * cheap for the small reads sent here, so that no queue or flow control is needed on the client.
+ * A read fails if nothing was received for it in {@link PropertyKey#USER_NETWORK_NETTY_TIMEOUT_MS}.
+ */
+@ThreadSafe
+public class NettyReadMultiplexer implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(NettyReadMultiplexer.class);
+
+  private final FileSystemContext mContext;
+  private final int mChannelsPerWorker;
+  private final long mMaxReadSize;
+  private final long mReadTimeoutMs;
+  private final ConcurrentHashMap<WorkerNetAddress, WorkerChannels> mWorkers =
+      new ConcurrentHashMap<>();
+  private volatile boolean mClosed;
+
+  /**
+   * @param context the file system context to take the channels from
+   */
+  public NettyReadMultiplexer(FileSystemContext context) {
+    this(context, context.getClusterConf());
+  }
+
+  private NettyReadMultiplexer(FileSystemContext context, AlluxioConfiguration conf) {
+    this(context, conf.getInt(PropertyKey.USER_NETWORK_NETTY_READER_MULTIPLEX_CHANNELS),
+        conf.getBytes(PropertyKey.USER_NETWORK_NETTY_READER_MULTIPLEX_MAX_READ_SIZE),
+        conf.getMs(PropertyKey.USER_NETWORK_NETTY_TIMEOUT_MS));
+  }
+
+  @VisibleForTesting
+  NettyReadMultiplexer(FileSystemContext context, int channelsPerWorker, long maxReadSize,
+      long readTimeoutMs) {
+    Preconditions.checkArgument(channelsPerWorker > 0, "channels per worker must be positive");
+    mContext = context;
+    mChannelsPerWorker = channelsPerWorker;
+    mMaxReadSize = maxReadSize;
+    mReadTimeoutMs = readTimeoutMs;
+  }
+
+  /**
+   * @return the largest read to be sent over the shared channels
+   */
+  public long getMaxReadSize() {
+    return mMaxReadSize;
+  }
+
+  /**
+   * Reads from a worker over a shared channel.
+   *
+   * @param address the address of the worker
+   * @param request the read request, which is not modified
+   * @param buffer the buffer to read into
+   * @return the number of bytes read, fewer than requested only at the end of the file
+   * @throws PartialReadException if the read fails, with the number of bytes read before
+   */
+  public int read(WorkerNetAddress address, Protocol.ReadRequest.Builder request,
+      ReadTargetBuffer buffer) throws PartialReadException {
+    int length = (int) request.getLength();
+    SharedChannel channel;
+    try {
+      channel = mWorkers.computeIfAbsent(address, WorkerChannels::new).next();
+    } catch (IOException e) {
+      throw new PartialReadException(length, 0, CauseType.TRANSPORT_ERROR, e);
+    }
+    return channel.read(request, buffer, length);
+  }
+
+  @Override
+  public void close() {
+    mClosed = true;
+    mWorkers.values().forEach(WorkerChannels::close);
+    mWorkers.clear();
+  }
+
+  /**
+   * The shared channels to a worker, which are taken round robin and replaced when broken.
+   */
+  private final class WorkerChannels {
+    private final WorkerNetAddress mAddress;
+    private final AtomicReferenceArray<SharedChannel> mChannels =
+        new AtomicReferenceArray<>(mChannelsPerWorker);
+    private final AtomicInteger mNext = new AtomicInteger();
+
+    WorkerChannels(WorkerNetAddress address) {
+      mAddress = address;
+    }
+
+    SharedChannel next() throws IOException {
+      int index = Math.floorMod(mNext.getAndIncrement(), mChannelsPerWorker);
+      SharedChannel channel = mChannels.get(index);
+      if (channel != null && channel.isUsable()) {
+        return channel;
+      }
+      synchronized (this) {
+        channel = mChannels.get(index);
+        if (channel != null && channel.isUsable()) {
+          return channel;
+        }
+        if (mClosed) {
+          throw new UnavailableException("Netty read multiplexer is closed");
+        }
+        if (channel != null) {
+          channel.release();
+        }
+        channel = new SharedChannel(mAddress, mContext.acquireNettyChannel(mAddress));
+        mChannels.set(index, channel);
+        return channel;
+      }
+    }
+
+    synchronized void close() {
+      for (int i = 0; i < mChannelsPerWorker; i++) {
+        SharedChannel channel = mChannels.getAndSet(i, null);
+        if (channel != null) {
+          channel.release();
+        }
+      }
+    }
+  }
+
+  /**
+   * A channel shared by reads, which routes the responses to the reads by their request ids.
+   */
+  private final class SharedChannel extends ChannelInboundHandlerAdapter {
+    private final WorkerNetAddress mAddress;
+    private final Channel mChannel;
+    private final AtomicLong mNextRequestId = new AtomicLong();
+    private final ConcurrentHashMap<Long, PendingRead> mReads = new ConcurrentHashMap<>();
+    private volatile boolean mBroken;
+
+    SharedChannel(WorkerNetAddress address, Channel channel) {
+      mAddress = address;
+      mChannel = channel;
+      mChannel.pipeline().addLast(this);
+    }
+
+    boolean isUsable() {
+      return !mBroken && mChannel.isActive();
+    }
+
+    int read(Protocol.ReadRequest.Builder request, ReadTargetBuffer buffer, int length)
+        throws PartialReadException {
+      long requestId = mNextRequestId.incrementAndGet();
+      PendingRead read = new PendingRead(buffer);
+      mReads.put(requestId, read);
+      try {
+        if (mBroken) {
+          // the channel broke before the read was registered, so the read was not failed with it
+          read.fail(CauseType.TRANSPORT_ERROR,
+              new UnavailableException(String.format("Channel %s is closed.", mChannel)));
+        } else {
+          send(request.clone().clearCancel().setRequestId(requestId).build(), read);
+        }
+        await(read);
+      } catch (TimeoutException e) {
+        read.fail(CauseType.TIMEOUT, e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        read.fail(CauseType.INTERRUPT, e);
+      } finally {
+        mReads.remove(requestId);
+      }
+      CauseType causeType = read.getCauseType();
+      if (causeType == null) {
+        return read.getBytesRead();
+      }
+      if (causeType != CauseType.TRANSPORT_ERROR && causeType != CauseType.SERVER_ERROR) {
+        // the worker may still be sending the data, the responses are dropped as they arrive
+        send(request.clone().setCancel(true).setRequestId(requestId).build(), null);
+      }
+      throw new PartialReadException(length, read.getBytesRead(), causeType, read.getCause());
+    }
+
+    private void send(Protocol.ReadRequest request, @Nullable PendingRead read) {
+      mChannel.writeAndFlush(new RPCProtoMessage(new ProtoMessage(request)))
+          .addListener((ChannelFutureListener) future -> {
+            if (!future.isSuccess() && read != null) {
+              read.fail(CauseType.TRANSPORT_ERROR, future.cause());
+            }
+          });
+    }
+
+    private void await(PendingRead read) throws TimeoutException, InterruptedException {
+      while (!read.await(mReadTimeoutMs)) {
+        if (read.getIdleMs() >= mReadTimeoutMs) {
+          throw new TimeoutException(
+              "Timed out when waiting for server response for " + mReadTimeoutMs + " ms");
+        }
+      }
+    }
+
+    /**
+     * Closes the channel and gives it back to the pool, as responses to cancelled reads may still
+     * be on their way.
+     */
+    void release() {
+      mBroken = true;
+      failAll(new UnavailableException("Netty read multiplexer is closed"));
+      mChannel.close().addListener(future -> mContext.releaseNettyChannel(mAddress, mChannel));
+    }
+
+    private void failAll(Throwable cause) {
+      mReads.values().forEach(read -> read.fail(CauseType.TRANSPORT_ERROR, cause));
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      if (!(msg instanceof RPCProtoMessage)) {
+        throw new IllegalStateException(String
+            .format("Incorrect response type %s, %s.", msg.getClass().getCanonicalName(), msg));
+      }
+      RPCProtoMessage rpcProtoMessage = (RPCProtoMessage) msg;
+      ProtoMessage message = rpcProtoMessage.getMessage();
+      DataBuffer dataBuffer = rpcProtoMessage.getPayloadDataBuffer();
+      // UFS read heartbeats are not tagged, the reads time out on their own
+      PendingRead read = message.isResponse() && message.asResponse().hasRequestId()
+          ? mReads.get(message.asResponse().getRequestId()) : null;
+      if (read == null) {
+        // the read is done, e.g. it was cancelled
+        if (dataBuffer != null) {
+          dataBuffer.release();
+        }
+        return;
+      }
+      Protocol.Response response = message.asResponse();
+      switch (response.getStatus()) {
+        case OK:
+          if (dataBuffer != null) {
+            Preconditions.checkState(dataBuffer.getNettyOutput() instanceof ByteBuf,
+                "dataBuffer.getNettyOutput is not of type ByteBuf");
+            read.onData((ByteBuf) dataBuffer.getNettyOutput());
+          } else {
+            // an empty response indicates the worker has done sending data
+            read.complete();
+          }
+          break;
+        default:
+          if (dataBuffer != null) {
+            dataBuffer.release();
+          }
+          Status status = ProtoUtils.fromProto(response.getStatus());
+          read.fail(CauseType.SERVER_ERROR, AlluxioStatusException.from(
+              status.withDescription(String.format("Error from server %s: %s",
+                  ctx.channel().remoteAddress(), response.getMessage()))));
+      }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      LOG.error("Exception is caught while reading data from channel {}:", ctx.channel(), cause);
+      mBroken = true;
+      failAll(cause);
+      ctx.close();
+    }
+
+    @Override
+    public void channelUnregistered(ChannelHandlerContext ctx) {
+      mBroken = true;
+      failAll(new UnavailableException(String.format("Channel %s is closed.", ctx.channel())));
+      ctx.fireChannelUnregistered();
+    }
+  }
+
+  /**
+   * A read waiting for its responses.
+   */
+  private static final class PendingRead {
+    private final ReadTargetBuffer mBuffer;
+    private final CountDownLatch mDone = new CountDownLatch(1);
+    private volatile long mLastResponseNanos = System.nanoTime();
+    @GuardedBy("this")
+    private boolean mCompleted;
+    @GuardedBy("this")
+    private int mBytesRead;
+    @GuardedBy("this")
+    @Nullable
+    private CauseType mCauseType;
+    @GuardedBy("this")
+    @Nullable
+    private Throwable mCause;
+
+    PendingRead(ReadTargetBuffer buffer) {
+      mBuffer = buffer;
+    }
+
+    synchronized void onData(ByteBuf data) {
+      mLastResponseNanos = System.nanoTime();
+      try {
+        if (mCompleted) {
+          return;
+        }
+        int bytes = data.readableBytes();
+        mBuffer.writeBytes(data);
+        mBytesRead += bytes;
+      } catch (RuntimeException e) {
+        fail(CauseType.OUTPUT, e);
+      } finally {
+        data.release();
+      }
+    }
+
+    synchronized void complete() {
+      if (!mCompleted) {
+        mCompleted = true;
+        mDone.countDown();
+      }
+    }
+
+    /**
+     * Fails the read unless it is completed, after which nothing is written into its buffer.
+     */
+    synchronized void fail(CauseType causeType, Throwable cause) {
+      if (!mCompleted) {
+        mCauseType = causeType;
+        mCause = cause;
+        complete();
+      }
+    }
+
+    boolean await(long timeoutMs) throws InterruptedException {
+      return mDone.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    long getIdleMs() {
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mLastResponseNanos);
+    }
+
+    synchronized int getBytesRead() {
+      return mBytesRead;
+    }
+
+    @Nullable
+    synchronized CauseType getCauseType() {
+      return mCauseType;
+    }
+
+    @Nullable
+    synchronized Throwable getCause() {
+      return mCause;
+    }
+  }
+}
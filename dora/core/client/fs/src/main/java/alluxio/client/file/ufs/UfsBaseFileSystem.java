@@ -23,6 +23,7 @@ import alluxio.client.file.options.UfsFileSystemOptions;
 import alluxio.conf.AlluxioConfiguration;
 import alluxio.exception.AlluxioException;
 import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.exception.runtime.NotFoundRuntimeException;
 import alluxio.grpc.CheckAccessPOptions;
 import alluxio.grpc.CreateDirectoryPOptions;
 import alluxio.grpc.CreateFilePOptions;
@@ -75,6 +76,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -241,6 +243,20 @@ public class UfsBaseFileSystem implements FileSystem {
     });
   }
 
+  @Override
+  public Map<AlluxioURI, URIStatus> getStatuses(List<AlluxioURI> paths,
+      GetStatusPOptions options) {
+    Map<AlluxioURI, URIStatus> statuses = new HashMap<>();
+    for (AlluxioURI path : paths) {
+      try {
+        statuses.put(path, getStatus(path, options));
+      } catch (NotFoundRuntimeException e) {
+        // left out of the result
+      }
+    }
+    return statuses;
+  }
+
   @Override
   public List<URIStatus> listStatus(AlluxioURI path, final ListStatusPOptions options) {
     return callWithReturn(() -> {
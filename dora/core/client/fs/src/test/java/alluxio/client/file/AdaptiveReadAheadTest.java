@@ -0,0 +1,220 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.ByteArrayPositionReader;
+import alluxio.Constants;
+import alluxio.PositionReader;
+import alluxio.clock.ManualClock;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.util.io.BufferUtils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link AdaptiveReadAhead} class.
+ */
+public final class AdaptiveReadAheadTest {
+  private static final int FILE_LENGTH = 16 * Constants.MB;
+  private static final int CHUNK_SIZE = 10 * Constants.KB;
+
+  private final ExecutorService mExecutor = Executors.newCachedThreadPool();
+  private final AdaptiveReadAhead.Budget mBudget = new AdaptiveReadAhead.Budget(Constants.GB);
+
+  @After
+  public void after() {
+    mExecutor.shutdownNow();
+  }
+
+  @Test
+  public void sequentialRead() throws Exception {
+    CountingReader reader = new CountingReader(0);
+    try (AdaptiveReadAhead readAhead = new AdaptiveReadAhead(reader, FILE_LENGTH,
+        4 * Constants.MB, mBudget, mExecutor, Clock.systemUTC())) {
+      readFully(readAhead, 0, FILE_LENGTH);
+      assertEquals(-1, readAhead.read(FILE_LENGTH, ByteBuffer.allocate(CHUNK_SIZE)));
+      // the first chunk and the end of the file are read on their own, the rest in windows of
+      // at least 1MB
+      assertTrue(reader.mReads.get() <= 2 + FILE_LENGTH / AdaptiveReadAhead.MIN_WINDOW_SIZE);
+    }
+    assertEquals(0, mBudget.getReserved());
+  }
+
+  @Test
+  public void growWindowWhenWaiting() throws Exception {
+    CountingReader reader = new CountingReader(50);
+    try (AdaptiveReadAhead readAhead = new AdaptiveReadAhead(reader, FILE_LENGTH,
+        4 * Constants.MB, mBudget, mExecutor, Clock.systemUTC())) {
+      readFully(readAhead, 0, 4 * Constants.MB);
+      assertEquals(4 * Constants.MB, readAhead.getWindowSize());
+    }
+    assertEquals(0, mBudget.getReserved());
+  }
+
+  @Test
+  public void shrinkWindowWhenConsumedSlowly() throws Exception {
+    CountingReader reader = new CountingReader(50);
+    ManualClock clock = new ManualClock();
+    AtomicInteger pendingWindows = new AtomicInteger();
+    Executor executor = window -> {
+      pendingWindows.incrementAndGet();
+      mExecutor.execute(() -> {
+        try {
+          window.run();
+        } finally {
+          pendingWindows.decrementAndGet();
+        }
+      });
+    };
+    try (AdaptiveReadAhead readAhead = new AdaptiveReadAhead(reader, FILE_LENGTH,
+        4 * Constants.MB, mBudget, executor, clock)) {
+      readFully(readAhead, 0, 4 * Constants.MB);
+      assertEquals(4 * Constants.MB, readAhead.getWindowSize());
+      long pos = 4 * Constants.MB;
+      // the windows are read while the clock stands still, and the reader consumes them after
+      // the clock advances
+      for (int i = 0; i < 4; i++) {
+        CommonUtils.waitFor("windows to be read ahead", () -> pendingWindows.get() == 0,
+            WaitForOptions.defaults().setTimeoutMs(10000));
+        clock.addTimeMs(300);
+        pos += readFully(readAhead, pos, 2 * Constants.MB);
+      }
+      assertEquals(AdaptiveReadAhead.MIN_WINDOW_SIZE, readAhead.getWindowSize());
+    }
+    assertEquals(0, mBudget.getReserved());
+  }
+
+  @Test
+  public void cancelOnSeek() throws Exception {
+    CountingReader reader = new CountingReader(0);
+    try (AdaptiveReadAhead readAhead = new AdaptiveReadAhead(reader, FILE_LENGTH,
+        4 * Constants.MB, mBudget, mExecutor, Clock.systemUTC())) {
+      readFully(readAhead, 0, 2 * CHUNK_SIZE);
+      assertTrue(readAhead.getNumWindows() > 0);
+      readFully(readAhead, FILE_LENGTH / 2, CHUNK_SIZE);
+      assertEquals(0, readAhead.getNumWindows());
+      assertEquals(AdaptiveReadAhead.MIN_WINDOW_SIZE, readAhead.getWindowSize());
+      // the read after the seek continues a sequential read again
+      readFully(readAhead, FILE_LENGTH / 2 + CHUNK_SIZE, CHUNK_SIZE);
+      assertTrue(readAhead.getNumWindows() > 0);
+    }
+    assertEquals(0, mBudget.getReserved());
+  }
+
+  @Test
+  public void exhaustedBudget() throws Exception {
+    CountingReader reader = new CountingReader(0);
+    AdaptiveReadAhead.Budget budget = new AdaptiveReadAhead.Budget(0);
+    try (AdaptiveReadAhead readAhead = new AdaptiveReadAhead(reader, FILE_LENGTH,
+        4 * Constants.MB, budget, mExecutor, Clock.systemUTC())) {
+      readFully(readAhead, 0, 10 * CHUNK_SIZE);
+      assertEquals(0, readAhead.getNumWindows());
+      assertEquals(10, reader.mReads.get());
+    }
+  }
+
+  @Test
+  public void busyThreads() throws Exception {
+    CountingReader reader = new CountingReader(0);
+    Executor executor = window -> {
+      throw new RejectedExecutionException("all the threads are busy");
+    };
+    try (AdaptiveReadAhead readAhead = new AdaptiveReadAhead(reader, FILE_LENGTH,
+        4 * Constants.MB, mBudget, executor, Clock.systemUTC())) {
+      readFully(readAhead, 0, 10 * CHUNK_SIZE);
+      assertEquals(0, readAhead.getNumWindows());
+      assertEquals(10, reader.mReads.get());
+    }
+    assertEquals(0, mBudget.getReserved());
+  }
+
+  @Test
+  public void failedWindow() throws Exception {
+    AtomicInteger failures = new AtomicInteger(1);
+    CountingReader reader = new CountingReader(0) {
+      @Override
+      public int readInternal(long position, ReadTargetBuffer buffer, int length)
+          throws IOException {
+        if (length > CHUNK_SIZE && failures.getAndDecrement() > 0) {
+          throw new IOException("failed to read ahead");
+        }
+        return super.readInternal(position, buffer, length);
+      }
+    };
+    try (AdaptiveReadAhead readAhead = new AdaptiveReadAhead(reader, FILE_LENGTH,
+        4 * Constants.MB, mBudget, mExecutor, Clock.systemUTC())) {
+      readFully(readAhead, 0, 4 * Constants.MB);
+    }
+    assertEquals(0, mBudget.getReserved());
+  }
+
+  /**
+   * Reads a range of the file in chunks, checking the data read.
+   */
+  private static int readFully(AdaptiveReadAhead readAhead, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+    int totalBytesRead = 0;
+    while (totalBytesRead < length) {
+      buffer.clear();
+      buffer.limit(Math.min(CHUNK_SIZE, length - totalBytesRead));
+      int bytesRead = readAhead.read(position + totalBytesRead, buffer);
+      assertEquals(buffer.limit(), bytesRead);
+      buffer.flip();
+      assertTrue(BufferUtils.equalIncreasingByteBuffer(
+          (int) (position + totalBytesRead), bytesRead, buffer));
+      totalBytesRead += bytesRead;
+    }
+    return totalBytesRead;
+  }
+
+  private static class CountingReader implements PositionReader {
+    private final PositionReader mDelegate =
+        new ByteArrayPositionReader(BufferUtils.getIncreasingByteArray(FILE_LENGTH));
+    private final long mLatencyMs;
+    private final AtomicInteger mReads = new AtomicInteger();
+
+    CountingReader(long latencyMs) {
+      mLatencyMs = latencyMs;
+    }
+
+    @Override
+    public int readInternal(long position, ReadTargetBuffer buffer, int length)
+        throws IOException {
+      mReads.incrementAndGet();
+      if (mLatencyMs > 0) {
+        try {
+          Thread.sleep(mLatencyMs);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+      return mDelegate.read(position, buffer, length);
+    }
+  }
+}
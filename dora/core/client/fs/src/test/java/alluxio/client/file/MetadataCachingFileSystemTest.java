@@ -33,6 +33,8 @@ import alluxio.grpc.RenamePOptions;
 import alluxio.resource.CloseableResource;
 import alluxio.wire.FileInfo;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -104,6 +106,20 @@ public class MetadataCachingFileSystemTest {
     assertEquals(1, mFileSystemMasterClient.getStatusRpcCount(FILE));
   }
 
+  @Test
+  public void getStatuses() throws Exception {
+    List<AlluxioURI> paths = ImmutableList.of(FILE, NOT_EXIST_FILE);
+    Map<AlluxioURI, URIStatus> statuses =
+        mFs.getStatuses(paths, GetStatusPOptions.getDefaultInstance());
+    assertEquals(ImmutableSet.of(FILE), statuses.keySet());
+    assertEquals(1, mFileSystemMasterClient.getStatusRpcCount(FILE));
+    assertEquals(1, mFileSystemMasterClient.getStatusRpcCount(NOT_EXIST_FILE));
+    // Both the status and the absence of the paths are cached, so no RPC will be made.
+    assertEquals(statuses, mFs.getStatuses(paths, GetStatusPOptions.getDefaultInstance()));
+    assertEquals(1, mFileSystemMasterClient.getStatusRpcCount(FILE));
+    assertEquals(1, mFileSystemMasterClient.getStatusRpcCount(NOT_EXIST_FILE));
+  }
+
   @Test
   public void iterateStatus() throws Exception {
     List<URIStatus> expectedStatuses = new ArrayList<>();
@@ -244,6 +244,11 @@ public final class CacheManagerWithShadowCacheTest {
       return bytesToRead;
     }
 
+    @Override
+    public boolean hasPage(PageId pageId) {
+      return mCache.containsKey(pageId);
+    }
+
     @Override
     public void commitFile(String fileId) {
       throw new UnsupportedOperationException("commitFile method is unsupported. ");
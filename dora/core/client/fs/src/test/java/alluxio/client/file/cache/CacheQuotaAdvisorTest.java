@@ -0,0 +1,234 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.client.quota.CacheQuota;
+import alluxio.client.quota.CacheScope;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.metrics.MetricsSystem;
+
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tests for the {@link CacheQuotaAdvisor} class.
+ */
+public final class CacheQuotaAdvisorTest {
+  private static final long CAPACITY = 100;
+  private static final CacheScope HOT = CacheScope.create("schema.hot");
+  private static final CacheScope SCAN = CacheScope.create("schema.scan");
+
+  private final InstancedConfiguration mConf = Configuration.copyGlobal();
+  private final ShadowCacheManager mShadowCacheManager = mock(ShadowCacheManager.class);
+  private final Map<CacheScope, Long> mUsed = new HashMap<>();
+  private CacheQuotaAdvisor mAdvisor;
+
+  @Before
+  public void before() {
+    MetricsSystem.clearAllMetrics();
+    mAdvisor = new CacheQuotaAdvisor(mShadowCacheManager, () -> Optional.of(new Usage()), mConf);
+  }
+
+  @Test
+  public void recommendNothingWithoutReads() {
+    assertTrue(mAdvisor.recommend().isEmpty());
+  }
+
+  @Test
+  public void shrinkScopeWithoutGain() {
+    mUsed.put(HOT, 50L);
+    mUsed.put(SCAN, 50L);
+    when(mShadowCacheManager.getShadowCacheBytes(HOT)).thenReturn(80L);
+    when(mShadowCacheManager.getShadowCacheBytes(SCAN)).thenReturn(1000L);
+    // the hot scope would hit 90% of its reads if it fit in the cache, the scan never hits
+    mAdvisor.recordRead(HOT, 1000, 500, 900);
+    mAdvisor.recordRead(SCAN, 1000, 0, 0);
+    List<CacheQuotaAdvisor.Recommendation> recommendations = mAdvisor.recommend();
+    assertEquals(2, recommendations.size());
+    CacheQuotaAdvisor.Recommendation hot = recommendations.get(0);
+    CacheQuotaAdvisor.Recommendation scan = recommendations.get(1);
+    assertEquals(HOT.getId(), hot.getScope());
+    assertEquals(0.5, hot.getHitRatio(), 0.001);
+    assertEquals(0.9, hot.getShadowHitRatio(), 0.001);
+    assertEquals(80, hot.getRecommendedQuota());
+    assertEquals(0, hot.getMarginalGain(), 0.001);
+    assertEquals(SCAN.getId(), scan.getScope());
+    assertEquals(20, scan.getRecommendedQuota());
+    assertEquals(0, scan.getMarginalGain(), 0.001);
+  }
+
+  @Test
+  public void splitByMarginalGain() {
+    mUsed.put(HOT, 50L);
+    mUsed.put(SCAN, 50L);
+    when(mShadowCacheManager.getShadowCacheBytes(HOT)).thenReturn(200L);
+    when(mShadowCacheManager.getShadowCacheBytes(SCAN)).thenReturn(200L);
+    mAdvisor.recordRead(HOT, 1000, 500, 800);
+    mAdvisor.recordRead(SCAN, 1000, 50, 200);
+    List<CacheQuotaAdvisor.Recommendation> recommendations = mAdvisor.recommend();
+    // the space used by the scan is worth less than the next bytes of the hot scope
+    assertEquals(100, recommendations.get(0).getRecommendedQuota());
+    assertEquals(2, recommendations.get(0).getMarginalGain(), 0.001);
+    assertEquals(0, recommendations.get(1).getRecommendedQuota());
+    assertEquals(1, recommendations.get(1).getMarginalGain(), 0.001);
+  }
+
+  @Test
+  public void shareLeftoverSpace() {
+    mUsed.put(HOT, 5L);
+    mUsed.put(SCAN, 5L);
+    when(mShadowCacheManager.getShadowCacheBytes(any(CacheScope.class))).thenReturn(10L);
+    mAdvisor.recordRead(HOT, 1000, 0, 500);
+    mAdvisor.recordRead(SCAN, 1000, 0, 500);
+    for (CacheQuotaAdvisor.Recommendation recommendation : mAdvisor.recommend()) {
+      assertEquals(10, recommendation.getWorkingSetBytes());
+      assertEquals(50, recommendation.getRecommendedQuota());
+    }
+  }
+
+  @Test
+  public void estimateWithoutScopeStats() {
+    // neither the usage nor the working set is tracked per scope
+    when(mShadowCacheManager.getShadowCacheBytes()).thenReturn(400L);
+    mAdvisor.recordRead(HOT, 3000, 0, 3000);
+    mAdvisor.recordRead(SCAN, 1000, 0, 0);
+    List<CacheQuotaAdvisor.Recommendation> recommendations = mAdvisor.recommend();
+    assertEquals(75, recommendations.get(0).getUsedBytes());
+    assertEquals(300, recommendations.get(0).getWorkingSetBytes());
+    assertEquals(25, recommendations.get(1).getUsedBytes());
+    assertEquals(100, recommendations.get(1).getWorkingSetBytes());
+    assertEquals(CAPACITY, recommendations.get(0).getRecommendedQuota());
+  }
+
+  @Test
+  public void applyQuota() {
+    CacheQuota base = new CacheQuota(ImmutableMap.of(CacheScope.Level.TABLE, 30L));
+    assertSame(base, mAdvisor.getQuota(base));
+    mUsed.put(HOT, 50L);
+    mUsed.put(SCAN, 50L);
+    when(mShadowCacheManager.getShadowCacheBytes(HOT)).thenReturn(80L);
+    when(mShadowCacheManager.getShadowCacheBytes(SCAN)).thenReturn(1000L);
+    mAdvisor.recordRead(HOT, 1000, 500, 900);
+    mAdvisor.recordRead(SCAN, 1000, 0, 0);
+    mAdvisor.apply();
+    assertEquals(ImmutableMap.of(HOT, 80L, SCAN, 20L), mAdvisor.getQuotas());
+    CacheQuota quota = mAdvisor.getQuota(base);
+    assertEquals(30, quota.getQuota(HOT));
+    assertEquals(20, quota.getQuota(SCAN));
+    assertEquals(Long.MAX_VALUE, quota.getQuota(CacheScope.GLOBAL));
+    // the advised quota is not wrapped again
+    assertSame(quota, mAdvisor.getQuota(quota));
+    assertEquals(80, mAdvisor.getQuota(CacheQuota.UNLIMITED).getQuota(HOT));
+    mAdvisor.reset();
+    assertTrue(mAdvisor.getQuotas().isEmpty());
+    assertSame(base, mAdvisor.getQuota(quota));
+    assertTrue(mAdvisor.recommend().isEmpty());
+  }
+
+  @Test
+  public void adaptiveUpdate() {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_QUOTA_ENABLED, true);
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED, true);
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_INTERVAL, "0ms");
+    mAdvisor = new CacheQuotaAdvisor(mShadowCacheManager, () -> Optional.of(new Usage()), mConf);
+    mUsed.put(HOT, 50L);
+    when(mShadowCacheManager.getShadowCacheBytes(HOT)).thenReturn(80L);
+    mAdvisor.recordRead(HOT, 1000, 500, 900);
+    assertEquals(ImmutableMap.of(HOT, CAPACITY), mAdvisor.getQuotas());
+    // the statistics are halved after the update
+    assertEquals(500, mAdvisor.recommend().get(0).getBytesRead());
+  }
+
+  @Test
+  public void adaptiveWithoutQuota() {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED, true);
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_INTERVAL, "0ms");
+    mAdvisor = new CacheQuotaAdvisor(mShadowCacheManager, () -> Optional.of(new Usage()), mConf);
+    mUsed.put(HOT, 50L);
+    when(mShadowCacheManager.getShadowCacheBytes(HOT)).thenReturn(80L);
+    mAdvisor.recordRead(HOT, 1000, 500, 900);
+    // the quotas are not enforced, so the recommendations are not applied
+    assertTrue(mAdvisor.getQuotas().isEmpty());
+  }
+
+  @Test
+  public void metrics() {
+    mUsed.put(HOT, 50L);
+    mUsed.put(SCAN, 50L);
+    when(mShadowCacheManager.getShadowCacheBytes(HOT)).thenReturn(80L);
+    when(mShadowCacheManager.getShadowCacheBytes(SCAN)).thenReturn(1000L);
+    mAdvisor.recordRead(HOT, 1000, 500, 900);
+    mAdvisor.recordRead(SCAN, 1000, 0, 0);
+    mAdvisor.recommend();
+    Map<String, Gauge> gauges = MetricsSystem.METRIC_REGISTRY.getGauges();
+    assertEquals(80L, gauges.entrySet().stream()
+        .filter(entry -> entry.getKey().contains("CacheShadowQuotaRecommendedBytes")
+            && entry.getKey().contains("schema%2Ehot"))
+        .findFirst().get().getValue().getValue());
+  }
+
+  /**
+   * The usage of a cache of fixed capacity, tracked per scope by {@link #mUsed}.
+   */
+  private final class Usage implements CacheUsage {
+    private final CacheScope mScope;
+
+    Usage() {
+      this(null);
+    }
+
+    Usage(CacheScope scope) {
+      mScope = scope;
+    }
+
+    @Override
+    public Optional<CacheUsage> partitionedBy(PartitionDescriptor<?> partition) {
+      if (mScope == null && partition instanceof ScopePartition
+          && mUsed.containsKey(((ScopePartition) partition).getIdentifier())) {
+        return Optional.of(new Usage(((ScopePartition) partition).getIdentifier()));
+      }
+      return Optional.empty();
+    }
+
+    @Override
+    public long used() {
+      return mScope == null ? mUsed.values().stream().mapToLong(Long::longValue).sum()
+          : mUsed.get(mScope);
+    }
+
+    @Override
+    public long available() {
+      return capacity() - used();
+    }
+
+    @Override
+    public long capacity() {
+      return CAPACITY;
+    }
+  }
+}
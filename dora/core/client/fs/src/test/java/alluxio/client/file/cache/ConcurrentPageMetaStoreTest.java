@@ -0,0 +1,221 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.client.file.cache.evictor.CacheEvictorOptions;
+import alluxio.client.file.cache.evictor.FIFOCacheEvictor;
+import alluxio.client.file.cache.store.PageStoreDir;
+import alluxio.client.file.cache.store.PageStoreOptions;
+import alluxio.exception.FileDoesNotExistException;
+import alluxio.exception.PageNotFoundException;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+import alluxio.resource.LockResource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Tests for the {@link ConcurrentPageMetaStore} class.
+ */
+public class ConcurrentPageMetaStoreTest extends DefaultMetaStoreTest {
+
+  @Before
+  public void before() {
+    MetricsSystem.clearAllMetrics();
+    mPageStoreDir =
+        PageStoreDir.createPageStoreDir(
+            new CacheEvictorOptions().setEvictorClass(FIFOCacheEvictor.class),
+            new PageStoreOptions().setRootDir(
+                Paths.get(mTempFolder.getRoot().getAbsolutePath())));
+    mPageInfo = new PageInfo(mPage, 1024,
+        mPageStoreDir);
+    mMetaStore = new ConcurrentPageMetaStore(ImmutableList.of(mPageStoreDir));
+    mCachedPageGauge =
+        MetricsSystem.METRIC_REGISTRY.getGauges().get(MetricKey.CLIENT_CACHE_PAGES.getName());
+  }
+
+  @Test
+  public void sparsePages() throws Exception {
+    long[] indexes = {0, 63, 64, 1000, 100000};
+    for (long index : indexes) {
+      PageId pageId = new PageId("1", index);
+      mMetaStore.addPage(pageId, new PageInfo(pageId, index + 1, mPageStoreDir));
+    }
+    assertEquals(indexes.length, mMetaStore.numPages());
+    assertEquals(indexes.length, mCachedPageGauge.getValue());
+    for (long index : indexes) {
+      PageId pageId = new PageId("1", index);
+      assertTrue(mMetaStore.hasPage(pageId));
+      assertEquals(index + 1, mMetaStore.getPageInfo(pageId).getPageSize());
+    }
+    assertFalse(mMetaStore.hasPage(new PageId("1", 1)));
+    assertFalse(mMetaStore.hasPage(new PageId("1", 200000)));
+    mMetaStore.removePage(new PageId("1", 64));
+    assertFalse(mMetaStore.hasPage(new PageId("1", 64)));
+    assertEquals(indexes.length - 1, mMetaStore.getAllPagesByFileId("1").size());
+  }
+
+  @Test
+  public void replacePage() throws Exception {
+    mMetaStore.addPage(mPage, mPageInfo);
+    mMetaStore.addPage(mPage, new PageInfo(mPage, 10, mPageStoreDir));
+    assertEquals(1, mMetaStore.numPages());
+    assertEquals(10, mMetaStore.bytes());
+    assertEquals(10, mMetaStore.getPageInfo(mPage).getPageSize());
+  }
+
+  @Test
+  public void removeLastPageOfFile() throws Exception {
+    mMetaStore.addPage(mPage, mPageInfo);
+    assertEquals(mPageStoreDir, mMetaStore.getStoreDirOfFile(mPage.getFileId()));
+    mMetaStore.removePage(mPage);
+    assertThrows(FileDoesNotExistException.class,
+        () -> mMetaStore.getStoreDirOfFile(mPage.getFileId()));
+    assertTrue(mMetaStore.getAllPagesByFileId(mPage.getFileId()).isEmpty());
+    assertEquals(0, mMetaStore.bytes());
+    mMetaStore.addPage(mPage, mPageInfo);
+    assertTrue(mMetaStore.hasPage(mPage));
+  }
+
+  @Test
+  public void storeDirOfFileWithPagesInOtherDir() throws Exception {
+    PageStoreDir otherDir = createOtherDir();
+    mMetaStore = new ConcurrentPageMetaStore(ImmutableList.of(mPageStoreDir, otherDir));
+    PageId page0 = new PageId("file", 0);
+    PageId page1 = new PageId("file", 1);
+    mMetaStore.addPage(page0, new PageInfo(page0, 100, mPageStoreDir));
+    mMetaStore.addPage(page1, new PageInfo(page1, 100, otherDir));
+    assertEquals(mPageStoreDir, mMetaStore.getStoreDirOfFile("file"));
+    assertEquals(otherDir, mMetaStore.getPageInfo(page1).getLocalCacheDir());
+    // the file is only left in the other directory
+    mMetaStore.removePage(page0);
+    assertEquals(otherDir, mMetaStore.getStoreDirOfFile("file"));
+    assertEquals(otherDir, mMetaStore.getPageInfo(page1).getLocalCacheDir());
+  }
+
+  @Test
+  public void lockDirsApart() throws Exception {
+    PageStoreDir otherDir = createOtherDir();
+    mMetaStore = new ConcurrentPageMetaStore(ImmutableList.of(mPageStoreDir, otherDir));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (LockResource r = new LockResource(mMetaStore.getLock(mPageStoreDir).writeLock())) {
+      // another thread can lock the other directory, but not the whole store
+      assertTrue(executor.submit(() -> {
+        Lock lock = mMetaStore.getLock(otherDir).writeLock();
+        boolean locked = lock.tryLock();
+        if (locked) {
+          lock.unlock();
+        }
+        return locked;
+      }).get());
+      assertFalse(executor.submit(() -> {
+        Lock lock = mMetaStore.getLock().writeLock();
+        boolean locked = lock.tryLock();
+        if (locked) {
+          lock.unlock();
+        }
+        return locked;
+      }).get());
+    } finally {
+      executor.shutdownNow();
+    }
+    // the other directory is not left locked by the failed attempt
+    assertTrue(mMetaStore.getLock().writeLock().tryLock());
+    mMetaStore.getLock().writeLock().unlock();
+  }
+
+  private PageStoreDir createOtherDir() throws Exception {
+    return PageStoreDir.createPageStoreDir(
+        new CacheEvictorOptions().setEvictorClass(FIFOCacheEvictor.class),
+        new PageStoreOptions().setRootDir(
+            Paths.get(mTempFolder.newFolder("other").getAbsolutePath())));
+  }
+
+  @Test
+  public void commitFile() throws Exception {
+    PageId page0 = new PageId("temp", 0);
+    PageId page1 = new PageId("temp", 1);
+    mMetaStore.addTempPage(page0, new PageInfo(page0, 100, mPageStoreDir));
+    mMetaStore.addTempPage(page1, new PageInfo(page1, 200, mPageStoreDir));
+    mMetaStore.commitFile("temp", "file");
+    assertFalse(mMetaStore.hasPage(page0));
+    assertEquals(ImmutableSet.of(
+        new PageInfo(new PageId("file", 0), 100, mPageStoreDir),
+        new PageInfo(new PageId("file", 1), 200, mPageStoreDir)),
+        mMetaStore.getAllPagesByFileId("file"));
+    assertEquals(2, mMetaStore.numPages());
+    assertEquals(300, mMetaStore.bytes());
+    assertThrows(PageNotFoundException.class, () -> mMetaStore.commitFile("temp", "file"));
+  }
+
+  @Test
+  public void concurrentLookups() throws Exception {
+    int numFiles = 16;
+    int numPages = 256;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        int writer = i;
+        futures.add(executor.submit(() -> {
+          for (int page = 0; page < numPages; page++) {
+            for (int file = writer; file < numFiles; file += 2) {
+              PageId pageId = new PageId(Integer.toString(file), page);
+              try (LockResource r = new LockResource(mMetaStore.getLock().writeLock())) {
+                mMetaStore.addPage(pageId, new PageInfo(pageId, page + 1, mPageStoreDir));
+              }
+            }
+          }
+        }));
+        futures.add(executor.submit(() -> {
+          for (int page = 0; page < numPages; page++) {
+            for (int file = 0; file < numFiles; file++) {
+              PageId pageId = new PageId(Integer.toString(file), page);
+              try (LockResource r = new LockResource(mMetaStore.getLock().readLock())) {
+                if (mMetaStore.hasPage(pageId)) {
+                  assertEquals(page + 1, mMetaStore.getPageInfo(pageId).getPageSize());
+                }
+              } catch (PageNotFoundException e) {
+                throw new IllegalStateException(e);
+              }
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    assertEquals(numFiles * numPages, mMetaStore.numPages());
+    assertEquals((long) numFiles * numPages * (numPages + 1) / 2, mMetaStore.bytes());
+  }
+}
@@ -49,7 +49,7 @@ public class DefaultMetaStoreTest {
   protected final AlluxioConfiguration mConf = Configuration.global();
   protected PageStoreDir mPageStoreDir;
   protected PageInfo mPageInfo;
-  protected DefaultPageMetaStore mMetaStore;
+  protected PageMetaStore mMetaStore;
   protected Gauge mCachedPageGauge;
 
   @Rule
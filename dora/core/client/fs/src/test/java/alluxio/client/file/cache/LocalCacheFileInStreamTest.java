@@ -695,6 +695,11 @@ public class LocalCacheFileInStreamTest {
       return bytesToRead;
     }
 
+    @Override
+    public boolean hasPage(PageId pageId) {
+      return mPages.containsKey(pageId);
+    }
+
     @Override
     public void commitFile(String fileId) {
       throw new UnsupportedOperationException("commitFile method is unsupported. ");
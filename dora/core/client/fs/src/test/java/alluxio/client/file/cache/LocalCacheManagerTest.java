@@ -38,6 +38,7 @@ import alluxio.conf.InstancedConfiguration;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.PageNotFoundException;
 import alluxio.exception.status.ResourceExhaustedException;
+import alluxio.file.ByteArrayTargetBuffer;
 import alluxio.file.NettyBufTargetBuffer;
 import alluxio.network.protocol.databuffer.DataFileChannel;
 import alluxio.util.CommonUtils;
@@ -48,6 +49,7 @@ import alluxio.util.io.PathUtils;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.DefaultFileRegion;
@@ -61,12 +63,21 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -622,6 +633,48 @@ public final class LocalCacheManagerTest {
     assertArrayEquals(PAGE2, mBuf);
   }
 
+  @Test
+  public void restoreFromPageIndex() throws Exception {
+    mCacheManager.close();
+    PageStoreDir.clear(mPageStoreOptions.getRootDir());
+    mPageStoreOptions.setPageIndexEnabled(true);
+    mCacheManagerOptions = CacheManagerOptions.create(mConf)
+        .setAsyncRestoreEnabled(false)
+        .setPageStoreOptions(ImmutableList.of(mPageStoreOptions));
+    PageId page3 = new PageId("2L", 0L);
+    mCacheManager = LocalCacheManager.create(mCacheManagerOptions,
+        PageMetaStore.create(mCacheManagerOptions));
+    assertTrue(mCacheManager.put(PAGE_ID1, PAGE1));
+    assertTrue(mCacheManager.put(PAGE_ID2, PAGE2));
+    assertTrue(mCacheManager.put(page3, PAGE2));
+    assertTrue(mCacheManager.delete(PAGE_ID2));
+    // the page index is checkpointed on close
+    mCacheManager.close();
+    assertTrue(Files.exists(mPageStoreOptions.getRootDir().resolve("page_index")));
+
+    PageStoreDir dir = PageStoreDir.createPageStoreDirs(mCacheManagerOptions).get(0);
+    Set<PageId> restoredPages = new HashSet<>();
+    assertTrue(dir.restoreFromIndex(pageInfo -> restoredPages.add(pageInfo.getPageId())));
+    assertEquals(ImmutableSet.of(PAGE_ID1, page3), restoredPages);
+    // a page file missed by the index, and a page in the index whose file is missing
+    PageId orphanPage = new PageId("3L", 0L);
+    dir.getPageStore().put(orphanPage, PAGE1);
+    dir.getPageStore().delete(page3);
+    dir.close();
+
+    mCacheManager = LocalCacheManager.create(mCacheManagerOptions,
+        PageMetaStore.create(mCacheManagerOptions));
+    assertEquals(CacheManager.State.READ_WRITE, mCacheManager.state());
+    assertEquals(PAGE1.length, mCacheManager.get(PAGE_ID1, PAGE1.length, mBuf, 0));
+    assertArrayEquals(PAGE1, mBuf);
+    assertFalse(mCacheManager.hasPage(PAGE_ID2));
+    CommonUtils.waitFor("restored pages validated",
+        () -> mCacheManager.hasPage(orphanPage) && !mCacheManager.hasPage(page3),
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    assertEquals(PAGE1.length, mCacheManager.get(orphanPage, PAGE1.length, mBuf, 0));
+    assertArrayEquals(PAGE1, mBuf);
+  }
+
   @Test
   public void asyncRestore() throws Exception {
     mCacheManager.close();
@@ -1103,6 +1156,173 @@ public final class LocalCacheManagerTest {
             0).get(0));
   }
 
+  @Test
+  public void getAndLoadConcurrentMisses() throws Exception {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_MISS_COALESCING_ENABLED, true);
+    mCacheManager.close();
+    mCacheManager = createLocalCacheManager();
+    int numThreads = 32;
+    int numPages = 8;
+    AtomicInteger[] externalReads = new AtomicInteger[numPages];
+    for (int i = 0; i < numPages; i++) {
+      externalReads[i] = new AtomicInteger();
+    }
+    CountDownLatch startLatch = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        results.add(executor.submit(() -> {
+          startLatch.await();
+          boolean allMatch = true;
+          for (int i = 0; i < numPages; i++) {
+            final int index = i;
+            byte[] buf = new byte[PAGE_SIZE_BYTES];
+            int bytesRead = mCacheManager.getAndLoad(pageId(index, 0), 0, PAGE_SIZE_BYTES,
+                new ByteArrayTargetBuffer(buf, 0), CacheContext.defaults(), () -> {
+                  externalReads[index].incrementAndGet();
+                  CommonUtils.sleepMs(100);
+                  return page(index, PAGE_SIZE_BYTES);
+                });
+            allMatch &= bytesRead == PAGE_SIZE_BYTES
+                && Arrays.equals(page(index, PAGE_SIZE_BYTES), buf);
+          }
+          return allMatch;
+        }));
+      }
+      startLatch.countDown();
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    for (int i = 0; i < numPages; i++) {
+      assertEquals(1, externalReads[i].get());
+      assertEquals(PAGE_SIZE_BYTES, mCacheManager.get(pageId(i, 0), PAGE_SIZE_BYTES, mBuf, 0));
+    }
+  }
+
+  @Test
+  public void getAndLoadConcurrentMissesFailure() throws Exception {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_MISS_COALESCING_ENABLED, true);
+    mCacheManager.close();
+    mCacheManager = createLocalCacheManager();
+    int numThreads = 8;
+    CountDownLatch startLatch = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        results.add(executor.submit(() -> {
+          startLatch.await();
+          return mCacheManager.getAndLoad(PAGE_ID1, 0, PAGE_SIZE_BYTES,
+              new ByteArrayTargetBuffer(new byte[PAGE_SIZE_BYTES], 0), CacheContext.defaults(),
+              () -> {
+                CommonUtils.sleepMs(100);
+                throw new IllegalStateException("external read failed");
+              });
+        }));
+      }
+      startLatch.countDown();
+      for (Future<?> result : results) {
+        try {
+          result.get(30, TimeUnit.SECONDS);
+          fail("getAndLoad is expected to fail");
+        } catch (ExecutionException e) {
+          assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(0, mCacheManager.get(PAGE_ID1, PAGE_SIZE_BYTES, mBuf, 0));
+  }
+
+  @Test
+  public void getAndLoadConcurrentMissesTimeout() throws Exception {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_MISS_COALESCING_ENABLED, true);
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_MISS_COALESCING_TIMEOUT, "100ms");
+    mCacheManager.close();
+    mCacheManager = createLocalCacheManager();
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> blockedRead = executor.submit(() -> mCacheManager.getAndLoad(PAGE_ID1, 0,
+          PAGE1.length, new ByteArrayTargetBuffer(new byte[PAGE1.length], 0),
+          CacheContext.defaults(), () -> {
+            reading.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              throw new RuntimeException(e);
+            }
+            return PAGE1;
+          }));
+      reading.await();
+      // the second miss stops waiting for the blocked read, and reads the page itself
+      assertEquals(PAGE1.length, mCacheManager.getAndLoad(PAGE_ID1, 0, PAGE1.length,
+          new ByteArrayTargetBuffer(mBuf, 0), CacheContext.defaults(), () -> PAGE1));
+      assertArrayEquals(PAGE1, Arrays.copyOf(mBuf, PAGE1.length));
+      // and caches the page, as the read it waited for may still fail
+      assertTrue(mCacheManager.hasPage(PAGE_ID1));
+      release.countDown();
+      assertEquals(PAGE1.length, (int) blockedRead.get(30, TimeUnit.SECONDS));
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void getAndLoadWriteBehind() throws Exception {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_WRITE_BEHIND_ENABLED, true);
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_WRITE_BEHIND_SYNC_ENABLED, true);
+    mCacheManager.close();
+    mCacheManager = createLocalCacheManager();
+    for (int i = 0; i < 8; i++) {
+      final int index = i;
+      assertEquals(PAGE_SIZE_BYTES, mCacheManager.getAndLoad(pageId(index, 0), 0,
+          PAGE_SIZE_BYTES, new ByteArrayTargetBuffer(mBuf, 0), CacheContext.defaults(),
+          () -> page(index, PAGE_SIZE_BYTES)));
+      assertArrayEquals(page(index, PAGE_SIZE_BYTES), mBuf);
+      // the page is readable whether it is written yet or not
+      assertEquals(PAGE_SIZE_BYTES, mCacheManager.get(pageId(index, 0), PAGE_SIZE_BYTES, mBuf, 0));
+      assertArrayEquals(page(index, PAGE_SIZE_BYTES), mBuf);
+    }
+    CommonUtils.waitFor("pages written", () -> mPageMetaStore.numPages() == 8,
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    mCacheManager.deleteFile("0");
+    assertEquals(0, mCacheManager.get(pageId(0, 0), PAGE_SIZE_BYTES, mBuf, 0));
+  }
+
+  @Test
+  public void deleteWhileWritingBehind() throws Exception {
+    mConf.set(PropertyKey.USER_CLIENT_CACHE_WRITE_BEHIND_ENABLED, true);
+    mCacheManager.close();
+    mCacheManager = createLocalCacheManager();
+    // the pages are deleted right after they are queued, while the writer is writing them
+    for (int i = 0; i < 200; i++) {
+      final int index = i;
+      mCacheManager.getAndLoad(pageId(index, 0), 0, PAGE_SIZE_BYTES,
+          new ByteArrayTargetBuffer(mBuf, 0), CacheContext.defaults(),
+          () -> page(index, PAGE_SIZE_BYTES));
+      if (i % 2 == 0) {
+        mCacheManager.delete(pageId(index, 0));
+      } else {
+        mCacheManager.deleteFile(pageId(index, 0).getFileId());
+      }
+    }
+    // the pages are written in order, so the deleted pages are settled once the last page is
+    mCacheManager.getAndLoad(pageId(200, 0), 0, PAGE_SIZE_BYTES,
+        new ByteArrayTargetBuffer(mBuf, 0), CacheContext.defaults(),
+        () -> page(200, PAGE_SIZE_BYTES));
+    CommonUtils.waitFor("last page written", () -> mPageMetaStore.hasPage(pageId(200, 0)),
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    assertEquals(1, mPageMetaStore.numPages());
+  }
+
   @Test
   public void getDataFileChannel() throws Exception {
     mCacheManager = createLocalCacheManager();
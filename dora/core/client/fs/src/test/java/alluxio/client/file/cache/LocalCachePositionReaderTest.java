@@ -30,6 +30,8 @@ import alluxio.conf.Configuration;
 import alluxio.conf.InstancedConfiguration;
 import alluxio.conf.PropertyKey;
 import alluxio.file.FileId;
+import alluxio.file.FileRange;
+import alluxio.file.ReadTargetBuffer;
 import alluxio.underfs.UnderFileSystem;
 import alluxio.underfs.UnderFileSystemConfiguration;
 import alluxio.underfs.local.LocalPositionReader;
@@ -39,6 +41,7 @@ import alluxio.util.io.BufferUtils;
 
 import com.google.common.collect.ImmutableList;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -49,11 +52,16 @@ import org.junit.runners.Parameterized;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 /**
  * Tests for the {@link LocalCacheManager} class.
@@ -83,6 +91,8 @@ public final class LocalCachePositionReaderTest {
   @Parameterized.Parameter
   public int mFileLen;
 
+  private static final int MULTI_PAGE_READ_PAGES = 4;
+
   private UnderFileSystem mLocalUfs;
 
   private LocalCacheManager mCacheManager;
@@ -91,6 +101,10 @@ public final class LocalCachePositionReaderTest {
   private String mTestFile;
   private PositionReader mPositionReader;
   private PositionReaderTest mPositionReaderTest;
+  private PositionReader mMultiPagePositionReader;
+  private PositionReaderTest mMultiPagePositionReaderTest;
+  private final AtomicInteger mExternalReads = new AtomicInteger();
+  private final List<List<FileRange>> mExternalVectoredReads = new ArrayList<>();
 
   @Rule
   public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
@@ -124,11 +138,17 @@ public final class LocalCachePositionReaderTest {
         FileId.of(new AlluxioURI(mTestFile).hash()), mFileLen, pageSize,
         CacheContext.defaults());
     mPositionReaderTest = new PositionReaderTest(mPositionReader, mFileLen);
+    mMultiPagePositionReader = LocalCachePositionReader.create(mCacheManager,
+        new CloseableSupplier<>(() -> new CountingPositionReader(mTestFile, mFileLen)),
+        FileId.of(new AlluxioURI(mTestFile).hash() + "-multi"), mFileLen, pageSize,
+        MULTI_PAGE_READ_PAGES * pageSize, CacheContext.defaults());
+    mMultiPagePositionReaderTest = new PositionReaderTest(mMultiPagePositionReader, mFileLen);
   }
 
   @After
   public void after() throws Exception {
     mPositionReader.close();
+    mMultiPagePositionReader.close();
     mCacheManager.close();
     mLocalUfs.close();
     new File(mTestFile).delete();
@@ -149,6 +169,100 @@ public final class LocalCachePositionReaderTest {
     mPositionReaderTest.concurrentReadPart();
   }
 
+  @Test
+  public void testAllCornerCasesMultiPageRead() throws IOException {
+    mMultiPagePositionReaderTest.testAllCornerCases();
+  }
+
+  @Test
+  public void testReadRandomPartMultiPageRead() throws IOException {
+    mMultiPagePositionReaderTest.testReadRandomPart();
+  }
+
+  @Test
+  public void testConcurrentReadRandomPartMultiPageRead() throws Exception {
+    mMultiPagePositionReaderTest.concurrentReadPart();
+  }
+
+  @Test
+  public void multiPageReadOnConsecutiveMisses() throws IOException {
+    int pageSize = Constants.KB;
+    int length = Math.min(mFileLen, MULTI_PAGE_READ_PAGES * pageSize);
+    byte[] buffer = new byte[length];
+    int bytesRead = mMultiPagePositionReader.read(0, buffer, length);
+    if (length == 0) {
+      Assert.assertEquals(0, mExternalReads.get());
+      return;
+    }
+    Assert.assertEquals(length, bytesRead);
+    Assert.assertArrayEquals(BufferUtils.getIncreasingByteArray(length), buffer);
+    Assert.assertEquals(1, mExternalReads.get());
+    // pages read ahead are cached, so reading them again does not go to the fallback reader
+    byte[] lastPage = new byte[Math.min(pageSize, length)];
+    long lastPageStart = length - lastPage.length;
+    Assert.assertEquals(lastPage.length,
+        mMultiPagePositionReader.read(lastPageStart, lastPage, lastPage.length));
+    Assert.assertEquals(1, mExternalReads.get());
+  }
+
+  @Test
+  public void vectoredReadOfMissingPages() throws IOException {
+    int pageSize = Constants.KB;
+    if (mFileLen < 8 * pageSize) {
+      return;
+    }
+    // page 1 is cached
+    mMultiPagePositionReader.read(pageSize, new byte[1], 1);
+    mExternalReads.set(0);
+    List<FileRange> ranges = ImmutableList.of(
+        new FileRange(mFileLen - 10, 10),
+        new FileRange(10, 100),
+        new FileRange(pageSize + 10, 100),
+        new FileRange(2 * pageSize + 5, pageSize),
+        new FileRange(2 * pageSize + 100, 0));
+    List<ByteBuffer> buffers =
+        mMultiPagePositionReader.readVectored(ranges, ByteBuffer::allocate);
+    Assert.assertEquals(ranges.size(), buffers.size());
+    for (int i = 0; i < ranges.size(); i++) {
+      Assert.assertTrue(BufferUtils.equalIncreasingByteBuffer((int) ranges.get(i).getOffset(),
+          ranges.get(i).getLength(), buffers.get(i)));
+    }
+    // the missing pages are read in a single vectored read, pages 2 and 3 in one range
+    int lastPagesStart = (mFileLen - 10) / pageSize * pageSize;
+    Assert.assertEquals(ImmutableList.of(ImmutableList.of(
+        new FileRange(0, pageSize),
+        new FileRange(2 * pageSize, 2 * pageSize),
+        new FileRange(lastPagesStart, mFileLen - lastPagesStart))),
+        mExternalVectoredReads);
+    // the pages read are cached
+    mExternalReads.set(0);
+    mMultiPagePositionReader.read(3 * pageSize, new byte[pageSize], pageSize);
+    Assert.assertEquals(0, mExternalReads.get());
+  }
+
+  /**
+   * A {@link LocalPositionReader} counting the reads issued to it.
+   */
+  private class CountingPositionReader extends LocalPositionReader {
+    CountingPositionReader(String path, long fileLength) {
+      super(path, fileLength);
+    }
+
+    @Override
+    public int readInternal(long position, ReadTargetBuffer buffer, int length)
+        throws IOException {
+      mExternalReads.incrementAndGet();
+      return super.readInternal(position, buffer, length);
+    }
+
+    @Override
+    public List<ByteBuffer> readVectored(List<FileRange> ranges,
+        IntFunction<ByteBuffer> allocate) throws IOException {
+      mExternalVectoredReads.add(ranges);
+      return super.readVectored(ranges, allocate);
+    }
+  }
+
   /**
    * Creates a manager and waits until it is ready.
    */
@@ -0,0 +1,190 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import alluxio.client.file.cache.evictor.CacheEvictor;
+import alluxio.client.file.cache.evictor.CacheEvictorOptions;
+import alluxio.client.file.cache.evictor.LRUCacheEvictor;
+import alluxio.client.file.cache.evictor.TinyLFUCacheEvictor;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link TinyLFUCacheEvictor} class.
+ */
+public final class TinyLFUCacheEvictorTest {
+  private TinyLFUCacheEvictor mEvictor;
+  private final PageId mFirst = new PageId("1L", 2L);
+  private final PageId mSecond = new PageId("3L", 4L);
+  private final PageId mThird = new PageId("5L", 6L);
+
+  /**
+   * Sets up the instances.
+   */
+  @Before
+  public void before() {
+    mEvictor = new TinyLFUCacheEvictor(new CacheEvictorOptions());
+  }
+
+  @Test
+  public void evictEmpty() {
+    Assert.assertNull(mEvictor.evict());
+  }
+
+  @Test
+  public void evictAllGone() {
+    mEvictor.updateOnPut(mFirst);
+    mEvictor.updateOnPut(mSecond);
+    mEvictor.updateOnPut(mThird);
+    mEvictor.updateOnDelete(mFirst);
+    mEvictor.updateOnDelete(mSecond);
+    mEvictor.updateOnDelete(mThird);
+    Assert.assertNull(mEvictor.evict());
+  }
+
+  @Test
+  public void evictAfterDelete() {
+    mEvictor.updateOnPut(mFirst);
+    mEvictor.updateOnPut(mSecond);
+    mEvictor.updateOnPut(mThird);
+    mEvictor.updateOnDelete(mSecond);
+    Assert.assertEquals(mFirst, mEvictor.evict());
+    mEvictor.updateOnDelete(mFirst);
+    Assert.assertEquals(mThird, mEvictor.evict());
+    mEvictor.updateOnDelete(mThird);
+    Assert.assertNull(mEvictor.evict());
+  }
+
+  @Test
+  public void evictUnreferenced() {
+    mEvictor.updateOnPut(mFirst);
+    mEvictor.updateOnPut(mSecond);
+    mEvictor.updateOnPut(mThird);
+    mEvictor.updateOnGet(mFirst);
+    Assert.assertEquals(mSecond, mEvictor.evict());
+  }
+
+  @Test
+  public void evictMatching() {
+    mEvictor.updateOnPut(mFirst);
+    mEvictor.updateOnPut(mSecond);
+    mEvictor.updateOnPut(mThird);
+    Assert.assertEquals(mThird, mEvictor.evictMatching(mThird::equals));
+    Assert.assertNull(mEvictor.evictMatching(pageId -> false));
+  }
+
+  @Test
+  public void reset() {
+    mEvictor.updateOnPut(mFirst);
+    mEvictor.reset();
+    Assert.assertNull(mEvictor.evict());
+  }
+
+  @Test
+  public void scanResistance() {
+    int capacity = 100;
+    int hotPages = 50;
+    Cache cache = new Cache(mEvictor, capacity);
+    for (int i = 0; i < 10; i++) {
+      for (int page = 0; page < hotPages; page++) {
+        cache.access(new PageId("hot", page));
+      }
+    }
+    for (int page = 0; page < capacity * 10; page++) {
+      cache.access(new PageId("scan", page));
+    }
+    for (int page = 0; page < hotPages; page++) {
+      Assert.assertTrue(cache.mPages.contains(new PageId("hot", page)));
+    }
+    // the same scan flushes the hot pages out of an LRU cache
+    Cache lruCache = new Cache(new LRUCacheEvictor(new CacheEvictorOptions()), capacity);
+    for (int page = 0; page < hotPages; page++) {
+      lruCache.access(new PageId("hot", page));
+    }
+    for (int page = 0; page < capacity * 10; page++) {
+      lruCache.access(new PageId("scan", page));
+    }
+    Assert.assertFalse(lruCache.mPages.contains(new PageId("hot", 0)));
+  }
+
+  @Test
+  public void concurrentAccess() throws Exception {
+    int numPages = 1000;
+    for (int page = 0; page < numPages; page++) {
+      mEvictor.updateOnPut(new PageId("0", page));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<?>[] futures = new Future<?>[4];
+      for (int i = 0; i < futures.length; i++) {
+        futures[i] = executor.submit(() -> {
+          for (int round = 0; round < 100; round++) {
+            for (int page = 0; page < numPages; page++) {
+              mEvictor.updateOnGet(new PageId("0", page));
+            }
+          }
+        });
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    Set<PageId> evicted = new HashSet<>();
+    for (int page = 0; page < numPages; page++) {
+      PageId victim = mEvictor.evict();
+      Assert.assertNotNull(victim);
+      Assert.assertTrue(evicted.add(victim));
+      mEvictor.updateOnDelete(victim);
+    }
+    Assert.assertNull(mEvictor.evict());
+  }
+
+  /**
+   * A cache of a fixed number of pages, evicting pages as chosen by an evictor.
+   */
+  private static final class Cache {
+    private final CacheEvictor mEvictor;
+    private final int mCapacity;
+    private final Set<PageId> mPages = new HashSet<>();
+
+    Cache(CacheEvictor evictor, int capacity) {
+      mEvictor = evictor;
+      mCapacity = capacity;
+    }
+
+    void access(PageId pageId) {
+      if (mPages.contains(pageId)) {
+        mEvictor.updateOnGet(pageId);
+        return;
+      }
+      if (mPages.size() >= mCapacity) {
+        PageId victim = mEvictor.evict();
+        mEvictor.updateOnDelete(victim);
+        mPages.remove(victim);
+      }
+      mEvictor.updateOnPut(pageId);
+      mPages.add(pageId);
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.store.PageStoreDir;
+import alluxio.file.ByteArrayTargetBuffer;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.util.io.BufferUtils;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for the {@link WriteBehindPageWriter} class.
+ */
+public final class WriteBehindPageWriterTest {
+  private static final int PAGE_SIZE = 1024;
+
+  private final PageStore mPageStore = mock(PageStore.class);
+  private final PageStoreDir mDir = mock(PageStoreDir.class);
+  private final Map<PageId, byte[]> mWritten = new ConcurrentHashMap<>();
+  /** Released to let the writer thread write the pages. */
+  private final CountDownLatch mWriteLatch = new CountDownLatch(1);
+  /** Released when the writer thread starts writing a page. */
+  private final CountDownLatch mWritingLatch = new CountDownLatch(1);
+  private WriteBehindPageWriter mWriter;
+
+  @Before
+  public void before() {
+    when(mDir.getPageStore()).thenReturn(mPageStore);
+  }
+
+  @After
+  public void after() {
+    mWriteLatch.countDown();
+    if (mWriter != null) {
+      mWriter.close();
+    }
+  }
+
+  private WriteBehindPageWriter createWriter(long queueSize, WriteBehindOverflowPolicy policy,
+      boolean sync) {
+    return new WriteBehindPageWriter(ImmutableList.of(mDir), new TestPageWriter() {
+      @Override
+      public boolean write(PageId pageId, ByteBuffer page, CacheContext cacheContext) {
+        mWritingLatch.countDown();
+        try {
+          mWriteLatch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+        return super.write(pageId, page, cacheContext);
+      }
+    }, queueSize, policy, sync);
+  }
+
+  /**
+   * Keeps the written pages in memory.
+   */
+  private class TestPageWriter implements WriteBehindPageWriter.PageWriter {
+    @Override
+    public boolean write(PageId pageId, ByteBuffer page, CacheContext cacheContext) {
+      byte[] data = new byte[page.remaining()];
+      page.get(data);
+      mWritten.put(pageId, data);
+      return true;
+    }
+
+    @Override
+    public void delete(PageId pageId, CacheContext cacheContext) {
+      mWritten.remove(pageId);
+    }
+  }
+
+  private static byte[] page(int i) {
+    return BufferUtils.getIncreasingByteArray(i, PAGE_SIZE);
+  }
+
+  private void waitForWritten(int numPages) throws Exception {
+    CommonUtils.waitFor("pages written", () -> mWritten.size() == numPages && mWriter.size() == 0,
+        WaitForOptions.defaults().setTimeoutMs(10000));
+  }
+
+  @Test
+  public void readQueuedPage() throws Exception {
+    mWriter = createWriter(PAGE_SIZE * 4, WriteBehindOverflowPolicy.DROP, false);
+    PageId pageId = new PageId("1", 0);
+    assertTrue(mWriter.write(pageId, page(1), CacheContext.defaults(), mDir));
+    byte[] buf = new byte[PAGE_SIZE];
+    assertEquals(PAGE_SIZE - 10,
+        mWriter.read(pageId, 10, PAGE_SIZE, new ByteArrayTargetBuffer(buf, 0)));
+    assertArrayEquals(BufferUtils.getIncreasingByteArray(11, PAGE_SIZE - 10),
+        Arrays.copyOf(buf, PAGE_SIZE - 10));
+    mWriteLatch.countDown();
+    waitForWritten(1);
+    assertArrayEquals(page(1), mWritten.get(pageId));
+    assertEquals(0, mWriter.read(pageId, 0, PAGE_SIZE, new ByteArrayTargetBuffer(buf, 0)));
+  }
+
+  @Test
+  public void dropOnOverflow() throws Exception {
+    long dropped = MetricsSystem.counter(
+        MetricKey.CLIENT_CACHE_WRITE_BEHIND_DROPPED_PAGES.getName()).getCount();
+    mWriter = createWriter(PAGE_SIZE * 3, WriteBehindOverflowPolicy.DROP, false);
+    // the page being written counts until it is written, the next two fill the queue
+    assertTrue(mWriter.write(new PageId("1", 0), page(0), CacheContext.defaults(), mDir));
+    mWritingLatch.await();
+    assertTrue(mWriter.write(new PageId("1", 1), page(1), CacheContext.defaults(), mDir));
+    assertTrue(mWriter.write(new PageId("1", 2), page(2), CacheContext.defaults(), mDir));
+    assertFalse(mWriter.write(new PageId("1", 3), page(3), CacheContext.defaults(), mDir));
+    assertEquals(dropped + 1, MetricsSystem.counter(
+        MetricKey.CLIENT_CACHE_WRITE_BEHIND_DROPPED_PAGES.getName()).getCount());
+    mWriteLatch.countDown();
+    waitForWritten(3);
+    assertFalse(mWritten.containsKey(new PageId("1", 3)));
+  }
+
+  @Test
+  public void cancelQueuedPages() throws Exception {
+    mWriter = createWriter(PAGE_SIZE * 4, WriteBehindOverflowPolicy.DROP, false);
+    assertTrue(mWriter.write(new PageId("0", 0), page(0), CacheContext.defaults(), mDir));
+    mWritingLatch.await();
+    assertTrue(mWriter.write(new PageId("1", 0), page(1), CacheContext.defaults(), mDir));
+    assertTrue(mWriter.write(new PageId("1", 1), page(1), CacheContext.defaults(), mDir));
+    assertTrue(mWriter.write(new PageId("2", 0), page(2), CacheContext.defaults(), mDir));
+    mWriter.cancelFile("1");
+    assertEquals(2, mWriter.size());
+    mWriteLatch.countDown();
+    waitForWritten(2);
+    assertTrue(mWritten.containsKey(new PageId("0", 0)));
+    assertTrue(mWritten.containsKey(new PageId("2", 0)));
+  }
+
+  @Test
+  public void cancelWhileWriting() throws Exception {
+    mWriter = createWriter(PAGE_SIZE * 4, WriteBehindOverflowPolicy.DROP, false);
+    PageId pageId = new PageId("1", 0);
+    assertTrue(mWriter.write(pageId, page(0), CacheContext.defaults(), mDir));
+    mWritingLatch.await();
+    // deletes the page while it is being written, the write must not outlive the delete
+    Thread deleter = new Thread(() -> mWriter.cancel(pageId));
+    deleter.start();
+    deleter.join();
+    mWriteLatch.countDown();
+    CommonUtils.waitFor("page settled", () -> mWriter.size() == 0,
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    assertFalse(mWritten.containsKey(pageId));
+    // a page queued again after it was cancelled is written
+    assertTrue(mWriter.write(pageId, page(1), CacheContext.defaults(), mDir));
+    waitForWritten(1);
+    assertArrayEquals(page(1), mWritten.get(pageId));
+  }
+
+  @Test
+  public void syncBatch() throws Exception {
+    mWriter = createWriter(PAGE_SIZE * 4, WriteBehindOverflowPolicy.BLOCK, true);
+    mWriteLatch.countDown();
+    for (int i = 0; i < 8; i++) {
+      assertTrue(mWriter.write(new PageId("1", i), page(i), CacheContext.defaults(), mDir));
+    }
+    waitForWritten(8);
+    verify(mPageStore, atLeastOnce()).sync(anyCollection(), eq(false));
+    verify(mPageStore, never()).sync(anyCollection(), eq(true));
+  }
+
+  @Test
+  public void callerRunsOnOverflow() throws Exception {
+    mWriteLatch.countDown();
+    mWriter = new WriteBehindPageWriter(ImmutableList.of(mDir), new TestPageWriter(), 0,
+        WriteBehindOverflowPolicy.CALLER_RUNS, false);
+    PageId pageId = new PageId("1", 0);
+    // a page larger than the queue is accepted only when the queue is empty
+    for (int i = 0; i < 16; i++) {
+      assertTrue(mWriter.write(new PageId("1", i), page(i), CacheContext.defaults(), mDir));
+    }
+    waitForWritten(16);
+    assertTrue(mWritten.containsKey(pageId));
+  }
+}
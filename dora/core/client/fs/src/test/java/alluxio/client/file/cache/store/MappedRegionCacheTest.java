@@ -0,0 +1,89 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.file.ByteArrayTargetBuffer;
+import alluxio.util.io.BufferUtils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class MappedRegionCacheTest {
+  private static final int FILE_SIZE = 4096;
+
+  @Rule
+  public TemporaryFolder mTemp = new TemporaryFolder();
+
+  @Test
+  public void readMappedFile() throws Exception {
+    Path path = createFile("0", FILE_SIZE);
+    try (MappedRegionCache cache = new MappedRegionCache(FILE_SIZE * 4)) {
+      byte[] buf = new byte[FILE_SIZE];
+      try (MappedRegionCache.Region region = cache.acquire(path)) {
+        assertEquals(FILE_SIZE, region.length());
+        assertEquals(FILE_SIZE - 10, region.read(10, FILE_SIZE, new ByteArrayTargetBuffer(buf, 0)));
+        assertArrayEquals(BufferUtils.getIncreasingByteArray(10, FILE_SIZE - 10),
+            Arrays.copyOf(buf, FILE_SIZE - 10));
+        try (MappedRegionCache.Region other = cache.acquire(path)) {
+          assertSame(region, other);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void boundedSize() throws Exception {
+    try (MappedRegionCache cache = new MappedRegionCache(FILE_SIZE * 2)) {
+      for (int i = 0; i < 8; i++) {
+        try (MappedRegionCache.Region region = cache.acquire(createFile(Integer.toString(i),
+            FILE_SIZE))) {
+          assertEquals(FILE_SIZE, region.length());
+        }
+      }
+      assertTrue(cache.size() <= 2);
+      assertNull(cache.acquire(createFile("large", FILE_SIZE * 3)));
+      assertNull(cache.acquire(createFile("empty", 0)));
+    }
+  }
+
+  @Test
+  public void readAfterInvalidate() throws Exception {
+    Path path = createFile("0", FILE_SIZE);
+    try (MappedRegionCache cache = new MappedRegionCache(FILE_SIZE * 4)) {
+      byte[] buf = new byte[FILE_SIZE];
+      try (MappedRegionCache.Region region = cache.acquire(path)) {
+        cache.invalidate(path);
+        assertEquals(0, cache.size());
+        // still mapped until released
+        assertEquals(FILE_SIZE, region.read(0, FILE_SIZE, new ByteArrayTargetBuffer(buf, 0)));
+        assertArrayEquals(BufferUtils.getIncreasingByteArray(FILE_SIZE), buf);
+      }
+    }
+  }
+
+  private Path createFile(String name, int size) throws Exception {
+    Path path = mTemp.getRoot().toPath().resolve(name);
+    Files.write(path, BufferUtils.getIncreasingByteArray(size));
+    return path;
+  }
+}
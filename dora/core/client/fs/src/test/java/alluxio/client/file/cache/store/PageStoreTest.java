@@ -41,15 +41,21 @@ public class PageStoreTest {
   @Parameterized.Parameters
   public static Collection<Object[]> data() {
     return Arrays.asList(new Object[][] {
-        {PageStoreType.ROCKS},
-        {PageStoreType.LOCAL},
-        {PageStoreType.MEM}
+        {PageStoreType.ROCKS, false},
+        {PageStoreType.LOCAL, false},
+        {PageStoreType.LOCAL, true},
+        {PageStoreType.MEM, false},
+        {PageStoreType.SEGMENT, false},
+        {PageStoreType.SEGMENT, true}
     });
   }
 
   @Parameterized.Parameter
   public PageStoreType mPageStoreType;
 
+  @Parameterized.Parameter(1)
+  public boolean mMmapEnabled;
+
   private PageStoreOptions mOptions;
 
   private PageStore mPageStore;
@@ -65,6 +71,7 @@ public class PageStoreTest {
     mOptions.setCacheSize(65536);
     mOptions.setAlluxioVersion(ProjectConstants.VERSION);
     mOptions.setRootDir(Paths.get(mTemp.getRoot().getAbsolutePath()));
+    mOptions.setMmapEnabled(mMmapEnabled);
     mPageStore = PageStore.create(mOptions);
   }
 
@@ -91,6 +98,17 @@ public class PageStoreTest {
     }
   }
 
+  @Test
+  public void overwrite() throws Exception {
+    PageId id = new PageId("0", 0);
+    byte[] buf = new byte[1024];
+    mPageStore.put(id, BufferUtils.getIncreasingByteArray(64));
+    assertEquals(64, mPageStore.get(id, new ByteArrayTargetBuffer(buf, 0)));
+    mPageStore.put(id, BufferUtils.getIncreasingByteArray(1, 32));
+    assertEquals(32, mPageStore.get(id, new ByteArrayTargetBuffer(buf, 0)));
+    assertArrayEquals(BufferUtils.getIncreasingByteArray(1, 32), Arrays.copyOfRange(buf, 0, 32));
+  }
+
   @Test
   public void getOffset() throws Exception {
     int len = 32;
@@ -0,0 +1,274 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.client.file.cache.PageId;
+import alluxio.exception.PageNotFoundException;
+import alluxio.exception.status.ResourceExhaustedException;
+import alluxio.file.ByteArrayTargetBuffer;
+import alluxio.network.protocol.databuffer.DataFileChannel;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.util.io.BufferUtils;
+
+import io.netty.channel.FileRegion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class SegmentPageStoreTest {
+  private static final int PAGE_SIZE = 1024;
+  private static final long CACHE_SIZE = 65536;
+
+  @Rule
+  public TemporaryFolder mTemp = new TemporaryFolder();
+
+  private PageStoreOptions mOptions;
+  private SegmentPageStore mPageStore;
+  private int mPagesPerSegment;
+
+  @Before
+  public void before() {
+    mOptions = new PageStoreOptions()
+        .setStoreType(PageStoreType.SEGMENT)
+        .setPageSize(PAGE_SIZE)
+        .setCacheSize(CACHE_SIZE)
+        .setRootDir(Paths.get(mTemp.getRoot().getAbsolutePath()));
+    mPageStore = SegmentPageStore.open(mOptions);
+    // 32 bytes of header and a single byte file ID for each page
+    mPagesPerSegment = (int) (mPageStore.getSegmentSize() / (PAGE_SIZE + 33));
+  }
+
+  @After
+  public void after() {
+    mPageStore.close();
+  }
+
+  @Test
+  public void recoverPages() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      mPageStore.put(new PageId("0", i), page(i));
+    }
+    mPageStore.delete(new PageId("0", 3));
+    mPageStore.put(new PageId("0", 5), page(100));
+    mPageStore.putTemporary(new PageId("1", 0), page(0));
+    mPageStore.close();
+
+    mPageStore = SegmentPageStore.open(mOptions);
+    for (int i = 0; i < 20; i++) {
+      if (i == 3) {
+        assertNotFound(new PageId("0", i), false);
+      } else {
+        assertPage(new PageId("0", i), page(i == 5 ? 100 : i), false);
+      }
+    }
+    assertNotFound(new PageId("1", 0), true);
+  }
+
+  @Test
+  public void recoverCorruptedPage() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      mPageStore.put(new PageId("0", i), page(i));
+    }
+    mPageStore.close();
+    // flips a byte of the data of the second page
+    try (RandomAccessFile file = new RandomAccessFile(getSegmentPath(0).toFile(), "rw")) {
+      long position = (PAGE_SIZE + 33) + 33 + 10;
+      file.seek(position);
+      int b = file.read();
+      file.seek(position);
+      file.write(b ^ 0xff);
+    }
+
+    mPageStore = SegmentPageStore.open(mOptions);
+    assertPage(new PageId("0", 0), page(0), false);
+    // the segment is not recovered past the corrupted record
+    assertNotFound(new PageId("0", 1), false);
+    assertNotFound(new PageId("0", 2), false);
+  }
+
+  @Test
+  public void commitTemporaryPages() throws Exception {
+    mPageStore.putTemporary(new PageId("1", 0), page(0));
+    mPageStore.putTemporary(new PageId("1", 1), page(1));
+    mPageStore.putTemporary(new PageId("2", 0), page(2));
+    mPageStore.commit("1");
+    assertPage(new PageId("1", 0), page(0), false);
+    assertPage(new PageId("1", 1), page(1), false);
+    assertNotFound(new PageId("1", 0), true);
+    mPageStore.commit("2", "3");
+    assertPage(new PageId("3", 0), page(2), false);
+    assertNotFound(new PageId("2", 0), true);
+    mPageStore.close();
+
+    mPageStore = SegmentPageStore.open(mOptions);
+    assertPage(new PageId("1", 0), page(0), false);
+    assertPage(new PageId("1", 1), page(1), false);
+    assertPage(new PageId("3", 0), page(2), false);
+  }
+
+  @Test
+  public void abortTemporaryPages() throws Exception {
+    mPageStore.putTemporary(new PageId("1", 0), page(0));
+    mPageStore.putTemporary(new PageId("2", 0), page(1));
+    mPageStore.abort("1");
+    assertNotFound(new PageId("1", 0), true);
+    assertPage(new PageId("2", 0), page(1), true);
+  }
+
+  @Test
+  public void deleteEmptySegment() throws Exception {
+    for (int i = 0; i < mPagesPerSegment * 3; i++) {
+      mPageStore.put(new PageId("0", i), page(i));
+    }
+    assertEquals(3, mPageStore.getSegmentCount());
+    for (int i = 0; i < mPagesPerSegment; i++) {
+      mPageStore.delete(new PageId("0", i));
+    }
+    assertEquals(2, mPageStore.getSegmentCount());
+  }
+
+  @Test
+  public void keepSegmentWhileRead() throws Exception {
+    for (int i = 0; i < mPagesPerSegment * 2; i++) {
+      mPageStore.put(new PageId("0", i), page(i));
+    }
+    DataFileChannel first = mPageStore.getDataFileChannel(new PageId("0", 0), 0, PAGE_SIZE, false);
+    DataFileChannel second =
+        mPageStore.getDataFileChannel(new PageId("0", 1), 0, PAGE_SIZE, false);
+    for (int i = 0; i < mPagesPerSegment; i++) {
+      mPageStore.delete(new PageId("0", i));
+    }
+    assertEquals(1, mPageStore.getSegmentCount());
+    assertTrue(Files.exists(getSegmentPath(0)));
+
+    FileRegion region = (FileRegion) first.getNettyOutput();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (WritableByteChannel channel = Channels.newChannel(out)) {
+      while (region.transferred() < region.count()) {
+        region.transferTo(channel, region.transferred());
+      }
+    }
+    assertArrayEquals(page(0), out.toByteArray());
+    // the data file channel is released by Netty once written
+    first.release();
+    assertTrue(Files.exists(getSegmentPath(0)));
+    region.release();
+    assertTrue(Files.exists(getSegmentPath(0)));
+    second.release();
+    assertFalse(Files.exists(getSegmentPath(0)));
+  }
+
+  @Test
+  public void compactWhenFull() throws Exception {
+    // a segment is left for the compaction to copy the pages to
+    int numPages = mPagesPerSegment * (int) (CACHE_SIZE / mPageStore.getSegmentSize() - 1);
+    for (int i = 0; i < numPages; i++) {
+      mPageStore.put(new PageId("0", i), page(i));
+    }
+    assertThrows(ResourceExhaustedException.class,
+        () -> mPageStore.put(new PageId("0", numPages), page(numPages)));
+    for (int i = 0; i < numPages; i += 2) {
+      mPageStore.delete(new PageId("0", i));
+    }
+    // the pages are put once the segments are compacted in the background
+    for (int i = numPages; i < numPages + numPages / 3; i++) {
+      putWhenCompacted(new PageId("0", i), page(i));
+    }
+    assertTrue(mPageStore.getSegmentCount() <= CACHE_SIZE / mPageStore.getSegmentSize());
+    for (int i = 0; i < numPages + numPages / 3; i++) {
+      if (i < numPages && i % 2 == 0) {
+        assertNotFound(new PageId("0", i), false);
+      } else {
+        assertPage(new PageId("0", i), page(i), false);
+      }
+    }
+  }
+
+  @Test
+  public void compactSparseSegment() throws Exception {
+    for (int i = 0; i < mPagesPerSegment * 2; i++) {
+      mPageStore.put(new PageId("0", i), page(i));
+    }
+    // leaves a single live page in the first segment
+    for (int i = 1; i < mPagesPerSegment; i++) {
+      mPageStore.delete(new PageId("0", i));
+    }
+    assertEquals(2, mPageStore.getSegmentCount());
+    // the first segment is compacted into the third one once it is allocated
+    mPageStore.put(new PageId("1", 0), page(0));
+    CommonUtils.waitFor("sparse segment compacted", () -> mPageStore.getSegmentCount() == 2,
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    for (int i = 1; i < mPagesPerSegment - 1; i++) {
+      mPageStore.put(new PageId("1", i), page(i));
+    }
+    assertEquals(2, mPageStore.getSegmentCount());
+    assertPage(new PageId("0", 0), page(0), false);
+    mPageStore.close();
+
+    mPageStore = SegmentPageStore.open(mOptions);
+    assertPage(new PageId("0", 0), page(0), false);
+    assertPage(new PageId("1", mPagesPerSegment - 2), page(mPagesPerSegment - 2), false);
+  }
+
+  private void putWhenCompacted(PageId pageId, byte[] page) throws Exception {
+    CommonUtils.waitFor("segments compacted", () -> {
+      try {
+        mPageStore.put(pageId, page);
+        return true;
+      } catch (ResourceExhaustedException e) {
+        return false;
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }, WaitForOptions.defaults().setTimeoutMs(10000));
+  }
+
+  private Path getSegmentPath(long id) {
+    return Paths.get(mTemp.getRoot().getAbsolutePath(), Integer.toString(PAGE_SIZE),
+        SegmentPageStore.SEGMENT_FILE_PREFIX + id);
+  }
+
+  private static byte[] page(int seed) {
+    return BufferUtils.getIncreasingByteArray(seed, PAGE_SIZE);
+  }
+
+  private void assertPage(PageId pageId, byte[] expected, boolean isTemporary)
+      throws Exception {
+    byte[] buf = new byte[PAGE_SIZE];
+    assertEquals(expected.length, mPageStore.get(pageId, 0, PAGE_SIZE,
+        new ByteArrayTargetBuffer(buf, 0), isTemporary));
+    assertArrayEquals(expected, buf);
+  }
+
+  private void assertNotFound(PageId pageId, boolean isTemporary) {
+    assertThrows(PageNotFoundException.class, () -> mPageStore.get(pageId, 0, PAGE_SIZE,
+        new ByteArrayTargetBuffer(new byte[PAGE_SIZE], 0), isTemporary));
+  }
+}
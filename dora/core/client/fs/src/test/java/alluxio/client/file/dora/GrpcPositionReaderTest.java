@@ -0,0 +1,122 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.client.block.stream.DataReader;
+import alluxio.client.file.dora.netty.PartialReadException;
+import alluxio.exception.status.DeadlineExceededException;
+import alluxio.exception.status.NotFoundException;
+import alluxio.exception.status.UnavailableException;
+import alluxio.network.protocol.databuffer.DataBuffer;
+import alluxio.network.protocol.databuffer.NioDataBuffer;
+import alluxio.util.io.BufferUtils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Tests for the {@link GrpcPositionReader} class.
+ */
+public final class GrpcPositionReaderTest {
+  private static final int LENGTH = 1000;
+  private static final int CHUNK_SIZE = 64;
+
+  @Test
+  public void read() throws Exception {
+    GrpcPositionReader reader = new GrpcPositionReader(new ChunkedReaderFactory(null));
+    byte[] buffer = new byte[300];
+    assertEquals(300, reader.read(100, buffer, buffer.length));
+    assertTrue(BufferUtils.equalIncreasingByteArray(100, 300, buffer));
+    // the end of the file
+    assertEquals(50, reader.read(LENGTH - 50, buffer, buffer.length));
+    assertTrue(BufferUtils.equalIncreasingByteArray(LENGTH - 50, 50, Arrays.copyOf(buffer, 50)));
+    assertEquals(-1, reader.read(LENGTH, buffer, buffer.length));
+  }
+
+  @Test
+  public void timeout() {
+    PartialReadException e = assertThrows(PartialReadException.class,
+        () -> new GrpcPositionReader(new ChunkedReaderFactory(
+            new DeadlineExceededException("timeout"))).read(0, new byte[300], 300));
+    assertEquals(PartialReadException.CauseType.TIMEOUT, e.getCauseType());
+    assertEquals(CHUNK_SIZE, e.getBytesRead());
+  }
+
+  @Test
+  public void unavailable() {
+    PartialReadException e = assertThrows(PartialReadException.class,
+        () -> new GrpcPositionReader(new ChunkedReaderFactory(
+            new UnavailableException("unavailable"))).read(0, new byte[300], 300));
+    assertEquals(PartialReadException.CauseType.TRANSPORT_ERROR, e.getCauseType());
+  }
+
+  @Test
+  public void serverError() {
+    PartialReadException e = assertThrows(PartialReadException.class,
+        () -> new GrpcPositionReader(new ChunkedReaderFactory(
+            new NotFoundException("not found"))).read(0, new byte[300], 300));
+    assertEquals(PartialReadException.CauseType.SERVER_ERROR, e.getCauseType());
+  }
+
+  /**
+   * Creates readers streaming a file of increasing bytes in chunks, which fail after the first
+   * chunk if a failure is given.
+   */
+  private static final class ChunkedReaderFactory implements DataReader.Factory {
+    private final IOException mFailure;
+
+    ChunkedReaderFactory(IOException failure) {
+      mFailure = failure;
+    }
+
+    @Override
+    public DataReader create(long offset, long len) {
+      return new DataReader() {
+        private long mPos = offset;
+        private final long mEnd = Math.min(LENGTH, offset + len);
+
+        @Override
+        public DataBuffer readChunk() throws IOException {
+          if (mFailure != null && mPos > offset) {
+            throw mFailure;
+          }
+          if (mPos >= mEnd) {
+            return null;
+          }
+          int size = (int) Math.min(CHUNK_SIZE, mEnd - mPos);
+          ByteBuffer chunk = ByteBuffer.wrap(
+              BufferUtils.getIncreasingByteArray((int) mPos, size));
+          mPos += size;
+          return new NioDataBuffer(chunk, size);
+        }
+
+        @Override
+        public long pos() {
+          return mPos;
+        }
+
+        @Override
+        public void close() {}
+      };
+    }
+
+    @Override
+    public void close() {}
+  }
+}
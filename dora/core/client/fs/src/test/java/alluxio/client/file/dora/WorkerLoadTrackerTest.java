@@ -0,0 +1,148 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import alluxio.PositionReader;
+import alluxio.client.file.dora.netty.PartialReadException;
+import alluxio.clock.ManualClock;
+import alluxio.exception.status.NotFoundException;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.wire.WorkerNetAddress;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests for the {@link WorkerLoadTracker} and {@link FailoverDataReader} classes.
+ */
+public final class WorkerLoadTrackerTest {
+  private static final long COOLDOWN_MS = 1000;
+  private static final WorkerNetAddress WORKER1 = new WorkerNetAddress().setHost("worker1");
+  private static final WorkerNetAddress WORKER2 = new WorkerNetAddress().setHost("worker2");
+  private static final WorkerNetAddress WORKER3 = new WorkerNetAddress().setHost("worker3");
+  private static final List<WorkerNetAddress> WORKERS = ImmutableList.of(WORKER1, WORKER2, WORKER3);
+
+  private final ManualClock mClock = new ManualClock();
+  private final WorkerLoadTracker mTracker = new WorkerLoadTracker(COOLDOWN_MS, mClock);
+
+  @Test
+  public void preferFirstWorker() {
+    assertEquals(WORKERS, mTracker.order(WORKERS));
+    // a slightly more loaded first worker is still preferred
+    mTracker.onStart(WORKER1);
+    mTracker.onComplete(WORKER1, 100);
+    mTracker.onStart(WORKER2);
+    mTracker.onComplete(WORKER2, 100);
+    mTracker.onStart(WORKER1);
+    assertEquals(WORKERS, mTracker.order(WORKERS));
+  }
+
+  @Test
+  public void skipOverloadedWorker() {
+    for (WorkerNetAddress worker : WORKERS) {
+      mTracker.onStart(worker);
+      mTracker.onComplete(worker, 100);
+    }
+    for (int i = 0; i < 4; i++) {
+      mTracker.onStart(WORKER1);
+    }
+    assertEquals(4, mTracker.getInFlight(WORKER1));
+    assertEquals(ImmutableList.of(WORKER2, WORKER1, WORKER3), mTracker.order(WORKERS));
+    // a slow worker is skipped as well
+    mTracker.onStart(WORKER2);
+    mTracker.onComplete(WORKER2, 10000);
+    assertEquals(ImmutableList.of(WORKER3, WORKER1, WORKER2), mTracker.order(WORKERS));
+  }
+
+  @Test
+  public void skipFailedWorker() {
+    mTracker.onStart(WORKER1);
+    mTracker.onFailure(WORKER1);
+    assertEquals(0, mTracker.getInFlight(WORKER1));
+    assertEquals(ImmutableList.of(WORKER2, WORKER3, WORKER1), mTracker.order(WORKERS));
+    mClock.addTimeMs(COOLDOWN_MS + 1);
+    assertEquals(WORKERS, mTracker.order(WORKERS));
+  }
+
+  @Test
+  public void failOverOnTimeout() throws Exception {
+    PositionReader reader1 = mock(PositionReader.class);
+    PositionReader reader2 = mock(PositionReader.class);
+    when(reader1.read(anyLong(), any(ReadTargetBuffer.class), anyInt())).thenThrow(
+        new PartialReadException(10, 0, PartialReadException.CauseType.TIMEOUT,
+            new TimeoutException()));
+    when(reader2.read(anyLong(), any(ReadTargetBuffer.class), anyInt())).thenReturn(10);
+    Map<WorkerNetAddress, PositionReader> readers =
+        ImmutableMap.of(WORKER1, reader1, WORKER2, reader2);
+    FailoverDataReader reader = new FailoverDataReader(
+        ImmutableList.of(WORKER1, WORKER2), readers::get, mTracker);
+    assertEquals(10, reader.read(0, new byte[10], 10));
+    assertEquals(WORKER2, reader.getWorker());
+    assertEquals(10, reader.read(10, new byte[10], 10));
+    verify(reader1).read(anyLong(), any(ReadTargetBuffer.class), anyInt());
+    assertEquals(0, mTracker.getInFlight(WORKER1));
+    assertEquals(0, mTracker.getInFlight(WORKER2));
+    assertEquals(ImmutableList.of(WORKER2, WORKER1), mTracker.order(
+        ImmutableList.of(WORKER1, WORKER2)));
+  }
+
+  @Test
+  public void returnPartialReadOnTimeout() throws Exception {
+    PositionReader reader1 = mock(PositionReader.class);
+    PositionReader reader2 = mock(PositionReader.class);
+    when(reader1.read(anyLong(), any(ReadTargetBuffer.class), anyInt())).thenThrow(
+        new PartialReadException(10, 4, PartialReadException.CauseType.TIMEOUT,
+            new TimeoutException()));
+    when(reader2.read(anyLong(), any(ReadTargetBuffer.class), anyInt())).thenReturn(6);
+    Map<WorkerNetAddress, PositionReader> readers =
+        ImmutableMap.of(WORKER1, reader1, WORKER2, reader2);
+    FailoverDataReader reader = new FailoverDataReader(
+        ImmutableList.of(WORKER1, WORKER2), readers::get, mTracker);
+    // the bytes read before the timeout are returned, and the rest is read from the next worker
+    assertEquals(4, reader.read(0, new byte[10], 10));
+    assertEquals(WORKER2, reader.getWorker());
+    assertEquals(6, reader.read(4, new byte[6], 6));
+    verify(reader1).read(anyLong(), any(ReadTargetBuffer.class), anyInt());
+  }
+
+  @Test
+  public void noFailOverOnServerError() throws Exception {
+    PositionReader reader1 = mock(PositionReader.class);
+    PositionReader reader2 = mock(PositionReader.class);
+    when(reader1.read(anyLong(), any(ReadTargetBuffer.class), anyInt())).thenThrow(
+        new PartialReadException(10, 0, PartialReadException.CauseType.SERVER_ERROR,
+            new NotFoundException("not found")));
+    Map<WorkerNetAddress, PositionReader> readers =
+        ImmutableMap.of(WORKER1, reader1, WORKER2, reader2);
+    FailoverDataReader reader = new FailoverDataReader(
+        ImmutableList.of(WORKER1, WORKER2), readers::get, mTracker);
+    assertThrows(PartialReadException.class, () -> reader.read(0, new byte[10], 10));
+    assertEquals(WORKER1, reader.getWorker());
+    verify(reader2, never()).read(anyLong(), any(ReadTargetBuffer.class), anyInt());
+    assertEquals(0, mTracker.getInFlight(WORKER1));
+  }
+}
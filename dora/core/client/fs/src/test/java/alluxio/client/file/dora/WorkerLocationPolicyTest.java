@@ -0,0 +1,169 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import static com.google.common.hash.Hashing.murmur3_32_fixed;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.client.block.BlockWorkerInfo;
+import alluxio.wire.WorkerNetAddress;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Tests for the {@link WorkerLocationPolicy} class.
+ */
+public final class WorkerLocationPolicyTest {
+  private static final int NUM_VIRTUAL_NODES = 2000;
+  private static final int NUM_KEYS = 10_000;
+
+  private static List<BlockWorkerInfo> workers(int start, int end) {
+    List<BlockWorkerInfo> workers = new ArrayList<>();
+    for (int i = start; i < end; i++) {
+      workers.add(new BlockWorkerInfo(
+          new WorkerNetAddress().setHost("worker" + i).setDataPort(29999), 0, 0));
+    }
+    return workers;
+  }
+
+  @Test
+  public void hashSameAsGuava() {
+    Random random = new Random(0);
+    List<String> keys = new ArrayList<>(ImmutableList.of("", "s3://bucket/file",
+        "/" + (char) 0xe9 + (char) 0x4e2d + new String(Character.toChars(0x1f600)),
+        (char) 0xd800 + "unpaired", "unpaired" + (char) 0xdc00));
+    for (int i = 0; i < 100; i++) {
+      StringBuilder key = new StringBuilder();
+      for (int j = random.nextInt(300); j > 0; j--) {
+        key.append((char) random.nextInt(0x10000));
+      }
+      keys.add(key.toString());
+    }
+    for (String key : keys) {
+      for (int index : new int[] {0, 1, 9, 10, 12345, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+        assertEquals(key + index,
+            murmur3_32_fixed().hashString(key + index, UTF_8).asInt(),
+            WorkerLocationPolicy.hash(key, index));
+      }
+    }
+  }
+
+  @Test
+  public void samePlacementAsTreeMapRing() {
+    List<BlockWorkerInfo> workers = workers(0, 10);
+    NavigableMap<Integer, BlockWorkerInfo> ring = new TreeMap<>();
+    int weight = NUM_VIRTUAL_NODES / workers.size();
+    for (BlockWorkerInfo worker : workers) {
+      for (int i = 0; i < weight; i++) {
+        ring.put(murmur3_32_fixed().hashString(
+            String.format("%s%d", worker.getNetAddress().dumpMainInfo(), i), UTF_8).asInt(),
+            worker);
+      }
+    }
+    WorkerLocationPolicy policy = new WorkerLocationPolicy(NUM_VIRTUAL_NODES);
+    for (int i = 0; i < NUM_KEYS; i++) {
+      String key = "/file" + i;
+      Map.Entry<Integer, BlockWorkerInfo> entry = ring.ceilingEntry(
+          murmur3_32_fixed().hashString(key + 1, UTF_8).asInt());
+      BlockWorkerInfo expected = entry == null ? ring.firstEntry().getValue() : entry.getValue();
+      assertSame(expected, policy.getPreferredWorker(workers, key));
+    }
+  }
+
+  @Test
+  public void preferredWorkers() {
+    List<BlockWorkerInfo> workers = workers(0, 5);
+    WorkerLocationPolicy policy = new WorkerLocationPolicy(NUM_VIRTUAL_NODES);
+    assertTrue(policy.getPreferredWorkers(ImmutableList.of(), "/file", 1).isEmpty());
+    assertNull(policy.getPreferredWorker(ImmutableList.of(), "/file"));
+    for (int i = 0; i < 100; i++) {
+      String key = "/file" + i;
+      List<BlockWorkerInfo> preferred = policy.getPreferredWorkers(workers, key, 3);
+      assertEquals(3, preferred.size());
+      assertEquals(3, preferred.stream().distinct().count());
+      assertSame(policy.getPreferredWorker(workers, key), preferred.get(0));
+      assertEquals(preferred.subList(0, 2), policy.getPreferredWorkers(workers, key, 2));
+      // no more workers than there are
+      assertEquals(5, policy.getPreferredWorkers(workers, key, 10).size());
+    }
+  }
+
+  @Test
+  public void rebuildOnMembershipChangeOnly() {
+    List<BlockWorkerInfo> workers = workers(0, 5);
+    List<BlockWorkerInfo> reordered = new ArrayList<>(workers(0, 5));
+    Collections.reverse(reordered);
+    assertEquals(WorkerLocationPolicy.fingerprint(workers),
+        WorkerLocationPolicy.fingerprint(reordered));
+    assertNotEquals(WorkerLocationPolicy.fingerprint(workers),
+        WorkerLocationPolicy.fingerprint(workers(0, 4)));
+    assertNotEquals(WorkerLocationPolicy.fingerprint(workers),
+        WorkerLocationPolicy.fingerprint(workers(1, 6)));
+    WorkerLocationPolicy policy = new WorkerLocationPolicy(NUM_VIRTUAL_NODES);
+    BlockWorkerInfo worker = policy.getPreferredWorker(workers, "/file");
+    // the same workers in another list keep the placement, and the ring is republished with the
+    // workers of the new list
+    BlockWorkerInfo reorderedWorker = policy.getPreferredWorker(reordered, "/file");
+    assertEquals(worker.getNetAddress(), reorderedWorker.getNetAddress());
+    assertTrue(reordered.stream().anyMatch(w -> w == reorderedWorker));
+    for (int i = 0; i < 100; i++) {
+      String key = "/file" + i;
+      assertEquals(policy.getPreferredWorker(workers, key).getNetAddress(),
+          policy.getPreferredWorker(reordered, key).getNetAddress());
+    }
+  }
+
+  @Test
+  public void keyMovement() {
+    List<BlockWorkerInfo> workers = workers(0, 10);
+    List<BlockWorkerInfo> joined = workers(0, 11);
+    List<BlockWorkerInfo> left = workers(0, 9);
+    WorkerLocationPolicy policy = new WorkerLocationPolicy(NUM_VIRTUAL_NODES);
+    WorkerLocationPolicy joinedPolicy = new WorkerLocationPolicy(NUM_VIRTUAL_NODES);
+    WorkerLocationPolicy leftPolicy = new WorkerLocationPolicy(NUM_VIRTUAL_NODES);
+    int movedOnJoin = 0;
+    int movedOnLeave = 0;
+    for (int i = 0; i < NUM_KEYS; i++) {
+      String key = "/file" + i;
+      WorkerNetAddress before = policy.getPreferredWorker(workers, key).getNetAddress();
+      WorkerNetAddress afterJoin = joinedPolicy.getPreferredWorker(joined, key).getNetAddress();
+      if (!before.equals(afterJoin)) {
+        movedOnJoin++;
+      }
+      WorkerNetAddress afterLeave = leftPolicy.getPreferredWorker(left, key).getNetAddress();
+      if (!before.equals(afterLeave)) {
+        movedOnLeave++;
+      }
+    }
+    // ideally 1/11 and 1/10 of the keys move, but as the virtual nodes of a worker are
+    // numVirtualNodes / numWorkers, some nodes of the other workers are added or removed too,
+    // and about 16% and 18% of the keys move
+    assertTrue(String.valueOf(movedOnJoin), movedOnJoin > NUM_KEYS / 11);
+    assertTrue(String.valueOf(movedOnJoin), movedOnJoin < NUM_KEYS * 2 / 11);
+    assertTrue(String.valueOf(movedOnLeave), movedOnLeave > NUM_KEYS / 10);
+    assertTrue(String.valueOf(movedOnLeave), movedOnLeave < NUM_KEYS * 2 / 10);
+  }
+}
@@ -29,6 +29,7 @@ import alluxio.conf.PropertyKey;
 import alluxio.exception.status.AlluxioStatusException;
 import alluxio.exception.status.UnavailableException;
 import alluxio.exception.status.UnknownException;
+import alluxio.file.FileRange;
 import alluxio.network.protocol.RPCMessage;
 import alluxio.network.protocol.RPCProtoMessage;
 import alluxio.network.protocol.databuffer.NettyDataBuffer;
@@ -38,6 +39,7 @@ import alluxio.util.WaitForOptions;
 import alluxio.util.proto.ProtoMessage;
 import alluxio.wire.WorkerNetAddress;
 
+import com.google.common.collect.ImmutableList;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.embedded.EmbeddedChannel;
@@ -45,6 +47,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -221,6 +226,31 @@ public class NettyDataReaderTest {
     checkResult("helloworld".getBytes(), byteArray);
   }
 
+  @Test
+  public void readVectored() throws Exception {
+    List<FileRange> ranges = ImmutableList.of(
+        new FileRange(100, 5), new FileRange(0, 0), new FileRange(20, 5));
+    // the ranges are read in a single request, their data one after another
+    ServerState start = new WaitForRequestState(mRequestBuilder.clone()
+        .setLength(10)
+        .setOffset(0)
+        .addRanges(Protocol.ReadRange.newBuilder().setOffset(100).setLength(5))
+        .addRanges(Protocol.ReadRange.newBuilder().setOffset(0).setLength(0))
+        .addRanges(Protocol.ReadRange.newBuilder().setOffset(20).setLength(5))
+        .build());
+    start.andThen(new SendDataState("hellowo".getBytes()))
+        .andThen(new SendDataState("rld".getBytes()))
+        .andThen(new EofState());
+    Future<Throwable> serverFault = mStateDriver.run(start);
+    List<ByteBuffer> buffers = mReader.readVectored(ranges, ByteBuffer::allocate);
+
+    assertNull(serverFault.get());
+    assertEquals(3, buffers.size());
+    assertEquals("hello", StandardCharsets.UTF_8.decode(buffers.get(0)).toString());
+    assertEquals(0, buffers.get(1).remaining());
+    assertEquals("world", StandardCharsets.UTF_8.decode(buffers.get(2)).toString());
+  }
+
   private void checkResult(byte[] expected, byte[] actual) {
     assertTrue(expected.length <= actual.length);
     for (int i = 0; i < expected.length; i++) {
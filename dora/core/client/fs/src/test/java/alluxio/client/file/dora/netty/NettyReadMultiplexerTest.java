@@ -0,0 +1,200 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.client.file.FileSystemContext;
+import alluxio.exception.status.UnavailableException;
+import alluxio.exception.status.UnknownException;
+import alluxio.file.ByteArrayTargetBuffer;
+import alluxio.network.protocol.RPCProtoMessage;
+import alluxio.network.protocol.databuffer.NettyDataBuffer;
+import alluxio.proto.dataserver.Protocol;
+import alluxio.util.proto.ProtoMessage;
+import alluxio.wire.WorkerNetAddress;
+
+import io.grpc.Status;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests for the {@link NettyReadMultiplexer} class.
+ */
+public final class NettyReadMultiplexerTest {
+  private static final long TIMEOUT_MS = 10_000;
+
+  private final ExecutorService mExecutor = Executors.newCachedThreadPool();
+  private final WorkerNetAddress mWorkerAddress = new WorkerNetAddress();
+  private final BlockingQueue<Protocol.ReadRequest> mRequests = new LinkedBlockingQueue<>();
+  private EmbeddedChannel mChannel;
+  private EmbeddedChannel mNextChannel;
+  private FileSystemContext mFsContext;
+  private NettyReadMultiplexer mMultiplexer;
+
+  @Before
+  public void before() throws Exception {
+    mChannel = createChannel();
+    mNextChannel = createChannel();
+    mFsContext = mock(FileSystemContext.class);
+    when(mFsContext.acquireNettyChannel(any(WorkerNetAddress.class)))
+        .thenReturn(mChannel, mNextChannel);
+    mMultiplexer = new NettyReadMultiplexer(mFsContext, 1, 1024, TIMEOUT_MS);
+  }
+
+  @After
+  public void after() {
+    mMultiplexer.close();
+    mExecutor.shutdownNow();
+  }
+
+  @Test
+  public void completeOutOfOrder() throws Exception {
+    byte[] first = new byte[10];
+    byte[] second = new byte[10];
+    Future<Integer> firstRead = read(first);
+    Protocol.ReadRequest firstRequest = takeRequest();
+    Future<Integer> secondRead = read(second);
+    Protocol.ReadRequest secondRequest = takeRequest();
+    assertNotEquals(firstRequest.getRequestId(), secondRequest.getRequestId());
+
+    // the second read completes while the first one is still in flight on the same channel
+    sendData(secondRequest, "world");
+    sendData(firstRequest, "hello");
+    sendEof(secondRequest);
+    assertEquals(5, (int) secondRead.get());
+    assertFalse(firstRead.isDone());
+    sendEof(firstRequest);
+    assertEquals(5, (int) firstRead.get());
+    assertArrayEquals("hello".getBytes(), Arrays.copyOf(first, 5));
+    assertArrayEquals("world".getBytes(), Arrays.copyOf(second, 5));
+  }
+
+  @Test
+  public void serverErrorFailsOnlyItsRead() throws Exception {
+    Future<Integer> failedRead = read(new byte[10]);
+    Protocol.ReadRequest failedRequest = takeRequest();
+    Future<Integer> read = read(new byte[10]);
+    Protocol.ReadRequest request = takeRequest();
+
+    mChannel.writeInbound(RPCProtoMessage.createResponse(Status.UNKNOWN, "failed", null,
+        OptionalLong.of(failedRequest.getRequestId())));
+    Exception e = assertThrows(Exception.class, failedRead::get);
+    PartialReadException cause = (PartialReadException) e.getCause();
+    assertEquals(PartialReadException.CauseType.SERVER_ERROR, cause.getCauseType());
+    assertTrue(cause.getCause() instanceof UnknownException);
+
+    sendData(request, "hello");
+    sendEof(request);
+    assertEquals(5, (int) read.get());
+    assertTrue(mChannel.isOpen());
+  }
+
+  @Test
+  public void timeoutCancelsRead() throws Exception {
+    mMultiplexer = new NettyReadMultiplexer(mFsContext, 1, 1024, 100);
+    Future<Integer> read = read(new byte[10]);
+    Protocol.ReadRequest request = takeRequest();
+    Exception e = assertThrows(Exception.class, read::get);
+    PartialReadException cause = (PartialReadException) e.getCause();
+    assertEquals(PartialReadException.CauseType.TIMEOUT, cause.getCauseType());
+    assertTrue(cause.getCause() instanceof TimeoutException);
+
+    Protocol.ReadRequest cancel = takeRequest();
+    assertTrue(cancel.getCancel());
+    assertEquals(request.getRequestId(), cancel.getRequestId());
+    // the late data of the cancelled read is dropped
+    sendData(request, "hello");
+    assertTrue(mChannel.isOpen());
+  }
+
+  @Test
+  public void channelClosed() throws Exception {
+    Future<Integer> read = read(new byte[10]);
+    takeRequest();
+    mChannel.close();
+    Exception e = assertThrows(Exception.class, read::get);
+    PartialReadException cause = (PartialReadException) e.getCause();
+    assertEquals(PartialReadException.CauseType.TRANSPORT_ERROR, cause.getCauseType());
+    assertTrue(cause.getCause() instanceof UnavailableException);
+
+    // the next read takes a new channel
+    Future<Integer> nextRead = read(new byte[10]);
+    Protocol.ReadRequest request = takeRequest();
+    mChannel = mNextChannel;
+    sendData(request, "hello");
+    sendEof(request);
+    assertEquals(5, (int) nextRead.get());
+  }
+
+  private Future<Integer> read(byte[] buffer) {
+    Protocol.ReadRequest.Builder request = Protocol.ReadRequest.newBuilder()
+        .setOffset(0).setLength(buffer.length);
+    return mExecutor.submit(() -> mMultiplexer.read(mWorkerAddress, request,
+        new ByteArrayTargetBuffer(buffer, 0)));
+  }
+
+  private Protocol.ReadRequest takeRequest() throws InterruptedException {
+    Protocol.ReadRequest request = mRequests.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    assertTrue("no request was sent", request != null);
+    return request;
+  }
+
+  private void sendData(Protocol.ReadRequest request, String data) {
+    mChannel.writeInbound(RPCProtoMessage.createResponse(Status.OK, "",
+        new NettyDataBuffer(Unpooled.wrappedBuffer(data.getBytes())),
+        OptionalLong.of(request.getRequestId())));
+  }
+
+  private void sendEof(Protocol.ReadRequest request) {
+    mChannel.writeInbound(RPCProtoMessage.createResponse(Status.OK, "", null,
+        OptionalLong.of(request.getRequestId())));
+  }
+
+  /**
+   * @return a channel which hands the read requests written to it to the test
+   */
+  private EmbeddedChannel createChannel() {
+    return new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+      @Override
+      public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        ProtoMessage message = ((RPCProtoMessage) msg).getMessage();
+        mRequests.offer(message.asReadRequest());
+        promise.setSuccess();
+      }
+    });
+  }
+}
@@ -13,6 +13,7 @@ package alluxio;
 
 import alluxio.file.ByteArrayTargetBuffer;
 import alluxio.file.ByteBufferTargetBuffer;
+import alluxio.file.FileRange;
 import alluxio.file.NettyBufTargetBuffer;
 import alluxio.file.ReadTargetBuffer;
 
@@ -20,8 +21,12 @@ import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBuf;
 
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -99,6 +104,38 @@ public interface PositionReader extends Closeable {
   int readInternal(long position, ReadTargetBuffer buffer, int length)
       throws IOException;
 
+  /**
+   * Reads the given ranges of the file. Implementations may read the ranges in fewer requests
+   * than there are ranges, or in an order other than the given one.
+   *
+   * @param ranges the ranges to read
+   * @param allocate allocates the buffer of a range, given its length
+   * @return the data of the ranges, in the order of the ranges, each from position 0 to the
+   *         length of its range
+   * @throws EOFException if a range extends past the end of the file
+   */
+  default List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    List<ByteBuffer> buffers = new ArrayList<>(ranges.size());
+    for (FileRange range : ranges) {
+      ByteBuffer buffer = allocate.apply(range.getLength());
+      int totalBytesRead = 0;
+      while (totalBytesRead < range.getLength()) {
+        int bytesRead = read(range.getOffset() + totalBytesRead, buffer,
+            range.getLength() - totalBytesRead);
+        if (bytesRead <= 0) {
+          throw new EOFException(String.format(
+              "Reached the end of the file after reading %d bytes of range %s",
+              totalBytesRead, range));
+        }
+        totalBytesRead += bytesRead;
+      }
+      buffer.flip();
+      buffers.add(buffer);
+    }
+    return buffers;
+  }
+
   /**
    * Closes the positon reader and do cleanup job if any.
    */
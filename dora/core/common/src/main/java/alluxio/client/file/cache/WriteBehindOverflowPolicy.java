@@ -0,0 +1,33 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+/**
+ * This represents what the write-behind of pages to the cache does when its queue is full,
+ * because the page store cannot keep up with the pages to cache.
+ */
+public enum WriteBehindOverflowPolicy {
+  /**
+   * Drops the page, which is not cached. Readers never wait for the page store.
+   */
+  DROP,
+  /**
+   * Waits until the queue has room for the page, which slows readers down to the speed of the
+   * page store.
+   */
+  BLOCK,
+  /**
+   * Writes the page to the page store in the thread of the reader, as if write-behind was
+   * disabled.
+   */
+  CALLER_RUNS,
+}
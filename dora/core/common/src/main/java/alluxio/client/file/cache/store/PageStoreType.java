@@ -26,7 +26,11 @@ public enum PageStoreType {
   /**
    * A simple store with pages on the memory (HeapByteBuffer).
    */
-  MEM(PageStoreType.MEMORY_OVERHEAD_RATIO);
+  MEM(PageStoreType.MEMORY_OVERHEAD_RATIO),
+  /**
+   * A store that appends pages to large preallocated segment files on the local filesystem.
+   */
+  SEGMENT(PageStoreType.SEGMENT_OVERHEAD_RATIO);
 
   // We assume there will be some overhead using ByteBuffer as a page store,
   // i.e., with 1GB space allocated, we
@@ -39,6 +43,9 @@ public enum PageStoreType {
   // i.e., with 1GB space allocated, we
   // expect no more than 1024MB / (1 + LOCAL_OVERHEAD_RATIO) logical data stored
   private static final double LOCAL_OVERHEAD_RATIO = 0.05;
+  // We assume 20% overhead using segment files as a page store, covering record headers and the
+  // space held by deleted pages until their segment is compacted
+  private static final double SEGMENT_OVERHEAD_RATIO = 0.2;
   private final double mOverheadRatio;
 
   /**
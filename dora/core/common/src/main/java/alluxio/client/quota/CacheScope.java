@@ -119,6 +119,13 @@ public class CacheScope {
     return new CacheScope(mId, r, mLevel.parent());
   }
 
+  /**
+   * @return the id of this scope, which {@link #create(String)} parses back into this scope
+   */
+  public String getId() {
+    return mId.substring(0, mLength);
+  }
+
   /**
    * @return the level of this scope
    */
@@ -33,6 +33,7 @@ import alluxio.annotation.PublicApi;
 import alluxio.client.ReadType;
 import alluxio.client.WriteType;
 import alluxio.client.file.cache.ShadowCacheType;
+import alluxio.client.file.cache.WriteBehindOverflowPolicy;
 import alluxio.client.file.cache.store.PageStoreType;
 import alluxio.exception.ExceptionMessage;
 import alluxio.executor.RpcExecutorType;
@@ -1294,6 +1295,49 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
           .setScope(Scope.SERVER)
           .build();
+  public static final PropertyKey UNDERFS_OBJECT_STORE_LISTING_PARALLELISM =
+      intBuilder(Name.UNDERFS_OBJECT_STORE_LISTING_PARALLELISM)
+          .setDefaultValue(1)
+          .setDescription("The number of directories a recursive iterative listing of an "
+              + "object store, like the one of a load job, lists at the same time. The "
+              + "directories at the top level of the listing are listed concurrently, with the "
+              + "threads of " + Name.UNDERFS_OBJECT_STORE_SERVICE_THREADS + ". If 1, the "
+              + "listing pages through the keys sequentially.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_OBJECT_STORE_LISTING_ORDERED =
+      booleanBuilder(Name.UNDERFS_OBJECT_STORE_LISTING_ORDERED)
+          .setDefaultValue(true)
+          .setDescription("Whether a recursive iterative listing of an object store which lists "
+              + "directories concurrently returns the files in order, each directory at the top "
+              + "level followed by the files under it. If false, the files of a directory are "
+              + "returned as soon as they are listed, which keeps all the directories being "
+              + "listed busy.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED =
+      booleanBuilder(Name.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("(Experimental) If true, the parts of streaming uploads are buffered "
+              + "in off-heap memory rather than in temporary files, as long as the memory "
+              + "buffers of all the uploads fit in "
+              + Name.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE
+              + ". The parts which do not fit are buffered in temporary files.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
+  public static final PropertyKey UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE =
+      dataSizeBuilder(Name.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE)
+          .setDefaultValue("256MB")
+          .setDescription("The maximum memory taken by the buffers of the parts of all the "
+              + "streaming uploads of a process, when the parts are buffered in memory. A part "
+              + "takes the partition size of its upload, and its buffer is kept for the next "
+              + "parts once it is uploaded.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.SERVER)
+          .build();
   public static final PropertyKey UNDERFS_OBJECT_STORE_BREADCRUMBS_ENABLED =
       booleanBuilder(Name.UNDERFS_OBJECT_STORE_BREADCRUMBS_ENABLED)
           .setDefaultValue(true)
@@ -4432,6 +4476,50 @@ public final class PropertyKey implements Comparable<PropertyKey> {
       .setDescription("The hostname of Alluxio worker.")
       .setScope(Scope.WORKER)
       .build();
+  public static final PropertyKey WORKER_JOB_BANDWIDTH =
+      dataSizeBuilder(Name.WORKER_JOB_BANDWIDTH)
+          .setDescription("The total bandwidth per second the load, copy and move jobs may use "
+              + "on a worker, shared fairly between the jobs running on it. A job with a "
+              + "bandwidth of its own is limited to the smaller of that bandwidth and its share. "
+              + "Unlimited if not set.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_LOAD_BUFFER_SIZE =
+      dataSizeBuilder(Name.WORKER_LOAD_BUFFER_SIZE)
+          .setDefaultValue("256MB")
+          .setDescription("The total size of the buffers a worker reads ranges of files into "
+              + "from the UFS to load them into the cache. A range waits for room in the "
+              + "buffers before it is read. It is at least the size of one range.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_LOAD_CONCURRENCY =
+      intBuilder(Name.WORKER_LOAD_CONCURRENCY)
+          .setDefaultSupplier(() -> Math.max(8, 2 * Runtime.getRuntime().availableProcessors()),
+              "max(8, 2 * {CPU core count})")
+          .setDescription("The number of ranges of files a worker reads from the UFS at the "
+              + "same time to load them into the cache, across all the files being loaded.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_LOAD_FILE_CONCURRENCY =
+      intBuilder(Name.WORKER_LOAD_FILE_CONCURRENCY)
+          .setDefaultValue(4)
+          .setDescription("The number of ranges of a single file a worker reads from the UFS at "
+              + "the same time to load it into the cache.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_LOAD_RANGE_SIZE =
+      dataSizeBuilder(Name.WORKER_LOAD_RANGE_SIZE)
+          .setDefaultValue("16MB")
+          .setDescription("The size of the ranges a file is split into to be loaded into the "
+              + "cache in parallel. Each range is read from the UFS in a single request. It is "
+              + "rounded down to a multiple of the page size, and is at least one page.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_KEYTAB_FILE = stringBuilder(Name.WORKER_KEYTAB_FILE)
       .setDescription("Kerberos keytab file for Alluxio worker.")
       .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
@@ -4693,6 +4781,16 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_NETWORK_READER_VECTORED_MAX_REQUEST_SIZE =
+      dataSizeBuilder(Name.WORKER_NETWORK_READER_VECTORED_MAX_REQUEST_SIZE)
+          .setDefaultValue("64MB")
+          .setDescription("The largest total length of the ranges of a vectored read request "
+              + "a worker serves. The ranges of a request are read into a buffer at once, so "
+              + "larger requests are rejected. It should not be lower than "
+              + Name.USER_NETWORK_NETTY_READER_VECTORED_MAX_REQUEST_SIZE + " of the clients.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_NETWORK_SHUTDOWN_TIMEOUT =
       durationBuilder(Name.WORKER_NETWORK_SHUTDOWN_TIMEOUT)
           .setDefaultValue("15sec")
@@ -4822,6 +4920,43 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_PAGE_STORE_WRITE_BEHIND_ENABLED =
+      booleanBuilder(Name.WORKER_PAGE_STORE_WRITE_BEHIND_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("If this is enabled, pages read from the under storage on cache misses "
+              + "are handed to the reader immediately and written to the page store in the "
+              + "background, in batches per cache directory. This takes precedence over "
+              + Name.WORKER_PAGE_STORE_ASYNC_WRITE_ENABLED + ".")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_WRITE_BEHIND_QUEUE_SIZE =
+      dataSizeBuilder(Name.WORKER_PAGE_STORE_WRITE_BEHIND_QUEUE_SIZE)
+          .setDefaultValue("64MB")
+          .setDescription("The maximum size of the pages waiting to be written to each cache "
+              + "directory by write-behind.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_WRITE_BEHIND_OVERFLOW_POLICY =
+      enumBuilder(Name.WORKER_PAGE_STORE_WRITE_BEHIND_OVERFLOW_POLICY,
+          WriteBehindOverflowPolicy.class)
+          .setDefaultValue(WriteBehindOverflowPolicy.DROP)
+          .setDescription("What write-behind does with a page when the queue of its cache "
+              + "directory is full. Valid options are `DROP` (the page is not cached), `BLOCK` "
+              + "(the reader waits for room in the queue) and `CALLER_RUNS` (the reader writes "
+              + "the page itself).")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_WRITE_BEHIND_SYNC_ENABLED =
+      booleanBuilder(Name.WORKER_PAGE_STORE_WRITE_BEHIND_SYNC_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("If this is enabled, write-behind forces each batch of pages to the "
+              + "storage device together once they are written.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_PAGE_STORE_DIRS =
       listBuilder(Name.WORKER_PAGE_STORE_DIRS)
           .setDefaultValue("/tmp/alluxio_cache")
@@ -4842,7 +4977,8 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setDescription("The strategy that worker uses to evict local cached pages when running "
               + "out of space. Currently valid options include "
               + "`alluxio.client.file.cache.evictor.LRUCacheEvictor`,"
-              + "`alluxio.client.file.cache.evictor.LFUCacheEvictor`.")
+              + "`alluxio.client.file.cache.evictor.LFUCacheEvictor`,"
+              + "`alluxio.client.file.cache.evictor.TinyLFUCacheEvictor`.")
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
@@ -4862,6 +4998,16 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_PAGE_STORE_EXTERNAL_READ_MAX_SIZE =
+      dataSizeBuilder(Name.WORKER_PAGE_STORE_EXTERNAL_READ_MAX_SIZE)
+          .setDefaultValue("8MB")
+          .setDescription("The maximum number of bytes read from the under storage in a single "
+              + "request when a read misses a run of consecutive pages in the worker page store. "
+              + "Setting this to no more than " + Name.WORKER_PAGE_STORE_PAGE_SIZE
+              + " reads one page per request.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_PAGE_STORE_LOCAL_STORE_FILE_BUCKETS =
       intBuilder(Name.WORKER_PAGE_STORE_LOCAL_STORE_FILE_BUCKETS)
           .setDefaultValue(1000)
@@ -4871,6 +5017,51 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_PAGE_STORE_SEGMENT_STORE_SEGMENT_SIZE =
+      dataSizeBuilder(Name.WORKER_PAGE_STORE_SEGMENT_STORE_SEGMENT_SIZE)
+          .setDefaultValue("64MB")
+          .setDescription("The size of each segment file of the segment page store of the "
+              + "worker. Pages are appended to the active segment, and a new segment is "
+              + "allocated when it is full.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_SEGMENT_STORE_COMPACTION_THRESHOLD =
+      doubleBuilder(Name.WORKER_PAGE_STORE_SEGMENT_STORE_COMPACTION_THRESHOLD)
+          .setDefaultValue(0.5)
+          .setDescription("The fraction of live bytes below which a sealed segment of the "
+              + "segment page store of the worker is compacted, i.e. its remaining live pages "
+              + "are copied into the active segment and the segment file is deleted.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_META_STORE_CONCURRENT_ENABLED =
+      booleanBuilder(Name.WORKER_PAGE_STORE_META_STORE_CONCURRENT_ENABLED)
+          .setDefaultValue(false)
+          .setDescription(String.format("If this is enabled, the metadata of the cached pages "
+              + "is kept in a concurrent index with a compact per-file page bitmap, so that "
+              + "lookups do not take a global lock and each page uses less memory. This is "
+              + "ignored if %s is enabled.", Name.WORKER_PAGE_STORE_QUOTA_ENABLED))
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_MISS_COALESCING_ENABLED =
+      booleanBuilder(Name.WORKER_PAGE_STORE_MISS_COALESCING_ENABLED)
+          .setDefaultValue(true)
+          .setDescription("If this is enabled, concurrent cache misses on the same page wait for "
+              + "a single read from the under storage instead of each issuing their own.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_MISS_COALESCING_TIMEOUT =
+      durationBuilder(Name.WORKER_PAGE_STORE_MISS_COALESCING_TIMEOUT)
+          .setDefaultValue("1min")
+          .setDescription("The maximum time a cache miss waits for the read of the same page "
+              + "by another miss, when " + Name.WORKER_PAGE_STORE_MISS_COALESCING_ENABLED
+              + " is true. The page is read from the under storage once the time is up.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_PAGE_STORE_OVERHEAD =
       doubleBuilder(Name.WORKER_PAGE_STORE_OVERHEAD)
           .setDefaultValue(0.1)
@@ -4880,6 +5071,46 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
+  public static final PropertyKey WORKER_PAGE_STORE_INDEX_ENABLED =
+      booleanBuilder(Name.WORKER_PAGE_STORE_INDEX_ENABLED)
+          .setDefaultValue(false)
+          .setDescription(String.format("Whether each directory of the `LOCAL` worker page "
+              + "store keeps an index of its pages, a snapshot and a log of the pages added "
+              + "and removed since, so that the pages are restored from the index on restart "
+              + "instead of by scanning the page files. A snapshot is taken every `%s` and when "
+              + "the worker shuts down, and the restored pages are checked against the page "
+              + "files in the background.", Name.WORKER_PAGE_STORE_INDEX_CHECKPOINT_INTERVAL))
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_INDEX_CHECKPOINT_INTERVAL =
+      durationBuilder(Name.WORKER_PAGE_STORE_INDEX_CHECKPOINT_INTERVAL)
+          .setDefaultValue("1h")
+          .setDescription("The interval between the snapshots of the index of the pages of "
+              + "each directory of the worker page store, which compact the log of the pages "
+              + "added and removed since the previous snapshot.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_MMAP_ENABLED =
+      booleanBuilder(Name.WORKER_PAGE_STORE_MMAP_ENABLED)
+          .setDefaultValue(false)
+          .setDescription(String.format("Whether to serve page reads of the worker page store "
+              + "from files mapped into memory. Page files of the `LOCAL` page store and "
+              + "segment files of the `SEGMENT` page store are mapped on their first read, and "
+              + "kept mapped up to `%s`.", Name.WORKER_PAGE_STORE_MMAP_MAX_SIZE))
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey WORKER_PAGE_STORE_MMAP_MAX_SIZE =
+      dataSizeBuilder(Name.WORKER_PAGE_STORE_MMAP_MAX_SIZE)
+          .setDefaultValue("1GB")
+          .setDescription("The maximum size of the files mapped into memory by each page store "
+              + "directory of the worker page store. The least recently used files are unmapped "
+              + "beyond it.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey WORKER_PAGE_STORE_PAGE_SIZE =
       dataSizeBuilder(Name.WORKER_PAGE_STORE_PAGE_SIZE)
           .setDefaultValue("1MB")
@@ -4924,8 +5155,9 @@ public final class PropertyKey implements Comparable<PropertyKey> {
       enumBuilder(Name.WORKER_PAGE_STORE_TYPE, PageStoreType.class)
           .setDefaultValue(PageStoreType.LOCAL)
           .setDescription("The type of page store to use for worker page store. Can be either "
-              + "`LOCAL` or `ROCKS`. The `LOCAL` page store stores all pages in a directory, "
-              + "the `ROCKS` page store utilizes rocksDB to persist the data.")
+              + "`LOCAL`, `SEGMENT` or `ROCKS`. The `LOCAL` page store stores all pages in a "
+              + "directory, the `SEGMENT` page store appends pages to large preallocated segment "
+              + "files, the `ROCKS` page store utilizes rocksDB to persist the data.")
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.WORKER)
           .build();
@@ -6063,6 +6295,43 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
           .setScope(Scope.CLIENT)
           .build();
+  public static final PropertyKey USER_CLIENT_CACHE_WRITE_BEHIND_ENABLED =
+      booleanBuilder(Name.USER_CLIENT_CACHE_WRITE_BEHIND_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("If this is enabled, pages read from the external storage on cache "
+              + "misses are handed to the reader immediately and written to the page store in the "
+              + "background, in batches per cache directory. This takes precedence over "
+              + Name.USER_CLIENT_CACHE_ASYNC_WRITE_ENABLED + ".")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_WRITE_BEHIND_QUEUE_SIZE =
+      dataSizeBuilder(Name.USER_CLIENT_CACHE_WRITE_BEHIND_QUEUE_SIZE)
+          .setDefaultValue("64MB")
+          .setDescription("The maximum size of the pages waiting to be written to each cache "
+              + "directory by write-behind.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_WRITE_BEHIND_OVERFLOW_POLICY =
+      enumBuilder(Name.USER_CLIENT_CACHE_WRITE_BEHIND_OVERFLOW_POLICY,
+          WriteBehindOverflowPolicy.class)
+          .setDefaultValue(WriteBehindOverflowPolicy.DROP)
+          .setDescription("What write-behind does with a page when the queue of its cache "
+              + "directory is full. Valid options are `DROP` (the page is not cached), `BLOCK` "
+              + "(the reader waits for room in the queue) and `CALLER_RUNS` (the reader writes "
+              + "the page itself).")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_WRITE_BEHIND_SYNC_ENABLED =
+      booleanBuilder(Name.USER_CLIENT_CACHE_WRITE_BEHIND_SYNC_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("If this is enabled, write-behind forces each batch of pages to the "
+              + "storage device together once they are written.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_CLIENT_CACHE_ENABLED =
       booleanBuilder(Name.USER_CLIENT_CACHE_ENABLED)
           .setDefaultValue(false)
@@ -6084,13 +6353,24 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.CLIENT)
           .build();
+  public static final PropertyKey USER_CLIENT_CACHE_META_STORE_CONCURRENT_ENABLED =
+      booleanBuilder(Name.USER_CLIENT_CACHE_META_STORE_CONCURRENT_ENABLED)
+          .setDefaultValue(false)
+          .setDescription(String.format("If this is enabled, the metadata of the cached pages "
+              + "is kept in a concurrent index with a compact per-file page bitmap, so that "
+              + "lookups do not take a global lock and each page uses less memory. This is "
+              + "ignored if %s is enabled.", Name.USER_CLIENT_CACHE_QUOTA_ENABLED))
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_CLIENT_CACHE_EVICTOR_CLASS =
       classBuilder(Name.USER_CLIENT_CACHE_EVICTOR_CLASS)
           .setDefaultValue("alluxio.client.file.cache.evictor.LRUCacheEvictor")
           .setDescription("The strategy that client uses to evict local cached pages when running "
               + "out of space. Currently valid options include "
               + "`alluxio.client.file.cache.evictor.LRUCacheEvictor`,"
-              + "`alluxio.client.file.cache.evictor.LFUCacheEvictor`.")
+              + "`alluxio.client.file.cache.evictor.LFUCacheEvictor`,"
+              + "`alluxio.client.file.cache.evictor.TinyLFUCacheEvictor`.")
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.CLIENT)
           .build();
@@ -6194,6 +6474,26 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
           .setScope(Scope.CLIENT)
           .build();
+  public static final PropertyKey USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED =
+      booleanBuilder(Name.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("If this is enabled together with the shadow cache, the cache quota "
+              + "of each cache scope is periodically set to the share of the cache recommended "
+              + "from the hit ratio curves measured by the shadow cache. The recommendations are "
+              + "computed and exposed as metrics regardless of this property. The quotas are "
+              + "only applied when " + Name.USER_CLIENT_CACHE_QUOTA_ENABLED + " is true.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_INTERVAL =
+      durationBuilder(Name.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_INTERVAL)
+          .setDefaultValue("5min")
+          .setDescription("The interval at which the cache quota of each cache scope is "
+              + "recommended from the shadow cache, and applied if "
+              + Name.USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED + " is true.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_CLIENT_CACHE_DIRS =
       listBuilder(Name.USER_CLIENT_CACHE_DIRS)
           .setDefaultValue("/tmp/alluxio_cache")
@@ -6208,6 +6508,16 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.CLIENT)
           .build();
+  public static final PropertyKey USER_CLIENT_CACHE_EXTERNAL_READ_MAX_SIZE =
+      dataSizeBuilder(Name.USER_CLIENT_CACHE_EXTERNAL_READ_MAX_SIZE)
+          .setDefaultValue("8MB")
+          .setDescription("The maximum number of bytes read from the external storage in a "
+              + "single request when a read misses a run of consecutive pages in the client "
+              + "cache. Setting this to no more than " + Name.USER_CLIENT_CACHE_PAGE_SIZE
+              + " reads one page per request.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_CLIENT_CACHE_TIMEOUT_DURATION =
       durationBuilder(Name.USER_CLIENT_CACHE_TIMEOUT_DURATION)
           .setDefaultValue("-1")
@@ -6235,12 +6545,32 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.CLIENT)
           .build();
+  public static final PropertyKey USER_CLIENT_CACHE_STORE_MMAP_ENABLED =
+      booleanBuilder(Name.USER_CLIENT_CACHE_STORE_MMAP_ENABLED)
+          .setDefaultValue(false)
+          .setDescription(String.format("Whether to serve page reads of the client-side cache "
+              + "from files mapped into memory. Page files of the `LOCAL` page store and "
+              + "segment files of the `SEGMENT` page store are mapped on their first read, and "
+              + "kept mapped up to `%s`.", Name.USER_CLIENT_CACHE_STORE_MMAP_MAX_SIZE))
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_STORE_MMAP_MAX_SIZE =
+      dataSizeBuilder(Name.USER_CLIENT_CACHE_STORE_MMAP_MAX_SIZE)
+          .setDefaultValue("1GB")
+          .setDescription("The maximum size of the files mapped into memory by each page store "
+              + "directory of the client-side cache. The least recently used files are unmapped "
+              + "beyond it.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_CLIENT_CACHE_STORE_TYPE =
       enumBuilder(Name.USER_CLIENT_CACHE_STORE_TYPE, PageStoreType.class)
           .setDefaultValue(PageStoreType.LOCAL)
           .setDescription("The type of page store to use for client-side cache. Can be either "
-              + "`LOCAL` or `ROCKS`. The `LOCAL` page store stores all pages in a directory, "
-              + "the `ROCKS` page store utilizes rocksDB to persist the data.")
+              + "`LOCAL`, `SEGMENT` or `ROCKS`. The `LOCAL` page store stores all pages in a "
+              + "directory, the `SEGMENT` page store appends pages to large preallocated segment "
+              + "files, the `ROCKS` page store utilizes rocksDB to persist the data.")
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.CLIENT)
           .build();
@@ -6253,6 +6583,41 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.CLIENT)
           .build();
+  public static final PropertyKey USER_CLIENT_CACHE_MISS_COALESCING_ENABLED =
+      booleanBuilder(Name.USER_CLIENT_CACHE_MISS_COALESCING_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("If this is enabled, concurrent cache misses on the same page wait for "
+              + "a single read from the external storage instead of each issuing their own.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_MISS_COALESCING_TIMEOUT =
+      durationBuilder(Name.USER_CLIENT_CACHE_MISS_COALESCING_TIMEOUT)
+          .setDefaultValue("1min")
+          .setDescription("The maximum time a cache miss waits for the read of the same page "
+              + "by another miss, when " + Name.USER_CLIENT_CACHE_MISS_COALESCING_ENABLED
+              + " is true. The page is read from the external storage once the time is up.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_SEGMENT_STORE_SEGMENT_SIZE =
+      dataSizeBuilder(Name.USER_CLIENT_CACHE_SEGMENT_STORE_SEGMENT_SIZE)
+          .setDefaultValue("64MB")
+          .setDescription("The size of each segment file of the segment page store of the "
+              + "client-side cache. Pages are appended to the active segment, and a new segment "
+              + "is allocated when it is full.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_CLIENT_CACHE_SEGMENT_STORE_COMPACTION_THRESHOLD =
+      doubleBuilder(Name.USER_CLIENT_CACHE_SEGMENT_STORE_COMPACTION_THRESHOLD)
+          .setDefaultValue(0.5)
+          .setDescription("The fraction of live bytes below which a sealed segment of the "
+              + "segment page store of the client-side cache is compacted, i.e. its remaining "
+              + "live pages are copied into the active segment and the segment file is deleted.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_CLIENT_CACHE_QUOTA_ENABLED =
       booleanBuilder(Name.USER_CLIENT_CACHE_QUOTA_ENABLED)
           .setDefaultValue(false)
@@ -6469,6 +6834,42 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setIsHidden(true)
           .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
           .build();
+  public static final PropertyKey USER_POSITION_READER_READ_AHEAD_ENABLED =
+      booleanBuilder(Name.USER_POSITION_READER_READ_AHEAD_ENABLED)
+          .setScope(Scope.CLIENT)
+          .setDefaultValue(false)
+          .setDescription("Whether the streams reading from the dora cache read ahead of "
+              + "sequential readers in the background. The read-ahead window grows when the "
+              + "reader waits for data and shrinks when the data is read slower than it arrives. "
+              + "Random seeks cancel the read-ahead.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .build();
+  public static final PropertyKey USER_POSITION_READER_READ_AHEAD_MAX_SIZE =
+      dataSizeBuilder(Name.USER_POSITION_READER_READ_AHEAD_MAX_SIZE)
+          .setScope(Scope.CLIENT)
+          .setDefaultValue("64MB")
+          .setDescription("The maximum size of a read-ahead window of a stream, when "
+              + Name.USER_POSITION_READER_READ_AHEAD_ENABLED + " is enabled.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .build();
+  public static final PropertyKey USER_POSITION_READER_READ_AHEAD_MEMORY_BUDGET =
+      dataSizeBuilder(Name.USER_POSITION_READER_READ_AHEAD_MEMORY_BUDGET)
+          .setScope(Scope.CLIENT)
+          .setDefaultValue("1GB")
+          .setDescription("The total size of the read-ahead windows of all the streams of a "
+              + "client, when " + Name.USER_POSITION_READER_READ_AHEAD_ENABLED + " is enabled. "
+              + "Streams read without read-ahead when the budget is used up.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .build();
+  public static final PropertyKey USER_POSITION_READER_READ_AHEAD_THREADS =
+      intBuilder(Name.USER_POSITION_READER_READ_AHEAD_THREADS)
+          .setScope(Scope.CLIENT)
+          .setDefaultValue(16)
+          .setDescription("The number of threads reading ahead for all the streams of a "
+              + "client, when " + Name.USER_POSITION_READER_READ_AHEAD_ENABLED + " is enabled. "
+              + "A window is not read ahead while all the threads are busy.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.IGNORE)
+          .build();
   public static final PropertyKey USER_SKIP_AUTHORITY_CHECK =
       booleanBuilder(Name.USER_SKIP_AUTHORITY_CHECK)
           .setScope(Scope.CLIENT)
@@ -6877,6 +7278,26 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
           .setScope(Scope.CLIENT)
           .build();
+  public static final PropertyKey USER_WORKER_SELECTION_REPLICAS =
+      intBuilder(Name.USER_WORKER_SELECTION_REPLICAS)
+          .setDefaultValue(1)
+          .setDescription("The number of workers on the consistent hash ring a file may be read "
+              + "from. The client reads from the first of them unless it is much more loaded "
+              + "than the others, judged by the requests in flight and the recent latency of "
+              + "each worker, so that hot files are spread over several workers. A read which "
+              + "times out fails over to the next worker.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_WORKER_SELECTION_FAILURE_COOLDOWN =
+      durationBuilder(Name.USER_WORKER_SELECTION_FAILURE_COOLDOWN)
+          .setDefaultValue("30sec")
+          .setDescription("After a read from a worker times out, the duration the client "
+              + "prefers the other workers a file may be read from, see "
+              + Name.USER_WORKER_SELECTION_REPLICAS + ".")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_RPC_RETRY_MAX_SLEEP_MS =
       durationBuilder(Name.USER_RPC_RETRY_MAX_SLEEP_MS)
           .setAlias("alluxio.user.rpc.retry.max.sleep.ms")
@@ -7789,6 +8210,40 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setDescription("When a client reads from a remote worker, the maximum number of packets "
               + "to buffer by the client.")
           .build();
+  public static final PropertyKey USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED =
+      booleanBuilder(Name.USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED)
+          .setDefaultValue(false)
+          .setDescription("Whether small reads from a worker over netty share a few channels "
+              + "to the worker, each with many outstanding requests tagged with request ids, "
+              + "instead of taking a channel each for a round trip. The workers must support "
+              + "request ids.")
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_NETWORK_NETTY_READER_MULTIPLEX_MAX_READ_SIZE =
+      dataSizeBuilder(Name.USER_NETWORK_NETTY_READER_MULTIPLEX_MAX_READ_SIZE)
+          .setDefaultValue("1MB")
+          .setDescription("The largest read sent over a shared channel when "
+              + Name.USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED + " is true. Larger reads "
+              + "take a channel of their own.")
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_NETWORK_NETTY_READER_MULTIPLEX_CHANNELS =
+      intBuilder(Name.USER_NETWORK_NETTY_READER_MULTIPLEX_CHANNELS)
+          .setDefaultValue(2)
+          .setDescription("The number of channels to each worker shared by the reads when "
+              + Name.USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED + " is true.")
+          .setScope(Scope.CLIENT)
+          .build();
+  public static final PropertyKey USER_NETWORK_NETTY_READER_VECTORED_MAX_REQUEST_SIZE =
+      dataSizeBuilder(Name.USER_NETWORK_NETTY_READER_VECTORED_MAX_REQUEST_SIZE)
+          .setDefaultValue("16MB")
+          .setDescription("The largest total length of the ranges of a vectored read sent to a "
+              + "worker in a single request. The ranges of a larger vectored read are split "
+              + "between several requests, and a range larger than this is read on its own. "
+              + "It should not be higher than "
+              + Name.WORKER_NETWORK_READER_VECTORED_MAX_REQUEST_SIZE + " of the workers.")
+          .setScope(Scope.CLIENT)
+          .build();
   public static final PropertyKey USER_NETWORK_NETTY_CHANNEL_POOL_DISABLED =
       booleanBuilder(Name.USER_NETWORK_NETTY_CHANNEL_POOL_DISABLED)
           .setDefaultValue(false)
@@ -7867,6 +8322,33 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setScope(Scope.WORKER)
           .build();
 
+  public static final PropertyKey DORA_WORKER_WRITE_BACK_DIR =
+      stringBuilder(Name.DORA_WORKER_WRITE_BACK_DIR)
+          .setDefaultValue(format("${%s}/writeback", Name.WORK_DIR))
+          .setDescription("The dir where the worker keeps the data of the files written in the "
+              + "write-back mode, with the `ASYNC_THROUGH` write type, until they are persisted "
+              + "to the UFS. The files are persisted again after a restart of the worker.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey DORA_WORKER_WRITE_BACK_QUEUE_SIZE =
+      intBuilder(Name.DORA_WORKER_WRITE_BACK_QUEUE_SIZE)
+          .setDefaultValue(1024)
+          .setDescription("The maximum number of files written in the write-back mode and not "
+              + "persisted to the UFS yet on a worker. Beyond it, the files are written through "
+              + "to the UFS by the client instead.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+  public static final PropertyKey DORA_WORKER_WRITE_BACK_THREADS =
+      intBuilder(Name.DORA_WORKER_WRITE_BACK_THREADS)
+          .setDefaultValue(4)
+          .setDescription("The number of files written in the write-back mode a worker persists "
+              + "to the UFS at the same time.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.WARN)
+          .setScope(Scope.WORKER)
+          .build();
+
   public static final PropertyKey DORA_WORKER_METASTORE_ROCKSDB_DIR =
       stringBuilder(Name.DORA_WORKER_METASTORE_ROCKSDB_DIR)
           .setDefaultValue(format("${%s}/metastore", Name.WORK_DIR))
@@ -7929,6 +8411,17 @@ public final class PropertyKey implements Comparable<PropertyKey> {
           .setScope(Scope.WORKER)
           .build();
 
+  public static final PropertyKey DORA_UFS_LIST_STATUS_CACHE_REFRESH_INTERVAL =
+      durationBuilder(Name.DORA_UFS_LIST_STATUS_CACHE_REFRESH_INTERVAL)
+          .setDefaultValue("10min")
+          .setDescription("The age after which a cached UFS list status result is refreshed "
+              + "from the UFS in the background. The cached result is still returned while it "
+              + "is refreshed, so that listing a directory does not wait for the UFS. "
+              + "A value of 0 disables refreshing, the results then stay cached until "
+              + Name.DORA_UFS_LIST_STATUS_CACHE_TTL + " passes.")
+          .setConsistencyCheckLevel(ConsistencyCheckLevel.ENFORCE)
+          .setScope(Scope.WORKER)
+          .build();
   public static final PropertyKey DORA_UFS_LIST_STATUS_CACHE_NR_FILES =
       intBuilder(Name.DORA_UFS_LIST_STATUS_CACHE_NR_FILES)
           .setDefaultValue(100000)
@@ -8108,6 +8601,14 @@ public final class PropertyKey implements Comparable<PropertyKey> {
     public static final String UNDERFS_VERSION = "alluxio.underfs.version";
     public static final String UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_PART_TIMEOUT =
         "alluxio.underfs.object.store.streaming.upload.part.timeout";
+    public static final String UNDERFS_OBJECT_STORE_LISTING_PARALLELISM =
+        "alluxio.underfs.object.store.listing.parallelism";
+    public static final String UNDERFS_OBJECT_STORE_LISTING_ORDERED =
+        "alluxio.underfs.object.store.listing.ordered";
+    public static final String UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED =
+        "alluxio.underfs.object.store.streaming.upload.memory.buffer.enabled";
+    public static final String UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE =
+        "alluxio.underfs.object.store.streaming.upload.memory.buffer.size";
     public static final String UNDERFS_OBJECT_STORE_BREADCRUMBS_ENABLED =
         "alluxio.underfs.object.store.breadcrumbs.enabled";
     public static final String UNDERFS_OBJECT_STORE_SERVICE_THREADS =
@@ -8809,6 +9310,12 @@ public final class PropertyKey implements Comparable<PropertyKey> {
     public static final String WORKER_FILE_BUFFER_SIZE = "alluxio.worker.file.buffer.size";
     public static final String WORKER_FREE_SPACE_TIMEOUT = "alluxio.worker.free.space.timeout";
     public static final String WORKER_HOSTNAME = "alluxio.worker.hostname";
+    public static final String WORKER_JOB_BANDWIDTH = "alluxio.worker.job.bandwidth";
+    public static final String WORKER_LOAD_BUFFER_SIZE = "alluxio.worker.load.buffer.size";
+    public static final String WORKER_LOAD_CONCURRENCY = "alluxio.worker.load.concurrency";
+    public static final String WORKER_LOAD_FILE_CONCURRENCY =
+        "alluxio.worker.load.file.concurrency";
+    public static final String WORKER_LOAD_RANGE_SIZE = "alluxio.worker.load.range.size";
     public static final String WORKER_KEYTAB_FILE = "alluxio.worker.keytab.file";
     public static final String WORKER_MASTER_CONNECT_RETRY_TIMEOUT =
         "alluxio.worker.master.connect.retry.timeout";
@@ -8881,6 +9388,8 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.worker.network.reader.buffer.pooled";
     public static final String WORKER_NETWORK_READER_MAX_CHUNK_SIZE_BYTES =
         "alluxio.worker.network.reader.max.chunk.size.bytes";
+    public static final String WORKER_NETWORK_READER_VECTORED_MAX_REQUEST_SIZE =
+        "alluxio.worker.network.reader.vectored.max.request.size";
     public static final String WORKER_NETWORK_SHUTDOWN_TIMEOUT =
         "alluxio.worker.network.shutdown.timeout";
     public static final String WORKER_NETWORK_ZEROCOPY_ENABLED =
@@ -8910,6 +9419,14 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.worker.page.store.async.write.enabled";
     public static final String WORKER_PAGE_STORE_ASYNC_WRITE_THREADS =
         "alluxio.worker.page.store.async.write.threads";
+    public static final String WORKER_PAGE_STORE_WRITE_BEHIND_ENABLED =
+        "alluxio.worker.page.store.write.behind.enabled";
+    public static final String WORKER_PAGE_STORE_WRITE_BEHIND_QUEUE_SIZE =
+        "alluxio.worker.page.store.write.behind.queue.size";
+    public static final String WORKER_PAGE_STORE_WRITE_BEHIND_OVERFLOW_POLICY =
+        "alluxio.worker.page.store.write.behind.overflow.policy";
+    public static final String WORKER_PAGE_STORE_WRITE_BEHIND_SYNC_ENABLED =
+        "alluxio.worker.page.store.write.behind.sync.enabled";
     public static final String WORKER_PAGE_STORE_DIRS =
         "alluxio.worker.page.store.dirs";
     public static final String WORKER_PAGE_STORE_EVICTION_RETRIES =
@@ -8920,10 +9437,30 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.worker.page.store.evictor.lfu.logbase";
     public static final String WORKER_PAGE_STORE_EVICTOR_NONDETERMINISTIC_ENABLED =
         "alluxio.worker.page.store.evictor.nondeterministic.enabled";
+    public static final String WORKER_PAGE_STORE_EXTERNAL_READ_MAX_SIZE =
+        "alluxio.worker.page.store.external.read.max.size";
     public static final String WORKER_PAGE_STORE_LOCAL_STORE_FILE_BUCKETS =
         "alluxio.worker.page.store.local.store.file.buckets";
+    public static final String WORKER_PAGE_STORE_SEGMENT_STORE_SEGMENT_SIZE =
+        "alluxio.worker.page.store.segment.store.segment.size";
+    public static final String WORKER_PAGE_STORE_SEGMENT_STORE_COMPACTION_THRESHOLD =
+        "alluxio.worker.page.store.segment.store.compaction.threshold";
+    public static final String WORKER_PAGE_STORE_META_STORE_CONCURRENT_ENABLED =
+        "alluxio.worker.page.store.meta.store.concurrent.enabled";
+    public static final String WORKER_PAGE_STORE_MISS_COALESCING_ENABLED =
+        "alluxio.worker.page.store.miss.coalescing.enabled";
+    public static final String WORKER_PAGE_STORE_MISS_COALESCING_TIMEOUT =
+        "alluxio.worker.page.store.miss.coalescing.timeout";
     public static final String WORKER_PAGE_STORE_OVERHEAD =
         "alluxio.worker.page.store.overhead";
+    public static final String WORKER_PAGE_STORE_INDEX_ENABLED =
+        "alluxio.worker.page.store.index.enabled";
+    public static final String WORKER_PAGE_STORE_INDEX_CHECKPOINT_INTERVAL =
+        "alluxio.worker.page.store.index.checkpoint.interval";
+    public static final String WORKER_PAGE_STORE_MMAP_ENABLED =
+        "alluxio.worker.page.store.mmap.enabled";
+    public static final String WORKER_PAGE_STORE_MMAP_MAX_SIZE =
+        "alluxio.worker.page.store.mmap.max.size";
     public static final String WORKER_PAGE_STORE_PAGE_SIZE =
         "alluxio.worker.page.store.page.size";
     public static final String WORKER_PAGE_STORE_QUOTA_ENABLED =
@@ -9104,14 +9641,26 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.user.client.cache.async.write.enabled";
     public static final String USER_CLIENT_CACHE_ASYNC_WRITE_THREADS =
         "alluxio.user.client.cache.async.write.threads";
+    public static final String USER_CLIENT_CACHE_WRITE_BEHIND_ENABLED =
+        "alluxio.user.client.cache.write.behind.enabled";
+    public static final String USER_CLIENT_CACHE_WRITE_BEHIND_QUEUE_SIZE =
+        "alluxio.user.client.cache.write.behind.queue.size";
+    public static final String USER_CLIENT_CACHE_WRITE_BEHIND_OVERFLOW_POLICY =
+        "alluxio.user.client.cache.write.behind.overflow.policy";
+    public static final String USER_CLIENT_CACHE_WRITE_BEHIND_SYNC_ENABLED =
+        "alluxio.user.client.cache.write.behind.sync.enabled";
     public static final String USER_CLIENT_CACHE_ENABLED =
         "alluxio.user.client.cache.enabled";
+    public static final String USER_CLIENT_CACHE_EXTERNAL_READ_MAX_SIZE =
+        "alluxio.user.client.cache.external.read.max.size";
     public static final String USER_CLIENT_CACHE_FILTER_CLASS =
         "alluxio.user.client.cache.filter.class";
     public static final String USER_CLIENT_CACHE_FILTER_CONFIG_FILE =
         "alluxio.user.client.cache.filter.config-file";
     public static final String USER_CLIENT_CACHE_EVICTION_RETRIES =
         "alluxio.user.client.cache.eviction.retries";
+    public static final String USER_CLIENT_CACHE_META_STORE_CONCURRENT_ENABLED =
+        "alluxio.user.client.cache.meta.store.concurrent.enabled";
     public static final String USER_CLIENT_CACHE_EVICTOR_CLASS =
         "alluxio.user.client.cache.evictor.class";
     public static final String USER_CLIENT_CACHE_EVICTOR_LFU_LOGBASE =
@@ -9140,10 +9689,22 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.user.client.cache.shadow.cuckoo.size.prefix.bits";
     public static final String USER_CLIENT_CACHE_SHADOW_CUCKOO_SIZE_SUFFIX_BITS =
         "alluxio.user.client.cache.shadow.cuckoo.size.suffix.bits";
+    public static final String USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_ENABLED =
+        "alluxio.user.client.cache.shadow.quota.adaptive.enabled";
+    public static final String USER_CLIENT_CACHE_SHADOW_QUOTA_ADAPTIVE_INTERVAL =
+        "alluxio.user.client.cache.shadow.quota.adaptive.interval";
     public static final String USER_CLIENT_CACHE_DIRS =
         "alluxio.user.client.cache.dirs";
     public static final String USER_CLIENT_CACHE_LOCAL_STORE_FILE_BUCKETS =
         "alluxio.user.client.cache.local.store.file.buckets";
+    public static final String USER_CLIENT_CACHE_MISS_COALESCING_ENABLED =
+        "alluxio.user.client.cache.miss.coalescing.enabled";
+    public static final String USER_CLIENT_CACHE_MISS_COALESCING_TIMEOUT =
+        "alluxio.user.client.cache.miss.coalescing.timeout";
+    public static final String USER_CLIENT_CACHE_SEGMENT_STORE_SEGMENT_SIZE =
+        "alluxio.user.client.cache.segment.store.segment.size";
+    public static final String USER_CLIENT_CACHE_SEGMENT_STORE_COMPACTION_THRESHOLD =
+        "alluxio.user.client.cache.segment.store.compaction.threshold";
     public static final String USER_CLIENT_CACHE_IN_STREAM_BUFFER_SIZE =
         "alluxio.user.client.cache.instream_buffer_size";
     public static final String USER_CLIENT_CACHE_PAGE_SIZE =
@@ -9160,6 +9721,10 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.user.client.cache.size";
     public static final String USER_CLIENT_CACHE_STORE_OVERHEAD =
         "alluxio.user.client.cache.store.overhead";
+    public static final String USER_CLIENT_CACHE_STORE_MMAP_ENABLED =
+        "alluxio.user.client.cache.store.mmap.enabled";
+    public static final String USER_CLIENT_CACHE_STORE_MMAP_MAX_SIZE =
+        "alluxio.user.client.cache.store.mmap.max.size";
     public static final String USER_CLIENT_CACHE_STORE_TYPE =
         "alluxio.user.client.cache.store.type";
     public static final String USER_CLIENT_CACHE_TIMEOUT_DURATION =
@@ -9245,6 +9810,14 @@ public final class PropertyKey implements Comparable<PropertyKey> {
     public static final String USER_APP_ID = "alluxio.user.app.id";
     public static final String USER_POSITION_READER_STREAMING_MULTIPLIER =
         "alluxio.user.position.reader.streaming.multiplier";
+    public static final String USER_POSITION_READER_READ_AHEAD_ENABLED =
+        "alluxio.user.position.reader.read.ahead.enabled";
+    public static final String USER_POSITION_READER_READ_AHEAD_MAX_SIZE =
+        "alluxio.user.position.reader.read.ahead.max.size";
+    public static final String USER_POSITION_READER_READ_AHEAD_MEMORY_BUDGET =
+        "alluxio.user.position.reader.read.ahead.memory.budget";
+    public static final String USER_POSITION_READER_READ_AHEAD_THREADS =
+        "alluxio.user.position.reader.read.ahead.threads";
     public static final String USER_NETWORK_DATA_TIMEOUT =
         "alluxio.user.network.data.timeout";
     public static final String USER_NETWORK_READER_BUFFER_SIZE_MESSAGES =
@@ -9353,6 +9926,10 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.user.short.circuit.preferred";
     public static final String USER_WORKER_LIST_REFRESH_INTERVAL =
         "alluxio.user.worker.list.refresh.interval";
+    public static final String USER_WORKER_SELECTION_REPLICAS =
+        "alluxio.user.worker.selection.replicas";
+    public static final String USER_WORKER_SELECTION_FAILURE_COOLDOWN =
+        "alluxio.user.worker.selection.failure.cooldown";
 
     //
     // FUSE integration related properties
@@ -9556,6 +10133,14 @@ public final class PropertyKey implements Comparable<PropertyKey> {
         "alluxio.user.network.netty.writer.buffer.size.packets";
     public static final String USER_NETWORK_NETTY_READER_BUFFER_SIZE_PACKETS =
         "alluxio.user.network.netty.reader.buffer.size.packets";
+    public static final String USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED =
+        "alluxio.user.network.netty.reader.multiplex.enabled";
+    public static final String USER_NETWORK_NETTY_READER_MULTIPLEX_MAX_READ_SIZE =
+        "alluxio.user.network.netty.reader.multiplex.max.read.size";
+    public static final String USER_NETWORK_NETTY_READER_MULTIPLEX_CHANNELS =
+        "alluxio.user.network.netty.reader.multiplex.channels";
+    public static final String USER_NETWORK_NETTY_READER_VECTORED_MAX_REQUEST_SIZE =
+        "alluxio.user.network.netty.reader.vectored.max.request.size";
 
     public static final String DORA_ENABLED =
         "alluxio.dora.enabled";
@@ -9571,6 +10156,12 @@ public final class PropertyKey implements Comparable<PropertyKey> {
     public static final String DORA_UFS_FILE_STATUS_CACHE_TTL =
         "alluxio.dora.ufs.file.status.cache.ttl";
 
+    public static final String DORA_WORKER_WRITE_BACK_DIR =
+        "alluxio.dora.worker.write.back.dir";
+    public static final String DORA_WORKER_WRITE_BACK_QUEUE_SIZE =
+        "alluxio.dora.worker.write.back.queue.size";
+    public static final String DORA_WORKER_WRITE_BACK_THREADS =
+        "alluxio.dora.worker.write.back.threads";
     public static final String DORA_WORKER_METASTORE_ROCKSDB_DIR =
         "alluxio.dora.worker.metastore.rocksdb.dir";
 
@@ -9588,6 +10179,8 @@ public final class PropertyKey implements Comparable<PropertyKey> {
     public static final String DORA_UFS_LIST_STATUS_CACHE_TTL =
         "alluxio.dora.ufs.list.status.cache.ttl";
 
+    public static final String DORA_UFS_LIST_STATUS_CACHE_REFRESH_INTERVAL =
+        "alluxio.dora.ufs.list.status.cache.refresh.interval";
     public static final String DORA_UFS_LIST_STATUS_CACHE_NR_FILES =
         "alluxio.dora.ufs.list.status.cache.nr.files";
 
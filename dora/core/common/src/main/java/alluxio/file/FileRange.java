@@ -0,0 +1,169 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.file;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.io.EOFException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A range of a file to read in a vectored read.
+ */
+public final class FileRange {
+  private final long mOffset;
+  private final int mLength;
+
+  /**
+   * @param offset the offset of the range in the file
+   * @param length the length of the range
+   */
+  public FileRange(long offset, int length) {
+    Preconditions.checkArgument(offset >= 0, "offset should be non-negative");
+    Preconditions.checkArgument(length >= 0, "length should be non-negative");
+    mOffset = offset;
+    mLength = length;
+  }
+
+  /**
+   * @return the offset of the range in the file
+   */
+  public long getOffset() {
+    return mOffset;
+  }
+
+  /**
+   * @return the length of the range
+   */
+  public int getLength() {
+    return mLength;
+  }
+
+  /**
+   * @return the offset of the end of the range in the file, exclusive
+   */
+  public long getEnd() {
+    return mOffset + mLength;
+  }
+
+  /**
+   * Checks that none of the ranges extends past the end of the file.
+   *
+   * @param ranges the ranges
+   * @param fileLength the length of the file
+   * @throws EOFException if a range extends past the end of the file
+   */
+  public static void checkWithinFile(List<FileRange> ranges, long fileLength)
+      throws EOFException {
+    for (FileRange range : ranges) {
+      if (range.getEnd() > fileLength) {
+        throw new EOFException(String.format("Range %s extends past the end of the file at %d",
+            range, fileLength));
+      }
+    }
+  }
+
+  /**
+   * Merges the ranges into fewer, larger ranges to read each in a single request. Ranges which
+   * overlap, or are separated by no more than the given gap, are merged as long as the merged
+   * range is no longer than the given size. A range longer than the size is not split.
+   *
+   * @param ranges the ranges, in any order
+   * @param maxGap the largest gap between two ranges to read along with them
+   * @param maxSize the largest size of a merged range
+   * @return the merged ranges, ordered by offset
+   */
+  public static List<MergedRange> merge(List<FileRange> ranges, long maxGap, long maxSize) {
+    List<FileRange> sorted = new ArrayList<>(ranges);
+    sorted.sort(Comparator.comparingLong(FileRange::getOffset));
+    List<MergedRange> merged = new ArrayList<>();
+    MergedRange current = null;
+    for (FileRange range : sorted) {
+      if (current == null || range.getOffset() - current.mEnd > maxGap
+          || Math.max(current.mEnd, range.getEnd()) - current.mOffset > maxSize) {
+        current = new MergedRange(range.getOffset());
+        merged.add(current);
+      }
+      current.add(range);
+    }
+    return merged;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FileRange)) {
+      return false;
+    }
+    FileRange that = (FileRange) o;
+    return mOffset == that.mOffset && mLength == that.mLength;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(mOffset, mLength);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("offset", mOffset)
+        .add("length", mLength)
+        .toString();
+  }
+
+  /**
+   * A range covering one or more ranges of a vectored read, and the gaps between them.
+   */
+  public static final class MergedRange {
+    private final long mOffset;
+    private long mEnd;
+    private final List<FileRange> mRanges = new ArrayList<>();
+
+    private MergedRange(long offset) {
+      mOffset = offset;
+      mEnd = offset;
+    }
+
+    private void add(FileRange range) {
+      mRanges.add(range);
+      mEnd = Math.max(mEnd, range.getEnd());
+    }
+
+    /**
+     * @return the offset of the merged range in the file
+     */
+    public long getOffset() {
+      return mOffset;
+    }
+
+    /**
+     * @return the length of the merged range
+     */
+    public long getLength() {
+      return mEnd - mOffset;
+    }
+
+    /**
+     * @return the ranges covered by the merged range, ordered by offset
+     */
+    public List<FileRange> getRanges() {
+      return mRanges;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Reservoir} which records every value into an HdrHistogram rather than sampling them.
+ * Values are recorded without locks into the active histogram of a {@link Recorder}, and folded
+ * into the histogram of all recorded values when a snapshot is taken, e.g. when the metrics are
+ * reported. The percentiles are accurate to 2 significant digits.
+ */
+@ThreadSafe
+public class HdrHistogramReservoir implements Reservoir {
+  private static final int SIGNIFICANT_DIGITS = 2;
+
+  private final Recorder mRecorder = new Recorder(SIGNIFICANT_DIGITS);
+  @GuardedBy("this")
+  private final Histogram mTotal = new Histogram(SIGNIFICANT_DIGITS);
+  @GuardedBy("this")
+  private Histogram mInterval;
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return the number of values recorded
+   */
+  @Override
+  public int size() {
+    return getSnapshot().size();
+  }
+
+  /**
+   * Adds a new recorded value to the reservoir. Negative values are recorded as 0.
+   *
+   * @param value a new recorded value
+   */
+  @Override
+  public void update(long value) {
+    mRecorder.recordValue(Math.max(0, value));
+  }
+
+  /**
+   * Returns a snapshot of all the values recorded so far.
+   *
+   * @return a snapshot of the reservoir's values
+   */
+  @Override
+  public synchronized Snapshot getSnapshot() {
+    mInterval = mRecorder.getIntervalHistogram(mInterval);
+    mTotal.add(mInterval);
+    return new HdrSnapshot(mTotal.copy());
+  }
+
+  private static class HdrSnapshot extends Snapshot {
+    private final Histogram mHistogram;
+
+    private HdrSnapshot(Histogram histogram) {
+      mHistogram = histogram;
+    }
+
+    @Override
+    public double getValue(double quantile) {
+      return mHistogram.getValueAtPercentile(quantile * 100);
+    }
+
+    /**
+     * @return the distinct values recorded, at the precision of the histogram, as the values
+     *         recorded may be too many to be returned one by one
+     */
+    @Override
+    public long[] getValues() {
+      List<Long> values = new ArrayList<>();
+      for (HistogramIterationValue value : mHistogram.recordedValues()) {
+        values.add(mHistogram.highestEquivalentValue(value.getValueIteratedTo()));
+      }
+      return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(Integer.MAX_VALUE, mHistogram.getTotalCount());
+    }
+
+    @Override
+    public long getMax() {
+      return mHistogram.getTotalCount() == 0 ? 0 : mHistogram.getMaxValue();
+    }
+
+    @Override
+    public double getMean() {
+      return mHistogram.getTotalCount() == 0 ? 0 : mHistogram.getMean();
+    }
+
+    @Override
+    public long getMin() {
+      return mHistogram.getTotalCount() == 0 ? 0 : mHistogram.getMinValue();
+    }
+
+    @Override
+    public double getStdDev() {
+      return mHistogram.getTotalCount() == 0 ? 0 : mHistogram.getStdDeviation();
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+      try (PrintWriter out = new PrintWriter(
+          new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+        for (long value : getValues()) {
+          out.printf("%d%n", value);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
+import java.util.function.Function;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A handle to a metric in the {@link MetricsSystem}, which resolves the metric by its name once
+ * and then returns it without looking it up in the registry again. The metric is resolved again
+ * after the metrics in the registry are replaced or removed, e.g. by
+ * {@link MetricsSystem#resetAllMetrics()}, so that meters and timers can be held in static
+ * fields on hot paths instead of being looked up on each use.
+ *
+ * @param <T> the type of the metric
+ */
+@ThreadSafe
+public final class MetricHandle<T> {
+  private final String mName;
+  private final Function<String, T> mResolver;
+  private volatile Resolved<T> mResolved;
+
+  /**
+   * @param name the name of the metric
+   * @param resolver the function which gets or adds the metric with the given name
+   * @param <T> the type of the metric
+   * @return a handle to the metric
+   */
+  public static <T> MetricHandle<T> of(String name, Function<String, T> resolver) {
+    return new MetricHandle<>(name, resolver);
+  }
+
+  /**
+   * @param key the key of the metric
+   * @return a handle to the counter of the given key
+   */
+  public static MetricHandle<Counter> counter(MetricKey key) {
+    return of(key.getName(), MetricsSystem::counter);
+  }
+
+  /**
+   * @param key the key of the metric
+   * @return a handle to the meter of the given key
+   */
+  public static MetricHandle<Meter> meter(MetricKey key) {
+    return of(key.getName(), MetricsSystem::meter);
+  }
+
+  /**
+   * Gets a handle to a timer of a hot path, which records the latencies into an HdrHistogram
+   * for the life of the process, rather than decaying them like the other timers.
+   *
+   * @param key the key of the metric
+   * @return a handle to the timer of the given key
+   */
+  public static MetricHandle<Timer> timer(MetricKey key) {
+    return of(key.getName(), MetricsSystem::latencyTimer);
+  }
+
+  private MetricHandle(String name, Function<String, T> resolver) {
+    mName = name;
+    mResolver = resolver;
+  }
+
+  /**
+   * @return the metric, resolved again if the metrics in the registry changed since it was last
+   *         resolved
+   */
+  public T get() {
+    int generation = MetricsSystem.getGeneration();
+    Resolved<T> resolved = mResolved;
+    if (resolved == null || resolved.mGeneration != generation) {
+      // concurrent callers may both resolve the metric, which gets the same metric from the
+      // registry
+      resolved = new Resolved<>(mResolver.apply(mName), generation);
+      mResolved = resolved;
+    }
+    return resolved.mMetric;
+  }
+
+  /**
+   * @return the name of the metric
+   */
+  public String getName() {
+    return mName;
+  }
+
+  private static final class Resolved<T> {
+    private final T mMetric;
+    private final int mGeneration;
+
+    private Resolved(T metric, int generation) {
+      mMetric = metric;
+      mGeneration = generation;
+    }
+  }
+}
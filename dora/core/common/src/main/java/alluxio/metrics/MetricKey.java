@@ -2083,6 +2083,20 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setMetricType(MetricType.COUNTER)
           .setIsClusterAggregated(false)
           .build();
+  public static final MetricKey WORKER_JOB_THROTTLED_TIME =
+      new Builder("Worker.JobThrottledTimeMs")
+          .setDescription("Total time in milliseconds the load, copy and move jobs on this "
+              + "worker waited for their bandwidth limit")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_JOB_THROTTLED_BYTES =
+      new Builder("Worker.JobThrottledBytes")
+          .setDescription("Total bytes of the reads of the load, copy and move jobs on this "
+              + "worker which were delayed by a bandwidth limit")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
   public static final MetricKey WORKER_BLOCK_REMOVER_TRY_REMOVE_COUNT =
       new Builder("Worker.BlockRemoverTryRemoveCount")
           .setDescription("The total number of blocks this worker attempted to remove "
@@ -2251,6 +2265,41 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setDescription("Total number of the succeed master registration.")
           .setMetricType(MetricType.COUNTER)
           .build();
+  public static final MetricKey WORKER_WRITE_BACK_FILES_PERSISTED =
+      new Builder("Worker.WriteBackFilesPersisted")
+          .setDescription("Total number of files written in the write-back mode and persisted "
+              + "to the UFS by this worker")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_WRITE_BACK_PERSIST_ERRORS =
+      new Builder("Worker.WriteBackPersistErrors")
+          .setDescription("Total number of failed attempts to persist a file written in the "
+              + "write-back mode to the UFS. The failed files are retried.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_WRITE_BACK_PENDING_FILES =
+      new Builder("Worker.WriteBackPendingFiles")
+          .setDescription("The number of files written in the write-back mode and not "
+              + "persisted to the UFS yet")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_WRITE_BACK_PENDING_BYTES =
+      new Builder("Worker.WriteBackPendingBytes")
+          .setDescription("The total size of the files written in the write-back mode and not "
+              + "persisted to the UFS yet")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey WORKER_WRITE_BACK_LAG_MS =
+      new Builder("Worker.WriteBackLagMs")
+          .setDescription("The time since the oldest file written in the write-back mode and "
+              + "not persisted to the UFS yet was completed, in milliseconds")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
 
   // Client metrics
   public static final MetricKey CLIENT_BLOCK_READ_CHUNK_REMOTE =
@@ -2336,6 +2385,21 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setMetricType(MetricType.METER)
           .setIsClusterAggregated(false)
           .build();
+  public static final MetricKey CLIENT_CACHE_EXTERNAL_READS =
+      new Builder("Client.CacheExternalReads")
+          .setDescription("Total number of page reads issued to external storage due to a "
+              + "cache miss on the client cache.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey CLIENT_CACHE_EXTERNAL_READS_COALESCED =
+      new Builder("Client.CacheExternalReadsCoalesced")
+          .setDescription("Total number of cache misses on the client cache that were served by "
+              + "an in-flight read of the same page from external storage instead of issuing "
+              + "a new one.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
   public static final MetricKey CLIENT_CACHE_PAGE_READ_CACHE_TIME_NS =
       new Builder("Client.CachePageReadCacheTimeNanos")
           .setDescription("Time in nanoseconds taken to read a page from the client cache "
@@ -2421,6 +2485,18 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setDescription("Probability that the working set bloom filter makes an error. "
               + "The value is 0-100. If too high, need to allocate more space")
           .setMetricType(MetricType.COUNTER).setIsClusterAggregated(false).build();
+  public static final MetricKey CLIENT_CACHE_SHADOW_QUOTA_RECOMMENDED_BYTES =
+      new Builder("Client.CacheShadowQuotaRecommendedBytes")
+          .setDescription("The cache quota recommended for a cache scope from the hit ratio "
+              + "curve measured by the shadow cache, tagged by the cache scope.")
+          .setMetricType(MetricType.GAUGE).setIsClusterAggregated(false).build();
+  public static final MetricKey CLIENT_CACHE_SHADOW_QUOTA_MARGINAL_GAIN =
+      new Builder("Client.CacheShadowQuotaMarginalGain")
+          .setDescription("The bytes of cache hits a cache scope is expected to gain from "
+              + "each extra byte of cache space at its recommended quota, over the recent "
+              + "intervals, tagged by the cache scope. Scopes with a gain near zero are the "
+              + "first to shrink.")
+          .setMetricType(MetricType.GAUGE).setIsClusterAggregated(false).build();
   public static final MetricKey CLIENT_CACHE_SHADOW_CACHE_PAGES =
       new Builder("Client.CacheShadowCachePages")
           .setDescription("Amount of pages in the client shadow cache.")
@@ -2517,6 +2593,41 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setMetricType(MetricType.COUNTER)
           .setIsClusterAggregated(false)
           .build();
+  public static final MetricKey CLIENT_CACHE_WRITE_BEHIND_PENDING_PAGES =
+      new Builder("Client.CacheWriteBehindPendingPages")
+          .setDescription("Number of pages waiting to be written to the client cache by "
+              + "write-behind.")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey CLIENT_CACHE_WRITE_BEHIND_PENDING_BYTES =
+      new Builder("Client.CacheWriteBehindPendingBytes")
+          .setDescription("Size of the pages waiting to be written to the client cache by "
+              + "write-behind.")
+          .setMetricType(MetricType.GAUGE)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey CLIENT_CACHE_WRITE_BEHIND_DROPPED_PAGES =
+      new Builder("Client.CacheWriteBehindDroppedPages")
+          .setDescription("Number of pages not written to the client cache because the "
+              + "write-behind queue of their cache directory was full.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey CLIENT_CACHE_WRITE_BEHIND_BLOCKED_PAGES =
+      new Builder("Client.CacheWriteBehindBlockedPages")
+          .setDescription("Number of pages whose readers waited for room in the write-behind "
+              + "queue because the queue was full.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey CLIENT_CACHE_WRITE_BEHIND_CALLER_RUNS_PAGES =
+      new Builder("Client.CacheWriteBehindCallerRunsPages")
+          .setDescription("Number of pages written to the client cache by their readers "
+              + "because the write-behind queue of their cache directory was full.")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
   public static final MetricKey CLIENT_CACHE_PUT_ASYNC_REJECTION_ERRORS =
       new Builder("Client.CachePutAsyncRejectionErrors")
           .setDescription("Number of failures when putting cached data in the client cache due to"
@@ -2598,6 +2709,21 @@ public final class MetricKey implements Comparable<MetricKey> {
           .setMetricType(MetricType.COUNTER)
           .setIsClusterAggregated(false)
           .build();
+  public static final MetricKey CLIENT_CACHE_PAGES_INVALIDATED_ON_RESTORE =
+      new Builder("Client.CachePagesInvalidatedOnRestore")
+          .setDescription("The total number of pages restored from the page indexes of the "
+              + "cache directories and then removed, as their page files are missing or of a "
+              + "different size")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
+  public static final MetricKey CLIENT_CACHE_RESTORE_DURATION_MS =
+      new Builder("Client.CacheRestoreDurationMs")
+          .setDescription("The total time taken to restore the pages of the cache directories "
+              + "on startup, in milliseconds")
+          .setMetricType(MetricType.COUNTER)
+          .setIsClusterAggregated(false)
+          .build();
   public static final MetricKey CLIENT_CACHE_STATE =
       new Builder("Client.CacheState")
           .setDescription("State of the cache: 0 (NOT_IN_USE), 1 (READ_ONLY) and 2 (READ_WRITE)")
@@ -53,6 +53,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -82,6 +83,13 @@ public final class MetricsSystem {
   // A map that records all the metrics that should be reported and aggregated at leading master
   // from full metric name to its metric type
   private static final Map<String, MetricType> SHOULD_REPORT_METRICS = new ConcurrentHashMap<>();
+  // Incremented whenever metrics in the registry are replaced or removed, so that the metrics
+  // held by a MetricHandle are resolved again
+  private static final AtomicInteger GENERATION = new AtomicInteger();
+  // A map from the full metric name of the timers with their own reservoirs to the suppliers of
+  // the timers, to create the timers again when they are reset
+  private static final Map<String, MetricRegistry.MetricSupplier<Timer>> TIMER_SUPPLIERS =
+      new ConcurrentHashMap<>();
   // A pattern to get the <instance_type>.<metric_name> from the full metric name
   private static final Pattern METRIC_NAME_PATTERN = Pattern.compile("^(.*?[.].*?)[.].*");
   // A flag telling whether metrics have been reported yet.
@@ -651,11 +659,40 @@ public final class MetricsSystem {
    * @return a timer object with the qualified metric name
    */
   public static Timer uniformTimer(String name) {
-    return METRIC_REGISTRY.timer(getMetricName(name),
-            () -> {
-              Timer timer = new Timer(new UniformReservoir());
-              return timer;
-            });
+    return getOrAddTimer(name, () -> new Timer(new UniformReservoir()));
+  }
+
+  /**
+   * Same with {@link #timer} but with an {@link HdrHistogramReservoir}, which records every
+   * duration into an HdrHistogram rather than sampling them.
+   *
+   * @param name the name of the metric
+   * @return a timer object with the qualified metric name
+   */
+  public static Timer latencyTimer(String name) {
+    return getOrAddTimer(name, () -> new Timer(new HdrHistogramReservoir()));
+  }
+
+  /**
+   * Gets or adds a timer created by the given supplier, which also creates the timer again when
+   * the metrics are reset.
+   *
+   * @param name the name of the metric
+   * @param supplier creates the timer
+   * @return a timer object with the qualified metric name
+   */
+  private static Timer getOrAddTimer(String name, MetricRegistry.MetricSupplier<Timer> supplier) {
+    String fullName = getMetricName(name);
+    TIMER_SUPPLIERS.putIfAbsent(fullName, supplier);
+    return METRIC_REGISTRY.timer(fullName, supplier);
+  }
+
+  /**
+   * @return the generation of the metrics in the registry, which changes whenever metrics are
+   *         replaced or removed
+   */
+  static int getGeneration() {
+    return GENERATION.get();
   }
 
   /**
@@ -749,7 +786,11 @@ public final class MetricsSystem {
    * @return true if the metric was removed, false otherwise
    */
   public static synchronized boolean removeMetrics(String name) {
-    return METRIC_REGISTRY.remove(name);
+    if (!METRIC_REGISTRY.remove(name)) {
+      return false;
+    }
+    GENERATION.incrementAndGet();
+    return true;
   }
 
   /**
@@ -984,7 +1025,7 @@ public final class MetricsSystem {
     // No reset logic exist in Timer, a remove and add combination is needed
     for (String timerName : METRIC_REGISTRY.getTimers().keySet()) {
       METRIC_REGISTRY.remove(timerName);
-      METRIC_REGISTRY.timer(timerName);
+      METRIC_REGISTRY.timer(timerName, TIMER_SUPPLIERS.getOrDefault(timerName, Timer::new));
     }
 
     // Reset the InstrumentedExecutorServices last as it needs to keep the
@@ -992,6 +1033,7 @@ public final class MetricsSystem {
     EXECUTOR_SERVICES.values().forEach(InstrumentedExecutorService::reset);
 
     LAST_REPORTED_METRICS.clear();
+    GENERATION.incrementAndGet();
     LOG.info("Reset all metrics in the metrics system in {}ms",
         System.currentTimeMillis() - startTime);
   }
@@ -1005,6 +1047,8 @@ public final class MetricsSystem {
       METRIC_REGISTRY.remove(name);
     }
     EXECUTOR_SERVICES.clear();
+    TIMER_SUPPLIERS.clear();
+    GENERATION.incrementAndGet();
   }
 
   /**
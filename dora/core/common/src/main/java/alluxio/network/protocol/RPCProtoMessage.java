@@ -26,6 +26,7 @@ import io.grpc.Status;
 import io.netty.buffer.ByteBuf;
 
 import java.util.Arrays;
+import java.util.OptionalLong;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -210,9 +211,25 @@ public final class RPCProtoMessage extends RPCMessage {
    * @return the created {@link RPCProtoMessage}
    */
   public static RPCProtoMessage createResponse(Status status, String message, DataBuffer data) {
-    Response response = Response.newBuilder().setStatus(toProto(status))
-        .setMessage(message).build();
-    return new RPCProtoMessage(new ProtoMessage(response), data);
+    return createResponse(status, message, data, OptionalLong.empty());
+  }
+
+  /**
+   * Creates a response for a given status, message, and data buffer to the read request with the
+   * given id.
+   *
+   * @param status  the status code
+   * @param message the message
+   * @param data    the data buffer
+   * @param requestId the id of the read request, empty if the request has none
+   * @return the created {@link RPCProtoMessage}
+   */
+  public static RPCProtoMessage createResponse(Status status, String message, DataBuffer data,
+      OptionalLong requestId) {
+    Response.Builder response = Response.newBuilder().setStatus(toProto(status))
+        .setMessage(message);
+    requestId.ifPresent(response::setRequestId);
+    return new RPCProtoMessage(new ProtoMessage(response.build()), data);
   }
 
   /**
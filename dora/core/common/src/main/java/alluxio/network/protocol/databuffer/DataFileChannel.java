@@ -19,6 +19,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
 
 /**
  * A DataBuffer with the underlying data being a {@link FileChannel}.
@@ -27,6 +29,11 @@ public final class DataFileChannel implements DataBuffer {
   private final File mFile;
   private final long mOffset;
   private final long mLength;
+  @Nullable
+  private final Runnable mOnRelease;
+  private final AtomicBoolean mReleased = new AtomicBoolean();
+  /** Whether the release is left to the file region handed to Netty. */
+  private volatile boolean mOutputCreated;
 
   /**
    *
@@ -35,14 +42,43 @@ public final class DataFileChannel implements DataBuffer {
    * @param length The length of the data to read
    */
   public DataFileChannel(File file, long offset, long length) {
+    this(file, offset, length, null);
+  }
+
+  /**
+   * Creates a {@link DataFileChannel} which runs the given callback once the data has been
+   * read, so that the file can be kept until then. The callback runs when the file region
+   * returned by {@link #getNettyOutput()} is deallocated by Netty after it is written, or when
+   * this buffer is released if no file region has been created.
+   *
+   * @param file The file
+   * @param offset The offset into the FileChannel
+   * @param length The length of the data to read
+   * @param onRelease the callback to run once the data has been read
+   */
+  public DataFileChannel(File file, long offset, long length, @Nullable Runnable onRelease) {
     mFile = Preconditions.checkNotNull(file, "file");
     mOffset = offset;
     mLength = length;
+    mOnRelease = onRelease;
   }
 
   @Override
   public Object getNettyOutput() {
-    return new DefaultFileRegion(mFile, mOffset, mLength);
+    if (mOnRelease == null) {
+      return new DefaultFileRegion(mFile, mOffset, mLength);
+    }
+    mOutputCreated = true;
+    return new DefaultFileRegion(mFile, mOffset, mLength) {
+      @Override
+      protected void deallocate() {
+        try {
+          super.deallocate();
+        } finally {
+          runOnRelease();
+        }
+      }
+    };
   }
 
   @Override
@@ -78,6 +114,15 @@ public final class DataFileChannel implements DataBuffer {
 
   @Override
   public void release() {
-    // Nothing we need to release explicitly, let GC take care of all objects.
+    // Once a file region is created, it is released by Netty after it has been written
+    if (!mOutputCreated) {
+      runOnRelease();
+    }
+  }
+
+  private void runOnRelease() {
+    if (mOnRelease != null && mReleased.compareAndSet(false, true)) {
+      mOnRelease.run();
+    }
   }
 }
@@ -22,9 +22,13 @@ import alluxio.util.io.PathUtils;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,20 +37,30 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -66,6 +80,14 @@ import javax.annotation.concurrent.NotThreadSafe;
  * In close(), we upload the last part of data (if exists), wait for all uploads to finish,
  * and complete the multipart upload.
  * <p>
+ * If {@link PropertyKey#UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED} is set,
+ * a partition is written to an off-heap buffer {@link #mBuffer} instead of a temporary
+ * file, and uploaded from memory. A buffer of the partition size is allocated at once, and kept
+ * for the next partition once its part is uploaded. The streams configured with the same
+ * {@link PropertyKey#UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE} share a pool of
+ * buffers which takes at most that size, and a partition which does not fit is written to a
+ * temporary file as usual.
+ * <p>
  * close() will not be retried, but all the multipart upload
  * related operations(init, upload, complete, and abort) will be retried.
  * <p>
@@ -88,6 +110,9 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
    */
   protected static final long UPLOAD_THRESHOLD = 5L * Constants.MB;
 
+  /** The memory buffers of all the streams, by the maximum bytes of the buffers of a pool. */
+  private static final Map<Long, MemoryBufferPool> MEMORY_BUFFERS = new ConcurrentHashMap<>();
+
   /** Bucket name of the object storage bucket. */
   protected final String mBucketName;
 
@@ -118,10 +143,23 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
    */
   @Nullable
   protected File mFile;
-  /** The output stream to the local temp file. */
+  /**
+   * The memory buffer of the partition, used instead of {@link #mFile} when the partitions are
+   * buffered in memory.
+   */
+  @Nullable
+  protected ByteBuf mBuffer;
+  /** The output stream to the local temp file or the memory buffer. */
   @Nullable
   protected OutputStream mLocalOutputStream;
 
+  /** The maximum bytes of the memory buffers of the pool, 0 if not buffered in memory. */
+  private final long mMemoryBufferSize;
+
+  /** The memory buffers shared with the streams of the same maximum bytes, null if disabled. */
+  @Nullable
+  private final MemoryBufferPool mMemoryBuffers;
+
   /**
    * Give each upload request a unique and continuous id
    * so that object storage knows the part sequence to concatenate the parts to a single object.
@@ -166,6 +204,13 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
     initHash();
     mPartitionSize = Math.max(UPLOAD_THRESHOLD, streamingUploadPartitionSize);
     mPartNumber = new AtomicInteger(1);
+    mMemoryBufferSize =
+        ufsConf.getBoolean(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED)
+            && mPartitionSize <= Integer.MAX_VALUE
+            ? ufsConf.getBytes(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE)
+            : 0;
+    mMemoryBuffers = mMemoryBufferSize > 0
+        ? MEMORY_BUFFERS.computeIfAbsent(mMemoryBufferSize, MemoryBufferPool::new) : null;
     if (ufsConf.isSet(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_PART_TIMEOUT)) {
       mUploadPartTimeoutMills =
           ufsConf.getDuration(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_PART_TIMEOUT)
@@ -191,8 +236,8 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
     }
     Preconditions.checkNotNull(b);
     Preconditions.checkArgument(off >= 0 && off <= b.length && len >= 0 && off + len <= b.length);
-    if (mFile == null) {
-      initNewFile();
+    if (mFile == null && mBuffer == null) {
+      initNewPartition();
     }
     if (mPartitionOffset + len <= mPartitionSize) {
       mLocalOutputStream.write(b, off, len);
@@ -235,10 +280,23 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
 
     // Multi-part upload has not been initialized
     if (!mMultiPartUploadInitialized) {
-      if (mFile == null) {
+      if (mFile == null && mBuffer == null) {
         LOG.debug("Streaming upload output stream closed without uploading any data.");
         RetryUtils.retry("put empty object for key" + mKey, () -> createEmptyObject(mKey),
             mRetryPolicy.get());
+      } else if (mBuffer != null) {
+        ByteBuf buffer = mBuffer;
+        mBuffer = null;
+        try {
+          mLocalOutputStream.close();
+          final String md5 = mHash != null ? Base64.encodeBase64String(mHash.digest()) : null;
+          final long length = buffer.readableBytes();
+          RetryUtils.retry("put object for key" + mKey, () -> putObject(mKey,
+                  new ByteBufInputStream(buffer.duplicate()), length, md5),
+              mRetryPolicy.get());
+        } finally {
+          releaseBuffer(buffer);
+        }
       } else {
         try {
           mLocalOutputStream.close();
@@ -255,7 +313,12 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
     }
 
     try {
-      if (mFile != null) {
+      if (mBuffer != null) {
+        mLocalOutputStream.close();
+        int partNumber = mPartNumber.getAndIncrement();
+        uploadPart(mBuffer, partNumber, true);
+        mBuffer = null;
+      } else if (mFile != null) {
         mLocalOutputStream.close();
         int partNumber = mPartNumber.getAndIncrement();
         uploadPart(mFile, partNumber, true);
@@ -270,6 +333,54 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
     }
   }
 
+  /**
+   * Creates a new memory buffer to write to, or a new temp file if the memory buffers are
+   * disabled or take all the memory allowed.
+   */
+  private void initNewPartition() throws IOException {
+    mBuffer = allocateBuffer();
+    if (mBuffer == null) {
+      initNewFile();
+      return;
+    }
+    initHash();
+    OutputStream bufferOutputStream = new ByteBufOutputStream(mBuffer);
+    mLocalOutputStream = mHash != null
+        ? new DigestOutputStream(bufferOutputStream, mHash) : bufferOutputStream;
+    mPartitionOffset = 0;
+  }
+
+  /**
+   * Takes a memory buffer of the partition size.
+   *
+   * @return the buffer, or null if the memory buffers are disabled or there is not enough memory
+   */
+  @Nullable
+  private ByteBuf allocateBuffer() {
+    if (mMemoryBuffers == null) {
+      return null;
+    }
+    ByteBuf buffer = mMemoryBuffers.acquire((int) mPartitionSize);
+    if (buffer == null) {
+      LOG.debug("Memory buffers of streaming uploads are full, "
+          + "buffering a partition of {} in a temp file", mKey);
+    }
+    return buffer;
+  }
+
+  private void releaseBuffer(ByteBuf buffer) {
+    mMemoryBuffers.release(buffer);
+  }
+
+  /**
+   * @return the bytes of the memory buffers taken by the streams, not counting the buffers kept
+   *         for reuse
+   */
+  @VisibleForTesting
+  public static long getMemoryBufferUsedBytes() {
+    return MEMORY_BUFFERS.values().stream().mapToLong(MemoryBufferPool::getUsedBytes).sum();
+  }
+
   /**
    * Creates a new temp file to write to.
    */
@@ -299,7 +410,7 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
    * Uploads part async.
    */
   protected void uploadPart() throws IOException {
-    if (mFile == null) {
+    if (mFile == null && mBuffer == null) {
       return;
     }
     if (!mMultiPartUploadInitialized) {
@@ -309,30 +420,82 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
     }
     mLocalOutputStream.close();
     int partNumber = mPartNumber.getAndIncrement();
-    uploadPart(new File(mFile.getPath()), partNumber, false);
+    if (mBuffer != null) {
+      uploadPart(mBuffer, partNumber, false);
+    } else {
+      uploadPart(new File(mFile.getPath()), partNumber, false);
+    }
     mFile = null;
+    mBuffer = null;
     mLocalOutputStream = null;
   }
 
   protected void uploadPart(File file, int partNumber, boolean lastPart) {
     final String md5 = mHash != null ? Base64.encodeBase64String(mHash.digest()) : null;
+    submitUploadPart(() -> RetryUtils.retry(
+        "upload part for key " + mKey + " and part number " + partNumber,
+        () -> uploadPartInternal(file, partNumber, lastPart, md5), mRetryPolicy.get()),
+        () -> {
+          // Delete the uploaded or failed to upload file
+          if (!file.delete()) {
+            LOG.error("Failed to delete temporary file @ {}", file.getPath());
+          }
+        });
+    LOG.debug(
+        "Submit upload part request. key={}, partNum={}, file={}, fileSize={}, lastPart={}.",
+        mKey, partNumber, file.getPath(), file.length(), lastPart);
+  }
+
+  protected void uploadPart(ByteBuf buffer, int partNumber, boolean lastPart) {
+    final String md5 = mHash != null ? Base64.encodeBase64String(mHash.digest()) : null;
+    final long length = buffer.readableBytes();
+    submitUploadPart(() -> RetryUtils.retry(
+        "upload part for key " + mKey + " and part number " + partNumber,
+        () -> uploadPartInternal(new ByteBufInputStream(buffer.duplicate()), length, partNumber,
+            lastPart, md5), mRetryPolicy.get()),
+        () -> releaseBuffer(buffer));
+    LOG.debug("Submit upload part request. key={}, partNum={}, bufferSize={}, lastPart={}.",
+        mKey, partNumber, length, lastPart);
+  }
+
+  /**
+   * Submits the upload of a part. The part is cleaned up once it is uploaded or fails to be, or
+   * if the upload is cancelled before it starts.
+   *
+   * @param upload uploads the part
+   * @param cleanup cleans up the part
+   */
+  private void submitUploadPart(RetryUtils.RunnableThrowsIOException upload, Runnable cleanup) {
+    // set by the upload when it starts, or by the cleanup of a cancelled upload
+    AtomicBoolean started = new AtomicBoolean();
     Callable<?> callable = () -> {
+      if (!started.compareAndSet(false, true)) {
+        return null;
+      }
       try {
-        RetryUtils.retry("upload part for key " + mKey + " and part number " + partNumber,
-            () -> uploadPartInternal(file, partNumber, lastPart, md5), mRetryPolicy.get());
+        upload.run();
         return null;
       } finally {
-        // Delete the uploaded or failed to upload file
-        if (!file.delete()) {
-          LOG.error("Failed to delete temporary file @ {}", file.getPath());
-        }
+        cleanup.run();
       }
     };
     ListenableFuture<?> futureTag = mExecutor.submit(callable);
+    futureTag.addListener(() -> {
+      if (started.compareAndSet(false, true)) {
+        cleanup.run();
+      }
+    }, MoreExecutors.directExecutor());
     mFutures.add(futureTag);
-    LOG.debug(
-        "Submit upload part request. key={}, partNum={}, file={}, fileSize={}, lastPart={}.",
-        mKey, partNumber, file.getPath(), file.length(), lastPart);
+  }
+
+  /**
+   * Cancels the uploads of the parts. The futures are cancelled one by one, as the future of all
+   * of them is done, and cannot be cancelled, once one of them fails.
+   */
+  private void cancelUploads() {
+    for (ListenableFuture<?> future : mFutures) {
+      future.cancel(true);
+    }
   }
 
   protected void abortMultiPartUpload() {
@@ -359,18 +522,18 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
     } catch (ExecutionException e) {
       // No recover ways so that we need to cancel all the upload tasks
       // and abort the multipart upload
-      Futures.allAsList(mFutures).cancel(true);
+      cancelUploads();
       abortMultiPartUpload();
       throw new IOException(
           "Part upload failed in multipart upload with to " + mKey, e);
     } catch (InterruptedException e) {
       LOG.warn("Interrupted object upload.", e);
-      Futures.allAsList(mFutures).cancel(true);
+      cancelUploads();
       abortMultiPartUpload();
       Thread.currentThread().interrupt();
     } catch (TimeoutException e) {
       LOG.error("timeout when upload part");
-      Futures.allAsList(mFutures).cancel(true);
+      cancelUploads();
       abortMultiPartUpload();
       throw new IOException("timeout when upload part " + mKey, e);
     }
@@ -393,6 +556,33 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
       @Nullable String md5)
       throws IOException;
 
+  /**
+   * Uploads a part from a stream, which the memory buffers are uploaded with. The part is
+   * written to a temp file and uploaded from the file, unless it is overridden.
+   *
+   * @param inputStream the stream of the part
+   * @param length the length of the part
+   * @param partNumber the part number
+   * @param isLastPart if it is the last part
+   * @param md5 the MD5 hash of the part
+   */
+  protected void uploadPartInternal(
+      InputStream inputStream,
+      long length,
+      int partNumber,
+      boolean isLastPart,
+      @Nullable String md5)
+      throws IOException {
+    File file = writeTmpFile(inputStream);
+    try {
+      uploadPartInternal(file, partNumber, isLastPart, md5);
+    } finally {
+      if (!file.delete()) {
+        LOG.error("Failed to delete temporary file @ {}", file.getPath());
+      }
+    }
+  }
+
   protected abstract void initMultiPartUploadInternal() throws IOException;
 
   protected abstract void completeMultiPartUploadInternal() throws IOException;
@@ -402,4 +592,111 @@ public abstract class ObjectLowLevelOutputStream extends OutputStream
   protected abstract void createEmptyObject(String key) throws IOException;
 
   protected abstract void putObject(String key, File file, @Nullable String md5) throws IOException;
+
+  /**
+   * Puts an object from a stream, which the memory buffers are uploaded with. The object is
+   * written to a temp file and put from the file, unless it is overridden.
+   *
+   * @param key the key of the object
+   * @param inputStream the stream of the object
+   * @param length the length of the object
+   * @param md5 the MD5 hash of the object
+   */
+  protected void putObject(String key, InputStream inputStream, long length,
+      @Nullable String md5) throws IOException {
+    File file = writeTmpFile(inputStream);
+    try {
+      putObject(key, file, md5);
+    } finally {
+      if (!file.delete()) {
+        LOG.error("Failed to delete temporary file @ {}", file.getPath());
+      }
+    }
+  }
+
+  private File writeTmpFile(InputStream inputStream) throws IOException {
+    File file =
+        new File(PathUtils.concatPath(CommonUtils.getTmpDir(mTmpDirs), UUID.randomUUID()));
+    Files.copy(inputStream, file.toPath());
+    return file;
+  }
+
+  /**
+   * The memory buffers of the partitions of all the streams. The buffers are allocated outside
+   * of the pooled allocator of netty, whose chunks are smaller than a partition, and are kept in a
+   * free list by their sizes once released. The buffers allocated, taken or free, take at most the
+   * maximum size of the pool, and the free buffers of other sizes are freed to make room for a new
+   * one.
+   */
+  private static final class MemoryBufferPool {
+    /** The maximum bytes of the buffers. */
+    private final long mMaxSize;
+    @GuardedBy("this")
+    private final Map<Integer, Deque<ByteBuf>> mFreeBuffers = new HashMap<>();
+    /** The bytes of the buffers allocated, taken or free. */
+    @GuardedBy("this")
+    private long mAllocatedBytes;
+    /** The bytes of the free buffers. */
+    @GuardedBy("this")
+    private long mFreeBytes;
+
+    /**
+     * @param maxSize the maximum bytes of the buffers
+     */
+    MemoryBufferPool(long maxSize) {
+      mMaxSize = maxSize;
+    }
+
+    /**
+     * @param size the size of the buffer
+     * @return an empty buffer of the given size, or null if there is no room for it
+     */
+    @Nullable
+    synchronized ByteBuf acquire(int size) {
+      Deque<ByteBuf> free = mFreeBuffers.get(size);
+      if (free != null && !free.isEmpty()) {
+        mFreeBytes -= size;
+        return free.pop();
+      }
+      Iterator<Deque<ByteBuf>> freeOfOtherSizes = mFreeBuffers.values().iterator();
+      while (mAllocatedBytes + size > mMaxSize && freeOfOtherSizes.hasNext()) {
+        Deque<ByteBuf> buffers = freeOfOtherSizes.next();
+        while (mAllocatedBytes + size > mMaxSize && !buffers.isEmpty()) {
+          ByteBuf buffer = buffers.pop();
+          mFreeBytes -= buffer.capacity();
+          free(buffer);
+        }
+      }
+      if (mAllocatedBytes + size > mMaxSize) {
+        return null;
+      }
+      mAllocatedBytes += size;
+      return Unpooled.directBuffer(size, size);
+    }
+
+    /**
+     * @param buffer the buffer to release, which is kept for reuse if there is room for it
+     */
+    synchronized void release(ByteBuf buffer) {
+      if (mAllocatedBytes > mMaxSize) {
+        free(buffer);
+        return;
+      }
+      buffer.clear();
+      mFreeBuffers.computeIfAbsent(buffer.capacity(), size -> new ArrayDeque<>()).push(buffer);
+      mFreeBytes += buffer.capacity();
+    }
+
+    synchronized long getUsedBytes() {
+      return mAllocatedBytes - mFreeBytes;
+    }
+
+    @GuardedBy("this")
+    private void free(ByteBuf buffer) {
+      if (buffer.refCnt() > 0) {
+        buffer.release();
+      }
+      mAllocatedBytes -= buffer.capacity();
+    }
+  }
 }
@@ -12,16 +12,32 @@
 package alluxio.underfs;
 
 import alluxio.PositionReader;
+import alluxio.file.FileRange;
 import alluxio.file.ReadTargetBuffer;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 
 /**
  * A stream for reading data using position reader.
  */
 
 public abstract class ObjectPositionReader implements PositionReader {
+  /**
+   * The largest gap between two ranges of a vectored read which are read in the same request.
+   * Reading the gap takes less time than the latency of another request.
+   */
+  private static final long VECTORED_READ_MAX_GAP = 256 * 1024;
+  /** The largest size of a request of a vectored read which covers several ranges. */
+  private static final long VECTORED_READ_MAX_MERGED_SIZE = 8 * 1024 * 1024;
+
   /** Path of the file when it is uploaded to object storage. */
   protected final String mPath;
 
@@ -69,6 +85,93 @@ public abstract class ObjectPositionReader implements PositionReader {
     }
   }
 
+  /**
+   * Reads the ranges with as few requests as possible, merging the ranges which are close to each
+   * other into a single request and skipping the bytes between them.
+   */
+  @Override
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    FileRange.checkWithinFile(ranges, mFileLength);
+    Map<FileRange, ByteBuffer> buffers = new IdentityHashMap<>();
+    for (FileRange.MergedRange merged : FileRange.merge(
+        ranges, VECTORED_READ_MAX_GAP, VECTORED_READ_MAX_MERGED_SIZE)) {
+      if (merged.getLength() == 0) {
+        for (FileRange range : merged.getRanges()) {
+          buffers.put(range, allocate.apply(0));
+        }
+        continue;
+      }
+      // the ranges are read from the stream in order of their offsets, the ranges overlapping
+      // the previous ones are copied from the buffers of the previous ones
+      try (InputStream in = openObjectInputStream(merged.getOffset(),
+          (int) merged.getLength())) {
+        long streamPos = merged.getOffset();
+        ByteBuffer previous = null;
+        long previousOffset = 0;
+        for (FileRange range : merged.getRanges()) {
+          ByteBuffer buffer = allocate.apply(range.getLength());
+          long overlapEnd = Math.min(streamPos, range.getEnd());
+          if (range.getOffset() < overlapEnd) {
+            ByteBuffer overlap = previous.duplicate();
+            overlap.position((int) (range.getOffset() - previousOffset));
+            overlap.limit((int) (overlapEnd - previousOffset));
+            buffer.put(overlap);
+          }
+          if (range.getOffset() > streamPos) {
+            skipFully(in, range.getOffset() - streamPos);
+            streamPos = range.getOffset();
+          }
+          int bytesToRead = (int) (range.getEnd() - Math.max(streamPos, range.getOffset()));
+          if (bytesToRead > 0) {
+            readFully(in, buffer, bytesToRead);
+            streamPos += bytesToRead;
+          }
+          buffer.flip();
+          buffers.put(range, buffer);
+          if (range.getEnd() >= streamPos) {
+            previous = buffer;
+            previousOffset = range.getOffset();
+          }
+        }
+      }
+    }
+    return ranges.stream().map(buffers::get).collect(Collectors.toList());
+  }
+
+  private static void skipFully(InputStream in, long bytesToSkip) throws IOException {
+    long skipped = 0;
+    while (skipped < bytesToSkip) {
+      long n = in.skip(bytesToSkip - skipped);
+      if (n <= 0) {
+        if (in.read() == -1) {
+          throw new EOFException("Reached the end of the object while skipping");
+        }
+        n = 1;
+      }
+      skipped += n;
+    }
+  }
+
+  private static void readFully(InputStream in, ByteBuffer buffer, int length)
+      throws IOException {
+    byte[] data = buffer.hasArray() ? buffer.array() : new byte[length];
+    int offset = buffer.hasArray() ? buffer.arrayOffset() + buffer.position() : 0;
+    int totalRead = 0;
+    while (totalRead < length) {
+      int n = in.read(data, offset + totalRead, length - totalRead);
+      if (n < 0) {
+        throw new EOFException("Reached the end of the object while reading");
+      }
+      totalRead += n;
+    }
+    if (buffer.hasArray()) {
+      buffer.position(buffer.position() + length);
+    } else {
+      buffer.put(data);
+    }
+  }
+
   /**
    * @param position position of the file to start reading data
    * @param bytesToRead bytes to read
@@ -36,6 +36,7 @@ import org.apache.http.conn.ConnectTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -44,20 +45,27 @@ import java.io.OutputStream;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -73,6 +81,9 @@ public abstract class ObjectUnderFileSystem extends BaseUnderFileSystem {
   /** Default maximum length for a single listing query. */
   private static final int DEFAULT_MAX_LISTING_CHUNK_LENGTH = 1000;
 
+  /** The number of chunks fetched ahead for each directory of a parallel listing. */
+  private static final int LISTING_PREFETCH_CHUNKS = 2;
+
   /** Value used to indicate nested structure. */
   protected static final char PATH_SEPARATOR_CHAR = '/';
 
@@ -609,8 +620,13 @@ public abstract class ObjectUnderFileSystem extends BaseUnderFileSystem {
   @Override
   public Iterator<UfsStatus> listStatusIterable(
       String path, ListOptions options, String startAfter, int batchSize) throws IOException {
-    final ObjectListingChunk chunk =
-        getObjectListingChunkForPath(path, options.isRecursive(), startAfter, batchSize);
+    int parallelism = mUfsConf.getInt(PropertyKey.UNDERFS_OBJECT_STORE_LISTING_PARALLELISM);
+    // a parallel listing starts from the top level, which is listed non-recursively
+    boolean parallel = parallelism > 1 && options.isRecursive()
+        && startAfter == null && batchSize == 0;
+    final ObjectListingChunk chunk = parallel
+        ? getObjectListingChunkForPath(path, false)
+        : getObjectListingChunkForPath(path, options.isRecursive(), startAfter, batchSize);
     if (chunk == null) {
       String keyAsFolder = convertToFolderName(stripPrefixIfPresent(path));
       if (getObjectStatus(keyAsFolder) != null) {
@@ -619,6 +635,10 @@ public abstract class ObjectUnderFileSystem extends BaseUnderFileSystem {
       }
       return null;
     }
+    if (parallel) {
+      return new ParallelUfsStatusIterator(path, chunk, parallelism,
+          mUfsConf.getBoolean(PropertyKey.UNDERFS_OBJECT_STORE_LISTING_ORDERED));
+    }
     return new UfsStatusIterator(path, options.isRecursive(), chunk);
   }
 
@@ -1202,6 +1222,319 @@ public abstract class ObjectUnderFileSystem extends BaseUnderFileSystem {
     }
   }
 
+  /**
+   * The UFS status iterator of a recursive listing, which lists the directories at the top level
+   * of the listing concurrently. Each directory is listed recursively as a stream of chunks,
+   * and up to {@link #LISTING_PREFETCH_CHUNKS} chunks of a stream are fetched ahead of the one
+   * iterated. At most the given number of directories are listed at a time, and at most two
+   * chunks of the top level are held, so the memory taken is bounded.
+   *
+   * If the listing is ordered, the statuses are returned in the order of the top level, each
+   * directory followed by the statuses under it. Otherwise, the statuses of the top level are
+   * returned first, and the chunks of the directories as soon as they are fetched.
+   *
+   * The iterator should be closed if it is not iterated to the end, which cancels the fetches
+   * in progress.
+   */
+  public class ParallelUfsStatusIterator implements Iterator<UfsStatus>, Closeable {
+    private final String mKeyPrefix;
+    private final int mParallelism;
+    private final boolean mOrdered;
+    /** The next chunk of the top level, null if the top level is listed. */
+    @Nullable
+    private ObjectListingChunk mTopChunk;
+    @Nullable
+    private String mLastTopKey = null;
+    /** The entries of the top level not returned yet, if the listing is ordered. */
+    private final Deque<TopLevelEntry> mEntries = new ArrayDeque<>();
+    /** The statuses of the top level not returned yet, if the listing is not ordered. */
+    private final Deque<UfsStatus> mStatuses = new ArrayDeque<>();
+    /** The directories of the top level not being listed yet. */
+    private final Deque<TopLevelEntry> mUnstarted = new ArrayDeque<>();
+    /** The directories with a chunk fetched, if the listing is not ordered. */
+    private final BlockingQueue<TopLevelEntry> mFetched = new LinkedBlockingQueue<>();
+    /** The directories being listed. */
+    private final Set<TopLevelEntry> mListing = ConcurrentHashMap.newKeySet();
+    private Iterator<UfsStatus> mIterator = Collections.emptyIterator();
+    private volatile boolean mClosed = false;
+
+    /**
+     * Creates the iterator.
+     * @param path the path
+     * @param firstChunk the first chunk of the non-recursive listing of the path
+     * @param parallelism the maximum number of directories listed at a time
+     * @param ordered if the statuses are returned in order
+     */
+    public ParallelUfsStatusIterator(String path, ObjectListingChunk firstChunk,
+        int parallelism, boolean ordered) {
+      String keyPrefix = PathUtils.normalizePath(stripPrefixIfPresent(path), PATH_SEPARATOR);
+      keyPrefix = keyPrefix.equals(PATH_SEPARATOR) ? "" : keyPrefix;
+      mKeyPrefix = keyPrefix;
+      mParallelism = parallelism;
+      mOrdered = ordered;
+      mTopChunk = firstChunk;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        return advance();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public UfsStatus next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return mIterator.next();
+    }
+
+    /**
+     * Cancels the listings in progress. No more statuses are returned once it is closed.
+     */
+    @Override
+    public void close() {
+      mClosed = true;
+      for (TopLevelEntry entry : mListing) {
+        entry.cancel();
+      }
+      mListing.clear();
+    }
+
+    private boolean advance() throws IOException, InterruptedException {
+      while (!mIterator.hasNext()) {
+        if (mClosed) {
+          return false;
+        }
+        startListings();
+        if (mOrdered) {
+          TopLevelEntry entry = mEntries.peek();
+          if (entry == null) {
+            if (!addTopChunk()) {
+              return false;
+            }
+          } else if (!entry.mStatusReturned) {
+            entry.mStatusReturned = true;
+            mIterator = Iterators.singletonIterator(entry.mStatus);
+          } else if (!entry.mStatus.isDirectory()) {
+            mEntries.poll();
+          } else {
+            // the first directory not listed yet is always being listed
+            mIterator = takeChunk(entry);
+            if (mIterator == null) {
+              mEntries.poll();
+              mIterator = Collections.emptyIterator();
+            }
+          }
+        } else if (!mStatuses.isEmpty()) {
+          // a copy, as the statuses of the next chunk of the top level are added to the deque
+          mIterator = new ArrayList<>(mStatuses).iterator();
+          mStatuses.clear();
+        } else if (mListing.isEmpty()) {
+          if (!addTopChunk()) {
+            return false;
+          }
+        } else {
+          mIterator = takeChunk(mFetched.take());
+          if (mIterator == null) {
+            mIterator = Collections.emptyIterator();
+          }
+        }
+      }
+      return !mClosed;
+    }
+
+    /**
+     * Starts listing directories, and the next chunk of the top level when all its directories
+     * are being listed, until enough directories are being listed.
+     */
+    private void startListings() throws IOException {
+      while (mListing.size() < mParallelism) {
+        TopLevelEntry entry = mUnstarted.poll();
+        if (entry != null) {
+          mListing.add(entry);
+          entry.fetchAhead();
+        } else if (mEntries.size() + mStatuses.size() >= DEFAULT_MAX_LISTING_CHUNK_LENGTH
+            || !addTopChunk()) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Adds the entries of the next chunk of the top level.
+     *
+     * @return false if the top level is listed
+     */
+    private boolean addTopChunk() throws IOException {
+      if (mTopChunk == null) {
+        return false;
+      }
+      ObjectListingChunk chunk = mTopChunk;
+      mTopChunk = Boolean.FALSE.equals(chunk.hasNextChunk()) ? null : chunk.getNextChunk();
+      NavigableMap<String, UfsStatus> statuses = new TreeMap<>();
+      populateUfsStatus(mKeyPrefix, chunk, false, statuses);
+      if (mLastTopKey != null) {
+        statuses = statuses.tailMap(mLastTopKey, false);
+      }
+      for (UfsStatus status : statuses.values()) {
+        TopLevelEntry entry = new TopLevelEntry(status);
+        if (mOrdered) {
+          mEntries.add(entry);
+        } else {
+          mStatuses.add(status);
+        }
+        if (status.isDirectory()) {
+          mUnstarted.add(entry);
+        }
+      }
+      if (!statuses.isEmpty()) {
+        mLastTopKey = statuses.lastKey();
+      }
+      return true;
+    }
+
+    /**
+     * Takes the next chunk fetched of a directory, waiting for it if it is being fetched.
+     *
+     * @return the statuses of the chunk, or null if the directory is listed
+     */
+    @Nullable
+    private Iterator<UfsStatus> takeChunk(TopLevelEntry entry)
+        throws IOException, InterruptedException {
+      ObjectListingChunk chunk = entry.take();
+      if (entry.isListed()) {
+        mListing.remove(entry);
+      }
+      if (chunk == null) {
+        return null;
+      }
+      NavigableMap<String, UfsStatus> statuses = new TreeMap<>();
+      populateUfsStatus(mKeyPrefix, chunk, true, statuses);
+      // drops the directory itself, and the directories under it returned by an earlier chunk
+      statuses = statuses.tailMap(entry.mLastKey, false);
+      if (!statuses.isEmpty()) {
+        entry.mLastKey = statuses.lastKey();
+      }
+      return Iterators.transform(statuses.entrySet().iterator(), Map.Entry::getValue);
+    }
+
+    /**
+     * An entry of the top level of the listing. If it is a directory being listed, the chunks
+     * of its listing are fetched into a buffer by the threads of the UFS, and taken from it by
+     * the thread iterating.
+     */
+    private final class TopLevelEntry {
+      private final UfsStatus mStatus;
+      private boolean mStatusReturned = false;
+      /** The name of the last status returned under the directory. */
+      private String mLastKey;
+      /** The chunks fetched and not taken yet. */
+      private final Deque<ObjectListingChunk> mChunks = new ArrayDeque<>();
+      /** The last chunk fetched, which the next chunk is fetched from. */
+      @Nullable
+      private ObjectListingChunk mLastChunk;
+      @Nullable
+      private Future<?> mFetch;
+      /** If no more chunks will be fetched. */
+      private boolean mDone = false;
+      @Nullable
+      private IOException mError;
+
+      private TopLevelEntry(UfsStatus status) {
+        mStatus = status;
+        mLastKey = status.getName();
+      }
+
+      /**
+       * Starts fetching the next chunk, unless a chunk is being fetched or the buffer is full.
+       */
+      private synchronized void fetchAhead() {
+        if (mFetch != null || mDone || mChunks.size() >= LISTING_PREFETCH_CHUNKS) {
+          return;
+        }
+        ObjectListingChunk lastChunk = mLastChunk;
+        mFetch = mExecutorService.submit(() -> {
+          try {
+            onFetched(lastChunk == null
+                ? getObjectListingChunk(mKeyPrefix + mStatus.getName(), true)
+                : lastChunk.getNextChunk(), null);
+          } catch (IOException e) {
+            onFetched(null, e);
+          } catch (RuntimeException e) {
+            onFetched(null, new IOException(e));
+          }
+        });
+      }
+
+      private synchronized void onFetched(@Nullable ObjectListingChunk chunk,
+          @Nullable IOException error) {
+        mFetch = null;
+        if (mDone) {
+          // cancelled
+          return;
+        }
+        if (error != null) {
+          mError = error;
+          mDone = true;
+        } else if (chunk == null) {
+          mDone = true;
+        } else {
+          mChunks.add(chunk);
+          mLastChunk = chunk;
+          mDone = Boolean.FALSE.equals(chunk.hasNextChunk());
+        }
+        notifyAll();
+        if (!mOrdered) {
+          mFetched.add(this);
+        }
+        fetchAhead();
+      }
+
+      /**
+       * @return the next chunk, or null if the directory is listed
+       */
+      @Nullable
+      private synchronized ObjectListingChunk take() throws IOException, InterruptedException {
+        while (mChunks.isEmpty() && !mDone) {
+          wait();
+        }
+        if (mError != null) {
+          throw mError;
+        }
+        ObjectListingChunk chunk = mChunks.poll();
+        fetchAhead();
+        return chunk;
+      }
+
+      /**
+       * @return if all the chunks are taken
+       */
+      private synchronized boolean isListed() {
+        return mDone && mChunks.isEmpty();
+      }
+
+      private synchronized void cancel() {
+        mDone = true;
+        mChunks.clear();
+        if (mFetch != null) {
+          mFetch.cancel(true);
+          mFetch = null;
+        }
+        notifyAll();
+        if (!mOrdered) {
+          mFetched.add(this);
+        }
+      }
+    }
+  }
+
   /**
    * Creates a directory flagged file with the key and folder suffix.
    *
@@ -25,6 +25,7 @@ import alluxio.file.options.DescendantType;
 import alluxio.metrics.Metric;
 import alluxio.metrics.MetricInfo;
 import alluxio.metrics.MetricsSystem;
+import alluxio.resource.CloseableIterator;
 import alluxio.security.authentication.AuthenticatedClientUser;
 import alluxio.security.authorization.AccessControlList;
 import alluxio.security.authorization.AclEntry;
@@ -44,6 +45,7 @@ import com.google.common.collect.Iterators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -853,7 +855,18 @@ public class UnderFileSystemWithLogging implements UnderFileSystem {
     if (statuses == null) {
       return null;
     }
-    return Iterators.filter(statuses, (it) -> !it.getName().contains("?"));
+    Iterator<UfsStatus> filtered = Iterators.filter(statuses, (it) -> !it.getName().contains("?"));
+    if (!(statuses instanceof Closeable)) {
+      return filtered;
+    }
+    // keeps the listing closeable, which cancels the listing in progress
+    return CloseableIterator.create(filtered, (v) -> {
+      try {
+        ((Closeable) statuses).close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close the listing of {}", listedPath, e);
+      }
+    });
   }
 
   @Nullable
@@ -19,6 +19,8 @@ import alluxio.grpc.DeletePOptions;
 import alluxio.grpc.ExistsPOptions;
 import alluxio.grpc.GetStatusPOptions;
 import alluxio.grpc.ListStatusPOptions;
+import alluxio.grpc.ListStatusPartialPOptions;
+import alluxio.grpc.ListStatusPartialPResponse;
 import alluxio.grpc.LoadFileFailure;
 import alluxio.grpc.RenamePOptions;
 import alluxio.grpc.Route;
@@ -70,6 +72,19 @@ public interface DoraWorker extends DataWorker, SessionCleanable {
   UfsStatus[] listStatus(String path, ListStatusPOptions options)
       throws IOException, AccessControlException;
 
+  /**
+   * Lists a part of a directory from Under File System, in the order of the names.
+   *
+   * @param path the path of a dir or file
+   * @param options the options of the partial listing
+   * @return the file information of the part of the directory, or {@code null} if the path
+   *         does not exist
+   * @throws IOException
+   */
+  @Nullable
+  ListStatusPartialPResponse listStatusPartial(String path, ListStatusPartialPOptions options)
+      throws IOException, AccessControlException;
+
   /**
    * Creates the file reader to read from Alluxio dora.
    * Owner of this block reader must close it or lock will leak.
@@ -0,0 +1,75 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link HdrHistogramReservoir}.
+ */
+public final class HdrHistogramReservoirTest {
+  @Test
+  public void empty() {
+    Snapshot snapshot = new HdrHistogramReservoir().getSnapshot();
+    assertEquals(0, snapshot.size());
+    assertEquals(0, snapshot.getMax());
+    assertEquals(0, snapshot.getMin());
+    assertEquals(0, snapshot.getMean(), 0);
+    assertEquals(0, snapshot.getValue(0.99), 0);
+  }
+
+  @Test
+  public void percentiles() {
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir();
+    for (int i = 1; i <= 1000; i++) {
+      reservoir.update(i);
+    }
+    Snapshot snapshot = reservoir.getSnapshot();
+    assertEquals(1000, snapshot.size());
+    assertEquals(1, snapshot.getMin());
+    assertEquals(1000, snapshot.getMax(), 10);
+    assertEquals(500.5, snapshot.getMean(), 5);
+    assertEquals(500, snapshot.getMedian(), 5);
+    assertEquals(990, snapshot.get99thPercentile(), 10);
+  }
+
+  @Test
+  public void accumulateAcrossSnapshots() {
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir();
+    reservoir.update(10);
+    reservoir.update(-1);
+    assertEquals(2, reservoir.getSnapshot().size());
+    reservoir.update(10);
+    Snapshot snapshot = reservoir.getSnapshot();
+    assertEquals(3, snapshot.size());
+    assertEquals(0, snapshot.getMin());
+    assertArrayEquals(new long[] {0, 10}, snapshot.getValues());
+  }
+
+  @Test
+  public void latencyTimer() {
+    Timer timer = MetricsSystem.latencyTimer("HdrHistogramReservoirTest");
+    timer.update(5, TimeUnit.MILLISECONDS);
+    timer.update(15, TimeUnit.MILLISECONDS);
+    Snapshot snapshot = timer.getSnapshot();
+    assertEquals(2, snapshot.size());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(15), snapshot.getMax(),
+        TimeUnit.MILLISECONDS.toNanos(1));
+  }
+}
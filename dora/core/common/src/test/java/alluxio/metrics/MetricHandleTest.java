@@ -0,0 +1,90 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MetricHandle}.
+ */
+public final class MetricHandleTest {
+  private static final String METER = "MetricHandleTestMeter";
+  private static final String COUNTER = "MetricHandleTestCounter";
+  private static final String TIMER = "MetricHandleTestTimer";
+
+  @Before
+  public void before() {
+    MetricsSystem.resetAllMetrics();
+  }
+
+  @Test
+  public void resolveOnce() {
+    MetricHandle<Meter> handle = MetricHandle.of(METER, MetricsSystem::meter);
+    Meter meter = handle.get();
+    assertSame(MetricsSystem.meter(METER), meter);
+    assertSame(meter, handle.get());
+    handle.get().mark(10);
+    assertEquals(10, MetricsSystem.meter(METER).getCount());
+  }
+
+  @Test
+  public void resolveAfterReset() {
+    MetricHandle<Meter> handle = MetricHandle.of(METER, MetricsSystem::meter);
+    Meter meter = handle.get();
+    meter.mark(10);
+    MetricsSystem.resetAllMetrics();
+    // the meter is replaced by the reset
+    assertNotSame(meter, handle.get());
+    assertSame(MetricsSystem.meter(METER), handle.get());
+    handle.get().mark(5);
+    assertEquals(5, MetricsSystem.meter(METER).getCount());
+  }
+
+  @Test
+  public void resolveAfterClear() {
+    MetricHandle<Counter> handle = MetricHandle.of(COUNTER, MetricsSystem::counter);
+    Counter counter = handle.get();
+    MetricsSystem.clearAllMetrics();
+    assertNotSame(counter, handle.get());
+    handle.get().inc();
+    assertEquals(1, MetricsSystem.counter(COUNTER).getCount());
+  }
+
+  @Test
+  public void resolveAfterRemove() {
+    MetricHandle<Counter> handle = MetricHandle.of(COUNTER, MetricsSystem::counter);
+    Counter counter = handle.get();
+    assertTrue(MetricsSystem.removeMetrics(MetricsSystem.getMetricName(COUNTER)));
+    assertNotSame(counter, handle.get());
+    assertSame(MetricsSystem.counter(COUNTER), handle.get());
+  }
+
+  @Test
+  public void keepLatencyTimerAfterReset() {
+    MetricHandle<Timer> handle = MetricHandle.of(TIMER, MetricsSystem::latencyTimer);
+    Timer timer = handle.get();
+    MetricsSystem.resetAllMetrics();
+    assertNotSame(timer, handle.get());
+    // the timer created again by the reset still records into an HdrHistogram
+    assertSame(HdrHistogramReservoir.class,
+        MetricsSystem.timer(TIMER).getSnapshot().getClass().getEnclosingClass());
+  }
+}
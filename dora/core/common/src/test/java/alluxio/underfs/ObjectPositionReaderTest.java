@@ -0,0 +1,110 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.underfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.file.FileRange;
+import alluxio.util.io.BufferUtils;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the vectored reads of {@link ObjectPositionReader}.
+ */
+public final class ObjectPositionReaderTest {
+  private static final int FILE_LENGTH = 32 * 1024 * 1024;
+
+  private final TestObjectPositionReader mReader = new TestObjectPositionReader();
+
+  @Test
+  public void mergeCloseRanges() throws Exception {
+    List<FileRange> ranges = ImmutableList.of(
+        new FileRange(100, 10),
+        new FileRange(2000, 100),
+        new FileRange(10 * 1024 * 1024, 1000),
+        new FileRange(10 * 1024 * 1024 + 1000, 24));
+    List<ByteBuffer> buffers = mReader.readVectored(ranges, ByteBuffer::allocate);
+    checkData(ranges, buffers);
+    // the first two ranges and the last two ranges are read in one request each
+    assertEquals(ImmutableList.of(new FileRange(100, 2000), new FileRange(10 * 1024 * 1024, 1024)),
+        mReader.mRequests);
+  }
+
+  @Test
+  public void outOfOrderAndOverlappingRanges() throws Exception {
+    List<FileRange> ranges = ImmutableList.of(
+        new FileRange(5000, 100),
+        new FileRange(0, 1000),
+        new FileRange(500, 100),
+        new FileRange(900, 200),
+        new FileRange(1000, 0));
+    List<ByteBuffer> buffers = mReader.readVectored(ranges, ByteBuffer::allocateDirect);
+    checkData(ranges, buffers);
+    assertEquals(ImmutableList.of(new FileRange(0, 5100)), mReader.mRequests);
+  }
+
+  @Test
+  public void splitLargeMergedRanges() throws Exception {
+    List<FileRange> ranges = ImmutableList.of(
+        new FileRange(0, 6 * 1024 * 1024),
+        new FileRange(6 * 1024 * 1024, 6 * 1024 * 1024));
+    checkData(ranges, mReader.readVectored(ranges, ByteBuffer::allocate));
+    assertEquals(ranges, mReader.mRequests);
+  }
+
+  @Test
+  public void rangePastEndOfFile() {
+    assertThrows(EOFException.class, () -> mReader.readVectored(ImmutableList.of(
+        new FileRange(0, 10), new FileRange(FILE_LENGTH - 10, 11)), ByteBuffer::allocate));
+    assertTrue(mReader.mRequests.isEmpty());
+  }
+
+  private static void checkData(List<FileRange> ranges, List<ByteBuffer> buffers) {
+    assertEquals(ranges.size(), buffers.size());
+    for (int i = 0; i < ranges.size(); i++) {
+      ByteBuffer buffer = buffers.get(i);
+      assertEquals(0, buffer.position());
+      assertEquals(ranges.get(i).getLength(), buffer.remaining());
+      assertTrue(BufferUtils.equalIncreasingByteBuffer(
+          (int) ranges.get(i).getOffset(), ranges.get(i).getLength(), buffer));
+    }
+  }
+
+  /**
+   * Reads an object of increasing bytes, recording the ranges requested.
+   */
+  private static final class TestObjectPositionReader extends ObjectPositionReader {
+    private final List<FileRange> mRequests = new ArrayList<>();
+
+    TestObjectPositionReader() {
+      super("bucket", "object", FILE_LENGTH);
+    }
+
+    @Override
+    protected InputStream openObjectInputStream(long position, int bytesToRead) {
+      mRequests.add(new FileRange(position, bytesToRead));
+      return new ByteArrayInputStream(
+          BufferUtils.getIncreasingByteArray((int) position, bytesToRead));
+    }
+  }
+}
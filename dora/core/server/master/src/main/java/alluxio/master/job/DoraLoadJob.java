@@ -59,6 +59,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayDeque;
@@ -77,6 +78,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
@@ -120,6 +122,9 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
   private final AtomicLong mCurrentFailureCount = new AtomicLong();
   private Optional<AlluxioRuntimeException> mFailedReason = Optional.empty();
   private Iterator<UfsStatus> mUfsStatusIterator;
+  /** The listing of the UFS, closed once the job is done to cancel the listing in progress. */
+  @Nullable
+  private Closeable mUfsListing;
   private AtomicBoolean mPreparingTasks = new AtomicBoolean(false);
   private final UnderFileSystem mUfs;
   private boolean mLoadMetadataOnly = false;
@@ -178,6 +183,9 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
         if (mUfsStatusIterator == null) {
           mUfsStatusIterator = Collections.emptyIterator();
         } else {
+          if (mUfsStatusIterator instanceof Closeable) {
+            mUfsListing = (Closeable) mUfsStatusIterator;
+          }
           mUfsStatusIterator = Iterators.transform(mUfsStatusIterator, (it) -> {
             it.setUfsFullPath(ufsSyncRootUri.join(it.getName()));
             return it;
@@ -300,6 +308,19 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
     mBandwidth = bandwidth;
   }
 
+  @Override
+  public void setJobState(JobState state, boolean journalUpdate) {
+    super.setJobState(state, journalUpdate);
+    if (isDone() && mUfsListing != null) {
+      try {
+        mUfsListing.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close the UFS listing of job {}", mJobId, e);
+      }
+      mUfsListing = null;
+    }
+  }
+
   /**
    * Set load state to FAILED with given reason.
    * @param reason failure exception
@@ -605,6 +626,9 @@ public class DoraLoadJob extends AbstractJob<DoraLoadJob.DoraLoadTask> {
           .newBuilder()
           .setTag(mJobId)
           .setPositionShort(false);
+      // the current bandwidth is sent with each task, so that an update takes effect on the
+      // workers as soon as the next tasks of the job arrive
+      mBandwidth.ifPresent(ufsReadOptions::setBandwidth);
       mUser.ifPresent(ufsReadOptions::setUser);
       loadFileReqBuilder.setOptions(ufsReadOptions);
       loadFileReqBuilder.setLoadMetadataOnly(mLoadMetadataOnly);
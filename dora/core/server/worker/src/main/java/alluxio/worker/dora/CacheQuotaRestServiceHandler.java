@@ -0,0 +1,111 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.RestUtils;
+import alluxio.client.file.cache.CacheQuotaAdvisor;
+import alluxio.conf.Configuration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.status.FailedPreconditionException;
+import alluxio.web.WorkerWebServer;
+import alluxio.worker.DataWorker;
+import alluxio.worker.WorkerProcess;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+import java.util.Optional;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.servlet.ServletContext;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * This class is a REST handler for the cache quotas recommended from the shadow cache.
+ */
+@NotThreadSafe
+@Api(value = "/cache_quota", description = "Worker Cache Quota Rest Service")
+@Path(CacheQuotaRestServiceHandler.SERVICE_PREFIX)
+@Produces(MediaType.APPLICATION_JSON)
+public final class CacheQuotaRestServiceHandler {
+  public static final String SERVICE_PREFIX = "cache_quota";
+
+  // endpoints
+  public static final String GET_RECOMMENDATIONS = "recommendations";
+  public static final String APPLY = "apply";
+  public static final String RESET = "reset";
+
+  private final WorkerProcess mWorkerProcess;
+
+  /**
+   * @param context context for the servlet
+   */
+  public CacheQuotaRestServiceHandler(@Context ServletContext context) {
+    mWorkerProcess = (WorkerProcess) context
+        .getAttribute(WorkerWebServer.ALLUXIO_WORKER_SERVLET_RESOURCE_KEY);
+  }
+
+  /**
+   * @summary get the cache quotas recommended for the cache scopes
+   * @return the response object
+   */
+  @GET
+  @Path(GET_RECOMMENDATIONS)
+  @ApiOperation(value = "Get the cache quotas recommended from the shadow cache",
+      response = CacheQuotaAdvisor.Recommendation.class, responseContainer = "List")
+  public Response getRecommendations() {
+    return RestUtils.call(() -> getAdvisor().recommend(), Configuration.global());
+  }
+
+  /**
+   * @summary apply the recommended cache quotas to the cache scopes
+   * @return the response object
+   */
+  @POST
+  @Path(APPLY)
+  @ApiOperation(value = "Apply the cache quotas recommended from the shadow cache",
+      response = CacheQuotaAdvisor.Recommendation.class, responseContainer = "List")
+  public Response apply() {
+    return RestUtils.call(() -> getAdvisor().apply(), Configuration.global());
+  }
+
+  /**
+   * @summary remove the applied cache quotas and forget the statistics of the cache scopes
+   * @return the response object
+   */
+  @POST
+  @Path(RESET)
+  @ApiOperation(value = "Remove the applied cache quotas")
+  public Response reset() {
+    return RestUtils.call(() -> {
+      getAdvisor().reset();
+      return null;
+    }, Configuration.global());
+  }
+
+  private CacheQuotaAdvisor getAdvisor() throws FailedPreconditionException {
+    DataWorker worker = mWorkerProcess.getWorker(DataWorker.class);
+    Optional<CacheQuotaAdvisor> advisor = worker instanceof PagedDoraWorker
+        ? ((PagedDoraWorker) worker).getCacheQuotaAdvisor() : Optional.empty();
+    if (!advisor.isPresent()) {
+      throw new FailedPreconditionException(String.format(
+          "Cache quotas are only recommended when %s is enabled",
+          PropertyKey.Name.USER_CLIENT_CACHE_SHADOW_ENABLED));
+    }
+    return advisor.get();
+  }
+}
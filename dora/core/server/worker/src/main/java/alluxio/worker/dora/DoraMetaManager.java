@@ -17,31 +17,49 @@ import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.file.FileId;
 import alluxio.grpc.FileInfo;
-import alluxio.proto.meta.DoraMeta;
 import alluxio.proto.meta.DoraMeta.FileStatus;
 import alluxio.underfs.Fingerprint;
 import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
 import alluxio.underfs.options.ListOptions;
+import alluxio.util.executor.ExecutorServiceFactories;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Nullable;
 
 /**
  * The Dora metadata manager that orchestrates the metadata operations.
  *
+ * The listing cache is kept up to date with the changes made through the worker: a created,
+ * deleted or renamed file is added to or removed from the cached listing of its parent instead
+ * of dropping the listing. A cached listing older than the refresh interval is still served,
+ * and listed again from the UFS in the background. Listings expire by the time they were taken
+ * from the UFS, which the updates do not change.
+ *
  * TODO(elega) Invalidating page cache synchronously causes performance issue and currently it
  *  also lacks concurrency control. Address this problem in the future.
  */
 public class DoraMetaManager implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(DoraMetaManager.class);
+  private static final int LISTING_REFRESH_THREADS = 4;
+
   private final DoraMetaStore mMetaStore;
   private final CacheManager mCacheManager;
   private final PagedDoraWorker mDoraWorker;
@@ -54,9 +72,16 @@ public class DoraMetaManager implements Closeable {
       : Caffeine.newBuilder()
       .maximumWeight(mListingCacheCapacity)
       .weigher((String k, ListStatusResult v) ->
-          v.mUfsStatuses == null ? 0 : v.mUfsStatuses.length)
-      .expireAfterWrite(Configuration.getDuration(PropertyKey.DORA_UFS_LIST_STATUS_CACHE_TTL))
+          v.size())
+      .expireAfter(new ListingExpiry(
+          Configuration.getDuration(PropertyKey.DORA_UFS_LIST_STATUS_CACHE_TTL).toNanos()))
       .build();
+  private final long mListingRefreshIntervalNs = Configuration.getDuration(
+      PropertyKey.DORA_UFS_LIST_STATUS_CACHE_REFRESH_INTERVAL).toNanos();
+  /** The paths whose listings are being refreshed. */
+  private final Set<String> mRefreshingListings = ConcurrentHashMap.newKeySet();
+  @Nullable
+  private final ExecutorService mListingRefreshExecutor;
 
   /**
    * Creates a dora meta manager.
@@ -74,6 +99,10 @@ public class DoraMetaManager implements Closeable {
     mCacheManager = cacheManger;
     mDoraWorker = doraWorker;
     mUfs = ufs;
+    mListingRefreshExecutor = mListStatusCache == null || mListingRefreshIntervalNs <= 0
+        ? null
+        : ExecutorServiceFactories.fixedThreadPool(
+            "dora-listing-refresh", LISTING_REFRESH_THREADS).create();
   }
 
   /**
@@ -82,31 +111,41 @@ public class DoraMetaManager implements Closeable {
    * @return the file status, or empty optional if not found
    */
   public Optional<FileStatus> getFromUfs(String path) throws IOException {
+    UfsStatus status = getUfsStatus(path);
+    if (status == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(mDoraWorker.buildFileStatusFromUfsStatus(status, path));
+  }
+
+  @Nullable
+  private UfsStatus getUfsStatus(String path) throws IOException {
     try {
-      UfsStatus status = mUfs.getStatus(path);
-      DoraMeta.FileStatus fs = mDoraWorker.buildFileStatusFromUfsStatus(status, path);
-      return Optional.ofNullable(fs);
+      return mUfs.getStatus(path);
     } catch (FileNotFoundException e) {
-      return Optional.empty();
+      return null;
     }
   }
 
   /**
-   * Gets file meta from UFS and loads it into metastore if exists.
+   * Gets file meta from UFS and loads it into metastore if exists, and updates the cached
+   * listing of its parent with it.
    * If the file does not exist in the UFS, clean up metadata and data.
    *
    * @param path the full ufs path
    * @return the file status, or empty optional if not found
    */
   public Optional<FileStatus> loadFromUfs(String path) throws IOException {
-    Optional<FileStatus> fileStatus = getFromUfs(path);
-    if (fileStatus.isEmpty()) {
+    UfsStatus ufsStatus = getUfsStatus(path);
+    FileStatus fileStatus = ufsStatus == null
+        ? null : mDoraWorker.buildFileStatusFromUfsStatus(ufsStatus, path);
+    if (fileStatus == null) {
       removeFromMetaStore(path);
-    } else {
-      put(path, fileStatus.get());
+      return Optional.empty();
     }
-    // TODO(elega) invalidate/update listing cache based on the load result
-    return fileStatus;
+    put(path, fileStatus);
+    updateListingCacheOfParent(path, ufsStatus);
+    return Optional.of(fileStatus);
   }
 
   /**
@@ -138,13 +177,22 @@ public class DoraMetaManager implements Closeable {
   }
 
   /**
-   * Removes meta of a file from the meta store.
+   * Removes meta of a file from the meta store, and removes it from the cached listing of its
+   * parent. The cached listing of the path is dropped, and if the path is known to be a
+   * directory, so are the cached listings of the directories under it.
    * @param path the full ufs path
    * @return the removed file meta, if exists
    */
   public Optional<FileStatus> removeFromMetaStore(String path) {
-    invalidateListingCache(getPathParent(path));
     Optional<FileStatus> status = mMetaStore.getDoraMeta(path);
+    removeFromListingCacheOfParent(path);
+    // a path not known to be a directory is not scanned for, as every path missing from the UFS
+    // is removed when it is looked up
+    if (isKnownDirectory(path, status)) {
+      invalidateListingCacheUnder(path);
+    } else {
+      invalidateListingCache(path);
+    }
     if (status.isPresent()) {
       mMetaStore.removeDoraMeta(path);
     }
@@ -163,18 +211,8 @@ public class DoraMetaManager implements Closeable {
   }
 
   /**
-   * Invalidates the listing cache of its parent of a given path.
-   * If root is specified, the listing cache of root itself will be invalidated.
-   * @param path the full ufs path
-   */
-  public void invalidateListingCacheOfParent(String path) {
-    if (mListStatusCache != null) {
-      mListStatusCache.invalidate(getPathParent(path));
-    }
-  }
-
-  /**
-   * Get the cached listing result from the listing cache.
+   * Get the cached listing result from the listing cache. A listing older than the refresh
+   * interval is returned, and refreshed from the UFS in the background.
    * @param path the full ufs path to list
    * @param isRecursive if the list is recursive
    * @return an Optional of a listStatusResult object. If the object exists but the ufs status
@@ -190,56 +228,95 @@ public class DoraMetaManager implements Closeable {
       return Optional.empty();
     }
     ListStatusResult result = mListStatusCache.getIfPresent(path);
+    if (result != null && mListingRefreshExecutor != null
+        && System.nanoTime() - result.mTimeStamp > mListingRefreshIntervalNs) {
+      refreshListingAsync(path, result);
+    }
     return Optional.ofNullable(result);
   }
 
+  /**
+   * Lists a directory from UFS in the background, and replaces the cached listing with it
+   * unless the cached listing changed in the meantime.
+   */
+  private void refreshListingAsync(String path, ListStatusResult stale) {
+    if (!mRefreshingListings.add(path)) {
+      return;
+    }
+    long version = stale.getVersion();
+    try {
+      mListingRefreshExecutor.submit(() -> {
+        try {
+          ListStatusResult refreshed = listFromUfsAsResult(path);
+          mListStatusCache.asMap().computeIfPresent(path, (key, current) ->
+              current == stale && current.getVersion() == version ? refreshed : current);
+        } catch (Throwable t) {
+          LOG.debug("Failed to refresh the listing of {}", path, t);
+        } finally {
+          mRefreshingListings.remove(path);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      mRefreshingListings.remove(path);
+    }
+  }
+
   /**
    * Lists a directory from UFS and cache it into the listing cache if it exists.
+   * The cached listing, if any, is replaced rather than invalidated first, so that concurrent
+   * listings are still served from the cache while the UFS is listed. Concurrent calls for the
+   * same directory list the UFS once, and share the listing.
    * @param path the ufs path
    * @param isRecursive if the listing is recursive
    * @return an empty option if the directory does not exist or
    * the path does not denote a directory,
-   * otherwise an option contains an ufs status array.
+   * otherwise an option contains an ufs status array sorted by key.
    * @throws IOException if the UFS call failed
    */
   public Optional<UfsStatus[]> listFromUfsThenCache(String path, boolean isRecursive)
       throws IOException {
-    if (mListStatusCache == null) {
+    if (mListStatusCache == null || isRecursive) {
       return listFromUfs(path, isRecursive);
     }
+    ListStatusResult cached = mListStatusCache.getIfPresent(path);
     try {
-      ListStatusResult cached = mListStatusCache.get(path, (k) -> {
-        try {
-          Optional<UfsStatus[]> listResults = listFromUfs(path, isRecursive);
-          return listResults.map(
-                  ufsStatuses -> new ListStatusResult(
-                      System.nanoTime(), ufsStatuses,
-                      ufsStatuses.length == 1 && ufsStatuses[0].isFile()
-                  ))
-              // This cache also serves as absent cache, so we persist a NULL (not empty) result,
-              // if the path not found or is not a directory.
-              .orElseGet(() -> new ListStatusResult(System.nanoTime(), null, false));
-        } catch (Exception e) {
-          throw new RuntimeException(e);
-        }
-      });
-      return Optional.ofNullable(cached.mUfsStatuses);
-    } catch (RuntimeException e) {
-      Throwable cause = e.getCause();
-      if (cause instanceof IOException) {
-        throw (IOException) cause;
-      }
-      throw new RuntimeException(e);
+      ListStatusResult result = cached == null
+          ? mListStatusCache.get(path, this::loadListing)
+          // a listing replaced by another call since it was read is as fresh as this one
+          : mListStatusCache.asMap().compute(path, (key, current) ->
+              current == null || current == cached ? loadListing(key) : current);
+      return Optional.ofNullable(result.getUfsStatuses());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private ListStatusResult loadListing(String path) {
+    try {
+      return listFromUfsAsResult(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
   }
 
+  private ListStatusResult listFromUfsAsResult(String path) throws IOException {
+    long timeStamp = System.nanoTime();
+    return listFromUfs(path, false).map(
+            // a file is listed as itself, with an empty name
+            ufsStatuses -> new ListStatusResult(timeStamp, ufsStatuses, ufsStatuses.length == 1
+                && ufsStatuses[0].isFile() && ufsStatuses[0].getName().isEmpty()))
+        // This cache also serves as absent cache, so we persist a NULL (not empty) result,
+        // if the path not found or is not a directory.
+        .orElseGet(() -> new ListStatusResult(timeStamp, null, false));
+  }
+
   /**
    * Lists a directory from UFS.
    * @param path the ufs path
    * @param isRecursive if the listing is recursive
    * @return an empty option if the directory does not exist or
    * the path does not denote a directory,
-   * otherwise an option contains an ufs status array.
+   * otherwise an option contains an ufs status array sorted by key.
    * @throws IOException if the UFS call failed
    */
   public Optional<UfsStatus[]> listFromUfs(String path, boolean isRecursive)
@@ -248,7 +325,7 @@ public class DoraMetaManager implements Closeable {
     try {
       UfsStatus[] listResults = mUfs.listStatus(path, ufsListOptions);
       if (listResults != null) {
-        return Optional.of(listResults);
+        return Optional.of(ListStatusResult.sortByKey(listResults));
       }
     } catch (IOException e) {
       if (!(e instanceof FileNotFoundException)) {
@@ -298,6 +375,57 @@ public class DoraMetaManager implements Closeable {
         || !origin.getContentHash().equals(updated.getContentHash());
   }
 
+  /**
+   * Adds a file to, or replaces it in, the cached listing of its parent.
+   */
+  private void updateListingCacheOfParent(String path, UfsStatus status) {
+    AlluxioURI uri = new AlluxioURI(path);
+    if (mListStatusCache == null || uri.isRoot()) {
+      return;
+    }
+    UfsStatus child = status.copy().setName(uri.getName());
+    mListStatusCache.asMap().computeIfPresent(getPathParent(path),
+        (parent, listing) -> listing.withChild(child));
+  }
+
+  /**
+   * Removes a file from the cached listing of its parent.
+   */
+  private void removeFromListingCacheOfParent(String path) {
+    AlluxioURI uri = new AlluxioURI(path);
+    if (mListStatusCache == null || uri.isRoot()) {
+      return;
+    }
+    mListStatusCache.asMap().computeIfPresent(getPathParent(path),
+        (parent, listing) -> listing.withoutChild(uri.getName()));
+  }
+
+  /**
+   * @return if the path is a directory by its meta or its cached listing
+   */
+  private boolean isKnownDirectory(String path, Optional<FileStatus> status) {
+    if (status.isPresent()) {
+      return status.get().getFileInfo().getFolder();
+    }
+    if (mListStatusCache == null) {
+      return false;
+    }
+    ListStatusResult listing = mListStatusCache.getIfPresent(path);
+    return listing != null && listing.getUfsStatuses() != null && !listing.isFile();
+  }
+
+  /**
+   * Drops the cached listings of a path and of all the paths under it.
+   */
+  private void invalidateListingCacheUnder(String path) {
+    if (mListStatusCache == null) {
+      return;
+    }
+    mListStatusCache.invalidate(path);
+    String prefix = path.endsWith(AlluxioURI.SEPARATOR) ? path : path + AlluxioURI.SEPARATOR;
+    mListStatusCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+  }
+
   private void invalidateCachedFile(String path) {
     FileId fileId = FileId.of(AlluxioURI.hash(path));
     mCacheManager.deleteFile(fileId.toString());
@@ -317,6 +445,38 @@ public class DoraMetaManager implements Closeable {
 
   @Override
   public void close() throws IOException {
+    if (mListingRefreshExecutor != null) {
+      mListingRefreshExecutor.shutdownNow();
+    }
     mMetaStore.close();
   }
+
+  /**
+   * Expires the listings by the time they were taken from the UFS, so that updating a cached
+   * listing in place does not extend its life.
+   */
+  private static final class ListingExpiry implements Expiry<String, ListStatusResult> {
+    private final long mTtlNs;
+
+    ListingExpiry(long ttlNs) {
+      mTtlNs = ttlNs;
+    }
+
+    @Override
+    public long expireAfterCreate(String path, ListStatusResult listing, long currentTime) {
+      return Math.max(0, mTtlNs - (currentTime - listing.mTimeStamp));
+    }
+
+    @Override
+    public long expireAfterUpdate(String path, ListStatusResult listing, long currentTime,
+        long currentDuration) {
+      return expireAfterCreate(path, listing, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String path, ListStatusResult listing, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
 }
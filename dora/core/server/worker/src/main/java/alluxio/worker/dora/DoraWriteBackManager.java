@@ -0,0 +1,477 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.Constants;
+import alluxio.PositionReader;
+import alluxio.conf.AlluxioConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.exception.runtime.CancelledRuntimeException;
+import alluxio.exception.runtime.ResourceExhaustedRuntimeException;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.grpc.FileInfo;
+import alluxio.master.file.meta.PersistenceState;
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+import alluxio.security.authorization.Mode;
+import alluxio.underfs.UnderFileSystem;
+import alluxio.underfs.options.CreateOptions;
+import alluxio.util.ThreadFactoryUtils;
+import alluxio.util.io.FileUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * Persists the files written in the write-back mode to the UFS asynchronously.
+ *
+ * The bytes of such a file are written to a staging file in the write-back dir, besides the
+ * page store, and the file is acknowledged to the client once the staging file is synced to the
+ * disk and the file is completed. Completing a file writes a record of its status next to the
+ * staging file and queues it to be persisted. The record is removed after the file is persisted,
+ * so the files queued when the worker stops are queued again when it starts.
+ *
+ * The files of a path are persisted one at a time, and the newest write of a path wins: a queued
+ * file replaced by a later write, or deleted, is dropped rather than persisted. Deleting a file
+ * being persisted waits until it is persisted, so it is deleted from the UFS afterwards. Until a
+ * file is persisted, reads of it which miss the cache are served from its staging file.
+ */
+public class DoraWriteBackManager implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(DoraWriteBackManager.class);
+  private static final String DATA_SUFFIX = ".data";
+  private static final String RECORD_SUFFIX = ".record";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final long INITIAL_RETRY_DELAY_MS = Constants.SECOND_MS;
+  private static final long MAX_RETRY_DELAY_MS = Constants.MINUTE_MS;
+
+  private final UnderFileSystem mUfs;
+  private final DoraMetaManager mMetaManager;
+  private final AlluxioConfiguration mConf;
+  private final Path mDir;
+  private final int mQueueSize;
+  private final ScheduledExecutorService mExecutor;
+  /** The files being persisted, by their paths, so that a path is persisted by one thread. */
+  private final Map<String, PendingFile> mPersistingFiles = new ConcurrentHashMap<>();
+  /** The staging files of the files being written, by their paths. */
+  private final Map<String, Path> mWritingFiles = new ConcurrentHashMap<>();
+  /** The files completed and not persisted yet, by their paths. */
+  private final Map<String, PendingFile> mPendingFiles = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the write-back manager, and queues the files which were not persisted when the
+   * worker stopped.
+   *
+   * @param ufs the UFS to persist the files to
+   * @param metaManager the meta manager to load the persisted files into
+   * @param conf the configuration
+   */
+  public DoraWriteBackManager(UnderFileSystem ufs, DoraMetaManager metaManager,
+      AlluxioConfiguration conf) {
+    mUfs = ufs;
+    mMetaManager = metaManager;
+    mConf = conf;
+    mDir = Paths.get(conf.getString(PropertyKey.DORA_WORKER_WRITE_BACK_DIR));
+    mQueueSize = conf.getInt(PropertyKey.DORA_WORKER_WRITE_BACK_QUEUE_SIZE);
+    mExecutor = Executors.newScheduledThreadPool(
+        conf.getInt(PropertyKey.DORA_WORKER_WRITE_BACK_THREADS),
+        ThreadFactoryUtils.build("dora-write-back-%d", true));
+    restore();
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.WORKER_WRITE_BACK_PENDING_FILES.getName()),
+        mPendingFiles::size);
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.WORKER_WRITE_BACK_PENDING_BYTES.getName()),
+        () -> mPendingFiles.values().stream().mapToLong(file -> file.mInfo.getLength()).sum());
+    MetricsSystem.registerGaugeIfAbsent(
+        MetricsSystem.getMetricName(MetricKey.WORKER_WRITE_BACK_LAG_MS.getName()),
+        this::getLagMs);
+  }
+
+  /**
+   * Starts writing a file in the write-back mode.
+   *
+   * @param path the full ufs path of the file
+   * @throws ResourceExhaustedRuntimeException if too many files are not persisted yet
+   */
+  public void startFile(String path) throws IOException {
+    if (mPendingFiles.size() + mWritingFiles.size() >= mQueueSize) {
+      throw new ResourceExhaustedRuntimeException(String.format(
+          "Too many files written in the write-back mode are not persisted yet: %d",
+          mPendingFiles.size() + mWritingFiles.size()), true);
+    }
+    Files.createDirectories(mDir);
+    Path stagingFile = mDir.resolve(UUID.randomUUID() + DATA_SUFFIX);
+    Path previous = mWritingFiles.put(path, stagingFile);
+    if (previous != null) {
+      Files.deleteIfExists(previous);
+    }
+  }
+
+  /**
+   * @param path the full ufs path of the file
+   * @return the staging file of the file, if it is being written in the write-back mode
+   */
+  @Nullable
+  public Path getStagingFile(String path) {
+    return mWritingFiles.get(path);
+  }
+
+  /**
+   * Completes a file written in the write-back mode, and queues it to be persisted.
+   *
+   * @param path the full ufs path of the file
+   * @param info the status of the file when it was created
+   * @param length the length of the file
+   * @return the status of the file until it is persisted
+   */
+  public FileInfo completeFile(String path, FileInfo info, long length) throws IOException {
+    Path stagingFile = mWritingFiles.remove(path);
+    if (stagingFile == null) {
+      throw new IOException(String.format("File %s is not being written back", path));
+    }
+    if (!Files.exists(stagingFile)) {
+      // no writer was created for an empty file
+      Files.createFile(stagingFile);
+    }
+    long stagedLength = Files.size(stagingFile);
+    if (stagedLength != length) {
+      Files.deleteIfExists(stagingFile);
+      throw new IOException(String.format(
+          "The %d bytes written of file %s do not match its length %d",
+          stagedLength, path, length));
+    }
+    FileInfo pendingInfo = info.toBuilder()
+        .setLength(length)
+        .setLastModificationTimeMs(System.currentTimeMillis())
+        .setCompleted(true)
+        .setPersisted(false)
+        .setPersistenceState(PersistenceState.TO_BE_PERSISTED.name())
+        .build();
+    String id = getId(stagingFile);
+    Path record = mDir.resolve(id + RECORD_SUFFIX);
+    Path tmpRecord = mDir.resolve(id + RECORD_SUFFIX + TMP_SUFFIX);
+    try (FileChannel channel = FileChannel.open(tmpRecord, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      channel.write(ByteBuffer.wrap(pendingInfo.toByteArray()));
+      channel.force(true);
+    }
+    Files.move(tmpRecord, record, StandardCopyOption.ATOMIC_MOVE);
+    // the entries of the staging file and the record are durable once the dir is synced
+    FileUtils.syncDir(mDir.toString());
+    PendingFile file = new PendingFile(id, pendingInfo);
+    mPendingFiles.put(path, file);
+    mExecutor.execute(() -> persist(path, file));
+    return pendingInfo;
+  }
+
+  /**
+   * @param path the full ufs path of the file
+   * @return if the file is written in the write-back mode and not persisted yet
+   */
+  public boolean isPending(String path) {
+    return mPendingFiles.containsKey(path);
+  }
+
+  /**
+   * @param path the full ufs path of the file
+   * @return the status of the file, if it is written in the write-back mode and not persisted yet
+   */
+  public Optional<FileInfo> getPendingFileInfo(String path) {
+    PendingFile file = mPendingFiles.get(path);
+    return file == null ? Optional.empty() : Optional.of(file.mInfo);
+  }
+
+  /**
+   * Opens the staging file of a file not persisted yet, to read the file from it rather than the
+   * UFS, which does not have the file yet.
+   *
+   * @param path the full ufs path of the file
+   * @return a reader of the file, if it is written in the write-back mode and not persisted yet
+   */
+  public Optional<PositionReader> openPendingFile(String path) {
+    PendingFile file = mPendingFiles.get(path);
+    if (file == null) {
+      return Optional.empty();
+    }
+    try {
+      // the open channel keeps reading the file after the staging file is deleted
+      return Optional.of(new StagingFileReader(
+          FileChannel.open(mDir.resolve(file.mId + DATA_SUFFIX), StandardOpenOption.READ),
+          file.mInfo.getLength()));
+    } catch (NoSuchFileException e) {
+      // persisted or deleted since
+      return Optional.empty();
+    } catch (IOException e) {
+      throw AlluxioRuntimeException.from(e);
+    }
+  }
+
+  /**
+   * Drops the file of a path being written or queued to be persisted, for the file is deleted.
+   * If a file of the path is being persisted, this waits until the attempt is over, so that the
+   * caller deletes the file from the UFS after it is persisted rather than before.
+   *
+   * @param path the full ufs path of the file
+   * @return if a file written in the write-back mode was dropped
+   */
+  public boolean cancel(String path) {
+    Path stagingFile = mWritingFiles.remove(path);
+    if (stagingFile != null) {
+      deleteQuietly(stagingFile);
+    }
+    PendingFile file = mPendingFiles.remove(path);
+    if (file != null) {
+      // set before checking the files being persisted, a file persisted after the check sees it
+      file.mDeleted = true;
+    }
+    PendingFile persisting = mPersistingFiles.get(path);
+    if (persisting != null) {
+      try {
+        persisting.mAttempt.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancelledRuntimeException(
+            String.format("Interrupted while waiting for file %s to be persisted", path), e);
+      } catch (ExecutionException e) {
+        throw AlluxioRuntimeException.from(e.getCause());
+      }
+    }
+    if (file != null && persisting != file) {
+      // the thread persisting the file deletes its files when it is done
+      deleteFiles(file);
+    }
+    return stagingFile != null || file != null;
+  }
+
+  /**
+   * @return the time since the oldest file not persisted yet was completed, in milliseconds
+   */
+  @VisibleForTesting
+  long getLagMs() {
+    long oldest = mPendingFiles.values().stream()
+        .mapToLong(file -> file.mInfo.getLastModificationTimeMs())
+        .min()
+        .orElse(System.currentTimeMillis());
+    return Math.max(0, System.currentTimeMillis() - oldest);
+  }
+
+  @Override
+  public void close() throws IOException {
+    // the files not persisted yet are queued again when the worker starts
+    mExecutor.shutdownNow();
+  }
+
+  private void persist(String path, PendingFile file) {
+    if (mPendingFiles.get(path) != file) {
+      // replaced by a later write, or deleted
+      deleteFiles(file);
+      return;
+    }
+    CompletableFuture<Void> attempt = new CompletableFuture<>();
+    file.mAttempt = attempt;
+    if (mPersistingFiles.putIfAbsent(path, file) != null) {
+      attempt.complete(null);
+      // an earlier file of the path is being persisted, and is overwritten once it is
+      mExecutor.schedule(() -> persist(path, file), INITIAL_RETRY_DELAY_MS,
+          TimeUnit.MILLISECONDS);
+      return;
+    }
+    try {
+      if (file.mDeleted) {
+        // deleted before it was registered as being persisted
+        deleteFiles(file);
+        return;
+      }
+      FileInfo info = file.mInfo;
+      CreateOptions options = CreateOptions.defaults(mConf)
+          .setCreateParent(true)
+          .setOwner(info.getOwner())
+          .setGroup(info.getGroup())
+          .setMode(new Mode((short) info.getMode()));
+      try (OutputStream out = mUfs.create(path, options)) {
+        Files.copy(mDir.resolve(file.mId + DATA_SUFFIX), out);
+      }
+      MetricsSystem.counter(MetricKey.WORKER_WRITE_BACK_FILES_PERSISTED.getName()).inc();
+      // a file deleted while it was persisted is deleted from the UFS by the deleting caller,
+      // which waits for this attempt, and a file replaced is overwritten by the later write
+      if (mPendingFiles.remove(path, file)) {
+        mMetaManager.loadFromUfs(path);
+      }
+      deleteFiles(file);
+    } catch (Exception e) {
+      if (mPendingFiles.get(path) != file) {
+        // replaced or deleted while it was persisted
+        deleteFiles(file);
+        return;
+      }
+      MetricsSystem.counter(MetricKey.WORKER_WRITE_BACK_PERSIST_ERRORS.getName()).inc();
+      long delayMs = Math.min(MAX_RETRY_DELAY_MS,
+          INITIAL_RETRY_DELAY_MS << Math.min(file.mAttempts, 16));
+      file.mAttempts++;
+      LOG.warn("Failed to persist file {} to the UFS, retrying in {}ms ({} attempts)",
+          path, delayMs, file.mAttempts, e);
+      if (!mExecutor.isShutdown()) {
+        mExecutor.schedule(() -> persist(path, file), delayMs, TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      mPersistingFiles.remove(path, file);
+      attempt.complete(null);
+    }
+  }
+
+  /**
+   * Queues the files with a record, and deletes the staging files of the files which were not
+   * completed.
+   */
+  private void restore() {
+    if (!Files.isDirectory(mDir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.list(mDir)) {
+      files.forEach(file -> {
+        String name = file.getFileName().toString();
+        if (name.endsWith(RECORD_SUFFIX)) {
+          restoreFile(getId(file));
+        } else if (name.endsWith(TMP_SUFFIX)) {
+          deleteQuietly(file);
+        } else if (name.endsWith(DATA_SUFFIX)
+            && !Files.exists(mDir.resolve(getId(file) + RECORD_SUFFIX))) {
+          deleteQuietly(file);
+        }
+      });
+    } catch (IOException e) {
+      LOG.error("Failed to restore the files to write back from {}", mDir, e);
+    }
+    LOG.info("Restored {} files to write back from {}", mPendingFiles.size(), mDir);
+  }
+
+  private void restoreFile(String id) {
+    PendingFile file;
+    try {
+      FileInfo info = FileInfo.parseFrom(Files.readAllBytes(mDir.resolve(id + RECORD_SUFFIX)));
+      file = new PendingFile(id, info);
+      Path stagingFile = mDir.resolve(id + DATA_SUFFIX);
+      if (!Files.exists(stagingFile) || Files.size(stagingFile) != info.getLength()) {
+        LOG.error("The staging file of file {} is missing or incomplete, "
+            + "the file cannot be persisted", info.getUfsPath());
+        deleteFiles(file);
+        return;
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to restore the file to write back {}", id, e);
+      return;
+    }
+    String path = file.mInfo.getUfsPath();
+    PendingFile previous = mPendingFiles.get(path);
+    if (previous != null) {
+      // keep the later write of the path
+      if (previous.mInfo.getLastModificationTimeMs() > file.mInfo.getLastModificationTimeMs()) {
+        deleteFiles(file);
+        return;
+      }
+      deleteFiles(previous);
+    }
+    mPendingFiles.put(path, file);
+    mExecutor.execute(() -> persist(path, file));
+  }
+
+  private void deleteFiles(PendingFile file) {
+    // the record goes first, a staging file without a record is deleted on restart
+    deleteQuietly(mDir.resolve(file.mId + RECORD_SUFFIX));
+    deleteQuietly(mDir.resolve(file.mId + DATA_SUFFIX));
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.warn("Failed to delete {}", file, e);
+    }
+  }
+
+  private static String getId(Path file) {
+    String name = file.getFileName().toString();
+    return name.substring(0, name.indexOf('.'));
+  }
+
+  /**
+   * Reads a file not persisted yet from its staging file.
+   */
+  private static final class StagingFileReader implements PositionReader {
+    private final FileChannel mChannel;
+    private final long mLength;
+
+    private StagingFileReader(FileChannel channel, long length) {
+      mChannel = channel;
+      mLength = length;
+    }
+
+    @Override
+    public int readInternal(long position, ReadTargetBuffer buffer, int length)
+        throws IOException {
+      if (position >= mLength) {
+        return -1;
+      }
+      return buffer.readFromChannel(mChannel, position,
+          (int) Math.min(mLength - position, length));
+    }
+
+    @Override
+    public void close() throws IOException {
+      mChannel.close();
+    }
+  }
+
+  /**
+   * A file completed and not persisted yet.
+   */
+  private static final class PendingFile {
+    private final String mId;
+    private final FileInfo mInfo;
+    /** The failed attempts to persist the file, only accessed by the thread persisting it. */
+    private int mAttempts;
+    /** The attempt to persist the file in progress, completed when it is over. */
+    private volatile CompletableFuture<Void> mAttempt;
+    /** If the file is deleted, and must not be persisted anymore. */
+    private volatile boolean mDeleted;
+
+    private PendingFile(String id, FileInfo info) {
+      mId = id;
+      mInfo = info;
+    }
+  }
+}
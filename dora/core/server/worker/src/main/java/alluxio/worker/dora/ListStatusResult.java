@@ -11,16 +11,47 @@
 
 package alluxio.worker.dora;
 
+import alluxio.AlluxioURI;
 import alluxio.underfs.UfsStatus;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
 /**
  * The list status results stored in the cache.
+ *
+ * The statuses of a listing are sorted by their keys, the name of a status followed by a
+ * separator if it is a directory, which is the order an object store lists them in. So every
+ * page of a partial listing is in the same order, whether it is served from the cache or listed
+ * from the object store, and a partial listing can start from any name.
+ *
+ * A child is added, replaced or removed in place, without listing the directory again. The
+ * changes are kept aside, and merged into the sorted statuses when they are read or once there
+ * are as many changes as statuses, so that filling a directory one file at a time does not copy
+ * all the statuses for each file. An update keeps the timestamp, as the rest of the listing is
+ * as old as it was.
  */
+@ThreadSafe
 public class ListStatusResult {
-  long mTimeStamp;
-  UfsStatus[] mUfsStatuses;
+  /** Orders the statuses of a listing by their keys. */
+  static final Comparator<UfsStatus> BY_KEY = (a, b) -> compareKeys(
+      a.getName(), a.isDirectory(), b.getName(), b.isDirectory());
+
+  final long mTimeStamp;
+  @Nullable
+  private UfsStatus[] mUfsStatuses;
 
   private final boolean mIsFile;
+  /** The children added or replaced, or removed if null, by their keys. */
+  private final TreeMap<String, UfsStatus> mChanges = new TreeMap<>();
+  /** The number of times the listing was updated in place. */
+  private long mVersion;
 
   /**
    * @return if the list target is a file; if true,
@@ -30,9 +61,212 @@ public class ListStatusResult {
     return mIsFile;
   }
 
-  ListStatusResult(long timeStamp, UfsStatus[] ufsStatuses, boolean isFile) {
+  /**
+   * @param timeStamp the time the listing was taken from the UFS, in nanoseconds
+   * @param ufsStatuses the statuses sorted by {@link #BY_KEY}, or null if the path does not
+   *                    exist
+   * @param isFile if the path is a file
+   */
+  ListStatusResult(long timeStamp, @Nullable UfsStatus[] ufsStatuses, boolean isFile) {
     mTimeStamp = timeStamp;
     mUfsStatuses = ufsStatuses;
     mIsFile = isFile;
   }
+
+  /**
+   * @return the statuses sorted by {@link #BY_KEY}, or null if the path does not exist;
+   *         the array is never modified
+   */
+  @Nullable
+  synchronized UfsStatus[] getUfsStatuses() {
+    mergeChanges();
+    return mUfsStatuses;
+  }
+
+  /**
+   * @return the number of statuses, counting the changes not merged yet as added
+   */
+  synchronized int size() {
+    return mUfsStatuses == null ? 0 : mUfsStatuses.length + mChanges.size();
+  }
+
+  /**
+   * @return the number of times the listing was updated in place
+   */
+  synchronized long getVersion() {
+    return mVersion;
+  }
+
+  /**
+   * @param status the status of a child, named relative to the listed directory
+   * @return this listing with the child added, or replaced if it was listed already,
+   *         or null if the listing is not of a directory and must be dropped instead
+   */
+  @Nullable
+  synchronized ListStatusResult withChild(UfsStatus status) {
+    if (mUfsStatuses == null || mIsFile) {
+      return null;
+    }
+    // a name is listed once, a file replacing a directory of the same name removes it
+    String name = status.getName();
+    mChanges.put(name, status.isDirectory() ? null : status);
+    mChanges.put(name + AlluxioURI.SEPARATOR, status.isDirectory() ? status : null);
+    updated();
+    return this;
+  }
+
+  /**
+   * @param name the name of a child relative to the listed directory
+   * @return this listing without the child, or null if the listing is of a file and must be
+   *         dropped instead
+   */
+  @Nullable
+  synchronized ListStatusResult withoutChild(String name) {
+    if (mIsFile) {
+      return null;
+    }
+    if (mUfsStatuses == null) {
+      return this;
+    }
+    mChanges.put(name, null);
+    mChanges.put(name + AlluxioURI.SEPARATOR, null);
+    updated();
+    return this;
+  }
+
+  private void updated() {
+    mVersion++;
+    if (mChanges.size() > mUfsStatuses.length) {
+      mergeChanges();
+    }
+  }
+
+  private void mergeChanges() {
+    if (mChanges.isEmpty()) {
+      return;
+    }
+    List<UfsStatus> merged = new ArrayList<>(mUfsStatuses.length + mChanges.size());
+    int index = 0;
+    for (Map.Entry<String, UfsStatus> change : mChanges.entrySet()) {
+      while (index < mUfsStatuses.length
+          && compareKey(mUfsStatuses[index], change.getKey()) < 0) {
+        merged.add(mUfsStatuses[index++]);
+      }
+      if (index < mUfsStatuses.length
+          && compareKey(mUfsStatuses[index], change.getKey()) == 0) {
+        index++;
+      }
+      if (change.getValue() != null) {
+        merged.add(change.getValue());
+      }
+    }
+    merged.addAll(Arrays.asList(mUfsStatuses).subList(index, mUfsStatuses.length));
+    mUfsStatuses = merged.toArray(new UfsStatus[0]);
+    mChanges.clear();
+  }
+
+  /**
+   * Sorts the statuses of a listing by their keys.
+   *
+   * @param statuses the statuses
+   * @return the same array, sorted
+   */
+  static UfsStatus[] sortByKey(UfsStatus[] statuses) {
+    Arrays.sort(statuses, BY_KEY);
+    return statuses;
+  }
+
+  /**
+   * @param status a status
+   * @return the key of the status, its name followed by a separator if it is a directory
+   */
+  static String getKey(UfsStatus status) {
+    return status.isDirectory() ? status.getName() + AlluxioURI.SEPARATOR : status.getName();
+  }
+
+  /**
+   * @param status a status
+   * @param key a key
+   * @return how the key of the status compares to the given key
+   */
+  static int compareKey(UfsStatus status, String key) {
+    return compareKeys(status.getName(), status.isDirectory(), key, false);
+  }
+
+  /**
+   * @param status a status
+   * @param prefix a prefix
+   * @return if the key of the status starts with the prefix
+   */
+  static boolean keyStartsWith(UfsStatus status, String prefix) {
+    String name = status.getName();
+    return name.startsWith(prefix) || (status.isDirectory()
+        && prefix.length() == name.length() + 1 && prefix.startsWith(name)
+        && prefix.charAt(name.length()) == AlluxioURI.SEPARATOR.charAt(0));
+  }
+
+  /**
+   * @param sorted the statuses sorted by key
+   * @param key a key
+   * @param inclusive if a status of the key itself is included
+   * @return the index of the first status with a key greater than, or equal to if inclusive,
+   *         the given key, or the length of the array if there is none
+   */
+  static int indexFrom(UfsStatus[] sorted, String key, boolean inclusive) {
+    int index = indexOf(sorted, key);
+    if (index < 0) {
+      return -index - 1;
+    }
+    return inclusive ? index : index + 1;
+  }
+
+  /**
+   * @param sorted the statuses sorted by key
+   * @param name the name of a file or a directory
+   * @return the index of the first status after the file or directory of the name
+   */
+  static int indexAfter(UfsStatus[] sorted, String name) {
+    int index = indexOf(sorted, name);
+    if (index >= 0) {
+      return index + 1;
+    }
+    int dirIndex = indexOf(sorted, name + AlluxioURI.SEPARATOR);
+    return dirIndex >= 0 ? dirIndex + 1 : -index - 1;
+  }
+
+  /**
+   * Searches the statuses for a key, like {@link Arrays#binarySearch(Object[], Object)}.
+   */
+  private static int indexOf(UfsStatus[] sorted, String key) {
+    int low = 0;
+    int high = sorted.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = compareKey(sorted[mid], key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Compares the keys of two names without building them.
+   */
+  private static int compareKeys(String a, boolean aIsDirectory, String b, boolean bIsDirectory) {
+    int aLength = a.length() + (aIsDirectory ? 1 : 0);
+    int bLength = b.length() + (bIsDirectory ? 1 : 0);
+    for (int i = 0; i < Math.min(aLength, bLength); i++) {
+      char aChar = i < a.length() ? a.charAt(i) : AlluxioURI.SEPARATOR.charAt(0);
+      char bChar = i < b.length() ? b.charAt(i) : AlluxioURI.SEPARATOR.charAt(0);
+      if (aChar != bChar) {
+        return aChar - bChar;
+      }
+    }
+    return aLength - bLength;
+  }
 }
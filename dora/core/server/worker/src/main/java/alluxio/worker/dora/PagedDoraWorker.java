@@ -16,11 +16,13 @@ import static alluxio.client.file.cache.CacheUsage.PartitionDescriptor.file;
 import alluxio.AlluxioURI;
 import alluxio.Constants;
 import alluxio.DefaultStorageTierAssoc;
+import alluxio.PositionReader;
 import alluxio.Server;
 import alluxio.StorageTierAssoc;
 import alluxio.client.file.FileSystem;
 import alluxio.client.file.FileSystemContext;
 import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheQuotaAdvisor;
 import alluxio.client.file.cache.CacheUsage;
 import alluxio.client.file.options.UfsFileSystemOptions;
 import alluxio.client.file.ufs.UfsBaseFileSystem;
@@ -42,6 +44,8 @@ import alluxio.grpc.GetStatusPOptions;
 import alluxio.grpc.GrpcService;
 import alluxio.grpc.GrpcUtils;
 import alluxio.grpc.ListStatusPOptions;
+import alluxio.grpc.ListStatusPartialPOptions;
+import alluxio.grpc.ListStatusPartialPResponse;
 import alluxio.grpc.LoadFileFailure;
 import alluxio.grpc.RenamePOptions;
 import alluxio.grpc.Route;
@@ -51,13 +55,14 @@ import alluxio.grpc.ServiceType;
 import alluxio.grpc.SetAttributePOptions;
 import alluxio.grpc.UfsReadOptions;
 import alluxio.grpc.WriteOptions;
+import alluxio.grpc.WritePType;
 import alluxio.heartbeat.FixedIntervalSupplier;
 import alluxio.heartbeat.HeartbeatContext;
 import alluxio.heartbeat.HeartbeatExecutor;
 import alluxio.heartbeat.HeartbeatThread;
-import alluxio.network.protocol.databuffer.PooledDirectNioByteBuf;
 import alluxio.proto.dataserver.Protocol;
 import alluxio.proto.meta.DoraMeta;
+import alluxio.resource.CloseableResource;
 import alluxio.resource.PooledResource;
 import alluxio.retry.RetryPolicy;
 import alluxio.retry.RetryUtils;
@@ -71,9 +76,11 @@ import alluxio.underfs.UfsStatus;
 import alluxio.underfs.UnderFileSystem;
 import alluxio.underfs.UnderFileSystemConfiguration;
 import alluxio.underfs.options.CreateOptions;
+import alluxio.underfs.options.ListOptions;
 import alluxio.util.CommonUtils;
 import alluxio.util.ModeUtils;
 import alluxio.util.executor.ExecutorServiceFactories;
+import alluxio.util.io.PathUtils;
 import alluxio.wire.FileInfo;
 import alluxio.wire.WorkerNetAddress;
 import alluxio.worker.AbstractWorker;
@@ -84,6 +91,7 @@ import alluxio.worker.block.io.BlockWriter;
 import alluxio.worker.grpc.GrpcExecutors;
 import alluxio.worker.task.CopyHandler;
 import alluxio.worker.task.DeleteHandler;
+import alluxio.worker.task.JobBandwidthLimiter;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -93,18 +101,22 @@ import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.Inject;
-import io.netty.buffer.ByteBuf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
 import javax.inject.Named;
@@ -122,6 +134,7 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
   private final CacheManager mCacheManager;
   private final DoraUfsManager mUfsManager;
   private final DoraMetaManager mMetaManager;
+  private final DoraWriteBackManager mWriteBackManager;
   private final UfsInputStreamCache mUfsStreamCache;
   private final long mPageSize;
   private final AlluxioConfiguration mConf;
@@ -135,6 +148,9 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
 
   private final DoraOpenFileHandleContainer mOpenFileHandleContainer;
 
+  private final JobBandwidthLimiter mJobBandwidthLimiter;
+  private final PagedFileLoader mFileLoader;
+
   /**
    * Constructor.
    *
@@ -163,7 +179,18 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     mCacheManager = cacheManager;
     mMetaManager = mResourceCloser.register(
         new DoraMetaManager(this, mCacheManager, mUfs));
+    mWriteBackManager = mResourceCloser.register(
+        new DoraWriteBackManager(mUfs, mMetaManager, mConf));
     mOpenFileHandleContainer = new DoraOpenFileHandleContainer();
+    mJobBandwidthLimiter = new JobBandwidthLimiter(mConf.isSet(PropertyKey.WORKER_JOB_BANDWIDTH)
+        ? mConf.getBytes(PropertyKey.WORKER_JOB_BANDWIDTH) : 0);
+    ExecutorService loadExecutor = ExecutorServiceFactories.fixedThreadPool(
+        "dora-load-executor", mConf.getInt(PropertyKey.WORKER_LOAD_CONCURRENCY)).create();
+    mResourceCloser.register(loadExecutor::shutdownNow);
+    mFileLoader = new PagedFileLoader(mCacheManager, loadExecutor, mPageSize,
+        mConf.getBytes(PropertyKey.WORKER_LOAD_RANGE_SIZE),
+        mConf.getInt(PropertyKey.WORKER_LOAD_FILE_CONCURRENCY),
+        mConf.getBytes(PropertyKey.WORKER_LOAD_BUFFER_SIZE));
   }
 
   @Override
@@ -251,6 +278,13 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     return mWorkerId;
   }
 
+  /**
+   * @return the advisor recommending quotas of the cache, none if the shadow cache is disabled
+   */
+  public Optional<CacheQuotaAdvisor> getCacheQuotaAdvisor() {
+    return mCacheManager.getQuotaAdvisor();
+  }
+
   @Override
   @Nullable
   public UfsStatus[] listStatus(String path, ListStatusPOptions options)
@@ -267,14 +301,136 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
         && (syncIntervalMs < 0
         || System.nanoTime() - resultFromCache.get().mTimeStamp
         <= syncIntervalMs * Constants.MS_NANO)) {
-      return resultFromCache.get().mUfsStatuses;
+      return resultFromCache.get().getUfsStatuses();
     }
-    mMetaManager.invalidateListingCache(path);
     Optional<UfsStatus[]> ufsStatuses =
         mMetaManager.listFromUfsThenCache(path, isRecursive);
     return ufsStatuses.orElse(null);
   }
 
+  @Override
+  @Nullable
+  public ListStatusPartialPResponse listStatusPartial(String path,
+      ListStatusPartialPOptions options) throws IOException, AccessControlException {
+    // A page after the first one of a listing which is not cached, likely as the directory is
+    // too large to cache, is listed from where it starts rather than listing the directory again
+    if (options.hasStartAfter() && options.getBatchSize() > 0 && mUfs.isObjectStorage()
+        && mMetaManager.listCached(path, options.getOptions().getRecursive()).isEmpty()) {
+      try {
+        ListStatusPartialPResponse response = listStatusPartialFromUfs(path, options);
+        if (response != null) {
+          return response;
+        }
+      } catch (UnsupportedOperationException e) {
+        LOG.debug("The UFS of {} cannot list from a given key", path, e);
+      }
+    }
+    UfsStatus[] statuses = listStatus(path, options.getOptions());
+    if (statuses == null) {
+      return null;
+    }
+    // the statuses are sorted by key, so that the start of the page is found by a search
+    String prefix = options.hasPrefix() ? getRelativeName(path, options.getPrefix()) : "";
+    int start = ListStatusResult.indexFrom(statuses, prefix, true);
+    if (options.hasStartAfter()) {
+      start = Math.max(start, ListStatusResult.indexAfter(
+          statuses, getRelativeName(path, options.getStartAfter())));
+    } else if (options.hasOffsetCount()) {
+      start = (int) Math.min(statuses.length, (long) start + options.getOffsetCount());
+    }
+    int end = options.getBatchSize() > 0
+        ? (int) Math.min(statuses.length, (long) start + options.getBatchSize())
+        : statuses.length;
+    ListStatusPartialPResponse.Builder builder = ListStatusPartialPResponse.newBuilder()
+        .setFileCount(options.getOptions().getRecursive() ? -1 : statuses.length);
+    int index = start;
+    for (; index < end && ListStatusResult.keyStartsWith(statuses[index], prefix); index++) {
+      UfsStatus status = statuses[index];
+      builder.addFileInfos(buildFileInfoFromUfsStatus(status,
+          PathUtils.concatPath(path, status.getName())));
+    }
+    return builder.setIsTruncated(index < statuses.length
+        && ListStatusResult.keyStartsWith(statuses[index], prefix)).build();
+  }
+
+  /**
+   * Lists a page of a directory of an object store from the key it starts after. The page is
+   * in the order of {@link ListStatusResult#BY_KEY}, as the pages served from the cache.
+   *
+   * @return the page, or null if the path is not a directory
+   */
+  @Nullable
+  private ListStatusPartialPResponse listStatusPartialFromUfs(String path,
+      ListStatusPartialPOptions options) throws IOException {
+    String prefix = options.hasPrefix() ? getRelativeName(path, options.getPrefix()) : "";
+    String startAfter = getRelativeName(path, options.getStartAfter());
+    String startAfterKey = CommonUtils.stripPrefixIfPresent(PathUtils.concatPath(
+        new AlluxioURI(path).getPath(), startAfter), AlluxioURI.SEPARATOR);
+    // the key of a directory ends with a separator, and is after the keys of its siblings
+    // whose names start with its name, like "a-b" before "a/"
+    if (mUfs.isDirectory(PathUtils.concatPath(path, startAfter))) {
+      startAfter += AlluxioURI.SEPARATOR;
+      startAfterKey += AlluxioURI.SEPARATOR;
+    }
+    int batchSize = options.getBatchSize();
+    Iterator<UfsStatus> statuses = mUfs.listStatusIterable(path, ListOptions.defaults()
+        .setRecursive(options.getOptions().getRecursive()), startAfterKey, batchSize + 1);
+    if (statuses == null) {
+      return null;
+    }
+    // The object store lists the statuses by key, but each chunk of them is sorted by name, so
+    // a directory may be listed after statuses of greater keys. Any status listed later has a
+    // key greater than the greatest name listed so far, so the statuses are listed until there
+    // are more than a page of them with keys up to that name.
+    TreeMap<String, UfsStatus> listed = new TreeMap<>();
+    String greatestName = "";
+    boolean listedAll = true;
+    while (statuses.hasNext()) {
+      UfsStatus status = statuses.next();
+      String name = status.getName();
+      if (!ListStatusResult.keyStartsWith(status, prefix)) {
+        if (name.compareTo(prefix) > 0) {
+          break;
+        }
+        continue;
+      }
+      // the directory a page ends with may be listed again, as the prefix of its children
+      if (ListStatusResult.compareKey(status, startAfter) <= 0) {
+        continue;
+      }
+      listed.put(ListStatusResult.getKey(status), status);
+      if (name.compareTo(greatestName) > 0) {
+        greatestName = name;
+      }
+      if (listed.size() > batchSize && listed.headMap(greatestName, true).size() > batchSize) {
+        listedAll = false;
+        break;
+      }
+    }
+    ListStatusPartialPResponse.Builder builder =
+        ListStatusPartialPResponse.newBuilder().setFileCount(-1);
+    for (UfsStatus status : listed.values()) {
+      if (builder.getFileInfosCount() == batchSize) {
+        break;
+      }
+      builder.addFileInfos(buildFileInfoFromUfsStatus(status,
+          PathUtils.concatPath(path, status.getName())));
+    }
+    return builder.setIsTruncated(!listedAll || listed.size() > batchSize).build();
+  }
+
+  /**
+   * @param path the listed path
+   * @param name a full path under the listed path, or a path relative to it
+   * @return the path relative to the listed path
+   */
+  private static String getRelativeName(String path, String name) {
+    if (name.startsWith(path)) {
+      name = name.substring(path.length());
+    }
+    return CommonUtils.stripPrefixIfPresent(name, AlluxioURI.SEPARATOR);
+  }
+
   @Override
   public FileInfo getFileInfo(String ufsFullPath, GetStatusPOptions options)
       throws IOException, AccessControlException {
@@ -292,6 +448,12 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
 
   protected alluxio.grpc.FileInfo getGrpcFileInfo(String ufsFullPath, long syncIntervalMs)
       throws IOException {
+    // a file written back is not in the UFS until it is persisted
+    Optional<alluxio.grpc.FileInfo> pendingInfo =
+        mWriteBackManager.getPendingFileInfo(ufsFullPath);
+    if (pendingInfo.isPresent()) {
+      return pendingInfo.get();
+    }
     Optional<DoraMeta.FileStatus> status = mMetaManager.getFromMetaStore(ufsFullPath);
     boolean shouldLoad = status.isEmpty();
     if (syncIntervalMs >= 0 && status.isPresent()) {
@@ -399,27 +561,34 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
   @Override
   public BlockReader createFileReader(String fileId, long offset, boolean positionShort,
       Protocol.OpenUfsBlockOptions options) throws IOException, AccessControlException {
-    UfsManager.UfsClient ufsClient;
+    return PagedFileReader.create(mConf, mCacheManager, getUfsClient(options.getUfsPath()),
+        fileId, options.getUfsPath(), options.getBlockSize(), offset, mWriteBackManager);
+  }
+
+  private UfsManager.UfsClient getUfsClient(String ufsPath) throws IOException {
     try {
-      ufsClient = mUfsManager.get(MOUNT_POINT);
+      return mUfsManager.get(MOUNT_POINT);
     } catch (NotFoundException e) {
-      mUfsManager.addMount(MOUNT_POINT, new AlluxioURI(options.getUfsPath()),
+      mUfsManager.addMount(MOUNT_POINT, new AlluxioURI(ufsPath),
           UnderFileSystemConfiguration.defaults(mConf));
       try {
-        ufsClient = mUfsManager.get(MOUNT_POINT);
+        return mUfsManager.get(MOUNT_POINT);
       } catch (NotFoundException e2) {
         throw new RuntimeException(
-            String.format("Failed to get mount point for %s", options.getUfsPath()), e2);
+            String.format("Failed to get mount point for %s", ufsPath), e2);
       }
     }
-    return PagedFileReader.create(mConf, mCacheManager, ufsClient, fileId,
-        options.getUfsPath(), options.getBlockSize(), offset);
   }
 
   @Override
   public BlockWriter createFileWriter(String fileId, String ufsPath)
       throws AccessControlException, IOException {
-    return new PagedFileWriter(mCacheManager, fileId, mPageSize);
+    boolean copyPages = mConf.getBoolean(PropertyKey.WORKER_PAGE_STORE_ASYNC_WRITE_ENABLED);
+    Path stagingFile = mWriteBackManager.getStagingFile(ufsPath);
+    if (stagingFile != null) {
+      return new WriteBackFileWriter(mCacheManager, fileId, mPageSize, copyPages, stagingFile);
+    }
+    return new PagedFileWriter(mCacheManager, fileId, mPageSize, copyPages);
   }
 
   @Override
@@ -428,62 +597,79 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
       throws AccessControlException, IOException {
     List<ListenableFuture<Void>> futures = new ArrayList<>();
     List<LoadFileFailure> errors = Collections.synchronizedList(new ArrayList<>());
-    for (UfsStatus status : ufsStatuses) {
-      String ufsFullPath = status.getUfsFullPath().toString();
-      DoraMeta.FileStatus fs = buildFileStatusFromUfsStatus(status, ufsFullPath);
-      mMetaManager.put(ufsFullPath, fs);
-      // We use the ufs status sent from master to construct the file metadata,
-      // and that ufs status might be stale.
-      // This is a known consistency issue and will remain as long as the get metadata and
-      // load data operations are not atomic.
-      // Ideally, we can either:
-      // 1. Use a single API to load the file alongside with fetching the file metadata
-      // 2. Getting a last updated timestamp when loading data of a file and use it to
-      //  validate the freshness of the metadata and discard the metadata if it is stale.
-      // These two need UFS api support and cannot be achieved in a generic UFS interface.
-      // We may be able to solve this by providing specific implementations for certain UFSes
-      // in the future.
-      if (loadData && status.isFile() && (status.asUfsFileStatus().getContentLength() > 0)) {
-        ListenableFuture<Void> loadFuture = Futures.submit(() -> {
-          try {
-            if (options.hasUser()) {
-              AuthenticatedClientUser.set(options.getUser());
+    JobBandwidthLimiter.Throttle throttle = registerJobTask(options);
+    try {
+      for (UfsStatus status : ufsStatuses) {
+        String ufsFullPath = status.getUfsFullPath().toString();
+        DoraMeta.FileStatus fs = buildFileStatusFromUfsStatus(status, ufsFullPath);
+        mMetaManager.put(ufsFullPath, fs);
+        // We use the ufs status sent from master to construct the file metadata,
+        // and that ufs status might be stale.
+        // This is a known consistency issue and will remain as long as the get metadata and
+        // load data operations are not atomic.
+        // Ideally, we can either:
+        // 1. Use a single API to load the file alongside with fetching the file metadata
+        // 2. Getting a last updated timestamp when loading data of a file and use it to
+        //  validate the freshness of the metadata and discard the metadata if it is stale.
+        // These two need UFS api support and cannot be achieved in a generic UFS interface.
+        // We may be able to solve this by providing specific implementations for certain UFSes
+        // in the future.
+        if (loadData && status.isFile() && (status.asUfsFileStatus().getContentLength() > 0)) {
+          ListenableFuture<Void> loadFuture = Futures.submit(() -> {
+            try {
+              if (options.hasUser()) {
+                AuthenticatedClientUser.set(options.getUser());
+              }
+              loadData(status.getUfsFullPath().toString(), 0,
+                  status.asUfsFileStatus().getContentLength(), throttle);
+            } catch (Throwable e) {
+              LOG.error("Loading {} failed", status, e);
+              boolean permissionCheckSucceeded = !(e instanceof AccessControlException);
+              AlluxioRuntimeException t = AlluxioRuntimeException.from(e);
+              errors.add(LoadFileFailure.newBuilder().setUfsStatus(status.toProto())
+                  .setCode(t.getStatus().getCode().value())
+                  .setRetryable(t.isRetryable() && permissionCheckSucceeded)
+                  .setMessage(t.getMessage()).build());
             }
-            loadData(status.getUfsFullPath().toString(), 0,
-                status.asUfsFileStatus().getContentLength());
-          } catch (Throwable e) {
-            LOG.error("Loading {} failed", status, e);
-            boolean permissionCheckSucceeded = !(e instanceof AccessControlException);
-            AlluxioRuntimeException t = AlluxioRuntimeException.from(e);
-            errors.add(LoadFileFailure.newBuilder().setUfsStatus(status.toProto())
-                .setCode(t.getStatus().getCode().value())
-                .setRetryable(t.isRetryable() && permissionCheckSucceeded)
-                .setMessage(t.getMessage()).build());
-          }
-        }, GrpcExecutors.BLOCK_READER_EXECUTOR);
-        futures.add(loadFuture);
+          }, GrpcExecutors.BLOCK_READER_EXECUTOR);
+          futures.add(loadFuture);
+        }
       }
+    } catch (RuntimeException e) {
+      throttle.close();
+      throw e;
     }
-    return Futures.whenAllComplete(futures).call(() -> errors, GrpcExecutors.BLOCK_READER_EXECUTOR);
+    return Futures.whenAllComplete(futures).call(() -> {
+      throttle.close();
+      return errors;
+    }, GrpcExecutors.BLOCK_READER_EXECUTOR);
+  }
+
+  /**
+   * Registers a task of a load, copy or move job with the bandwidth limiter.
+   *
+   * @param options the read options of the task, tagged with the id of its job
+   * @return the throttle of the task, to close when the task is done
+   */
+  private JobBandwidthLimiter.Throttle registerJobTask(@Nullable UfsReadOptions options) {
+    if (options == null) {
+      return JobBandwidthLimiter.UNLIMITED;
+    }
+    return mJobBandwidthLimiter.register(options.getTag(), options.hasBandwidth()
+        ? OptionalLong.of(options.getBandwidth()) : OptionalLong.empty());
   }
 
   protected void loadData(String ufsPath, long mountId, long length)
       throws AccessControlException, IOException {
-    Protocol.OpenUfsBlockOptions options =
-        Protocol.OpenUfsBlockOptions.newBuilder().setUfsPath(ufsPath).setMountId(mountId)
-            .setNoCache(false).setOffsetInFile(0).setBlockSize(length)
-            .build();
+    loadData(ufsPath, mountId, length, JobBandwidthLimiter.UNLIMITED);
+  }
+
+  protected void loadData(String ufsPath, long mountId, long length,
+      JobBandwidthLimiter.Throttle throttle) throws AccessControlException, IOException {
     String fileId = new AlluxioURI(ufsPath).hash();
-    ByteBuf buf = PooledDirectNioByteBuf.allocate((int) (4 * mPageSize));
-    try (BlockReader fileReader = createFileReader(fileId, 0, false, options)) {
-      // cache file data
-      while (fileReader.transferTo(buf) != -1) {
-        buf.clear();
-      }
-    } catch (IOException | AccessControlException e) {
-      throw AlluxioRuntimeException.from(e);
-    } finally {
-      buf.release();
+    try (CloseableResource<UnderFileSystem> ufs = getUfsClient(ufsPath).acquireUfsResource();
+         PositionReader reader = ufs.get().openPositionRead(ufsPath, length)) {
+      mFileLoader.load(fileId, reader, length, throttle);
     }
   }
 
@@ -492,45 +678,54 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
                                                    WriteOptions writeOptions) {
     List<ListenableFuture<Void>> futures = new ArrayList<>();
     List<RouteFailure> errors = Collections.synchronizedList(new ArrayList<>());
+    JobBandwidthLimiter.Throttle throttle = registerJobTask(readOptions);
 
-    for (Route route : routes) {
-      UnderFileSystem srcUfs = mUfsManager.getOrAdd(new AlluxioURI(route.getSrc()),
-          UnderFileSystemConfiguration.defaults(mConf));
-      UnderFileSystem dstUfs = mUfsManager.getOrAdd(new AlluxioURI(route.getDst()),
-          UnderFileSystemConfiguration.defaults(mConf));
-      String srcRoot = new AlluxioURI(route.getSrc()).getRootPath();
-      String dstRoot = new AlluxioURI(route.getDst()).getRootPath();
-
-      try (FileSystem srcFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(srcRoot),
-          new UfsManager.UfsClient(() -> srcUfs, new AlluxioURI(srcRoot)));
-          FileSystem dstFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(dstRoot),
-              new UfsManager.UfsClient(() -> dstUfs, new AlluxioURI(dstRoot)))) {
-        ListenableFuture<Void> future = Futures.submit(() -> {
-          try {
-            if (readOptions.hasUser()) {
-              AuthenticatedClientUser.set(readOptions.getUser());
-            }
-            checkCopyPermission(route.getSrc(), route.getDst());
-            CopyHandler.copy(route, writeOptions, srcFs, dstFs);
-          } catch (Throwable t) {
-            boolean permissionCheckSucceeded = !(t instanceof AccessControlException);
-            LOG.error("Failed to copy {} to {}", route.getSrc(), route.getDst(), t);
-            AlluxioRuntimeException e = AlluxioRuntimeException.from(t);
-            RouteFailure.Builder builder =
-                RouteFailure.newBuilder().setRoute(route).setCode(e.getStatus().getCode().value())
-                    .setRetryable(e.isRetryable() && permissionCheckSucceeded);
-            if (e.getMessage() != null) {
-              builder.setMessage(e.getMessage());
+    try {
+      for (Route route : routes) {
+        UnderFileSystem srcUfs = mUfsManager.getOrAdd(new AlluxioURI(route.getSrc()),
+            UnderFileSystemConfiguration.defaults(mConf));
+        UnderFileSystem dstUfs = mUfsManager.getOrAdd(new AlluxioURI(route.getDst()),
+            UnderFileSystemConfiguration.defaults(mConf));
+        String srcRoot = new AlluxioURI(route.getSrc()).getRootPath();
+        String dstRoot = new AlluxioURI(route.getDst()).getRootPath();
+
+        try (FileSystem srcFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(srcRoot),
+            new UfsManager.UfsClient(() -> srcUfs, new AlluxioURI(srcRoot)));
+            FileSystem dstFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(dstRoot),
+                new UfsManager.UfsClient(() -> dstUfs, new AlluxioURI(dstRoot)))) {
+          ListenableFuture<Void> future = Futures.submit(() -> {
+            try {
+              if (readOptions.hasUser()) {
+                AuthenticatedClientUser.set(readOptions.getUser());
+              }
+              checkCopyPermission(route.getSrc(), route.getDst());
+              CopyHandler.copy(route, writeOptions, srcFs, dstFs, throttle);
+            } catch (Throwable t) {
+              boolean permissionCheckSucceeded = !(t instanceof AccessControlException);
+              LOG.error("Failed to copy {} to {}", route.getSrc(), route.getDst(), t);
+              AlluxioRuntimeException e = AlluxioRuntimeException.from(t);
+              RouteFailure.Builder builder =
+                  RouteFailure.newBuilder().setRoute(route).setCode(e.getStatus().getCode().value())
+                      .setRetryable(e.isRetryable() && permissionCheckSucceeded);
+              if (e.getMessage() != null) {
+                builder.setMessage(e.getMessage());
+              }
+              errors.add(builder.build());
             }
-            errors.add(builder.build());
-          }
-        }, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
-        futures.add(future);
-      } catch (IOException e) {
-        // ignore close error
+          }, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
+          futures.add(future);
+        } catch (IOException e) {
+          // ignore close error
+        }
       }
+    } catch (RuntimeException e) {
+      throttle.close();
+      throw e;
     }
-    return Futures.whenAllComplete(futures).call(() -> errors, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
+    return Futures.whenAllComplete(futures).call(() -> {
+      throttle.close();
+      return errors;
+    }, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
   }
 
   protected UnderFileSystem getUnderFileSystem(String ufsPath) {
@@ -543,51 +738,60 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
                                                    WriteOptions writeOptions) {
     List<ListenableFuture<Void>> futures = new ArrayList<>();
     List<RouteFailure> errors = Collections.synchronizedList(new ArrayList<>());
-    for (Route route : routes) {
-      UnderFileSystem srcUfs = getUnderFileSystem(route.getSrc());
-      UnderFileSystem dstUfs = getUnderFileSystem(route.getDst());
-      String srcRoot = new AlluxioURI(route.getSrc()).getRootPath();
-      String dstRoot = new AlluxioURI(route.getDst()).getRootPath();
-      try (FileSystem srcFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(srcRoot),
-          new UfsManager.UfsClient(() -> srcUfs, new AlluxioURI(srcRoot)));
-           FileSystem dstFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(dstRoot),
-               new UfsManager.UfsClient(() -> dstUfs, new AlluxioURI(dstRoot)))) {
-        ListenableFuture<Void> future = Futures.submit(() -> {
-          Boolean deleteFailure = false;
-          try {
-            if (readOptions.hasUser()) {
-              AuthenticatedClientUser.set(readOptions.getUser());
-            }
-            checkMovePermission(route.getSrc(), route.getDst());
-            CopyHandler.copy(route, writeOptions, srcFs, dstFs);
+    JobBandwidthLimiter.Throttle throttle = registerJobTask(readOptions);
+    try {
+      for (Route route : routes) {
+        UnderFileSystem srcUfs = getUnderFileSystem(route.getSrc());
+        UnderFileSystem dstUfs = getUnderFileSystem(route.getDst());
+        String srcRoot = new AlluxioURI(route.getSrc()).getRootPath();
+        String dstRoot = new AlluxioURI(route.getDst()).getRootPath();
+        try (FileSystem srcFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(srcRoot),
+            new UfsManager.UfsClient(() -> srcUfs, new AlluxioURI(srcRoot)));
+             FileSystem dstFs = new UfsBaseFileSystem(mFsContext, new UfsFileSystemOptions(dstRoot),
+                 new UfsManager.UfsClient(() -> dstUfs, new AlluxioURI(dstRoot)))) {
+          ListenableFuture<Void> future = Futures.submit(() -> {
+            Boolean deleteFailure = false;
             try {
-              DeleteHandler.delete(new AlluxioURI(route.getSrc()), srcFs);
-            } catch (Exception e) {
-              deleteFailure = true;
-              throw e;
+              if (readOptions.hasUser()) {
+                AuthenticatedClientUser.set(readOptions.getUser());
+              }
+              checkMovePermission(route.getSrc(), route.getDst());
+              CopyHandler.copy(route, writeOptions, srcFs, dstFs, throttle);
+              try {
+                DeleteHandler.delete(new AlluxioURI(route.getSrc()), srcFs);
+              } catch (Exception e) {
+                deleteFailure = true;
+                throw e;
+              }
+            } catch (Throwable t) {
+              LOG.error("Failed to move {} to {}", route.getSrc(), route.getDst(), t);
+              boolean permissionCheckSucceeded = !(t instanceof AccessControlException);
+              AlluxioRuntimeException e = AlluxioRuntimeException.from(t);
+              RouteFailure.Builder builder =
+                  RouteFailure.newBuilder().setRoute(route).setCode(e.getStatus().getCode().value())
+                      .setRetryable(e.isRetryable() && permissionCheckSucceeded);
+              if (e.getMessage() != null) {
+                builder.setMessage(e.getMessage());
+              }
+              if (deleteFailure) {
+                builder.setRetryable(false);
+              }
+              errors.add(builder.build());
             }
-          } catch (Throwable t) {
-            LOG.error("Failed to move {} to {}", route.getSrc(), route.getDst(), t);
-            boolean permissionCheckSucceeded = !(t instanceof AccessControlException);
-            AlluxioRuntimeException e = AlluxioRuntimeException.from(t);
-            RouteFailure.Builder builder =
-                RouteFailure.newBuilder().setRoute(route).setCode(e.getStatus().getCode().value())
-                    .setRetryable(e.isRetryable() && permissionCheckSucceeded);
-            if (e.getMessage() != null) {
-              builder.setMessage(e.getMessage());
-            }
-            if (deleteFailure) {
-              builder.setRetryable(false);
-            }
-            errors.add(builder.build());
-          }
-        }, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
-        futures.add(future);
-      } catch (IOException e) {
-        // ignore close error
+          }, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
+          futures.add(future);
+        } catch (IOException e) {
+          // ignore close error
+        }
       }
+    } catch (RuntimeException e) {
+      throttle.close();
+      throw e;
     }
-    return Futures.whenAllComplete(futures).call(() -> errors, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
+    return Futures.whenAllComplete(futures).call(() -> {
+      throttle.close();
+      return errors;
+    }, GrpcExecutors.BLOCK_WRITER_EXECUTOR);
   }
 
   @Override
@@ -617,14 +821,20 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     try {
       // Check if the target file already exists. If yes, return by throwing error.
       boolean overWrite = options.hasOverwrite() ? options.getOverwrite() : false;
-      boolean exists = mUfs.exists(path);
+      boolean writeBack = options.getWriteType() == WritePType.ASYNC_THROUGH;
+      boolean exists = mWriteBackManager.isPending(path) || mUfs.exists(path);
       if (!overWrite && exists) {
         throw new RuntimeException(
             new FileAlreadyExistsException("File already exists but no overwrite flag"));
-      } else if (overWrite) {
+      } else if (overWrite || writeBack) {
         // client is going to overwrite this file. We need to invalidate the cached meta and data.
+        // A file written back is loaded into the metastore once it is persisted.
         mMetaManager.removeFromMetaStore(path);
       }
+      if (writeBack) {
+        // the client writes only to this worker, which persists the file to the UFS
+        mWriteBackManager.startFile(path);
+      }
 
       // Open UFS OutputStream and use it in write operation.
       // We are writing UFS from client. No need of this outStream at this moment.
@@ -660,8 +870,12 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     if (handle != null) {
       mOpenFileHandleContainer.remove(path);
       handle.close();
+      if (mWriteBackManager.getStagingFile(path) != null) {
+        // the file is queued to be persisted, and loaded from the UFS once it is persisted
+        mWriteBackManager.completeFile(path, handle.getInfo(), options.getUfsLength());
+        return;
+      }
       Optional<DoraMeta.FileStatus> status = mMetaManager.loadFromUfs(path);
-      mMetaManager.invalidateListingCacheOfParent(path);
       if (status.isEmpty()) {
         throw new FileNotFoundException("Cannot retrieve file metadata of "
             + path + " when completing the file");
@@ -677,6 +891,10 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
 
       // TODO(hua) Close the open file handle?
       if (!options.getAlluxioOnly()) {
+        if (mWriteBackManager.cancel(path) && !mUfs.exists(path)) {
+          // the file was written back and not persisted yet
+          return;
+        }
         UfsStatus status = mUfs.getStatus(path);
         if (status.isFile()) {
           mUfs.deleteFile(path);
@@ -701,7 +919,6 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
       }
       mMetaManager.removeFromMetaStore(src);
       mMetaManager.loadFromUfs(dst);
-      mMetaManager.invalidateListingCacheOfParent(dst);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -713,7 +930,6 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
     try {
       boolean success = mUfs.mkdirs(path);
       mMetaManager.loadFromUfs(path);
-      mMetaManager.invalidateListingCacheOfParent(path);
       if (!success) {
         throw new RuntimeException(
             new FileAlreadyExistsException(String.format("%s already exists", path)));
@@ -761,7 +977,6 @@ public class PagedDoraWorker extends AbstractWorker implements DoraWorker {
       mUfs.setOwner(path, null, options.getGroup());
     }
     mMetaManager.loadFromUfs(path);
-    mMetaManager.invalidateListingCacheOfParent(path);
   }
 
   @Override
@@ -0,0 +1,199 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.PositionReader;
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.PageId;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.exception.runtime.FailedPreconditionRuntimeException;
+import alluxio.exception.runtime.InternalRuntimeException;
+import alluxio.worker.task.JobBandwidthLimiter;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Loads files from the UFS into the cache.
+ *
+ * A file is split into page-aligned ranges which are read from the UFS in parallel, each in a
+ * single request, and put into the cache page by page straight from the buffer read into. The
+ * pages already in the cache are not read again. The number of ranges read at the same time is
+ * bounded for each file, and for the worker by the number of threads of the executor. The total
+ * size of the buffers being read into is bounded for the worker, so that the loads do not take
+ * more heap than that however many of them run.
+ */
+@ThreadSafe
+public class PagedFileLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(PagedFileLoader.class);
+
+  private final CacheManager mCacheManager;
+  private final ExecutorService mExecutor;
+  private final long mPageSize;
+  private final long mRangeSize;
+  private final int mFileConcurrency;
+  /** The bytes which may be allocated for the buffers read into. */
+  private final Semaphore mBufferBytes;
+
+  /**
+   * @param cacheManager the cache manager to put the pages into
+   * @param executor the executor to read the ranges on, its threads bound the number of ranges
+   *                 read at the same time
+   * @param pageSize the page size
+   * @param rangeSize the size of the ranges, rounded down to a multiple of the page size
+   * @param fileConcurrency the number of ranges of a file read at the same time
+   * @param bufferSize the total size of the buffers read into, at least the size of a range
+   */
+  public PagedFileLoader(CacheManager cacheManager, ExecutorService executor, long pageSize,
+      long rangeSize, int fileConcurrency, long bufferSize) {
+    Preconditions.checkArgument(pageSize > 0, "page size must be positive");
+    Preconditions.checkArgument(fileConcurrency > 0, "file concurrency must be positive");
+    mCacheManager = cacheManager;
+    mExecutor = executor;
+    mPageSize = pageSize;
+    mRangeSize = Math.max(1, rangeSize / pageSize) * pageSize;
+    Preconditions.checkArgument(mRangeSize <= Integer.MAX_VALUE, "range size is too large");
+    mFileConcurrency = fileConcurrency;
+    mBufferBytes = new Semaphore((int) Math.min(Integer.MAX_VALUE,
+        Math.max(mRangeSize, bufferSize)));
+  }
+
+  /**
+   * Loads a file into the cache, returning when all its pages are loaded.
+   *
+   * @param fileId the id of the file
+   * @param reader the reader of the file in the UFS
+   * @param length the length of the file
+   * @param throttle the throttle the bytes read from the UFS are taken from
+   */
+  public void load(String fileId, PositionReader reader, long length,
+      JobBandwidthLimiter.Throttle throttle) {
+    Semaphore inFlight = new Semaphore(mFileConcurrency);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (long start = 0; start < length && failure.get() == null; start += mRangeSize) {
+        long rangeStart = start;
+        long rangeEnd = Math.min(start + mRangeSize, length);
+        inFlight.acquire();
+        try {
+          futures.add(mExecutor.submit(() -> {
+            try {
+              if (failure.get() == null) {
+                loadRange(fileId, reader, rangeStart, rangeEnd, length, throttle);
+              }
+            } catch (Throwable t) {
+              failure.compareAndSet(null, t);
+            } finally {
+              inFlight.release();
+            }
+          }));
+        } catch (RuntimeException e) {
+          inFlight.release();
+          throw e;
+        }
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new InternalRuntimeException(
+          String.format("Interrupted while loading %s", fileId), e);
+    } catch (ExecutionException e) {
+      failure.compareAndSet(null, e.getCause());
+    }
+    if (failure.get() != null) {
+      throw AlluxioRuntimeException.from(failure.get());
+    }
+  }
+
+  /**
+   * Loads the pages of a range of a file which are not in the cache yet. Each run of consecutive
+   * missing pages is read from the UFS in a single request.
+   */
+  private void loadRange(String fileId, PositionReader reader, long start, long end,
+      long length, JobBandwidthLimiter.Throttle throttle) throws IOException {
+    long endPage = (end + mPageSize - 1) / mPageSize;
+    long page = start / mPageSize;
+    while (page < endPage) {
+      if (mCacheManager.hasPage(new PageId(fileId, page))) {
+        page++;
+        continue;
+      }
+      long runEnd = page + 1;
+      while (runEnd < endPage && !mCacheManager.hasPage(new PageId(fileId, runEnd))) {
+        runEnd++;
+      }
+      long position = page * mPageSize;
+      int runLength = (int) (Math.min(runEnd * mPageSize, length) - position);
+      try {
+        mBufferBytes.acquire(runLength);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InternalRuntimeException(
+            String.format("Interrupted while loading %s", fileId), e);
+      }
+      // the bytes of the pages put into the cache, which are released once the cache no longer
+      // uses them, after put returns when the cache writes the pages asynchronously
+      int bytesPut = 0;
+      try {
+        // the buffer is not reused, as the cache may write the pages asynchronously
+        byte[] buffer = new byte[runLength];
+        readFully(reader, position, buffer);
+        throttle.acquire(runLength);
+        for (long index = page; index < runEnd; index++) {
+          int offset = (int) ((index - page) * mPageSize);
+          int pageLength = (int) Math.min(mPageSize, runLength - offset);
+          bytesPut += pageLength;
+          if (!mCacheManager.put(new PageId(fileId, index),
+              ByteBuffer.wrap(buffer, offset, pageLength), CacheContext.defaults(),
+              () -> mBufferBytes.release(pageLength))) {
+            LOG.debug("Failed to put page {} of {} into the cache", index, fileId);
+          }
+        }
+      } finally {
+        mBufferBytes.release(runLength - bytesPut);
+      }
+      page = runEnd;
+    }
+  }
+
+  private static void readFully(PositionReader reader, long position, byte[] buffer)
+      throws IOException {
+    int totalBytesRead = 0;
+    while (totalBytesRead < buffer.length) {
+      int bytesRead = reader.read(position + totalBytesRead, buffer, totalBytesRead,
+          buffer.length - totalBytesRead);
+      if (bytesRead <= 0) {
+        throw new FailedPreconditionRuntimeException(String.format(
+            "Failed to read %d bytes at position %d from the UFS, only %d bytes were read",
+            buffer.length, position, totalBytesRead));
+      }
+      totalBytesRead += bytesRead;
+    }
+  }
+}
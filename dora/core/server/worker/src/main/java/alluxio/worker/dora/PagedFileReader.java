@@ -19,6 +19,7 @@ import alluxio.client.file.cache.LocalCachePositionReader;
 import alluxio.conf.AlluxioConfiguration;
 import alluxio.conf.PropertyKey;
 import alluxio.file.FileId;
+import alluxio.file.FileRange;
 import alluxio.file.NettyBufTargetBuffer;
 import alluxio.file.ReadTargetBuffer;
 import alluxio.network.protocol.databuffer.CompositeDataBuffer;
@@ -42,6 +43,7 @@ import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntFunction;
 
 /**
  * Paged file reader.
@@ -64,17 +66,22 @@ public class PagedFileReader extends BlockReader implements PositionReader {
    * @param ufsPath
    * @param fileSize
    * @param startPosition
+   * @param writeBackManager the write-back manager whose files not persisted yet are read from
+   *        their staging files rather than the UFS
    * @return a new {@link PagedFileReader}
    */
   public static PagedFileReader create(AlluxioConfiguration conf, CacheManager cacheManager,
                                        UfsManager.UfsClient ufsClient, String fileId,
-                                       String ufsPath, long fileSize, long startPosition) {
+                                       String ufsPath, long fileSize, long startPosition,
+                                       DoraWriteBackManager writeBackManager) {
     FileId fileIdField = FileId.of(fileId);
     CloseableResource<UnderFileSystem> ufs = ufsClient.acquireUfsResource();
     try {
       return new PagedFileReader(ufs, LocalCachePositionReader.create(cacheManager,
-          new CloseableSupplier<>(() -> ufs.get().openPositionRead(ufsPath, fileSize)),
+          new CloseableSupplier<>(() -> writeBackManager.openPendingFile(ufsPath)
+              .orElseGet(() -> ufs.get().openPositionRead(ufsPath, fileSize))),
           fileIdField, fileSize, conf.getBytes(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE),
+          conf.getBytes(PropertyKey.WORKER_PAGE_STORE_EXTERNAL_READ_MAX_SIZE),
           CacheContext.defaults()), fileSize, startPosition);
     } catch (Throwable t) {
       try {
@@ -224,6 +231,13 @@ public class PagedFileReader extends BlockReader implements PositionReader {
     return mPositionReader.read(position, buffer, length);
   }
 
+  @Override
+  public List<ByteBuffer> readVectored(List<FileRange> ranges, IntFunction<ByteBuffer> allocate)
+      throws IOException {
+    Preconditions.checkState(!mClosed, "reader closed");
+    return mPositionReader.readVectored(ranges, allocate);
+  }
+
   @Override
   public synchronized void close() throws IOException {
     if (mClosed) {
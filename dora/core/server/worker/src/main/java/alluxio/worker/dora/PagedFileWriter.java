@@ -14,10 +14,13 @@ package alluxio.worker.dora;
 import alluxio.client.file.CacheContext;
 import alluxio.client.file.cache.CacheManager;
 import alluxio.client.file.cache.PageId;
+import alluxio.exception.runtime.AlluxioRuntimeException;
 import alluxio.network.protocol.databuffer.DataBuffer;
 import alluxio.worker.block.io.BlockWriter;
 
+import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,9 +28,14 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
+import javax.annotation.Nullable;
 
 /**
  * A paged implementation of BlockWriter interface.
+ *
+ * The bytes of the page being written are accumulated in a pooled direct buffer, and each page
+ * is put into the cache once, when it is full or the file is committed, rather than appended
+ * to the cached page chunk by chunk, which reads the page back and rewrites it every time.
  */
 public class PagedFileWriter extends BlockWriter {
   private static final Logger LOG = LoggerFactory.getLogger(PagedFileWriter.class);
@@ -36,25 +44,54 @@ public class PagedFileWriter extends BlockWriter {
   private final CacheManager mCacheManager;
   private final String mFileId;
   private final long mPageSize;
+  private final boolean mCopyPages;
   private long mPosition;
-
-  PagedFileWriter(CacheManager cacheManager, String fileId, long pageSize) {
+  /** The bytes of the page being written, allocated with the first byte written. */
+  @Nullable
+  private ByteBuf mPageBuffer;
+
+  /**
+   * @param cacheManager the cache manager to put the pages into
+   * @param fileId the id of the file
+   * @param pageSize the page size
+   * @param copyPages if the pages are copied before they are put into the cache, which is
+   *                  required when the cache writes them asynchronously, as the page buffer
+   *                  is reused
+   */
+  PagedFileWriter(CacheManager cacheManager, String fileId, long pageSize, boolean copyPages) {
+    Preconditions.checkArgument(pageSize > 0 && pageSize <= Integer.MAX_VALUE,
+        "invalid page size %s", pageSize);
     mTempCacheContext = CacheContext.defaults().setTemporary(true);
     mCacheManager = cacheManager;
     mFileId = fileId;
     mPageSize = pageSize;
+    mCopyPages = copyPages;
   }
 
   @Override
   public void abort() {
+    releasePageBuffer();
     mCacheManager.deleteTempFile(mFileId);
   }
 
   @Override
   public void commitFile() {
+    try {
+      flushPage();
+    } catch (IOException e) {
+      throw AlluxioRuntimeException.from(e);
+    } finally {
+      releasePageBuffer();
+    }
     mCacheManager.commitFile(mFileId);
   }
 
+  @Override
+  public void close() throws IOException {
+    releasePageBuffer();
+    super.close();
+  }
+
   @Override
   public long append(ByteBuffer inputBuf) {
     try {
@@ -69,17 +106,18 @@ public class PagedFileWriter extends BlockWriter {
   public long append(ByteBuf buf) throws IOException {
     long bytesWritten = 0;
     while (buf.readableBytes() > 0) {
-      PageId pageId = getPageId(bytesWritten);
-      int currentPageOffset = getCurrentPageOffset(bytesWritten);
-      int bytesLeftInPage = getBytesLeftInPage(currentPageOffset, buf.readableBytes());
-      byte[] page = new byte[bytesLeftInPage];
-      buf.readBytes(page);
-      if (!mCacheManager.append(pageId, currentPageOffset, page, mTempCacheContext)) {
-        throw new IOException("Append failed for file " + mFileId);
+      if (mPageBuffer == null) {
+        mPageBuffer = PooledByteBufAllocator.DEFAULT.directBuffer((int) mPageSize,
+            (int) mPageSize);
+      }
+      int bytesToWrite = Math.min(mPageBuffer.writableBytes(), buf.readableBytes());
+      mPageBuffer.writeBytes(buf, bytesToWrite);
+      bytesWritten += bytesToWrite;
+      mPosition += bytesToWrite;
+      if (mPageBuffer.writableBytes() == 0) {
+        flushPage();
       }
-      bytesWritten += bytesLeftInPage;
     }
-    mPosition += bytesWritten;
     return bytesWritten;
   }
 
@@ -107,16 +145,33 @@ public class PagedFileWriter extends BlockWriter {
     throw new UnsupportedOperationException();
   }
 
-  private PageId getPageId(long bytesWritten) {
-    long pageIndex = (mPosition + bytesWritten) / mPageSize;
-    return new PageId(mFileId, pageIndex);
-  }
-
-  private int getCurrentPageOffset(long bytesWritten) {
-    return (int) ((mPosition + bytesWritten) % mPageSize);
+  /**
+   * Puts the page being written into the cache, if it has any bytes.
+   */
+  private void flushPage() throws IOException {
+    if (mPageBuffer == null || mPageBuffer.readableBytes() == 0) {
+      return;
+    }
+    int pageLength = mPageBuffer.readableBytes();
+    PageId pageId = new PageId(mFileId, (mPosition - pageLength) / mPageSize);
+    ByteBuffer page;
+    if (mCopyPages) {
+      byte[] bytes = new byte[pageLength];
+      mPageBuffer.getBytes(mPageBuffer.readerIndex(), bytes);
+      page = ByteBuffer.wrap(bytes);
+    } else {
+      page = mPageBuffer.nioBuffer();
+    }
+    if (!mCacheManager.put(pageId, page, mTempCacheContext)) {
+      throw new IOException("Append failed for file " + mFileId);
+    }
+    mPageBuffer.clear();
   }
 
-  private int getBytesLeftInPage(int currentPageOffset, int remaining) {
-    return (int) Math.min(mPageSize - currentPageOffset, remaining);
+  private void releasePageBuffer() {
+    if (mPageBuffer != null) {
+      mPageBuffer.release();
+      mPageBuffer = null;
+    }
   }
 }
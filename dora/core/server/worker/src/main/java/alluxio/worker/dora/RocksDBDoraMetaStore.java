@@ -11,15 +11,22 @@
 
 package alluxio.worker.dora;
 
+import alluxio.AlluxioURI;
 import alluxio.Constants;
 import alluxio.conf.PropertyKey;
+import alluxio.grpc.FileInfo;
 import alluxio.master.metastore.rocks.RocksExclusiveLockHandle;
 import alluxio.master.metastore.rocks.RocksSharedLockHandle;
 import alluxio.proto.meta.DoraMeta;
 import alluxio.rocks.RocksStore;
 import alluxio.util.io.PathUtils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.InvalidProtocolBufferException;
 import org.rocksdb.BlockBasedTableConfig;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
@@ -30,11 +37,15 @@ import org.rocksdb.HashLinkedListMemTableConfig;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
 import org.rocksdb.RocksObject;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -42,20 +53,46 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * Dora Meta Store in RocksDB.
+ *
+ * A path is split into its directory, which ends with a separator, and its name. The directories
+ * are given ids by a dictionary, and a file status is keyed by the 8-byte id of its directory
+ * followed by its name, so that the directory part of the paths is stored once, and the statuses
+ * of a directory are next to each other and share the prefix that the memtable and the bloom
+ * filters hash on. A value has a fixed-layout header, which holds the time it was written, so
+ * that an expired status is dropped without being parsed. The UFS path and the name in the file
+ * info are not stored when they can be recovered from the key.
  */
 @ThreadSafe
 public class RocksDBDoraMetaStore implements DoraMetaStore {
   private static final Logger LOG = LoggerFactory.getLogger(RocksDBDoraMetaStore.class);
   private static final String DORA_META_DB_NAME = "DoraMeta";
   private static final String DORA_META_FILE_STATUS_COLUMN = "FileStatusCF";
+  private static final String DORA_META_DIRECTORY_ID_COLUMN = "DirectoryIdCF";
   private static final String DORA_META_STORE_NAME = "DoraMetaStore";
+  private static final int DIRECTORY_ID_CACHE_SIZE = 100_000;
+  /** The key of the next directory id in the dictionary, which no directory can have. */
+  private static final byte[] NEXT_DIRECTORY_ID_KEY = new byte[] {0};
+
+  // The layout of a value
+  private static final byte FORMAT_VERSION = 1;
+  private static final int FLAGS_OFFSET = 1;
+  private static final int WRITE_TIME_OFFSET = 2;
+  private static final int TS_OFFSET = WRITE_TIME_OFFSET + Long.BYTES;
+  private static final int HEADER_LENGTH = TS_OFFSET + Long.BYTES;
+  private static final byte HAS_FILE_INFO = 1;
+  private static final byte UFS_PATH_FROM_KEY = 1 << 1;
+  private static final byte NAME_FROM_KEY = 1 << 2;
 
   // These are fields instead of constants because they depend on the call to RocksDB.loadLibrary().
   private final WriteOptions mWriteOption;
+  /** The dictionary is written to the WAL, as the ids must not be given out twice. */
+  private final WriteOptions mDirectoryWriteOption;
   private final ReadOptions mReadOption;
   private final RocksStore mRocksStore;
 
@@ -66,6 +103,12 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
   private final List<RocksObject> mToClose = new ArrayList<>();
 
   private final AtomicReference<ColumnFamilyHandle> mFileStatusColumn = new AtomicReference<>();
+  private final AtomicReference<ColumnFamilyHandle> mDirectoryIdColumn = new AtomicReference<>();
+
+  private final Cache<String, Long> mDirectoryIds =
+      Caffeine.newBuilder().maximumSize(DIRECTORY_ID_CACHE_SIZE).build();
+  @GuardedBy("this")
+  private long mNextDirectoryId;
 
   /**
    * Creates and initializes a rocks block store.
@@ -81,6 +124,8 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
     // the rocksDB objects must be initialized after RocksDB.loadLibrary() is called
     mWriteOption = new WriteOptions().setDisableWAL(true);
     mToClose.add(mWriteOption);
+    mDirectoryWriteOption = new WriteOptions();
+    mToClose.add(mDirectoryWriteOption);
     mReadOption  = new ReadOptions();
     mToClose.add(mReadOption);
     String dbPath = PathUtils.concatPath(baseDir, DORA_META_DB_NAME);
@@ -95,8 +140,14 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
     List<ColumnFamilyDescriptor> columns = new ArrayList<>();
     columns.add(new ColumnFamilyDescriptor(DORA_META_FILE_STATUS_COLUMN.getBytes(),
             new ColumnFamilyOptions()
+                    // the statuses are hashed and filtered by the id of their directory
+                    .useFixedLengthPrefixExtractor(Long.BYTES)
+                    .setMemtablePrefixBloomSizeRatio(0.1)
                     .setMemTableConfig(new HashLinkedListMemTableConfig())
-                    .setCompressionType(CompressionType.NO_COMPRESSION)));
+                    .setCompressionType(CompressionType.LZ4_COMPRESSION)));
+    columns.add(new ColumnFamilyDescriptor(DORA_META_DIRECTORY_ID_COLUMN.getBytes(),
+            new ColumnFamilyOptions()
+                    .setCompressionType(CompressionType.LZ4_COMPRESSION)));
     mToClose.addAll(columns.stream().map(
             ColumnFamilyDescriptor::getOptions).collect(Collectors.toList()));
 
@@ -109,8 +160,35 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
         .setTableFormatConfig(blockBasedTableConfig));
 
     mRocksStore = new RocksStore(DORA_META_STORE_NAME, dbPath, backupPath, opts, columns,
-            Arrays.asList(mFileStatusColumn), false);
+            Arrays.asList(mFileStatusColumn, mDirectoryIdColumn), false);
     mMetaTTL = metaTTL;
+    try (RocksSharedLockHandle lock = mRocksStore.checkAndAcquireSharedLock()) {
+      byte[] nextId = db().get(mDirectoryIdColumn.get(), NEXT_DIRECTORY_ID_KEY);
+      synchronized (this) {
+        mNextDirectoryId = nextId == null ? 0 : Longs.fromByteArray(nextId);
+      }
+      removeStatusesOfFullPathKeys();
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Removes the statuses stored before the keys were made of directory ids, which were keyed
+   * by their full paths. A directory id starts with a 0 byte, which a path does not, and a path
+   * in UTF-8 does not start with a 0xFF byte.
+   */
+  private void removeStatusesOfFullPathKeys() throws RocksDBException {
+    byte[] begin = new byte[] {1};
+    try (ReadOptions readOptions = new ReadOptions().setTotalOrderSeek(true);
+         RocksIterator iter = db().newIterator(mFileStatusColumn.get(), readOptions)) {
+      iter.seek(begin);
+      if (!iter.isValid()) {
+        return;
+      }
+    }
+    LOG.info("Removing the file statuses of the previous format from {}", DORA_META_DB_NAME);
+    db().deleteRange(mFileStatusColumn.get(), mWriteOption, begin, new byte[] {(byte) 0xFF});
   }
 
   /**
@@ -121,25 +199,28 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
    */
   @Override
   public Optional<DoraMeta.FileStatus> getDoraMeta(String path) {
-    byte[] status;
+    byte[] value;
     try (RocksSharedLockHandle lock = mRocksStore.checkAndAcquireSharedLock()) {
-      status = db().get(mFileStatusColumn.get(), path.getBytes());
+      byte[] key = getKey(path, false);
+      if (key == null) {
+        return Optional.empty();
+      }
+      value = db().get(mFileStatusColumn.get(), key);
     } catch (RocksDBException e) {
       throw new RuntimeException(e);
     }
-    if (status == null) {
+    if (value == null) {
       return Optional.empty();
     }
     try {
-      DoraMeta.FileStatus fs = DoraMeta.FileStatus.parseFrom(status);
-      if (mMetaTTL != -1) {
-        if (System.nanoTime() - fs.getTs() > mMetaTTL * Constants.SECOND_NANO) {
-          // The Metadata is out of date.
-          removeDoraMeta(path);
-          return Optional.empty();
-        }
+      // the write time is read from the header, without parsing the status
+      if (mMetaTTL != -1 && System.currentTimeMillis() - getWriteTime(value)
+          > mMetaTTL * Constants.SECOND_MS) {
+        // The Metadata is out of date.
+        removeDoraMeta(path);
+        return Optional.empty();
       }
-      return Optional.of(fs);
+      return Optional.of(decode(path, value));
     } catch (Exception e) {
       removeDoraMeta(path);
       LOG.error("Cannot parse get result for {} : {}", path, e);
@@ -156,8 +237,8 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
   @Override
   public void putDoraMeta(String path, DoraMeta.FileStatus meta) {
     try (RocksSharedLockHandle lock = mRocksStore.checkAndAcquireSharedLock()) {
-      db().put(mFileStatusColumn.get(), mWriteOption, path.getBytes(),
-              meta.toByteString().toByteArray());
+      db().put(mFileStatusColumn.get(), mWriteOption, getKey(path, true),
+          encode(path, meta, System.currentTimeMillis()));
     } catch (RocksDBException e) {
       LOG.error("Cannot put {} : {}", path, e);
     }
@@ -172,7 +253,10 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
   @Override
   public void removeDoraMeta(String path) {
     try (RocksSharedLockHandle lock = mRocksStore.checkAndAcquireSharedLock()) {
-      db().delete(mFileStatusColumn.get(), mWriteOption, path.getBytes());
+      byte[] key = getKey(path, false);
+      if (key != null) {
+        db().delete(mFileStatusColumn.get(), mWriteOption, key);
+      }
     } catch (RocksDBException e) {
       LOG.error("Cannot remove {} : {}", path, e);
     }
@@ -218,6 +302,127 @@ public class RocksDBDoraMetaStore implements DoraMetaStore {
     }
   }
 
+  /**
+   * Requires the caller to hold the shared lock.
+   *
+   * @param path the full path of a file
+   * @param create whether to give the directory of the path an id if it has none
+   * @return the key of the file, or null if its directory has no id and create is false
+   */
+  @Nullable
+  private byte[] getKey(String path, boolean create) throws RocksDBException {
+    int nameStart = getNameStart(path);
+    String directory = path.substring(0, nameStart);
+    Long id = mDirectoryIds.getIfPresent(directory);
+    if (id == null) {
+      byte[] stored =
+          db().get(mDirectoryIdColumn.get(), directory.getBytes(StandardCharsets.UTF_8));
+      if (stored != null) {
+        id = Longs.fromByteArray(stored);
+      } else if (create) {
+        id = createDirectoryId(directory);
+      } else {
+        return null;
+      }
+      mDirectoryIds.put(directory, id);
+    }
+    byte[] name = path.substring(nameStart).getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(Long.BYTES + name.length).putLong(id).put(name).array();
+  }
+
+  private synchronized long createDirectoryId(String directory) throws RocksDBException {
+    byte[] key = directory.getBytes(StandardCharsets.UTF_8);
+    byte[] stored = db().get(mDirectoryIdColumn.get(), key);
+    if (stored != null) {
+      return Longs.fromByteArray(stored);
+    }
+    long id = mNextDirectoryId;
+    try (WriteBatch batch = new WriteBatch()) {
+      batch.put(mDirectoryIdColumn.get(), key, Longs.toByteArray(id));
+      batch.put(mDirectoryIdColumn.get(), NEXT_DIRECTORY_ID_KEY, Longs.toByteArray(id + 1));
+      db().write(mDirectoryWriteOption, batch);
+    }
+    mNextDirectoryId = id + 1;
+    return id;
+  }
+
+  /**
+   * Encodes a file status into a value.
+   *
+   * @param path the full path of the file
+   * @param status the status
+   * @param writeTimeMs the time the value is written
+   * @return the value
+   */
+  @VisibleForTesting
+  static byte[] encode(String path, DoraMeta.FileStatus status, long writeTimeMs) {
+    byte flags = 0;
+    byte[] info = new byte[0];
+    if (status.hasFileInfo()) {
+      flags |= HAS_FILE_INFO;
+      FileInfo fileInfo = status.getFileInfo();
+      FileInfo.Builder stripped = null;
+      if (fileInfo.hasUfsPath() && fileInfo.getUfsPath().equals(path)) {
+        flags |= UFS_PATH_FROM_KEY;
+        stripped = fileInfo.toBuilder().clearUfsPath();
+      }
+      if (fileInfo.hasName() && fileInfo.getName().equals(getName(path))) {
+        flags |= NAME_FROM_KEY;
+        stripped = (stripped == null ? fileInfo.toBuilder() : stripped).clearName();
+      }
+      info = (stripped == null ? fileInfo : stripped.build()).toByteArray();
+    }
+    return ByteBuffer.allocate(HEADER_LENGTH + info.length)
+        .put(FORMAT_VERSION)
+        .put(flags)
+        .putLong(writeTimeMs)
+        .putLong(status.getTs())
+        .put(info)
+        .array();
+  }
+
+  /**
+   * Decodes a file status from a value.
+   *
+   * @param path the full path of the file
+   * @param value the value
+   * @return the status
+   */
+  @VisibleForTesting
+  static DoraMeta.FileStatus decode(String path, byte[] value)
+      throws InvalidProtocolBufferException {
+    Preconditions.checkArgument(value.length >= HEADER_LENGTH && value[0] == FORMAT_VERSION,
+        "Unknown format of the value of %s", path);
+    ByteBuffer buffer = ByteBuffer.wrap(value);
+    byte flags = buffer.get(FLAGS_OFFSET);
+    DoraMeta.FileStatus.Builder status = DoraMeta.FileStatus.newBuilder()
+        .setTs(buffer.getLong(TS_OFFSET));
+    if ((flags & HAS_FILE_INFO) != 0) {
+      FileInfo.Builder info = FileInfo.newBuilder().mergeFrom(
+          value, HEADER_LENGTH, value.length - HEADER_LENGTH);
+      if ((flags & UFS_PATH_FROM_KEY) != 0) {
+        info.setUfsPath(path);
+      }
+      if ((flags & NAME_FROM_KEY) != 0) {
+        info.setName(getName(path));
+      }
+      status.setFileInfo(info);
+    }
+    return status.build();
+  }
+
+  private static long getWriteTime(byte[] value) {
+    return ByteBuffer.wrap(value).getLong(WRITE_TIME_OFFSET);
+  }
+
+  private static int getNameStart(String path) {
+    return path.lastIndexOf(AlluxioURI.SEPARATOR) + 1;
+  }
+
+  private static String getName(String path) {
+    return path.substring(getNameStart(path));
+  }
+
   private RocksDB db() {
     return mRocksStore.getDb();
   }
@@ -0,0 +1,99 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.client.file.cache.CacheManager;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link PagedFileWriter} for the files written in the write-back mode.
+ *
+ * Besides putting the pages into the cache, the bytes are written to the staging file of the
+ * {@link DoraWriteBackManager}, which persists the file to the UFS once it is completed.
+ * The pages can be evicted, and the pages of a file being written do not survive a restart of
+ * the worker, so the staging file is what the file is persisted from. It is synced to the disk
+ * when the file is committed, before the write is acknowledged to the client.
+ */
+public class WriteBackFileWriter extends PagedFileWriter {
+  private static final Logger LOG = LoggerFactory.getLogger(WriteBackFileWriter.class);
+
+  private final Path mStagingFile;
+  private final FileChannel mStagingChannel;
+
+  /**
+   * @param cacheManager the cache manager to put the pages into
+   * @param fileId the id of the file
+   * @param pageSize the page size
+   * @param copyPages if the pages are copied before they are put into the cache
+   * @param stagingFile the staging file the bytes are written to
+   */
+  WriteBackFileWriter(CacheManager cacheManager, String fileId, long pageSize,
+      boolean copyPages, Path stagingFile) throws IOException {
+    super(cacheManager, fileId, pageSize, copyPages);
+    mStagingFile = stagingFile;
+    mStagingChannel = FileChannel.open(stagingFile, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  @Override
+  public long append(ByteBuf buf) throws IOException {
+    int index = buf.readerIndex();
+    int length = buf.readableBytes();
+    while (length > 0) {
+      int written = buf.getBytes(index, mStagingChannel, mStagingChannel.position(), length);
+      mStagingChannel.position(mStagingChannel.position() + written);
+      index += written;
+      length -= written;
+    }
+    return super.append(buf);
+  }
+
+  @Override
+  public void commitFile() {
+    try {
+      mStagingChannel.force(true);
+    } catch (IOException e) {
+      throw AlluxioRuntimeException.from(e);
+    }
+    super.commitFile();
+  }
+
+  @Override
+  public void abort() {
+    super.abort();
+    try {
+      mStagingChannel.close();
+      Files.deleteIfExists(mStagingFile);
+    } catch (IOException e) {
+      LOG.warn("Failed to delete the staging file {}", mStagingFile, e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      mStagingChannel.close();
+    } finally {
+      super.close();
+    }
+  }
+}
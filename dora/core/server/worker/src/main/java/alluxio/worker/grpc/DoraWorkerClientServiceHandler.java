@@ -35,14 +35,19 @@ import alluxio.grpc.ExistsPRequest;
 import alluxio.grpc.ExistsPResponse;
 import alluxio.grpc.GetStatusPRequest;
 import alluxio.grpc.GetStatusPResponse;
+import alluxio.grpc.GetStatusesRequest;
+import alluxio.grpc.GetStatusesResponse;
 import alluxio.grpc.GrpcUtils;
 import alluxio.grpc.ListStatusPRequest;
 import alluxio.grpc.ListStatusPResponse;
+import alluxio.grpc.ListStatusPartialPRequest;
+import alluxio.grpc.ListStatusPartialPResponse;
 import alluxio.grpc.LoadFileFailure;
 import alluxio.grpc.LoadFileRequest;
 import alluxio.grpc.LoadFileResponse;
 import alluxio.grpc.MoveRequest;
 import alluxio.grpc.MoveResponse;
+import alluxio.grpc.PathStatus;
 import alluxio.grpc.ReadRequest;
 import alluxio.grpc.ReadResponse;
 import alluxio.grpc.ReadResponseMarshaller;
@@ -68,6 +73,7 @@ import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
@@ -212,6 +218,36 @@ public class DoraWorkerClientServiceHandler extends BlockWorkerGrpc.BlockWorkerI
     }
   }
 
+  @Override
+  public void getStatuses(GetStatusesRequest request,
+      StreamObserver<GetStatusesResponse> responseObserver) {
+    LOG.debug("getStatuses is called for {} paths", request.getPathsCount());
+    try {
+      GetStatusesResponse.Builder builder = GetStatusesResponse.newBuilder();
+      for (String path : request.getPathsList()) {
+        PathStatus.Builder status = PathStatus.newBuilder().setPath(path);
+        try {
+          status.setFileInfo(GrpcUtils.toProto(mWorker.getFileInfo(path, request.getOptions())));
+        } catch (FileNotFoundException e) {
+          // a path which does not exist is returned without a status
+        }
+        builder.addStatuses(status);
+        if (builder.getStatusesCount() == LIST_STATUS_BATCH_SIZE) {
+          // Reached the batch size of the reply message. Send it out and create a new one.
+          responseObserver.onNext(builder.build());
+          builder = GetStatusesResponse.newBuilder();
+        }
+      }
+      if (builder.getStatusesCount() != 0) {
+        responseObserver.onNext(builder.build());
+      }
+      responseObserver.onCompleted();
+    } catch (Exception e) {
+      LOG.error(String.format("Failed to get statuses of %d paths: ", request.getPathsCount()), e);
+      responseObserver.onError(AlluxioRuntimeException.from(e).toGrpcStatusRuntimeException());
+    }
+  }
+
   @Override
   public void listStatus(ListStatusPRequest request,
                          StreamObserver<ListStatusPResponse> responseObserver) {
@@ -254,6 +290,28 @@ public class DoraWorkerClientServiceHandler extends BlockWorkerGrpc.BlockWorkerI
     }
   }
 
+  @Override
+  public void listStatusPartial(ListStatusPartialPRequest request,
+      StreamObserver<ListStatusPartialPResponse> responseObserver) {
+    LOG.debug("listStatusPartial is called for {}", request.getPath());
+
+    try {
+      ListStatusPartialPResponse response =
+          mWorker.listStatusPartial(request.getPath(), request.getOptions());
+      if (response == null) {
+        responseObserver.onError(
+            new NotFoundRuntimeException(String.format("%s Not Found", request.getPath()))
+                .toGrpcStatusRuntimeException());
+        return;
+      }
+      responseObserver.onNext(response);
+      responseObserver.onCompleted();
+    } catch (Exception e) {
+      LOG.error(String.format("Failed to list status partially of %s: ", request.getPath()), e);
+      responseObserver.onError(AlluxioRuntimeException.from(e).toGrpcStatusRuntimeException());
+    }
+  }
+
   @Override
   public void createFile(CreateFilePRequest request,
                          StreamObserver<CreateFilePResponse> responseObserver) {
@@ -23,6 +23,7 @@ import alluxio.grpc.Chunk;
 import alluxio.grpc.DataMessage;
 import alluxio.grpc.ReadRequest;
 import alluxio.grpc.ReadResponse;
+import alluxio.metrics.MetricHandle;
 import alluxio.metrics.MetricKey;
 import alluxio.metrics.MetricsSystem;
 import alluxio.network.protocol.databuffer.DataBuffer;
@@ -77,6 +78,10 @@ public class FileReadHandler implements StreamObserver<ReadRequest> {
   private static final Counter RPC_READ_COUNT =
       MetricsSystem.counterWithTags(MetricKey.WORKER_ACTIVE_RPC_READ_COUNT.getName(),
           MetricKey.WORKER_ACTIVE_RPC_READ_COUNT.isClusterAggregated());
+  private static final MetricHandle<Counter> BYTES_READ_REMOTE =
+      MetricHandle.counter(MetricKey.WORKER_BYTES_READ_REMOTE);
+  private static final MetricHandle<Meter> BYTES_READ_REMOTE_THROUGHPUT =
+      MetricHandle.meter(MetricKey.WORKER_BYTES_READ_REMOTE_THROUGHPUT);
 
   /**
    * This is only created in the gRPC event thread when a read request is received.
@@ -228,9 +233,8 @@ public class FileReadHandler implements StreamObserver<ReadRequest> {
   protected BlockReadRequestContext createRequestContext(alluxio.grpc.ReadRequest request) {
     BlockReadRequestContext context = new BlockReadRequestContext(request);
 
-    context.setCounter(MetricsSystem.counter(MetricKey.WORKER_BYTES_READ_REMOTE.getName()));
-    context.setMeter(MetricsSystem
-        .meter(MetricKey.WORKER_BYTES_READ_REMOTE_THROUGHPUT.getName()));
+    context.setCounter(BYTES_READ_REMOTE.get());
+    context.setMeter(BYTES_READ_REMOTE_THROUGHPUT.get());
     RPC_READ_COUNT.inc();
     return context;
   }
@@ -38,6 +38,9 @@ import javax.annotation.concurrent.NotThreadSafe;
  * 2. The {@link PacketReader} pauses if there are too many packets in flight, and resumes if there
  *    is room available.
  * 3. The channel is closed if there is any exception during the packet read/write.
+ * 4. Requests tagged with a request id may share the channel: the responses to each are tagged
+ *    with its id, a cancel request with an id only cancels that request, and an error in reading
+ *    for it does not close the channel.
  *
  * Threading model:
  * Only two threads are involved at a given point of time: netty I/O thread, packet reader thread.
@@ -88,6 +91,14 @@ public abstract class AbstractReadHandler<T extends ReadRequestContext<?>>
     }
     Protocol.ReadRequest msg = ((RPCProtoMessage) object).getMessage().asReadRequest();
     if (msg.getCancel()) {
+      if (msg.hasRequestId()) {
+        // only the request with the id is cancelled, the others sharing the channel go on
+        PacketReadTask<T> task = mTasksMap.remove(getTaskId(msg.getRequestId()));
+        if (task != null) {
+          task.cancelTask();
+        }
+        return;
+      }
       mTasksMap.values().forEach(PacketReadTask::cancelTask);
       mTasksMap.clear();
       return;
@@ -98,7 +109,8 @@ public abstract class AbstractReadHandler<T extends ReadRequestContext<?>>
     requestContext.setPosToQueue(requestContext.getRequest().getStart());
     requestContext.setPosToWrite(requestContext.getRequest().getStart());
     PacketReader packetReader = createPacketReader();
-    String taskId = UUID.randomUUID().toString();
+    String taskId = msg.hasRequestId()
+        ? getTaskId(msg.getRequestId()) : UUID.randomUUID().toString();
     PacketReadTask<T> packetReadTask =
         new PacketReadTask<>(taskId, requestContext, ctx.channel(), packetReader);
     mTasksMap.put(taskId, packetReadTask);
@@ -121,6 +133,10 @@ public abstract class AbstractReadHandler<T extends ReadRequestContext<?>>
     mTasksMap.clear();
   }
 
+  private static String getTaskId(long requestId) {
+    return "request-" + requestId;
+  }
+
   /**
    * Checks whether this object should be processed by this handler.
    *
@@ -11,8 +11,13 @@
 
 package alluxio.worker.netty;
 
+import alluxio.file.FileRange;
 import alluxio.proto.dataserver.Protocol;
 
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.OptionalLong;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -24,6 +29,7 @@ import javax.annotation.concurrent.ThreadSafe;
 public final class BlockReadRequest extends ReadRequest {
   private final Protocol.OpenUfsBlockOptions mOpenUfsBlockOptions;
   private final boolean mPromote;
+  private final List<FileRange> mRanges;
 
   /**
    * Creates an instance of {@link BlockReadRequest}.
@@ -32,7 +38,8 @@ public final class BlockReadRequest extends ReadRequest {
    */
   BlockReadRequest(Protocol.ReadRequest request) {
     super(request.getBlockId(), request.getOffset(), request.getOffset() + request.getLength(),
-        request.getChunkSize());
+        request.getChunkSize(), request.hasRequestId()
+            ? OptionalLong.of(request.getRequestId()) : OptionalLong.empty());
 
     if (request.hasOpenUfsBlockOptions()) {
       mOpenUfsBlockOptions = request.getOpenUfsBlockOptions();
@@ -40,6 +47,11 @@ public final class BlockReadRequest extends ReadRequest {
       mOpenUfsBlockOptions = null;
     }
     mPromote = request.getPromote();
+    ImmutableList.Builder<FileRange> ranges = ImmutableList.builder();
+    for (Protocol.ReadRange range : request.getRangesList()) {
+      ranges.add(new FileRange(range.getOffset(), (int) range.getLength()));
+    }
+    mRanges = ranges.build();
     // Note that we do not need to seek to offset since the block worker is created at the offset.
   }
 
@@ -50,6 +62,14 @@ public final class BlockReadRequest extends ReadRequest {
     return mPromote;
   }
 
+  /**
+   * @return the ranges of the file to read one after another, empty if the request reads the
+   *         range from the start to the end
+   */
+  public List<FileRange> getRanges() {
+    return mRanges;
+  }
+
   /**
    * @return the option to open UFS block
    */
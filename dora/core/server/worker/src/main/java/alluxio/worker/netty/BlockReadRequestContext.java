@@ -14,6 +14,8 @@ package alluxio.worker.netty;
 import alluxio.proto.dataserver.Protocol;
 import alluxio.worker.block.io.BlockReader;
 
+import io.netty.buffer.ByteBuf;
+
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -25,6 +27,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 //  It shall be removed together with a refactor on the Dora worker refactor.
 public class BlockReadRequestContext extends ReadRequestContext<BlockReadRequest> {
   private BlockReader mBlockReader;
+  private ByteBuf mRangeData;
 
   /**
    * @param request read request in proto
@@ -47,4 +50,20 @@ public class BlockReadRequestContext extends ReadRequestContext<BlockReadRequest
   public void setBlockReader(BlockReader blockReader) {
     mBlockReader = blockReader;
   }
+
+  /**
+   * @return the data of the ranges of a vectored read, one range after another, or null if it
+   *         has not been read
+   */
+  @Nullable
+  public ByteBuf getRangeData() {
+    return mRangeData;
+  }
+
+  /**
+   * @param rangeData the data of the ranges of a vectored read
+   */
+  public void setRangeData(ByteBuf rangeData) {
+    mRangeData = rangeData;
+  }
 }
@@ -13,8 +13,11 @@ package alluxio.worker.netty;
 
 import alluxio.AlluxioURI;
 import alluxio.Constants;
+import alluxio.PositionReader;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
+import alluxio.exception.status.InvalidArgumentException;
+import alluxio.file.FileRange;
 import alluxio.metrics.MetricsSystem;
 import alluxio.network.netty.FileTransferType;
 import alluxio.network.protocol.databuffer.CompositeDataBuffer;
@@ -34,7 +37,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -46,6 +52,8 @@ public class FileReadHandler extends AbstractReadHandler<BlockReadRequestContext
 
   private static final long UFS_BLOCK_OPEN_TIMEOUT_MS =
       Configuration.getMs(PropertyKey.WORKER_UFS_BLOCK_OPEN_TIMEOUT_MS);
+  private static final long MAX_VECTORED_REQUEST_SIZE =
+      Configuration.getBytes(PropertyKey.WORKER_NETWORK_READER_VECTORED_MAX_REQUEST_SIZE);
 
   private final DoraWorker mWorker;
 
@@ -107,6 +115,11 @@ public class FileReadHandler extends AbstractReadHandler<BlockReadRequestContext
 
     @Override
     public void completeRequest(BlockReadRequestContext context) throws Exception {
+      ByteBuf rangeData = context.getRangeData();
+      if (rangeData != null) {
+        rangeData.release();
+        context.setRangeData(null);
+      }
       BlockReader reader = context.getBlockReader();
       if (reader != null) {
         try {
@@ -124,6 +137,9 @@ public class FileReadHandler extends AbstractReadHandler<BlockReadRequestContext
       openBlock(context, channel);
       BlockReader blockReader = context.getBlockReader();
       Preconditions.checkState(blockReader != null);
+      if (!context.getRequest().getRanges().isEmpty()) {
+        return getRangeDataBuffer(context, channel, blockReader, offset, len);
+      }
       if (mTransferType == FileTransferType.TRANSFER) {
         if (blockReader instanceof PagedFileReader) {
           PagedFileReader pagedFileReader = (PagedFileReader) blockReader;
@@ -138,6 +154,77 @@ public class FileReadHandler extends AbstractReadHandler<BlockReadRequestContext
       return getDataBufferByCopying(context, channel, len, blockReader);
     }
 
+    /**
+     * Gets the data of a vectored read. The ranges are all read in a single vectored read when
+     * the first packet is read, so that the reader can serve the cached ranges and read the
+     * missing ones together, and the packets are sent from the data of the ranges. The ranges
+     * are read into a buffer of the channel, and a request whose ranges are longer than
+     * {@link #MAX_VECTORED_REQUEST_SIZE} in total is rejected.
+     */
+    private DataBuffer getRangeDataBuffer(BlockReadRequestContext context, Channel channel,
+        BlockReader blockReader, long offset, int len) throws IOException {
+      ByteBuf rangeData = context.getRangeData();
+      if (rangeData == null) {
+        if (!(blockReader instanceof PositionReader)) {
+          throw new UnsupportedOperationException(blockReader.getClass().getCanonicalName()
+              + " does not support vectored reads");
+        }
+        long length = 0;
+        for (FileRange range : context.getRequest().getRanges()) {
+          length += range.getLength();
+        }
+        if (length > MAX_VECTORED_REQUEST_SIZE) {
+          throw new InvalidArgumentException(String.format(
+              "The ranges of the vectored read are %d bytes, more than the %d bytes allowed by %s",
+              length, MAX_VECTORED_REQUEST_SIZE,
+              PropertyKey.WORKER_NETWORK_READER_VECTORED_MAX_REQUEST_SIZE.getName()));
+        }
+        rangeData = readRanges((PositionReader) blockReader, context.getRequest().getRanges(),
+            channel, (int) length);
+        context.setRangeData(rangeData);
+      }
+      int bytesToSend = (int) Math.min(len, rangeData.readableBytes() - offset);
+      return new NettyDataBuffer(rangeData.retainedSlice((int) offset, Math.max(bytesToSend, 0)));
+    }
+
+    /**
+     * Reads the ranges into a buffer of the channel, one after another. The buffers of the ranges
+     * are slices of it, so the data is not copied unless the reader returns other buffers.
+     */
+    private ByteBuf readRanges(PositionReader reader, List<FileRange> ranges, Channel channel,
+        int length) throws IOException {
+      ByteBuf data = channel.alloc().buffer(length, length);
+      try {
+        List<ByteBuffer> slices = new ArrayList<>(ranges.size());
+        int[] position = {0};
+        List<ByteBuffer> buffers = reader.readVectored(ranges, rangeLength -> {
+          if (position[0] + rangeLength > length) {
+            return ByteBuffer.allocate(rangeLength);
+          }
+          ByteBuffer slice = data.nioBuffer(position[0], rangeLength);
+          position[0] += rangeLength;
+          slices.add(slice);
+          return slice;
+        });
+        boolean inPlace = buffers.size() == slices.size();
+        for (int i = 0; inPlace && i < buffers.size(); i++) {
+          inPlace = buffers.get(i) == slices.get(i) && buffers.get(i).position() == 0;
+        }
+        if (!inPlace) {
+          ByteBuf copy = channel.alloc().buffer(length, length);
+          for (ByteBuffer buffer : buffers) {
+            copy.writeBytes(buffer.duplicate());
+          }
+          data.release();
+          return copy;
+        }
+        return data.writerIndex(length);
+      } catch (IOException | RuntimeException e) {
+        data.release();
+        throw e;
+      }
+    }
+
     private DataBuffer getDataBufferByCopying(
         BlockReadRequestContext context, Channel channel, int len, BlockReader blockReader)
         throws IOException {
@@ -26,6 +26,7 @@ import com.github.oxo42.stateless4j.transitions.Transition;
 import com.github.oxo42.stateless4j.triggers.TriggerWithParameters1;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import io.grpc.Status;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -262,7 +263,7 @@ public class PacketReadTaskStateMachine<T extends ReadRequestContext<?>> {
     if (packet != null) {
       mContext.setPosToQueue(mContext.getPosToQueue() + packet.getLength());
       // Send data to client
-      RPCProtoMessage response = RPCProtoMessage.createOkResponse(packet);
+      RPCProtoMessage response = createResponse(Status.OK, "", packet);
       mChannel.writeAndFlush(response).addListener(
           new WriteListener(packet, start + packetSize));
     }
@@ -363,11 +364,17 @@ public class PacketReadTaskStateMachine<T extends ReadRequestContext<?>> {
   }
 
   /**
-   * Writes an error read response to the channel and closes the channel after that.
+   * Writes an error read response to the channel and closes the channel after that, unless the
+   * request shares the channel with other requests, which are not affected by the error.
    */
   private void replyError(AlluxioStatusException e) {
-    mChannel.writeAndFlush(RPCProtoMessage.createResponse(e))
-        .addListener(ChannelFutureListener.CLOSE);
+    ChannelFuture future = mChannel.writeAndFlush(createResponse(e.getStatus(),
+        e.getMessage() != null ? e.getMessage() : "", null));
+    if (mRequest.getRequestId().isPresent()) {
+      future.addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+    } else {
+      future.addListener(ChannelFutureListener.CLOSE);
+    }
   }
 
   /**
@@ -376,7 +383,7 @@ public class PacketReadTaskStateMachine<T extends ReadRequestContext<?>> {
   private void replyEof() {
     Preconditions.checkState(!mContext.isDoneUnsafe());
     mContext.setDoneUnsafe(true);
-    mChannel.writeAndFlush(RPCProtoMessage.createOkResponse(null))
+    mChannel.writeAndFlush(createResponse(Status.OK, "", null))
         .addListeners(ChannelFutureListener.CLOSE_ON_FAILURE);
   }
 
@@ -386,10 +393,17 @@ public class PacketReadTaskStateMachine<T extends ReadRequestContext<?>> {
   private void replyCancel() {
     Preconditions.checkState(!mContext.isDoneUnsafe());
     mContext.setDoneUnsafe(true);
-    mChannel.writeAndFlush(RPCProtoMessage.createCancelResponse())
+    mChannel.writeAndFlush(createResponse(Status.CANCELLED, "canceled", null))
         .addListeners(ChannelFutureListener.CLOSE_ON_FAILURE);
   }
 
+  /**
+   * Creates a response to the request, tagged with the id of the request if it has one.
+   */
+  private RPCProtoMessage createResponse(Status status, String message, DataBuffer data) {
+    return RPCProtoMessage.createResponse(status, message, data, mRequest.getRequestId());
+  }
+
   /**
    * Returns the appropriate {@link DataBuffer} representing the data to send, depending on the
    * configurable transfer type.
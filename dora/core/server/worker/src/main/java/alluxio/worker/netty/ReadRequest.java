@@ -13,6 +13,7 @@ package alluxio.worker.netty;
 
 import alluxio.util.IdUtils;
 
+import java.util.OptionalLong;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -25,13 +26,15 @@ class ReadRequest {
   private final long mEnd;
   private final long mPacketSize;
   private final long mSessionId;
+  private final OptionalLong mRequestId;
 
-  ReadRequest(long id, long start, long end, long packetSize) {
+  ReadRequest(long id, long start, long end, long packetSize, OptionalLong requestId) {
     mId = id;
     mStart = start;
     mEnd = end;
     mPacketSize = packetSize;
     mSessionId = IdUtils.createSessionId();
+    mRequestId = requestId;
   }
 
   /**
@@ -68,4 +71,12 @@ class ReadRequest {
   public long getPacketSize() {
     return mPacketSize;
   }
+
+  /**
+   * @return the id the client tagged the request with to share the channel with other requests,
+   *         empty if the request has the channel to itself
+   */
+  public OptionalLong getRequestId() {
+    return mRequestId;
+  }
 }
@@ -62,6 +62,21 @@ public final class CopyHandler {
    */
   public static void copy(Route route, WriteOptions writeOptions,
       FileSystem srcFs, FileSystem dstFs) {
+    copy(route, writeOptions, srcFs, dstFs, JobBandwidthLimiter.UNLIMITED);
+  }
+
+  /**
+   * Copies a file from source to destination, reading the source within the bandwidth of the
+   * job.
+   *
+   * @param route        the route
+   * @param writeOptions the write options
+   * @param srcFs        the source file system
+   * @param dstFs        the destination file system
+   * @param throttle     the throttle of the copy task
+   */
+  public static void copy(Route route, WriteOptions writeOptions,
+      FileSystem srcFs, FileSystem dstFs, JobBandwidthLimiter.Throttle throttle) {
 
     AlluxioURI src = new AlluxioURI(route.getSrc());
     AlluxioURI dst = new AlluxioURI(route.getDst());
@@ -104,7 +119,7 @@ public final class CopyHandler {
       }
     }
 
-    long copiedLength = copyFile(src, dst, srcFs, dstFs, writeOptions.getWriteType());
+    long copiedLength = copyFile(src, dst, srcFs, dstFs, writeOptions.getWriteType(), throttle);
     if (writeOptions.getCheckContent()) {
       if (!checkLengthAndContentHash(sourceStatus, dst, dstFs, copiedLength)) {
         try {
@@ -120,13 +135,13 @@ public final class CopyHandler {
   }
 
   private static long copyFile(AlluxioURI src, AlluxioURI dst, FileSystem srcFs, FileSystem dstFs,
-      WritePType writeType) {
+      WritePType writeType, JobBandwidthLimiter.Throttle throttle) {
     long copiedLength;
     CreateFilePOptions createOptions =
         CreateFilePOptions.getDefaultInstance().toBuilder().setRecursive(true).setMode(
             PMode.newBuilder().setOwnerBits(Bits.ALL).setGroupBits(Bits.ALL)
                  .setOtherBits(Bits.NONE)).setWriteType(writeType).setIsAtomicWrite(true).build();
-    try (InputStream in = srcFs.openFile(src);
+    try (InputStream in = throttle.wrap(srcFs.openFile(src));
         OutputStream out = dstFs.createFile(dst, createOptions)) {
       copiedLength = IOUtils.copyLarge(in, out, new byte[Constants.MB * 8]);
     } catch (Exception e) {
@@ -0,0 +1,213 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.task;
+
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+
+import com.codahale.metrics.Counter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.RateLimiter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Limits the bandwidth of the load, copy and move jobs on a worker.
+ *
+ * Each job running on the worker has a token bucket of its own, shared by all its concurrent
+ * tasks, so that a job is limited to its bandwidth however many tasks of it are running. When a
+ * worker-wide bandwidth is set, it is divided evenly between the running jobs, and a job is
+ * limited to the smaller of its own bandwidth and its share. The bandwidth of a job is taken from
+ * each task of the job, so that an update of the bandwidth of a job takes effect with its next
+ * tasks.
+ */
+@ThreadSafe
+public final class JobBandwidthLimiter {
+  /** A throttle which never waits. */
+  public static final Throttle UNLIMITED = new Throttle(null, null) {
+    @Override
+    public void acquire(int bytes) {}
+
+    @Override
+    public void close() {}
+  };
+
+  private final long mWorkerBandwidth;
+  @GuardedBy("this")
+  private final Map<String, JobLimit> mJobs = new HashMap<>();
+
+  /**
+   * @param workerBandwidth the bandwidth shared by all jobs on the worker in bytes per second,
+   *                        or a non-positive value for unlimited
+   */
+  public JobBandwidthLimiter(long workerBandwidth) {
+    mWorkerBandwidth = workerBandwidth;
+  }
+
+  /**
+   * Registers a task of a job. The returned throttle must be closed when the task is done.
+   *
+   * @param jobId the id of the job, or empty if the task is not of a job
+   * @param bandwidth the bandwidth of the job in bytes per second, empty for unlimited
+   * @return the throttle of the task
+   */
+  public synchronized Throttle register(String jobId, OptionalLong bandwidth) {
+    if (jobId.isEmpty()
+        || (mWorkerBandwidth <= 0 && !bandwidth.isPresent() && !mJobs.containsKey(jobId))) {
+      return UNLIMITED;
+    }
+    JobLimit job = mJobs.computeIfAbsent(jobId, id -> new JobLimit());
+    job.mTasks++;
+    job.mBandwidth = bandwidth.orElse(0);
+    rebalance();
+    return new Throttle(this, job);
+  }
+
+  private synchronized void unregister(JobLimit job) {
+    if (--job.mTasks == 0) {
+      mJobs.values().remove(job);
+      rebalance();
+    }
+  }
+
+  @GuardedBy("this")
+  private void rebalance() {
+    long share = mJobs.isEmpty() ? 0 : mWorkerBandwidth / mJobs.size();
+    for (JobLimit job : mJobs.values()) {
+      long rate = job.mBandwidth;
+      if (share > 0 && (rate <= 0 || share < rate)) {
+        rate = share;
+      }
+      job.setRate(rate);
+    }
+  }
+
+  /**
+   * @param jobId the id of the job
+   * @return the bandwidth the job is limited to, or 0 if it is unlimited
+   */
+  @VisibleForTesting
+  synchronized long getRate(String jobId) {
+    JobLimit job = mJobs.get(jobId);
+    if (job == null) {
+      return 0;
+    }
+    RateLimiter limiter = job.mLimiter;
+    return limiter == null ? 0 : (long) limiter.getRate();
+  }
+
+  /**
+   * The token bucket of a job.
+   */
+  private static final class JobLimit {
+    private int mTasks;
+    private long mBandwidth;
+    @Nullable
+    private volatile RateLimiter mLimiter;
+
+    void setRate(long rate) {
+      RateLimiter limiter = mLimiter;
+      if (rate <= 0) {
+        mLimiter = null;
+      } else if (limiter == null) {
+        mLimiter = RateLimiter.create(rate);
+      } else if ((long) limiter.getRate() != rate) {
+        limiter.setRate(rate);
+      }
+    }
+  }
+
+  /**
+   * The throttle of a task, which takes the bytes it reads from the bucket of its job.
+   */
+  public static class Throttle implements Closeable {
+    private final JobBandwidthLimiter mOwner;
+    private final JobLimit mJob;
+    private boolean mClosed;
+
+    private Throttle(JobBandwidthLimiter owner, JobLimit job) {
+      mOwner = owner;
+      mJob = job;
+    }
+
+    /**
+     * Takes the given number of bytes from the bucket of the job, waiting until they are
+     * available.
+     *
+     * @param bytes the number of bytes
+     */
+    public void acquire(int bytes) {
+      RateLimiter limiter = mJob.mLimiter;
+      if (limiter == null || bytes <= 0) {
+        return;
+      }
+      double waitedSeconds = limiter.acquire(bytes);
+      if (waitedSeconds > 0) {
+        Metrics.THROTTLED_BYTES.inc(bytes);
+        Metrics.THROTTLED_TIME.inc((long) (waitedSeconds * 1000));
+      }
+    }
+
+    /**
+     * @param in the input stream
+     * @return an input stream which takes the bytes read from the bucket of the job
+     */
+    public InputStream wrap(InputStream in) {
+      return new InputStream() {
+        @Override
+        public int read() throws IOException {
+          int b = in.read();
+          if (b != -1) {
+            acquire(1);
+          }
+          return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+          int read = in.read(b, off, len);
+          acquire(read);
+          return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+          in.close();
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      if (mClosed) {
+        return;
+      }
+      mClosed = true;
+      mOwner.unregister(mJob);
+    }
+  }
+
+  private static final class Metrics {
+    private static final Counter THROTTLED_TIME =
+        MetricsSystem.counter(MetricKey.WORKER_JOB_THROTTLED_TIME.getName());
+    private static final Counter THROTTLED_BYTES =
+        MetricsSystem.counter(MetricKey.WORKER_JOB_THROTTLED_BYTES.getName());
+  }
+}
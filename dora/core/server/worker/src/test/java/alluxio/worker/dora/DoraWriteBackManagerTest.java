@@ -0,0 +1,259 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import alluxio.PositionReader;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.runtime.ResourceExhaustedRuntimeException;
+import alluxio.grpc.FileInfo;
+import alluxio.underfs.UnderFileSystem;
+import alluxio.underfs.options.CreateOptions;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
+import alluxio.util.io.BufferUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the {@link DoraWriteBackManager} class.
+ */
+public final class DoraWriteBackManagerTest {
+  private static final String PATH = "/bucket/file";
+
+  @Rule
+  public TemporaryFolder mTestFolder = new TemporaryFolder();
+
+  private final InstancedConfiguration mConf = Configuration.copyGlobal();
+  private final UnderFileSystem mUfs = mock(UnderFileSystem.class);
+  private final DoraMetaManager mMetaManager = mock(DoraMetaManager.class);
+  /** The files persisted to the UFS, by their paths. */
+  private final Map<String, byte[]> mPersisted = new ConcurrentHashMap<>();
+  private DoraWriteBackManager mManager;
+
+  @Before
+  public void before() throws Exception {
+    mConf.set(PropertyKey.DORA_WORKER_WRITE_BACK_DIR, mTestFolder.newFolder("writeback"));
+    mConf.set(PropertyKey.DORA_WORKER_WRITE_BACK_QUEUE_SIZE, 2);
+  }
+
+  @After
+  public void after() throws Exception {
+    if (mManager != null) {
+      mManager.close();
+    }
+  }
+
+  /**
+   * Persists the files into {@link #mPersisted}.
+   */
+  private void persistToMemory() throws IOException {
+    when(mUfs.create(anyString(), any(CreateOptions.class))).thenAnswer(invocation -> {
+      String path = invocation.getArgument(0);
+      return new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          mPersisted.put(path, toByteArray());
+        }
+      };
+    });
+  }
+
+  private void writeFile(String path, byte[] data) throws IOException {
+    mManager.startFile(path);
+    Files.write(mManager.getStagingFile(path), data);
+    mManager.completeFile(path, FileInfo.newBuilder().setUfsPath(path).setMode(0644).build(),
+        data.length);
+  }
+
+  private void waitForPersisted(String path) throws Exception {
+    CommonUtils.waitFor("file is persisted", () -> !mManager.isPending(path),
+        WaitForOptions.defaults().setTimeoutMs(10000));
+  }
+
+  /**
+   * Waits for the staged files to be deleted, which happens after a file is persisted.
+   */
+  private void waitForStagedFilesDeleted() throws Exception {
+    CommonUtils.waitFor("staged files deleted", () -> {
+      try {
+        return countStagedFiles() == 0;
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }, WaitForOptions.defaults().setTimeoutMs(10000));
+  }
+
+  private long countStagedFiles() throws IOException {
+    try (Stream<Path> staged =
+        Files.list(mTestFolder.getRoot().toPath().resolve("writeback"))) {
+      return staged.count();
+    }
+  }
+
+  @Test
+  public void persist() throws Exception {
+    persistToMemory();
+    mManager = new DoraWriteBackManager(mUfs, mMetaManager, mConf);
+    writeFile(PATH, BufferUtils.getIncreasingByteArray(100));
+    waitForPersisted(PATH);
+    assertTrue(BufferUtils.equalIncreasingByteArray(100, mPersisted.get(PATH)));
+    verify(mMetaManager).loadFromUfs(PATH);
+    waitForStagedFilesDeleted();
+  }
+
+  @Test
+  public void readPendingFile() throws Exception {
+    when(mUfs.create(anyString(), any(CreateOptions.class)))
+        .thenThrow(new IOException("UFS unavailable"));
+    mManager = new DoraWriteBackManager(mUfs, mMetaManager, mConf);
+    writeFile(PATH, BufferUtils.getIncreasingByteArray(100));
+    Optional<PositionReader> reader = mManager.openPendingFile(PATH);
+    assertTrue(reader.isPresent());
+    try (PositionReader r = reader.get()) {
+      byte[] buf = new byte[100];
+      assertEquals(90, r.read(10, buf, 100));
+      assertArrayEquals(BufferUtils.getIncreasingByteArray(10, 90), Arrays.copyOf(buf, 90));
+    }
+    assertFalse(mManager.openPendingFile("/bucket/other").isPresent());
+  }
+
+  @Test
+  public void restoreAfterRestart() throws Exception {
+    when(mUfs.create(anyString(), any(CreateOptions.class)))
+        .thenThrow(new IOException("UFS unavailable"));
+    mManager = new DoraWriteBackManager(mUfs, mMetaManager, mConf);
+    writeFile(PATH, BufferUtils.getIncreasingByteArray(100));
+    // a file started and not completed is dropped on restart
+    mManager.startFile("/bucket/incomplete");
+    Files.write(mManager.getStagingFile("/bucket/incomplete"), new byte[10]);
+    mManager.close();
+    assertEquals(3, countStagedFiles());
+
+    UnderFileSystem ufs = mock(UnderFileSystem.class);
+    when(ufs.create(anyString(), any(CreateOptions.class))).thenAnswer(invocation -> {
+      String path = invocation.getArgument(0);
+      return new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          mPersisted.put(path, toByteArray());
+        }
+      };
+    });
+    mManager = new DoraWriteBackManager(ufs, mMetaManager, mConf);
+    waitForPersisted(PATH);
+    assertTrue(BufferUtils.equalIncreasingByteArray(100, mPersisted.get(PATH)));
+    assertFalse(mPersisted.containsKey("/bucket/incomplete"));
+    waitForStagedFilesDeleted();
+  }
+
+  @Test
+  public void queueFull() throws Exception {
+    when(mUfs.create(anyString(), any(CreateOptions.class)))
+        .thenThrow(new IOException("UFS unavailable"));
+    mManager = new DoraWriteBackManager(mUfs, mMetaManager, mConf);
+    writeFile("/bucket/a", new byte[10]);
+    mManager.startFile("/bucket/b");
+    // the client writes to the UFS itself when the worker refuses the file
+    assertThrows(ResourceExhaustedRuntimeException.class,
+        () -> mManager.startFile("/bucket/c"));
+    assertTrue(mManager.cancel("/bucket/a"));
+    mManager.startFile("/bucket/c");
+  }
+
+  @Test
+  public void deleteWhilePersisting() throws Exception {
+    CountDownLatch persisting = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(mUfs.create(anyString(), any(CreateOptions.class))).thenAnswer(invocation -> {
+      persisting.countDown();
+      release.await();
+      return new ByteArrayOutputStream();
+    });
+    mManager = new DoraWriteBackManager(mUfs, mMetaManager, mConf);
+    writeFile(PATH, new byte[10]);
+    persisting.await();
+    // the delete waits for the file to be persisted, to delete it from the UFS afterwards
+    CompletableFuture<Boolean> cancelled =
+        CompletableFuture.supplyAsync(() -> mManager.cancel(PATH));
+    CommonUtils.waitFor("file is deleted", () -> !mManager.isPending(PATH),
+        WaitForOptions.defaults().setTimeoutMs(10000));
+    assertThrows(TimeoutException.class, () -> cancelled.get(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(cancelled.get(10, TimeUnit.SECONDS));
+    // the file is neither loaded nor deleted from the UFS by the write-back manager, as a file
+    // written to the path since is not written back
+    verify(mUfs, never()).deleteExistingFile(PATH);
+    verify(mMetaManager, never()).loadFromUfs(PATH);
+    waitForStagedFilesDeleted();
+  }
+
+  @Test
+  public void overwriteWhilePending() throws Exception {
+    CountDownLatch persisting = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(mUfs.create(anyString(), any(CreateOptions.class))).thenAnswer(invocation -> {
+      String path = invocation.getArgument(0);
+      persisting.countDown();
+      release.await();
+      return new ByteArrayOutputStream() {
+        @Override
+        public void close() {
+          mPersisted.put(path, toByteArray());
+        }
+      };
+    });
+    mManager = new DoraWriteBackManager(mUfs, mMetaManager, mConf);
+    writeFile(PATH, BufferUtils.getIncreasingByteArray(0, 10));
+    persisting.await();
+    // the second write is persisted after the first one, and wins
+    writeFile(PATH, BufferUtils.getIncreasingByteArray(5, 20));
+    assertEquals(20, mManager.getPendingFileInfo(PATH).get().getLength());
+    release.countDown();
+    waitForPersisted(PATH);
+    assertArrayEquals(BufferUtils.getIncreasingByteArray(5, 20), mPersisted.get(PATH));
+    verify(mUfs, never()).deleteExistingFile(eq(PATH));
+    verify(mMetaManager).loadFromUfs(PATH);
+  }
+}
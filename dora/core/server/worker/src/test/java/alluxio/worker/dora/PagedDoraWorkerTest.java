@@ -14,7 +14,7 @@ package alluxio.worker.dora;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
@@ -26,23 +26,37 @@ import alluxio.client.file.cache.PageMetaStore;
 import alluxio.conf.Configuration;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.AccessControlException;
+import alluxio.grpc.CompleteFilePOptions;
+import alluxio.grpc.CreateDirectoryPOptions;
+import alluxio.grpc.CreateFilePOptions;
 import alluxio.grpc.DeletePOptions;
 import alluxio.grpc.FileInfo;
 import alluxio.grpc.FileSystemMasterCommonPOptions;
 import alluxio.grpc.GetStatusPOptions;
 import alluxio.grpc.ListStatusPOptions;
+import alluxio.grpc.ListStatusPartialPOptions;
+import alluxio.grpc.ListStatusPartialPResponse;
 import alluxio.grpc.LoadFileFailure;
+import alluxio.grpc.RenamePOptions;
 import alluxio.grpc.Route;
 import alluxio.grpc.RouteFailure;
 import alluxio.grpc.SetAttributePOptions;
 import alluxio.grpc.UfsReadOptions;
 import alluxio.grpc.WriteOptions;
+import alluxio.grpc.WritePType;
+import alluxio.proto.dataserver.Protocol;
 import alluxio.security.authorization.Mode;
 import alluxio.underfs.UfsStatus;
+import alluxio.util.CommonUtils;
+import alluxio.util.WaitForOptions;
 import alluxio.util.io.BufferUtils;
+import alluxio.worker.block.io.BlockReader;
+import alluxio.worker.block.io.BlockWriter;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.netty.buffer.Unpooled;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -56,13 +70,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PagedDoraWorkerTest {
   private PagedDoraWorker mWorker;
@@ -79,6 +97,8 @@ public class PagedDoraWorkerTest {
   public void before() throws Exception {
     Configuration.set(PropertyKey.DORA_WORKER_METASTORE_ROCKSDB_DIR,
         mTestFolder.newFolder("rocks"));
+    Configuration.set(PropertyKey.DORA_WORKER_WRITE_BACK_DIR,
+        mTestFolder.newFolder("writeback"));
     CacheManagerOptions cacheManagerOptions =
         CacheManagerOptions.createForWorker(Configuration.global());
 
@@ -505,8 +525,10 @@ public class PagedDoraWorkerTest {
 
     // Assert that page cache, metadata cache & list cache all cached data properly
     assertTrue(mWorker.getMetaManager().getFromMetaStore(f.getPath()).isPresent());
-    assertSame(listResult,
-        mWorker.getMetaManager().listCached(rootPath, false).get().mUfsStatuses);
+    UfsStatus[] cachedListResult =
+        mWorker.getMetaManager().listCached(rootPath, false).get().getUfsStatuses();
+    assertEquals(1, cachedListResult.length);
+    assertEquals("f", cachedListResult[0].getName());
     List<PageId> cachedPages =
         mCacheManager.getCachedPageIdsByFileId(
             new AlluxioURI(f.getPath()).hash(), fileContent.length());
@@ -515,13 +537,210 @@ public class PagedDoraWorkerTest {
     mWorker.delete(f.getAbsolutePath(), DeletePOptions.getDefaultInstance());
     // Assert that page cache, metadata cache & list cache all removed stale data
     assertTrue(mWorker.getMetaManager().getFromMetaStore(f.getPath()).isEmpty());
-    assertTrue(mWorker.getMetaManager().listCached(rootPath, false).isEmpty());
+    assertEquals(0,
+        mWorker.getMetaManager().listCached(rootPath, false).get().getUfsStatuses().length);
     cachedPages =
         mCacheManager.getCachedPageIdsByFileId(
             new AlluxioURI(f.getPath()).hash(), fileContent.length());
     assertEquals(0, cachedPages.size());
   }
 
+  @Test
+  public void testListCacheUpdatedInPlace() throws Exception {
+    File rootFolder = mTestFolder.newFolder("root");
+    String rootPath = rootFolder.getAbsolutePath();
+    mTestFolder.newFile("root/a");
+    mTestFolder.newFile("root/c");
+    File dir = mTestFolder.newFolder("root", "dir");
+    mTestFolder.newFile("root/dir/x");
+    mWorker.listStatus(rootPath, ListStatusPOptions.getDefaultInstance());
+    mWorker.listStatus(dir.getAbsolutePath(), ListStatusPOptions.getDefaultInstance());
+    long listedAt = mWorker.getMetaManager().listCached(rootPath, false).get().mTimeStamp;
+
+    mWorker.createDirectory(rootPath + "/b", CreateDirectoryPOptions.getDefaultInstance());
+    assertEquals(ImmutableList.of("a", "b", "c", "dir"), listCachedNames(rootPath));
+    mWorker.rename(rootPath + "/a", rootPath + "/d", RenamePOptions.getDefaultInstance());
+    assertEquals(ImmutableList.of("b", "c", "d", "dir"), listCachedNames(rootPath));
+    mWorker.rename(dir.getAbsolutePath(), rootPath + "/e", RenamePOptions.getDefaultInstance());
+    assertEquals(ImmutableList.of("b", "c", "d", "e"), listCachedNames(rootPath));
+    // the listing of the renamed directory is dropped
+    assertTrue(mWorker.getMetaManager().listCached(dir.getAbsolutePath(), false).isEmpty());
+    mWorker.delete(rootPath + "/c", DeletePOptions.getDefaultInstance());
+    assertEquals(ImmutableList.of("b", "d", "e"), listCachedNames(rootPath));
+    // the updates do not make the listing look fresher than it is
+    assertEquals(listedAt, mWorker.getMetaManager().listCached(rootPath, false).get().mTimeStamp);
+  }
+
+  @Test
+  public void testListCacheKeptForMissingPath() throws Exception {
+    File rootFolder = mTestFolder.newFolder("root");
+    String rootPath = rootFolder.getAbsolutePath();
+    mTestFolder.newFile("root/a");
+    mWorker.listStatus(rootPath, ListStatusPOptions.getDefaultInstance());
+    // a path missing from the UFS is not known to be a directory, so the listings under it are
+    // not looked for
+    assertThrows(FileNotFoundException.class,
+        () -> mWorker.getFileInfo(rootPath + "/missing", GET_STATUS_OPTIONS_MUST_SYNC));
+    assertEquals(ImmutableList.of("a"), listCachedNames(rootPath));
+    // a directory known from its listing drops the listings under it
+    mWorker.listStatus(rootFolder.getParent(), ListStatusPOptions.getDefaultInstance());
+    mWorker.getMetaManager().removeFromMetaStore(rootFolder.getParent());
+    assertTrue(mWorker.getMetaManager().listCached(rootPath, false).isEmpty());
+  }
+
+  @Test
+  public void testListCacheRefresh() throws Exception {
+    mWorker.close();
+    Configuration.set(PropertyKey.DORA_UFS_LIST_STATUS_CACHE_REFRESH_INTERVAL, "1ms");
+    try {
+      mWorker = new PagedDoraWorker(
+          new AtomicReference<>(1L), Configuration.global(), mCacheManager);
+      File rootFolder = mTestFolder.newFolder("root");
+      String rootPath = rootFolder.getAbsolutePath();
+      mTestFolder.newFile("root/a");
+      assertEquals(1,
+          mWorker.listStatus(rootPath, ListStatusPOptions.getDefaultInstance()).length);
+      // a file created in the UFS outside the worker
+      mTestFolder.newFile("root/b");
+      Thread.sleep(10);
+      // the stale listing is returned, and refreshed in the background
+      assertEquals(1,
+          mWorker.listStatus(rootPath, ListStatusPOptions.getDefaultInstance()).length);
+      CommonUtils.waitFor("listing is refreshed",
+          () -> mWorker.getMetaManager().listCached(rootPath, false).get()
+              .getUfsStatuses().length == 2,
+          WaitForOptions.defaults().setTimeoutMs(10000));
+    } finally {
+      Configuration.unset(PropertyKey.DORA_UFS_LIST_STATUS_CACHE_REFRESH_INTERVAL);
+    }
+  }
+
+  @Test
+  public void testListStatusPartial() throws Exception {
+    File rootFolder = mTestFolder.newFolder("root");
+    String rootPath = rootFolder.getAbsolutePath();
+    for (String name : new String[] {"e", "b", "pa", "a", "pb", "d"}) {
+      mTestFolder.newFile("root/" + name);
+    }
+    ListStatusPOptions listOptions = ListStatusPOptions.getDefaultInstance();
+    ListStatusPartialPResponse page = mWorker.listStatusPartial(rootPath,
+        ListStatusPartialPOptions.newBuilder().setOptions(listOptions).setBatchSize(4).build());
+    assertEquals(ImmutableList.of("a", "b", "d", "e"), getNames(page));
+    assertTrue(page.getIsTruncated());
+    assertEquals(6, page.getFileCount());
+    page = mWorker.listStatusPartial(rootPath, ListStatusPartialPOptions.newBuilder()
+        .setOptions(listOptions).setBatchSize(4).setStartAfter(rootPath + "/e").build());
+    assertEquals(ImmutableList.of("pa", "pb"), getNames(page));
+    assertFalse(page.getIsTruncated());
+    page = mWorker.listStatusPartial(rootPath, ListStatusPartialPOptions.newBuilder()
+        .setOptions(listOptions).setBatchSize(2).setStartAfter("c").build());
+    assertEquals(ImmutableList.of("d", "e"), getNames(page));
+    assertTrue(page.getIsTruncated());
+    page = mWorker.listStatusPartial(rootPath, ListStatusPartialPOptions.newBuilder()
+        .setOptions(listOptions).setOffsetCount(1).setPrefix("/p").build());
+    assertEquals(ImmutableList.of("pb"), getNames(page));
+    assertFalse(page.getIsTruncated());
+    assertNull(mWorker.listStatusPartial(rootPath + "/none",
+        ListStatusPartialPOptions.newBuilder().setOptions(listOptions).build()));
+  }
+
+  @Test
+  public void testListStatusPartialByKey() throws Exception {
+    File rootFolder = mTestFolder.newFolder("root");
+    String rootPath = rootFolder.getAbsolutePath();
+    mTestFolder.newFolder("root", "a");
+    mTestFolder.newFile("root/a-b");
+    mTestFolder.newFile("root/a0");
+    ListStatusPOptions listOptions = ListStatusPOptions.getDefaultInstance();
+    // the directory "a" is keyed "a/", which is after "a-b" and before "a0"
+    ListStatusPartialPResponse page = mWorker.listStatusPartial(rootPath,
+        ListStatusPartialPOptions.newBuilder().setOptions(listOptions).setBatchSize(2).build());
+    assertEquals(ImmutableList.of("a-b", "a"), getNames(page));
+    assertTrue(page.getIsTruncated());
+    page = mWorker.listStatusPartial(rootPath, ListStatusPartialPOptions.newBuilder()
+        .setOptions(listOptions).setBatchSize(2).setStartAfter(rootPath + "/a").build());
+    assertEquals(ImmutableList.of("a0"), getNames(page));
+    assertFalse(page.getIsTruncated());
+    // a file added in place is kept in the order of the keys
+    mTestFolder.newFile("root/a.c");
+    mWorker.getMetaManager().loadFromUfs(rootPath + "/a.c");
+    assertEquals(ImmutableList.of("a-b", "a.c", "a", "a0"), listCachedNames(rootPath));
+  }
+
+  @Test
+  public void testWriteBack() throws Exception {
+    String path = mTestFolder.getRoot().getAbsolutePath() + "/dir/file";
+    int length = (int) mPageSize + 10;
+    byte[] data = BufferUtils.getIncreasingByteArray(length);
+    OpenFileHandle handle = mWorker.createFile(path,
+        CreateFilePOptions.newBuilder().setWriteType(WritePType.ASYNC_THROUGH).build());
+    try (BlockWriter writer = mWorker.createFileWriter(new AlluxioURI(path).hash(), path)) {
+      assertTrue(writer instanceof WriteBackFileWriter);
+      writer.append(Unpooled.wrappedBuffer(data));
+      writer.commitFile();
+    }
+    mWorker.completeFile(path, CompleteFilePOptions.newBuilder().setUfsLength(length).build(),
+        handle.getUUID().toString());
+    // the file is readable from the worker whether it is persisted yet or not
+    assertEquals(length, mWorker.getFileInfo(path, GET_STATUS_OPTIONS_MUST_SYNC).getLength());
+    assertEquals(2, mCacheManager.getCachedPageIdsByFileId(
+        new AlluxioURI(path).hash(), length).size());
+    CommonUtils.waitFor("file is persisted",
+        () -> {
+          try {
+            return mWorker.getFileInfo(path, GetStatusPOptions.getDefaultInstance())
+                .isPersisted();
+          } catch (IOException | AccessControlException e) {
+            throw new RuntimeException(e);
+          }
+        }, WaitForOptions.defaults().setTimeoutMs(10000));
+    assertTrue(BufferUtils.equalIncreasingByteArray(length,
+        Files.readAllBytes(new File(path).toPath())));
+    // the pages written are not invalidated when the persisted file is loaded
+    assertEquals(2, mCacheManager.getCachedPageIdsByFileId(
+        new AlluxioURI(path).hash(), length).size());
+    try (Stream<Path> staged = Files.list(mTestFolder.getRoot().toPath().resolve("writeback"))) {
+      assertEquals(0, staged.count());
+    }
+  }
+
+  @Test
+  public void testWriteBackReadAfterEviction() throws Exception {
+    // the parent of the file is a regular file, so the file cannot be persisted for now
+    File blocker = mTestFolder.newFile("blocker");
+    String path = blocker.getAbsolutePath() + "/file";
+    int length = (int) mPageSize + 10;
+    byte[] data = BufferUtils.getIncreasingByteArray(length);
+    OpenFileHandle handle = mWorker.createFile(path,
+        CreateFilePOptions.newBuilder().setWriteType(WritePType.ASYNC_THROUGH).build());
+    try (BlockWriter writer = mWorker.createFileWriter(new AlluxioURI(path).hash(), path)) {
+      writer.append(Unpooled.wrappedBuffer(data));
+      writer.commitFile();
+    }
+    mWorker.completeFile(path, CompleteFilePOptions.newBuilder().setUfsLength(length).build(),
+        handle.getUUID().toString());
+    mCacheManager.deleteFile(new AlluxioURI(path).hash());
+    // the pages missing from the cache are read from the staging file, not the UFS
+    try (BlockReader reader = mWorker.createFileReader(new AlluxioURI(path).hash(), 0, false,
+        Protocol.OpenUfsBlockOptions.newBuilder().setUfsPath(path).setBlockSize(length)
+            .build())) {
+      byte[] buf = new byte[length];
+      assertEquals(length, ((PagedFileReader) reader).read(0, buf, length));
+      assertTrue(BufferUtils.equalIncreasingByteArray(length, buf));
+    }
+    assertFalse(mWorker.getFileInfo(path, GetStatusPOptions.getDefaultInstance()).isPersisted());
+  }
+
+  private List<String> listCachedNames(String path) {
+    return Arrays.stream(mWorker.getMetaManager().listCached(path, false).get().getUfsStatuses())
+        .map(UfsStatus::getName).collect(Collectors.toList());
+  }
+
+  private static List<String> getNames(ListStatusPartialPResponse response) {
+    return response.getFileInfosList().stream()
+        .map(FileInfo::getName).collect(Collectors.toList());
+  }
+
   private void loadFileData(String path)
       throws ExecutionException, InterruptedException, TimeoutException, IOException,
       AccessControlException {
@@ -0,0 +1,217 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import alluxio.PositionReader;
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheManagerOptions;
+import alluxio.client.file.cache.PageId;
+import alluxio.client.file.cache.PageMetaStore;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.exception.runtime.AlluxioRuntimeException;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.util.io.BufferUtils;
+import alluxio.worker.task.JobBandwidthLimiter;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link PagedFileLoader} class.
+ */
+public final class PagedFileLoaderTest {
+  private static final int PAGE_SIZE = 1024;
+  private static final String FILE_ID = "file";
+
+  @Rule
+  public TemporaryFolder mTestFolder = new TemporaryFolder();
+
+  private CacheManager mCacheManager;
+  private ExecutorService mExecutor;
+
+  @Before
+  public void before() throws Exception {
+    InstancedConfiguration conf = Configuration.copyGlobal();
+    conf.set(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE, PAGE_SIZE);
+    conf.set(PropertyKey.WORKER_PAGE_STORE_DIRS,
+        ImmutableList.of(mTestFolder.getRoot().getAbsolutePath()));
+    conf.set(PropertyKey.WORKER_PAGE_STORE_ASYNC_RESTORE_ENABLED, false);
+    CacheManagerOptions options = CacheManagerOptions.createForWorker(conf);
+    mCacheManager = CacheManager.Factory.create(conf, options, PageMetaStore.create(options));
+    mExecutor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void after() throws Exception {
+    mExecutor.shutdownNow();
+    mCacheManager.close();
+  }
+
+  @Test
+  public void load() throws Exception {
+    int length = PAGE_SIZE * 10 + 100;
+    CountingReader reader = new CountingReader(BufferUtils.getIncreasingByteArray(length));
+    // ranges of 3 pages, of which 2 are loaded at a time
+    new PagedFileLoader(mCacheManager, mExecutor, PAGE_SIZE, PAGE_SIZE * 3 + 10, 2,
+        PAGE_SIZE * 100)
+        .load(FILE_ID, reader, length, JobBandwidthLimiter.UNLIMITED);
+    assertEquals(4, reader.mReads.get());
+    assertEquals(length, reader.mBytesRead.get());
+    List<PageId> pages = mCacheManager.getCachedPageIdsByFileId(FILE_ID, length);
+    assertEquals(11, pages.size());
+    for (int i = 0; i < 11; i++) {
+      int pageLength = Math.min(PAGE_SIZE, length - i * PAGE_SIZE);
+      byte[] page = new byte[pageLength];
+      assertEquals(pageLength, mCacheManager.get(new PageId(FILE_ID, i), pageLength, page, 0));
+      assertTrue(BufferUtils.equalIncreasingByteArray(i * PAGE_SIZE, pageLength, page));
+    }
+  }
+
+  @Test
+  public void skipCachedPages() throws Exception {
+    int length = PAGE_SIZE * 6;
+    byte[] data = BufferUtils.getIncreasingByteArray(length);
+    mCacheManager.put(new PageId(FILE_ID, 1), BufferUtils.getIncreasingByteArray(
+        PAGE_SIZE, PAGE_SIZE));
+    mCacheManager.put(new PageId(FILE_ID, 5), BufferUtils.getIncreasingByteArray(
+        PAGE_SIZE * 5, PAGE_SIZE));
+    CountingReader reader = new CountingReader(data);
+    new PagedFileLoader(mCacheManager, mExecutor, PAGE_SIZE, PAGE_SIZE * 6, 1, PAGE_SIZE * 100)
+        .load(FILE_ID, reader, length, JobBandwidthLimiter.UNLIMITED);
+    // page 0 and pages 2 to 4 are read
+    assertEquals(2, reader.mReads.get());
+    assertEquals(PAGE_SIZE * 4, reader.mBytesRead.get());
+    assertEquals(6, mCacheManager.getCachedPageIdsByFileId(FILE_ID, length).size());
+  }
+
+  @Test
+  public void failure() {
+    int length = PAGE_SIZE * 8;
+    PositionReader reader = new CountingReader(new byte[length]) {
+      @Override
+      public int readInternal(long position, ReadTargetBuffer buffer, int len)
+          throws IOException {
+        if (position >= PAGE_SIZE * 4) {
+          throw new IOException("failed to read");
+        }
+        return super.readInternal(position, buffer, len);
+      }
+    };
+    assertThrows(AlluxioRuntimeException.class,
+        () -> new PagedFileLoader(mCacheManager, mExecutor, PAGE_SIZE, PAGE_SIZE * 2, 2,
+            PAGE_SIZE * 100)
+            .load(FILE_ID, reader, length, JobBandwidthLimiter.UNLIMITED));
+  }
+
+  @Test
+  public void boundBufferSize() throws Exception {
+    int length = PAGE_SIZE * 8;
+    AtomicInteger reading = new AtomicInteger();
+    AtomicInteger maxReading = new AtomicInteger();
+    PositionReader reader = new CountingReader(BufferUtils.getIncreasingByteArray(length)) {
+      @Override
+      public int readInternal(long position, ReadTargetBuffer buffer, int len)
+          throws IOException {
+        maxReading.accumulateAndGet(reading.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(10);
+          return super.readInternal(position, buffer, len);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        } finally {
+          reading.decrementAndGet();
+        }
+      }
+    };
+    // 4 ranges of a file may be loaded at a time, but the buffers only have room for one
+    new PagedFileLoader(mCacheManager, mExecutor, PAGE_SIZE, PAGE_SIZE * 2, 4, PAGE_SIZE)
+        .load(FILE_ID, reader, length, JobBandwidthLimiter.UNLIMITED);
+    assertEquals(1, maxReading.get());
+    assertEquals(8, mCacheManager.getCachedPageIdsByFileId(FILE_ID, length).size());
+  }
+
+  @Test
+  public void holdBufferUntilPageWritten() throws Exception {
+    CacheManager cacheManager = mock(CacheManager.class);
+    BlockingQueue<Runnable> writes = new LinkedBlockingQueue<>();
+    // the pages are written asynchronously, once the writes are run
+    when(cacheManager.put(any(PageId.class), any(ByteBuffer.class), any(CacheContext.class),
+        any(Runnable.class))).thenAnswer(invocation -> {
+          writes.add(invocation.getArgument(3));
+          return true;
+        });
+    PagedFileLoader loader =
+        new PagedFileLoader(cacheManager, mExecutor, PAGE_SIZE, PAGE_SIZE, 2, PAGE_SIZE);
+    Future<?> load = mExecutor.submit(() -> loader.load(FILE_ID,
+        new CountingReader(BufferUtils.getIncreasingByteArray(PAGE_SIZE * 2)), PAGE_SIZE * 2,
+        JobBandwidthLimiter.UNLIMITED));
+    Runnable first = writes.poll(10, TimeUnit.SECONDS);
+    assertNotNull(first);
+    // the second page is not read until the buffer of the first one is written
+    assertNull(writes.poll(200, TimeUnit.MILLISECONDS));
+    assertFalse(load.isDone());
+    first.run();
+    Runnable second = writes.poll(10, TimeUnit.SECONDS);
+    assertNotNull(second);
+    second.run();
+    load.get(10, TimeUnit.SECONDS);
+  }
+
+  private static class CountingReader implements PositionReader {
+    private final byte[] mData;
+    private final AtomicInteger mReads = new AtomicInteger();
+    private final AtomicInteger mBytesRead = new AtomicInteger();
+
+    CountingReader(byte[] data) {
+      mData = data;
+    }
+
+    @Override
+    public int readInternal(long position, ReadTargetBuffer buffer, int length)
+        throws IOException {
+      int bytesToRead = (int) Math.min(length, mData.length - position);
+      buffer.writeBytes(mData, (int) position, bytesToRead);
+      mReads.incrementAndGet();
+      mBytesRead.addAndGet(bytesToRead);
+      return bytesToRead;
+    }
+  }
+}
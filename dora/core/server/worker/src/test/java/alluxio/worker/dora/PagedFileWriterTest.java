@@ -0,0 +1,127 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheManagerOptions;
+import alluxio.client.file.cache.PageId;
+import alluxio.client.file.cache.PageMetaStore;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.util.io.BufferUtils;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.Unpooled;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tests for the {@link PagedFileWriter} class.
+ */
+public final class PagedFileWriterTest {
+  private static final int PAGE_SIZE = 1024;
+  private static final String FILE_ID = "file";
+
+  @Rule
+  public TemporaryFolder mTestFolder = new TemporaryFolder();
+
+  private CacheManager mCacheManager;
+
+  @Before
+  public void before() throws Exception {
+    InstancedConfiguration conf = Configuration.copyGlobal();
+    conf.set(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE, PAGE_SIZE);
+    conf.set(PropertyKey.WORKER_PAGE_STORE_DIRS,
+        ImmutableList.of(mTestFolder.getRoot().getAbsolutePath()));
+    conf.set(PropertyKey.WORKER_PAGE_STORE_ASYNC_RESTORE_ENABLED, false);
+    CacheManagerOptions options = CacheManagerOptions.createForWorker(conf);
+    mCacheManager = spy(CacheManager.Factory.create(conf, options,
+        PageMetaStore.create(options)));
+  }
+
+  @After
+  public void after() throws Exception {
+    mCacheManager.close();
+  }
+
+  @Test
+  public void writeInChunks() throws Exception {
+    int length = PAGE_SIZE * 3 + 100;
+    byte[] data = BufferUtils.getIncreasingByteArray(length);
+    try (PagedFileWriter writer = new PagedFileWriter(mCacheManager, FILE_ID, PAGE_SIZE, false)) {
+      // chunks which do not divide the page size, so that some of them span two pages
+      int chunkSize = 100;
+      for (int offset = 0; offset < length; offset += chunkSize) {
+        int chunkLength = Math.min(chunkSize, length - offset);
+        assertEquals(chunkLength, writer.append(Unpooled.wrappedBuffer(data, offset, chunkLength)));
+      }
+      assertEquals(length, writer.getPosition());
+      // the full pages are put, the last page is put when the file is committed
+      verify(mCacheManager, times(3)).put(any(PageId.class), any(ByteBuffer.class),
+          any(CacheContext.class));
+      writer.commitFile();
+    }
+    // each page is put once, and never read back and rewritten
+    verify(mCacheManager, times(4)).put(any(PageId.class), any(ByteBuffer.class),
+        any(CacheContext.class));
+    verify(mCacheManager, never()).append(any(PageId.class), anyInt(), any(byte[].class),
+        any(CacheContext.class));
+    assertPages(length);
+  }
+
+  @Test
+  public void copyPages() throws Exception {
+    int length = PAGE_SIZE * 2 + 10;
+    byte[] data = BufferUtils.getIncreasingByteArray(length);
+    try (PagedFileWriter writer = new PagedFileWriter(mCacheManager, FILE_ID, PAGE_SIZE, true)) {
+      assertEquals(length, writer.append(ByteBuffer.wrap(data)));
+      writer.commitFile();
+    }
+    assertPages(length);
+  }
+
+  @Test
+  public void abort() throws Exception {
+    try (PagedFileWriter writer = new PagedFileWriter(mCacheManager, FILE_ID, PAGE_SIZE, false)) {
+      writer.append(ByteBuffer.wrap(BufferUtils.getIncreasingByteArray(PAGE_SIZE + 10)));
+      writer.abort();
+    }
+    assertTrue(mCacheManager.getCachedPageIdsByFileId(FILE_ID, PAGE_SIZE + 10).isEmpty());
+  }
+
+  private void assertPages(int length) {
+    int pages = (length + PAGE_SIZE - 1) / PAGE_SIZE;
+    assertEquals(pages, mCacheManager.getCachedPageIdsByFileId(FILE_ID, length).size());
+    for (int i = 0; i < pages; i++) {
+      int pageLength = Math.min(PAGE_SIZE, length - i * PAGE_SIZE);
+      byte[] page = new byte[pageLength];
+      assertEquals(pageLength, mCacheManager.get(new PageId(FILE_ID, i), pageLength, page, 0));
+      assertTrue(BufferUtils.equalIncreasingByteArray(i * PAGE_SIZE, pageLength, page));
+    }
+  }
+}
@@ -118,6 +118,60 @@ public class RocksDBDoraMetaStoreTest extends TestCase {
     System.out.println("End testGetExpire");
   }
 
+  public void testPathFieldsRestoredFromKey() {
+    String path = "s3://bucket/dir/file";
+    FileInfo fi = FileInfo.newBuilder()
+        .setUfsPath(path)
+        .setName("file")
+        .setPath("/dir/file")
+        .setLength(1000)
+        .build();
+    DoraMeta.FileStatus fs = DoraMeta.FileStatus.newBuilder()
+        .setFileInfo(fi)
+        .setTs(System.nanoTime())
+        .build();
+    byte[] value = RocksDBDoraMetaStore.encode(path, fs, System.currentTimeMillis());
+    // neither the ufs path nor the name is stored
+    assertTrue(value.length < fs.getSerializedSize());
+    mTestMetastore.putDoraMeta(path, fs);
+    assertEquals(fs, mTestMetastore.getDoraMeta(path).get());
+
+    // fields which do not match the path are kept as they are
+    DoraMeta.FileStatus other = fs.toBuilder()
+        .setFileInfo(fi.toBuilder().setUfsPath("s3://bucket/other").setName("other")).build();
+    mTestMetastore.putDoraMeta(path, other);
+    assertEquals(other, mTestMetastore.getDoraMeta(path).get());
+  }
+
+  public void testSameNameInDifferentDirectories() {
+    DoraMeta.FileStatus fs1 = DoraMeta.FileStatus.newBuilder()
+        .setFileInfo(FileInfo.newBuilder().setLength(1)).setTs(1).build();
+    DoraMeta.FileStatus fs2 = DoraMeta.FileStatus.newBuilder()
+        .setFileInfo(FileInfo.newBuilder().setLength(2)).setTs(2).build();
+    mTestMetastore.putDoraMeta("/SAME/A/file", fs1);
+    mTestMetastore.putDoraMeta("/SAME/B/file", fs2);
+    assertEquals(fs1, mTestMetastore.getDoraMeta("/SAME/A/file").get());
+    assertEquals(fs2, mTestMetastore.getDoraMeta("/SAME/B/file").get());
+    assertFalse(mTestMetastore.getDoraMeta("/SAME/C/file").isPresent());
+    mTestMetastore.removeDoraMeta("/SAME/A/file");
+    assertFalse(mTestMetastore.getDoraMeta("/SAME/A/file").isPresent());
+    assertEquals(fs2, mTestMetastore.getDoraMeta("/SAME/B/file").get());
+  }
+
+  public void testReopen() {
+    String path = "/REOPEN/file";
+    DoraMeta.FileStatus fs = DoraMeta.FileStatus.newBuilder()
+        .setFileInfo(FileInfo.newBuilder().setUfsPath(path).setLength(1)).setTs(1).build();
+    mTestMetastore.putDoraMeta(path, fs);
+    mTestMetastore.close();
+    mTestMetastore = new RocksDBDoraMetaStore("/tmp/", 3 /* seconds */);
+    assertEquals(fs, mTestMetastore.getDoraMeta(path).get());
+    // the directory ids given out before the restart are not given out again
+    String otherPath = "/REOPEN-OTHER/file";
+    mTestMetastore.putDoraMeta(otherPath, DoraMeta.FileStatus.getDefaultInstance());
+    assertEquals(fs, mTestMetastore.getDoraMeta(path).get());
+  }
+
   /**
    * Performance Testing.
    */
@@ -83,6 +83,11 @@ class ByteArrayCacheManager implements CacheManager {
     return bytesToRead;
   }
 
+  @Override
+  public boolean hasPage(PageId pageId) {
+    return mPages.containsKey(pageId);
+  }
+
   @Override
   public boolean delete(PageId pageId) {
     return mPages.remove(pageId) != null;
@@ -0,0 +1,102 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import alluxio.metrics.MetricKey;
+import alluxio.metrics.MetricsSystem;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.OptionalLong;
+
+/**
+ * Tests for the {@link JobBandwidthLimiter} class.
+ */
+public final class JobBandwidthLimiterTest {
+  private static final String JOB1 = "job1";
+  private static final String JOB2 = "job2";
+
+  @Test
+  public void unlimited() {
+    JobBandwidthLimiter limiter = new JobBandwidthLimiter(0);
+    assertSame(JobBandwidthLimiter.UNLIMITED, limiter.register(JOB1, OptionalLong.empty()));
+    assertSame(JobBandwidthLimiter.UNLIMITED, limiter.register("", OptionalLong.of(100)));
+    assertEquals(0, limiter.getRate(JOB1));
+  }
+
+  @Test
+  public void shareBetweenTasksOfJob() {
+    JobBandwidthLimiter limiter = new JobBandwidthLimiter(0);
+    JobBandwidthLimiter.Throttle task1 = limiter.register(JOB1, OptionalLong.of(100));
+    JobBandwidthLimiter.Throttle task2 = limiter.register(JOB1, OptionalLong.of(100));
+    assertEquals(100, limiter.getRate(JOB1));
+    task1.close();
+    assertEquals(100, limiter.getRate(JOB1));
+    task2.close();
+    assertEquals(0, limiter.getRate(JOB1));
+  }
+
+  @Test
+  public void updateBandwidth() {
+    JobBandwidthLimiter limiter = new JobBandwidthLimiter(0);
+    JobBandwidthLimiter.Throttle task1 = limiter.register(JOB1, OptionalLong.of(100));
+    JobBandwidthLimiter.Throttle task2 = limiter.register(JOB1, OptionalLong.of(200));
+    assertEquals(200, limiter.getRate(JOB1));
+    // the bandwidth of the job was removed
+    JobBandwidthLimiter.Throttle task3 = limiter.register(JOB1, OptionalLong.empty());
+    assertEquals(0, limiter.getRate(JOB1));
+    task1.close();
+    task2.close();
+    task3.close();
+  }
+
+  @Test
+  public void fairShareBetweenJobs() {
+    JobBandwidthLimiter limiter = new JobBandwidthLimiter(1000);
+    JobBandwidthLimiter.Throttle task1 = limiter.register(JOB1, OptionalLong.empty());
+    assertEquals(1000, limiter.getRate(JOB1));
+    JobBandwidthLimiter.Throttle task2 = limiter.register(JOB2, OptionalLong.of(300));
+    assertEquals(500, limiter.getRate(JOB1));
+    assertEquals(300, limiter.getRate(JOB2));
+    task2.close();
+    assertEquals(1000, limiter.getRate(JOB1));
+    task1.close();
+  }
+
+  @Test
+  public void throttle() throws Exception {
+    JobBandwidthLimiter limiter = new JobBandwidthLimiter(0);
+    long throttledBytes = MetricsSystem.counter(
+        MetricKey.WORKER_JOB_THROTTLED_BYTES.getName()).getCount();
+    long throttledTime = MetricsSystem.counter(
+        MetricKey.WORKER_JOB_THROTTLED_TIME.getName()).getCount();
+    try (JobBandwidthLimiter.Throttle throttle = limiter.register(JOB1, OptionalLong.of(1000));
+         InputStream in = throttle.wrap(new ByteArrayInputStream(new byte[1500]))) {
+      long start = System.nanoTime();
+      // the first read is let through, the second waits for the bytes of the first
+      assertEquals(1000, in.read(new byte[1000]));
+      assertEquals(500, in.read(new byte[1000]));
+      assertTrue(System.nanoTime() - start > 500_000_000L);
+    }
+    // only the bytes of the read which waited are throttled
+    assertEquals(500, MetricsSystem.counter(
+        MetricKey.WORKER_JOB_THROTTLED_BYTES.getName()).getCount() - throttledBytes);
+    assertTrue(MetricsSystem.counter(
+        MetricKey.WORKER_JOB_THROTTLED_TIME.getName()).getCount() - throttledTime > 500);
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import alluxio.client.file.cache.evictor.CacheEvictor;
+import alluxio.client.file.cache.evictor.CacheEvictorOptions;
+import alluxio.client.file.cache.evictor.FIFOCacheEvictor;
+import alluxio.client.file.cache.evictor.LFUCacheEvictor;
+import alluxio.client.file.cache.evictor.LRUCacheEvictor;
+import alluxio.client.file.cache.evictor.TinyLFUCacheEvictor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This benchmark replays a trace of page accesses against the cache evictors, and reports the hit
+ * ratio of each at the end of the trial along with the throughput.
+ * The following parameters can be varied:
+ * mEvictor - the cache evictor
+ * mTrace - ZIPF accesses a skewed working set, SCAN interleaves it with scans of pages which are
+ *          read only once
+ * mCapacity - the number of pages the cache holds
+ *
+ * The hit benchmark measures the throughput of concurrent accesses to cached pages.
+ */
+public class CacheEvictorBench {
+  private static final int NUM_PAGES = 100_000;
+  private static final int TRACE_LENGTH = 1 << 20;
+
+  @State(Scope.Benchmark)
+  public static class Replay {
+    @Param({"LRU", "LFU", "FIFO", "TINYLFU"})
+    public String mEvictor;
+
+    @Param({"ZIPF", "SCAN"})
+    public String mTrace;
+
+    @Param({"10000"})
+    public int mCapacity;
+
+    CacheEvictor mCacheEvictor;
+    PageId[] mAccesses;
+    Set<PageId> mPages;
+    int mPosition;
+    long mHits;
+    long mMisses;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      mCacheEvictor = createEvictor(mEvictor);
+      mAccesses = createTrace(mTrace);
+      mPages = new HashSet<>();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      System.out.printf("%n%s %s hit ratio: %.4f%n", mEvictor, mTrace,
+          (double) mHits / (mHits + mMisses));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Hit {
+    @Param({"LRU", "LFU", "FIFO", "TINYLFU"})
+    public String mEvictor;
+
+    CacheEvictor mCacheEvictor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      mCacheEvictor = createEvictor(mEvictor);
+      for (int i = 0; i < NUM_PAGES; i++) {
+        mCacheEvictor.updateOnPut(new PageId("0", i));
+      }
+    }
+  }
+
+  @Benchmark
+  public boolean replay(Replay replay) {
+    PageId pageId = replay.mAccesses[replay.mPosition];
+    replay.mPosition = (replay.mPosition + 1) & (TRACE_LENGTH - 1);
+    if (replay.mPages.contains(pageId)) {
+      replay.mHits++;
+      replay.mCacheEvictor.updateOnGet(pageId);
+      return true;
+    }
+    replay.mMisses++;
+    if (replay.mPages.size() >= replay.mCapacity) {
+      PageId victim = replay.mCacheEvictor.evict();
+      replay.mCacheEvictor.updateOnDelete(victim);
+      replay.mPages.remove(victim);
+    }
+    replay.mCacheEvictor.updateOnPut(pageId);
+    replay.mPages.add(pageId);
+    return false;
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void hit(Hit hit) {
+    hit.mCacheEvictor.updateOnGet(
+        new PageId("0", ThreadLocalRandom.current().nextInt(NUM_PAGES)));
+  }
+
+  private static CacheEvictor createEvictor(String evictor) {
+    CacheEvictorOptions options = new CacheEvictorOptions();
+    switch (evictor) {
+      case "LRU":
+        return new LRUCacheEvictor(options);
+      case "LFU":
+        return new LFUCacheEvictor(options);
+      case "FIFO":
+        return new FIFOCacheEvictor(options);
+      case "TINYLFU":
+        return new TinyLFUCacheEvictor(options);
+      default:
+        throw new IllegalArgumentException("Unknown evictor " + evictor);
+    }
+  }
+
+  private static PageId[] createTrace(String trace) {
+    Random random = new Random(0);
+    double[] cumulative = new double[NUM_PAGES];
+    double sum = 0;
+    for (int i = 0; i < NUM_PAGES; i++) {
+      sum += 1.0 / (i + 1);
+      cumulative[i] = sum;
+    }
+    PageId[] accesses = new PageId[TRACE_LENGTH];
+    long scanPage = 0;
+    for (int i = 0; i < TRACE_LENGTH; i++) {
+      // every other block of 16K accesses is a scan of pages read only once
+      if (trace.equals("SCAN") && (i >> 14) % 2 == 1) {
+        accesses[i] = new PageId("scan", scanPage++);
+        continue;
+      }
+      double target = random.nextDouble() * sum;
+      int index = Arrays.binarySearch(cumulative, target);
+      accesses[i] = new PageId("zipf", index < 0 ? -index - 1 : index);
+    }
+    return accesses;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(CacheEvictorBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
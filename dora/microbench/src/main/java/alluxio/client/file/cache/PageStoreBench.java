@@ -0,0 +1,122 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.cache;
+
+import alluxio.AlluxioTestDirectory;
+import alluxio.ProjectConstants;
+import alluxio.client.file.cache.store.PageStoreOptions;
+import alluxio.client.file.cache.store.PageStoreType;
+import alluxio.file.ByteArrayTargetBuffer;
+import alluxio.util.io.BufferUtils;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This benchmark measures the throughput of reading and writing pages of a page store.
+ * The following parameters can be varied:
+ * mType - the type of page store
+ * mPageSize - the size of each page in bytes
+ * mPageCount - the number of pages written before the benchmark, and read by it
+ * mOperation - READ reads random pages, WRITE overwrites random pages
+ * mMmapEnabled - whether pages are read from files mapped into memory
+ */
+public class PageStoreBench {
+  @State(Scope.Thread)
+  public static class ThreadState {
+    byte[] mBuffer;
+
+    @Setup(Level.Trial)
+    public void setup(Store store) {
+      mBuffer = new byte[store.mPageSize];
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Store {
+    @Param({"LOCAL", "ROCKS", "SEGMENT"})
+    public PageStoreType mType;
+
+    @Param({"65536", "1048576"})
+    public int mPageSize;
+
+    @Param({"1000"})
+    public int mPageCount;
+
+    @Param({"READ", "WRITE"})
+    public String mOperation;
+
+    @Param({"false", "true"})
+    public boolean mMmapEnabled;
+
+    PageStore mPageStore;
+    File mDir;
+    byte[] mPage;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mDir = AlluxioTestDirectory.createTemporaryDirectory("page-store-bench");
+      PageStoreOptions options = new PageStoreOptions()
+          .setStoreType(mType)
+          .setPageSize(mPageSize)
+          // leaves room for overwrites of the whole data set
+          .setCacheSize(4L * mPageCount * mPageSize)
+          .setOverheadRatio(mType.getOverheadRatio())
+          .setAlluxioVersion(ProjectConstants.VERSION)
+          .setMmapEnabled(mMmapEnabled)
+          .setRootDir(mDir.toPath());
+      mPageStore = PageStore.create(options);
+      mPage = BufferUtils.getIncreasingByteArray(mPageSize);
+      for (int i = 0; i < mPageCount; i++) {
+        mPageStore.put(new PageId(Integer.toString(i % 100), i), mPage);
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void after() throws Exception {
+      mPageStore.close();
+      FileUtils.deleteDirectory(mDir);
+    }
+  }
+
+  @Benchmark
+  public void testMethod(Store store, ThreadState ts, Blackhole bh) throws Exception {
+    int index = ThreadLocalRandom.current().nextInt(store.mPageCount);
+    PageId pageId = new PageId(Integer.toString(index % 100), index);
+    if (store.mOperation.equals("READ")) {
+      bh.consume(store.mPageStore.get(pageId, new ByteArrayTargetBuffer(ts.mBuffer, 0)));
+    } else {
+      store.mPageStore.put(pageId, store.mPage);
+    }
+  }
+
+  public static void main(String []args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(PageStoreBench.class.getSimpleName())
+        .warmupIterations(5)
+        .forks(1).threads(1).build();
+    new Runner(opt).run();
+  }
+}
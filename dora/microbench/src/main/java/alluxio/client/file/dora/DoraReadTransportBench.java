@@ -0,0 +1,193 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import alluxio.AlluxioTestDirectory;
+import alluxio.AlluxioURI;
+import alluxio.PositionReader;
+import alluxio.client.file.FileInStream;
+import alluxio.client.file.FileSystem;
+import alluxio.conf.Configuration;
+import alluxio.conf.PropertyKey;
+import alluxio.master.LocalAlluxioCluster;
+import alluxio.util.io.BufferUtils;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark reads a file cached by a worker of a local cluster running in the same JVM,
+ * either over netty or over gRPC. The read benchmark reads the whole file and reports the
+ * throughput in files read per second along with the CPU time the process spent per MB read, on
+ * both the client and the worker. The randomRead benchmark reads small blocks at random positions
+ * and reports the reads per second, which for the multiplexed netty reads is to scale with the
+ * number of threads (-t) reading at the same time.
+ * The following parameters can be varied:
+ * mTransport - NETTY, NETTY_MULTIPLEX for netty with the reads sharing channels, or GRPC
+ * mFileSizeMB - the size of the file read
+ * mRandomReadSize - the size of the random reads
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DoraReadTransportBench {
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  @State(Scope.Benchmark)
+  public static class Cluster {
+    @Param({"NETTY", "NETTY_MULTIPLEX", "GRPC"})
+    public String mTransport;
+
+    @Param({"64"})
+    public int mFileSizeMB;
+
+    LocalAlluxioCluster mCluster;
+    FileSystem mFileSystem;
+    AlluxioURI mPath;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      String ufsRoot =
+          AlluxioTestDirectory.createTemporaryDirectory("ufs_root").getAbsolutePath();
+      mCluster = new LocalAlluxioCluster(1, false, false);
+      mCluster.initConfiguration(DoraReadTransportBench.class.getSimpleName());
+      Configuration.set(PropertyKey.DORA_CLIENT_UFS_ROOT, ufsRoot);
+      Configuration.set(PropertyKey.MASTER_WORKER_REGISTER_LEASE_ENABLED, false);
+      Configuration.set(PropertyKey.USER_SHORT_CIRCUIT_ENABLED, false);
+      // the test configuration of the cluster uses tiny chunks, the defaults are used instead
+      for (PropertyKey key : new PropertyKey[] {PropertyKey.USER_BLOCK_SIZE_BYTES_DEFAULT,
+          PropertyKey.USER_BLOCK_REMOTE_READ_BUFFER_SIZE_BYTES,
+          PropertyKey.USER_STREAMING_READER_CHUNK_SIZE_BYTES}) {
+        Configuration.set(key, key.getDefaultValue());
+      }
+      Configuration.set(PropertyKey.USER_NETTY_DATA_TRANSMISSION_ENABLED,
+          mTransport.startsWith("NETTY"));
+      Configuration.set(PropertyKey.USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED,
+          mTransport.equals("NETTY_MULTIPLEX"));
+      mCluster.start();
+      mFileSystem = mCluster.getClient();
+      Path file = Paths.get(ufsRoot, "file");
+      Files.write(file, BufferUtils.getIncreasingByteArray(mFileSizeMB * 1024 * 1024));
+      mPath = new AlluxioURI(file.toString());
+      // the first read caches the file on the worker
+      readFile(mFileSystem, mPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      mFileSystem.close();
+      // stop() also checks the locks of the master, which needs test-only dependencies
+      mCluster.stopFS();
+    }
+  }
+
+  /**
+   * A reader of random blocks of the file of each thread.
+   */
+  @State(Scope.Thread)
+  public static class RandomReader {
+    @Param({"4096"})
+    public int mRandomReadSize;
+
+    PositionReader mReader;
+    byte[] mBuffer;
+    long mBlocks;
+
+    @Setup(Level.Trial)
+    public void setup(Cluster cluster) {
+      mReader = cluster.mFileSystem.openPositionRead(cluster.mPath);
+      mBuffer = new byte[mRandomReadSize];
+      mBlocks = (long) cluster.mFileSizeMB * 1024 * 1024 / mRandomReadSize;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      mReader.close();
+    }
+  }
+
+  /**
+   * The CPU time of the process and the bytes read over an iteration, reported per iteration.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Cpu {
+    private long mStartCpuNanos;
+    private long mBytesRead;
+    public double mCpuMsPerMB;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+      mStartCpuNanos = processCpuNanos();
+      mBytesRead = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      long cpuNanos = processCpuNanos() - mStartCpuNanos;
+      mCpuMsPerMB = mBytesRead == 0 ? 0
+          : cpuNanos / 1_000_000.0 / ((double) mBytesRead / (1024 * 1024));
+    }
+
+    private static long processCpuNanos() {
+      return ((com.sun.management.OperatingSystemMXBean)
+          ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+  }
+
+  @Benchmark
+  public void read(Cluster cluster, Cpu cpu) throws Exception {
+    cpu.mBytesRead += readFile(cluster.mFileSystem, cluster.mPath);
+  }
+
+  @Benchmark
+  public int randomRead(RandomReader reader) throws Exception {
+    long position = ThreadLocalRandom.current().nextLong(reader.mBlocks) * reader.mBuffer.length;
+    return reader.mReader.read(position, reader.mBuffer, reader.mBuffer.length);
+  }
+
+  private static long readFile(FileSystem fileSystem, AlluxioURI path) throws Exception {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    long bytesRead = 0;
+    try (FileInStream in = fileSystem.openFile(path)) {
+      for (int read; (read = in.read(buffer)) != -1; ) {
+        bytesRead += read;
+      }
+    }
+    return bytesRead;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(DoraReadTransportBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
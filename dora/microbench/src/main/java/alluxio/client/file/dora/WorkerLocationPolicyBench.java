@@ -0,0 +1,114 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import static com.google.common.hash.Hashing.murmur3_32_fixed;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import alluxio.client.block.BlockWorkerInfo;
+import alluxio.wire.WorkerNetAddress;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This benchmark measures the lookup of the preferred workers of a file on the consistent hash
+ * ring, against a lookup in a {@link TreeMap} keyed by the hash of the formatted key, which is
+ * how the ring used to be looked up. Run it with -prof gc to see the allocation per lookup.
+ * The following parameters can be varied:
+ * mWorkers - the number of workers on the ring
+ */
+public class WorkerLocationPolicyBench {
+  private static final int NUM_VIRTUAL_NODES = 2000;
+  private static final int NUM_KEYS = 1 << 16;
+
+  @State(Scope.Benchmark)
+  public static class Ring {
+    @Param({"10", "100"})
+    public int mWorkers;
+
+    WorkerLocationPolicy mPolicy;
+    List<BlockWorkerInfo> mWorkerInfos;
+    NavigableMap<Integer, BlockWorkerInfo> mTreeMap;
+    String[] mKeys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      mPolicy = new WorkerLocationPolicy(NUM_VIRTUAL_NODES);
+      mWorkerInfos = new ArrayList<>();
+      mTreeMap = new TreeMap<>();
+      int weight = (int) Math.ceil(1.0 * NUM_VIRTUAL_NODES / mWorkers);
+      for (int i = 0; i < mWorkers; i++) {
+        BlockWorkerInfo worker = new BlockWorkerInfo(
+            new WorkerNetAddress().setHost("worker" + i).setDataPort(29999), 0, 0);
+        mWorkerInfos.add(worker);
+        for (int j = 0; j < weight; j++) {
+          mTreeMap.put(murmur3_32_fixed().hashString(
+              String.format("%s%d", worker.getNetAddress().dumpMainInfo(), j), UTF_8).asInt(),
+              worker);
+        }
+      }
+      mKeys = new String[NUM_KEYS];
+      for (int i = 0; i < NUM_KEYS; i++) {
+        mKeys[i] = "s3://bucket/dir" + (i % 100) + "/file" + i;
+      }
+      mPolicy.getPreferredWorker(mWorkerInfos, mKeys[0]);
+    }
+
+    String nextKey() {
+      return mKeys[ThreadLocalRandom.current().nextInt(NUM_KEYS)];
+    }
+  }
+
+  @Benchmark
+  @Threads(4)
+  public BlockWorkerInfo preferredWorker(Ring ring) {
+    return ring.mPolicy.getPreferredWorker(ring.mWorkerInfos, ring.nextKey());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public List<BlockWorkerInfo> preferredWorkers(Ring ring) {
+    return ring.mPolicy.getPreferredWorkers(ring.mWorkerInfos, ring.nextKey(), 3);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public BlockWorkerInfo treeMapLookup(Ring ring) {
+    int hash = murmur3_32_fixed().hashString(String.format("%s%d", ring.nextKey(), 1), UTF_8)
+        .asInt();
+    Map.Entry<Integer, BlockWorkerInfo> entry = ring.mTreeMap.ceilingEntry(hash);
+    return entry != null ? entry.getValue() : ring.mTreeMap.firstEntry().getValue();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(WorkerLocationPolicyBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
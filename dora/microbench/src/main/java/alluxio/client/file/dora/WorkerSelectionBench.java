@@ -0,0 +1,122 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.client.file.dora;
+
+import alluxio.client.block.BlockWorkerInfo;
+import alluxio.wire.WorkerNetAddress;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import site.ycsb.generator.ZipfianGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * This benchmark reads files of a skewed (Zipfian) popularity from a simulated cluster of workers,
+ * each of which serves a limited number of reads at a time, and reports the aggregate throughput
+ * of the reads along with the share of the reads served by the busiest worker.
+ * The following parameters can be varied:
+ * mReplicas - the number of workers a file may be read from, 1 reads every file from a single
+ *             worker
+ * mWorkers - the number of workers
+ */
+public class WorkerSelectionBench {
+  private static final int NUM_FILES = 100_000;
+  private static final int WORKER_CONCURRENCY = 2;
+  private static final long SERVICE_TIME_NS = 100_000;
+
+  @State(Scope.Benchmark)
+  public static class Cluster {
+    @Param({"1", "2", "3"})
+    public int mReplicas;
+
+    @Param({"8"})
+    public int mWorkers;
+
+    WorkerLocationPolicy mPolicy;
+    WorkerLoadTracker mTracker;
+    List<BlockWorkerInfo> mWorkerInfos;
+    Map<WorkerNetAddress, Semaphore> mNics;
+    Map<WorkerNetAddress, AtomicLong> mReads;
+    ZipfianGenerator mFiles;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      mPolicy = new WorkerLocationPolicy(2000);
+      mTracker = new WorkerLoadTracker(30_000);
+      mWorkerInfos = new ArrayList<>();
+      mNics = new ConcurrentHashMap<>();
+      mReads = new ConcurrentHashMap<>();
+      for (int i = 0; i < mWorkers; i++) {
+        WorkerNetAddress address = new WorkerNetAddress().setHost("worker" + i).setDataPort(29999);
+        mWorkerInfos.add(new BlockWorkerInfo(address, 0, 0));
+        mNics.put(address, new Semaphore(WORKER_CONCURRENCY));
+        mReads.put(address, new AtomicLong());
+      }
+      mFiles = new ZipfianGenerator(0, NUM_FILES - 1);
+      // builds the hash ring before the reads start
+      mPolicy.getPreferredWorkers(mWorkerInfos, "", mReplicas);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      long total = mReads.values().stream().mapToLong(AtomicLong::get).sum();
+      long max = mReads.values().stream().mapToLong(AtomicLong::get).max().orElse(0);
+      System.out.printf("%nreplicas %d busiest worker share: %.4f%n", mReplicas,
+          (double) max / total);
+    }
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void read(Cluster cluster) throws InterruptedException {
+    String path = "s3://bucket/file" + cluster.mFiles.nextValue();
+    List<WorkerNetAddress> candidates =
+        cluster.mPolicy.getPreferredWorkers(cluster.mWorkerInfos, path, cluster.mReplicas)
+            .stream().map(BlockWorkerInfo::getNetAddress).collect(Collectors.toList());
+    WorkerNetAddress worker = cluster.mTracker.order(candidates).get(0);
+    long startNs = System.nanoTime();
+    cluster.mTracker.onStart(worker);
+    Semaphore nic = cluster.mNics.get(worker);
+    nic.acquire();
+    try {
+      LockSupport.parkNanos(SERVICE_TIME_NS);
+    } finally {
+      nic.release();
+    }
+    cluster.mTracker.onComplete(worker, System.nanoTime() - startNs);
+    cluster.mReads.get(worker).incrementAndGet();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(WorkerSelectionBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
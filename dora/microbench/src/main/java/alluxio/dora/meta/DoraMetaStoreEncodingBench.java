@@ -0,0 +1,156 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.dora.meta;
+
+import alluxio.AlluxioTestDirectory;
+import alluxio.grpc.FileInfo;
+import alluxio.proto.meta.DoraMeta;
+import alluxio.worker.dora.DoraMetaStore;
+import alluxio.worker.dora.RocksDBDoraMetaStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * This benchmark measures the throughput of the operations of the dora worker metastore on file
+ * statuses shaped like the ones the worker stores for an object store, and the size they take
+ * on disk. The bytes per entry, the size of the database after it is flushed divided by the
+ * number of file statuses, are printed when the database is set up.
+ * The following parameters can be varied:
+ * mFileCount - the number of file statuses stored
+ * mFilesPerDirectory - the number of files in each directory
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DoraMetaStoreEncodingBench {
+  private static final String UFS_ROOT = "s3://bucket/warehouse/table/";
+
+  @State(Scope.Benchmark)
+  public static class Db {
+    @Param({"1000000"})
+    public int mFileCount;
+
+    @Param({"1000"})
+    public int mFilesPerDirectory;
+
+    String mDir;
+    DoraMetaStore mStore;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mDir = AlluxioTestDirectory.createTemporaryDirectory("dora-metastore-encoding-bench")
+          .getAbsolutePath();
+      mStore = new RocksDBDoraMetaStore(mDir, -1);
+      for (int i = 0; i < mFileCount; i++) {
+        String path = getPath(i);
+        mStore.putDoraMeta(path, makeFileStatus(path));
+      }
+      // reopen the store, so that the statuses are flushed and read from the disk
+      mStore.close();
+      long bytes = getSize(mDir);
+      System.out.printf("%n%d file statuses take %d bytes, %.1f bytes/entry%n",
+          mFileCount, bytes, (double) bytes / mFileCount);
+      mStore = new RocksDBDoraMetaStore(mDir, -1);
+    }
+
+    @TearDown(Level.Trial)
+    public void after() {
+      mStore.close();
+    }
+
+    String getPath(int file) {
+      return String.format("%spartition=%08d/part-%08d-c000.snappy.parquet",
+          UFS_ROOT, file / mFilesPerDirectory, file);
+    }
+  }
+
+  @Benchmark
+  public Optional<DoraMeta.FileStatus> getStatus(Db db) {
+    return db.mStore.getDoraMeta(
+        db.getPath(ThreadLocalRandom.current().nextInt(db.mFileCount)));
+  }
+
+  @Benchmark
+  public Optional<DoraMeta.FileStatus> getStatusOfMissingFile(Db db) {
+    return db.mStore.getDoraMeta(
+        db.getPath(db.mFileCount + ThreadLocalRandom.current().nextInt(db.mFileCount)));
+  }
+
+  @Benchmark
+  public void putStatus(Db db) {
+    String path = db.getPath(ThreadLocalRandom.current().nextInt(db.mFileCount));
+    db.mStore.putDoraMeta(path, makeFileStatus(path));
+  }
+
+  /**
+   * Makes a status like the worker does from the status of an object.
+   */
+  private static DoraMeta.FileStatus makeFileStatus(String path) {
+    return DoraMeta.FileStatus.newBuilder()
+        .setFileInfo(FileInfo.newBuilder()
+            .setUfsType("s3")
+            .setFileId(path.hashCode())
+            .setName(path.substring(path.lastIndexOf('/') + 1))
+            .setPath(path.substring(UFS_ROOT.length() - 1))
+            .setUfsPath(path)
+            .setMode(0644)
+            .setFolder(false)
+            .setOwner("owner")
+            .setGroup("group")
+            .setCompleted(true)
+            .setPersisted(true)
+            .setLength(128L * 1024 * 1024)
+            .setLastModificationTimeMs(System.currentTimeMillis())
+            .setBlockSizeBytes(64L * 1024 * 1024)
+            .setContentHash("9b2cf535f27731c974343645a3985328"))
+        .setTs(System.nanoTime())
+        .build();
+  }
+
+  private static long getSize(String dir) throws IOException {
+    try (Stream<Path> files = Files.walk(Path.of(dir))) {
+      return files.filter(Files::isRegularFile).mapToLong(file -> {
+        try {
+          return Files.size(file);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }).sum();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(DoraMetaStoreEncodingBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.metrics;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the cost of updating a metric on a hot path, either by looking it up
+ * in the {@link MetricsSystem} on each update, as the cache used to, or through a
+ * {@link MetricHandle}, and the cost of updating a timer with the default reservoir or with
+ * the {@link HdrHistogramReservoir}.
+ * The following parameters can be varied:
+ * mMeterPath - LOOKUP to look up the meter on each update, HANDLE to use a handle
+ * mTimerPath - DEFAULT for the default timer, HDR for a timer with an HdrHistogram
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class MetricsBench {
+  private static final MetricHandle<Meter> METER =
+      MetricHandle.meter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE);
+
+  @State(Scope.Benchmark)
+  public static class MeterState {
+    @Param({"LOOKUP", "HANDLE"})
+    public String mMeterPath;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      MetricsSystem.resetAllMetrics();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class TimerState {
+    @Param({"DEFAULT", "HDR"})
+    public String mTimerPath;
+
+    Timer mTimer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      mTimer = mTimerPath.equals("HDR")
+          ? MetricsSystem.latencyTimer("MetricsBench.Hdr")
+          : MetricsSystem.timer("MetricsBench.Default");
+    }
+  }
+
+  @Benchmark
+  public void markMeter(MeterState state) {
+    if (state.mMeterPath.equals("HANDLE")) {
+      METER.get().mark(1024);
+    } else {
+      MetricsSystem.meter(MetricKey.CLIENT_CACHE_BYTES_READ_CACHE.getName()).mark(1024);
+    }
+  }
+
+  @Benchmark
+  public void updateTimer(TimerState state) {
+    state.mTimer.update(ThreadLocalRandom.current().nextLong(1_000, 10_000_000),
+        TimeUnit.NANOSECONDS);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(MetricsBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.CloseableSupplier;
+import alluxio.PositionReader;
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheManagerOptions;
+import alluxio.client.file.cache.LocalCachePositionReader;
+import alluxio.client.file.cache.PageMetaStore;
+import alluxio.client.file.cache.store.PageStoreType;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+import alluxio.file.FileId;
+import alluxio.file.ReadTargetBuffer;
+import alluxio.worker.task.JobBandwidthLimiter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This benchmark loads a large file from a simulated UFS into an in-memory cache, either the way
+ * the worker used to, by reading the file through the cache 4 pages at a time, or with the
+ * {@link PagedFileLoader}. Each request to the simulated UFS takes a fixed latency and then
+ * streams at a fixed bandwidth, as a single stream from an object store does. The throughput in
+ * GB/s is the score (files loaded per second) times the file size.
+ * The following parameters can be varied:
+ * mPath - READER for the old path, LOADER for the range loader
+ * mFileSizeMB - the size of the file loaded
+ * mFileConcurrency - the number of ranges of the file the loader reads at a time
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PagedFileLoaderBench {
+  private static final int PAGE_SIZE = 1024 * 1024;
+  private static final long RANGE_SIZE = 16L * PAGE_SIZE;
+  private static final long REQUEST_LATENCY_NS = 5_000_000;
+  private static final long STREAM_BYTES_PER_SECOND = 200L * 1024 * 1024;
+
+  @State(Scope.Benchmark)
+  public static class Loader {
+    @Param({"READER", "LOADER"})
+    public String mPath;
+
+    @Param({"256"})
+    public int mFileSizeMB;
+
+    @Param({"8"})
+    public int mFileConcurrency;
+
+    CacheManager mCacheManager;
+    ExecutorService mExecutor;
+    PagedFileLoader mLoader;
+    SimulatedUfsReader mUfsReader;
+    long mFileSize;
+    final AtomicLong mFileIds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mFileSize = (long) mFileSizeMB * 1024 * 1024;
+      InstancedConfiguration conf = Configuration.copyGlobal();
+      conf.set(PropertyKey.WORKER_PAGE_STORE_TYPE, PageStoreType.MEM);
+      conf.set(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE, PAGE_SIZE);
+      conf.set(PropertyKey.WORKER_PAGE_STORE_SIZES, String.valueOf(4 * mFileSize));
+      conf.set(PropertyKey.WORKER_PAGE_STORE_ASYNC_RESTORE_ENABLED, false);
+      CacheManagerOptions options = CacheManagerOptions.createForWorker(conf);
+      mCacheManager = CacheManager.Factory.create(conf, options, PageMetaStore.create(options));
+      mExecutor = Executors.newFixedThreadPool(mFileConcurrency);
+      mLoader = new PagedFileLoader(mCacheManager, mExecutor, PAGE_SIZE, RANGE_SIZE,
+          mFileConcurrency, conf.getBytes(PropertyKey.WORKER_LOAD_BUFFER_SIZE));
+      mUfsReader = new SimulatedUfsReader(mFileSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      mExecutor.shutdownNow();
+      mCacheManager.close();
+    }
+  }
+
+  @Benchmark
+  public void load(Loader loader) throws IOException {
+    // a new file each time, so that none of its pages are cached
+    String fileId = "file" + loader.mFileIds.incrementAndGet();
+    if (loader.mPath.equals("LOADER")) {
+      loader.mLoader.load(fileId, loader.mUfsReader, loader.mFileSize,
+          JobBandwidthLimiter.UNLIMITED);
+      return;
+    }
+    try (LocalCachePositionReader reader = LocalCachePositionReader.create(loader.mCacheManager,
+        new CloseableSupplier<>(() -> loader.mUfsReader), FileId.of(fileId), loader.mFileSize,
+        PAGE_SIZE, CacheContext.defaults())) {
+      byte[] buffer = new byte[4 * PAGE_SIZE];
+      for (long position = 0; position < loader.mFileSize; ) {
+        position += reader.read(position, buffer, buffer.length);
+      }
+    }
+  }
+
+  /**
+   * A reader of a file of zeros from a UFS where each request takes {@link #REQUEST_LATENCY_NS}
+   * and streams at {@link #STREAM_BYTES_PER_SECOND}.
+   */
+  private static final class SimulatedUfsReader implements PositionReader {
+    private final long mLength;
+
+    SimulatedUfsReader(long length) {
+      mLength = length;
+    }
+
+    @Override
+    public int readInternal(long position, ReadTargetBuffer buffer, int length) {
+      if (position >= mLength) {
+        return -1;
+      }
+      int bytesToRead = (int) Math.min(length, mLength - position);
+      LockSupport.parkNanos(REQUEST_LATENCY_NS
+          + TimeUnit.SECONDS.toNanos(1) * bytesToRead / STREAM_BYTES_PER_SECOND);
+      buffer.offset(buffer.offset() + bytesToRead);
+      return bytesToRead;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(PagedFileLoaderBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * The Alluxio Open Foundation licenses this work under the Apache License, version 2.0
+ * (the "License"). You may not use this work except in compliance with the License, which is
+ * available at www.apache.org/licenses/LICENSE-2.0
+ *
+ * This software is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied, as more fully set forth in the License.
+ *
+ * See the NOTICE file distributed with this work for information regarding copyright ownership.
+ */
+
+package alluxio.worker.dora;
+
+import alluxio.AlluxioTestDirectory;
+import alluxio.client.file.CacheContext;
+import alluxio.client.file.cache.CacheManager;
+import alluxio.client.file.cache.CacheManagerOptions;
+import alluxio.client.file.cache.PageId;
+import alluxio.client.file.cache.PageMetaStore;
+import alluxio.conf.Configuration;
+import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This benchmark writes a file into a local page store in packets, as the worker does with the
+ * packets of a write request, either the way the worker used to, by appending each packet to
+ * the cached page, or with the {@link PagedFileWriter}. The throughput in MB/s is the score
+ * (files written per second) times the file size.
+ * The following parameters can be varied:
+ * mWriter - APPEND for the old path, BUFFERED for the writer
+ * mPacketSizeKB - the size of the packets written
+ * mFileSizeMB - the size of the file written
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PagedFileWriterBench {
+  private static final int PAGE_SIZE = 1024 * 1024;
+
+  @State(Scope.Benchmark)
+  public static class Writer {
+    @Param({"APPEND", "BUFFERED"})
+    public String mWriter;
+
+    @Param({"4", "64", "1024"})
+    public int mPacketSizeKB;
+
+    @Param({"64"})
+    public int mFileSizeMB;
+
+    CacheManager mCacheManager;
+    byte[] mPacket;
+    long mFileSize;
+    final AtomicLong mFileIds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mFileSize = (long) mFileSizeMB * 1024 * 1024;
+      mPacket = new byte[mPacketSizeKB * 1024];
+      InstancedConfiguration conf = Configuration.copyGlobal();
+      conf.set(PropertyKey.WORKER_PAGE_STORE_PAGE_SIZE, PAGE_SIZE);
+      conf.set(PropertyKey.WORKER_PAGE_STORE_DIRS, ImmutableList.of(
+          AlluxioTestDirectory.createTemporaryDirectory("paged-file-writer-bench")
+              .getAbsolutePath()));
+      conf.set(PropertyKey.WORKER_PAGE_STORE_SIZES, String.valueOf(4 * mFileSize));
+      conf.set(PropertyKey.WORKER_PAGE_STORE_ASYNC_RESTORE_ENABLED, false);
+      CacheManagerOptions options = CacheManagerOptions.createForWorker(conf);
+      mCacheManager = CacheManager.Factory.create(conf, options, PageMetaStore.create(options));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      mCacheManager.close();
+    }
+  }
+
+  @Benchmark
+  public void write(Writer writer) throws IOException {
+    String fileId = "file" + writer.mFileIds.incrementAndGet();
+    if (writer.mWriter.equals("BUFFERED")) {
+      try (PagedFileWriter fileWriter =
+               new PagedFileWriter(writer.mCacheManager, fileId, PAGE_SIZE, false)) {
+        for (long position = 0; position < writer.mFileSize; position += writer.mPacket.length) {
+          fileWriter.append(Unpooled.wrappedBuffer(writer.mPacket));
+        }
+        fileWriter.commitFile();
+      }
+    } else {
+      CacheContext context = CacheContext.defaults().setTemporary(true);
+      for (long position = 0; position < writer.mFileSize; position += writer.mPacket.length) {
+        // the packets do not span pages, as the packet size divides the page size
+        writer.mCacheManager.append(new PageId(fileId, position / PAGE_SIZE),
+            (int) (position % PAGE_SIZE), writer.mPacket.clone(), context);
+      }
+      writer.mCacheManager.commitFile(fileId);
+    }
+    writer.mCacheManager.deleteFile(fileId);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder().include(PagedFileWriterBench.class.getSimpleName())
+        .forks(1).build();
+    new Runner(opt).run();
+  }
+}
@@ -12,6 +12,7 @@
 package alluxio.client.fs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
 
@@ -21,6 +22,7 @@ import alluxio.client.WriteType;
 import alluxio.client.file.FileInStream;
 import alluxio.client.file.FileOutStream;
 import alluxio.client.file.FileSystem;
+import alluxio.client.file.URIStatus;
 import alluxio.conf.PropertyKey;
 import alluxio.exception.AlluxioException;
 import alluxio.exception.FileDoesNotExistException;
@@ -46,6 +48,9 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Integration tests for Alluxio Client (reuse the {@link LocalAlluxioCluster}).
@@ -181,6 +186,31 @@ public final class DoraFileSystemIntegrationTest extends BaseIntegrationTest {
     }
   }
 
+  /**
+   * Gets the statuses of files owned by both workers and of a file which does not exist in a
+   * single call. The file which does not exist should be left out of the result.
+   */
+  @Test
+  public void getStatuses() throws IOException, AlluxioException {
+    List<AlluxioURI> paths = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      mS3Client.putObject(TEST_BUCKET, TEST_FILE + i, TEST_CONTENT + i);
+      paths.add(new AlluxioURI("/" + TEST_FILE + i));
+    }
+    AlluxioURI missing = new AlluxioURI("/" + TEST_FILE + "-missing");
+    paths.add(missing);
+
+    Map<AlluxioURI, URIStatus> statuses = mFileSystem.getStatuses(paths,
+        GetStatusPOptions.newBuilder().setCommonOptions(optionSync()).build());
+    assertEquals(20, statuses.size());
+    assertFalse(statuses.containsKey(missing));
+    for (int i = 0; i < 20; i++) {
+      URIStatus status = statuses.get(paths.get(i));
+      assertNotNull(status);
+      assertEquals((TEST_CONTENT + i).length(), status.getLength());
+    }
+  }
+
   private FileSystemMasterCommonPOptions optionNoSync() {
     return FileSystemMasterCommonPOptions.newBuilder().setSyncIntervalMs(-1)
             .build();
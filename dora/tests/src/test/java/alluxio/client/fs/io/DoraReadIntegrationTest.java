@@ -22,12 +22,14 @@ import alluxio.client.file.FileSystem;
 import alluxio.client.file.FileSystemContext;
 import alluxio.client.file.FileSystemTestUtils;
 import alluxio.conf.PropertyKey;
+import alluxio.file.FileRange;
 import alluxio.grpc.WritePType;
 import alluxio.testutils.BaseIntegrationTest;
 import alluxio.testutils.LocalAlluxioClusterResource;
 import alluxio.util.io.BufferUtils;
 import alluxio.util.io.PathUtils;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteStreams;
 import org.junit.Before;
 import org.junit.Rule;
@@ -37,8 +39,13 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 @RunWith(Parameterized.class)
 public class DoraReadIntegrationTest extends BaseIntegrationTest {
@@ -46,29 +53,28 @@ public class DoraReadIntegrationTest extends BaseIntegrationTest {
   private static final String UFS_ROOT =
       AlluxioTestDirectory.createTemporaryDirectory("ufs_root").getAbsolutePath();
 
-  @Parameterized.Parameters(name = "{index}_FileLength_{0}")
+  @Parameterized.Parameters(name = "{index}_FileLength_{0}_Netty_{1}_Multiplex_{2}")
   public static Collection testParams() {
     return Arrays.asList(new Object[][] {
-        { 0},
-        { 1},
-        { 1 * Constants.KB - 1},
-        { 1 * Constants.KB},
-        { 1 * Constants.KB + 1},
-        { 64 * Constants.KB - 1},
-        { 64 * Constants.KB},
-        { 64 * Constants.KB + 1},
+        { 0, true, false},
+        { 1, true, false},
+        { 1 * Constants.KB - 1, true, false},
+        { 1 * Constants.KB, true, false},
+        { 1 * Constants.KB + 1, true, false},
+        { 64 * Constants.KB - 1, true, false},
+        { 64 * Constants.KB, true, false},
+        { 64 * Constants.KB + 1, true, false},
+        { 0, false, false},
+        { 1 * Constants.KB + 1, false, false},
+        { 64 * Constants.KB + 1, false, false},
+        { 0, true, true},
+        { 1 * Constants.KB + 1, true, true},
+        { 64 * Constants.KB + 1, true, true},
     });
   }
 
   @Rule
-  public LocalAlluxioClusterResource mClusterResource =
-      new LocalAlluxioClusterResource.Builder()
-          .setProperty(PropertyKey.DORA_CLIENT_UFS_ROOT, UFS_ROOT)
-          .setProperty(PropertyKey.MASTER_WORKER_REGISTER_LEASE_ENABLED, false)
-          .setProperty(PropertyKey.USER_SHORT_CIRCUIT_ENABLED, false)
-          .setProperty(PropertyKey.USER_STREAMING_READER_CHUNK_SIZE_BYTES, Constants.KB)
-          .setProperty(PropertyKey.USER_NETTY_DATA_TRANSMISSION_ENABLED, true)
-          .build();
+  public LocalAlluxioClusterResource mClusterResource;
 
   @Rule
   public final ExpectedException mThrown = ExpectedException.none();
@@ -78,9 +84,19 @@ public class DoraReadIntegrationTest extends BaseIntegrationTest {
   private String mFilePath;
 
   private int mFileLength;
+  private boolean mNettyEnabled;
 
-  public DoraReadIntegrationTest(int fileLength) {
+  public DoraReadIntegrationTest(int fileLength, boolean nettyEnabled, boolean multiplexEnabled) {
     mFileLength = fileLength;
+    mNettyEnabled = nettyEnabled;
+    mClusterResource = new LocalAlluxioClusterResource.Builder()
+        .setProperty(PropertyKey.DORA_CLIENT_UFS_ROOT, UFS_ROOT)
+        .setProperty(PropertyKey.MASTER_WORKER_REGISTER_LEASE_ENABLED, false)
+        .setProperty(PropertyKey.USER_SHORT_CIRCUIT_ENABLED, false)
+        .setProperty(PropertyKey.USER_STREAMING_READER_CHUNK_SIZE_BYTES, Constants.KB)
+        .setProperty(PropertyKey.USER_NETTY_DATA_TRANSMISSION_ENABLED, nettyEnabled)
+        .setProperty(PropertyKey.USER_NETWORK_NETTY_READER_MULTIPLEX_ENABLED, multiplexEnabled)
+        .build();
   }
 
   @Before
@@ -93,8 +109,7 @@ public class DoraReadIntegrationTest extends BaseIntegrationTest {
   @Test
   public void read() throws Exception {
     AlluxioURI path = new AlluxioURI(mFilePath);
-    FileSystemTestUtils.createByteFile(
-        mFileSystem, mFilePath, WritePType.CACHE_THROUGH, mFileLength);
+    createFile();
     // read a file to populate the cache
     try (FileInStream stream = mFileSystem.openFile(path)) {
       assertTrue(BufferUtils.equalIncreasingByteArray(
@@ -109,8 +124,7 @@ public class DoraReadIntegrationTest extends BaseIntegrationTest {
   @Test
   public void positionedRead() throws Exception {
     AlluxioURI path = new AlluxioURI(mFilePath);
-    FileSystemTestUtils.createByteFile(
-        mFileSystem, mFilePath, WritePType.CACHE_THROUGH, mFileLength);
+    createFile();
     try (FileInStream stream = mFileSystem.openFile(path)) {
       byte[] buffer = new byte[mFileLength / 4];
       int bytesRead = stream.positionedRead(mFileLength / 10, buffer, 0, buffer.length);
@@ -124,4 +138,39 @@ public class DoraReadIntegrationTest extends BaseIntegrationTest {
           mFileLength, ByteStreams.toByteArray(stream)));
     }
   }
+
+  @Test
+  public void vectoredRead() throws Exception {
+    AlluxioURI path = new AlluxioURI(mFilePath);
+    createFile();
+    List<FileRange> ranges = ImmutableList.of(
+        new FileRange(mFileLength / 2, mFileLength / 3),
+        new FileRange(0, mFileLength / 10),
+        new FileRange(mFileLength / 5, mFileLength / 4),
+        new FileRange(mFileLength, 0));
+    // the first read populates the cache
+    for (int i = 0; i < 2; i++) {
+      try (FileInStream stream = mFileSystem.openFile(path)) {
+        List<ByteBuffer> buffers = stream.readVectored(ranges, ByteBuffer::allocate);
+        assertEquals(ranges.size(), buffers.size());
+        for (int j = 0; j < ranges.size(); j++) {
+          assertTrue(BufferUtils.equalIncreasingByteBuffer((int) ranges.get(j).getOffset(),
+              ranges.get(j).getLength(), buffers.get(j)));
+        }
+        assertEquals(0, stream.getPos());
+      }
+    }
+  }
+
+  private void createFile() throws Exception {
+    if (mNettyEnabled) {
+      FileSystemTestUtils.createByteFile(
+          mFileSystem, mFilePath, WritePType.CACHE_THROUGH, mFileLength);
+      return;
+    }
+    // files are only written to the workers over netty, so the file is put into the UFS directly
+    Path file = Paths.get(mFilePath);
+    Files.createDirectories(file.getParent());
+    Files.write(file, BufferUtils.getIncreasingByteArray(mFileLength));
+  }
 }
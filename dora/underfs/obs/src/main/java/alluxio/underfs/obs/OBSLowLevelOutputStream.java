@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -104,6 +105,30 @@ public class OBSLowLevelOutputStream extends ObjectLowLevelOutputStream {
     }
   }
 
+  @Override
+  protected void uploadPartInternal(InputStream inputStream, long length, int partNumber,
+      boolean isLastPart, String md5) throws IOException {
+    try {
+      final UploadPartRequest uploadRequest = new UploadPartRequest();
+      uploadRequest.setBucketName(mBucketName);
+      uploadRequest.setObjectKey(mKey);
+      uploadRequest.setUploadId(mUploadId);
+      uploadRequest.setPartNumber(partNumber);
+      uploadRequest.setInput(inputStream);
+      uploadRequest.setPartSize(length);
+      if (md5 != null) {
+        uploadRequest.setContentMd5(md5);
+      }
+      UploadPartResult result = getClient().uploadPart(uploadRequest);
+      mTags.add(new PartEtag(result.getEtag(), result.getPartNumber()));
+    } catch (ObsException e) {
+      LOG.debug("failed to upload part.", e);
+      throw new IOException(String.format(
+          "failed to upload part. key: %s part number: %s uploadId: %s",
+          mKey, partNumber, mUploadId), e);
+    }
+  }
+
   @Override
   protected void initMultiPartUploadInternal() throws IOException {
     try {
@@ -178,6 +203,23 @@ public class OBSLowLevelOutputStream extends ObjectLowLevelOutputStream {
     }
   }
 
+  @Override
+  protected void putObject(String key, InputStream inputStream, long length, String md5)
+      throws IOException {
+    try {
+      ObjectMetadata meta = new ObjectMetadata();
+      meta.setContentLength(length);
+      if (md5 != null) {
+        meta.setContentMd5(md5);
+      }
+      PutObjectRequest request = new PutObjectRequest(mBucketName, key, inputStream);
+      request.setMetadata(meta);
+      mContentHash = getClient().putObject(request).getEtag();
+    } catch (ObsException e) {
+      throw new IOException(e);
+    }
+  }
+
   protected IObsClient getClient() {
     return mClient;
   }
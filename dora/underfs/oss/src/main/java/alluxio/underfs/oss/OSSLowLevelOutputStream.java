@@ -103,6 +103,22 @@ public class OSSLowLevelOutputStream extends ObjectLowLevelOutputStream {
     }
   }
 
+  @Override
+  protected void uploadPartInternal(InputStream inputStream, long length, int partNumber,
+      boolean isLastPart, String md5) throws IOException {
+    try {
+      final UploadPartRequest uploadRequest =
+          new UploadPartRequest(mBucketName, mKey, mUploadId, partNumber, inputStream, length);
+      if (md5 != null) {
+        uploadRequest.setMd5Digest(md5);
+      }
+      PartETag partETag = getClient().uploadPart(uploadRequest).getPartETag();
+      mTags.add(partETag);
+    } catch (OSSException | ClientException e) {
+      throw new IOException(e);
+    }
+  }
+
   @Override
   protected void initMultiPartUploadInternal() throws IOException {
     try {
@@ -153,6 +169,22 @@ public class OSSLowLevelOutputStream extends ObjectLowLevelOutputStream {
     }
   }
 
+  @Override
+  protected void putObject(String key, InputStream inputStream, long length, String md5)
+      throws IOException {
+    try {
+      ObjectMetadata objMeta = new ObjectMetadata();
+      objMeta.setContentLength(length);
+      if (md5 != null) {
+        objMeta.setContentMD5(md5);
+      }
+      PutObjectRequest request = new PutObjectRequest(mBucketName, key, inputStream, objMeta);
+      mContentHash = getClient().putObject(request).getETag();
+    } catch (OSSException | ClientException e) {
+      throw new IOException(e);
+    }
+  }
+
   @Override
   public Optional<String> getContentHash() {
     return Optional.ofNullable(mContentHash);
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -109,6 +110,36 @@ public class S3ALowLevelOutputStream extends ObjectLowLevelOutputStream {
     }
   }
 
+  @Override
+  protected void uploadPartInternal(
+      InputStream inputStream,
+      long length,
+      int partNumber,
+      boolean isLastPart,
+      @Nullable String md5)
+      throws IOException {
+    try {
+      final UploadPartRequest uploadRequest = new UploadPartRequest()
+          .withBucketName(mBucketName)
+          .withKey(mKey)
+          .withUploadId(mUploadId)
+          .withPartNumber(partNumber)
+          .withInputStream(inputStream)
+          .withPartSize(length);
+      if (md5 != null) {
+        uploadRequest.setMd5Digest(md5);
+      }
+      uploadRequest.setLastPart(isLastPart);
+      PartETag partETag = getClient().uploadPart(uploadRequest).getPartETag();
+      mTags.add(partETag);
+    } catch (SdkClientException e) {
+      LOG.debug("failed to upload part.", e);
+      throw new IOException(String.format(
+          "failed to upload part. key: %s part number: %s uploadId: %s",
+          mKey, partNumber, mUploadId), e);
+    }
+  }
+
   @Override
   protected void initMultiPartUploadInternal() throws IOException {
     try {
@@ -187,6 +218,26 @@ public class S3ALowLevelOutputStream extends ObjectLowLevelOutputStream {
     }
   }
 
+  @Override
+  protected void putObject(String key, InputStream inputStream, long length,
+      @Nullable String md5) throws IOException {
+    try {
+      ObjectMetadata meta = new ObjectMetadata();
+      if (mSseEnabled) {
+        meta.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
+      }
+      if (md5 != null) {
+        meta.setContentMD5(md5);
+      }
+      meta.setContentLength(length);
+      meta.setContentType(Mimetypes.MIMETYPE_OCTET_STREAM);
+      mContentHash = getClient().putObject(
+          new PutObjectRequest(mBucketName, key, inputStream, meta)).getETag();
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
   protected AmazonS3 getClient() {
     return mClient;
   }
@@ -12,8 +12,11 @@
 package alluxio.underfs.s3a;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
@@ -21,6 +24,7 @@ import static org.mockito.Mockito.when;
 import alluxio.conf.Configuration;
 import alluxio.conf.InstancedConfiguration;
 import alluxio.conf.PropertyKey;
+import alluxio.underfs.ObjectLowLevelOutputStream;
 import alluxio.util.FormatUtils;
 
 import com.amazonaws.services.s3.AmazonS3;
@@ -33,11 +37,16 @@ import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.UploadPartRequest;
 import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.powermock.api.mockito.PowerMockito;
@@ -47,8 +56,13 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.security.DigestOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Unit tests for the {@link S3ALowLevelOutputStream}.
@@ -185,6 +199,169 @@ public class S3ALowLevelOutputStreamTest {
     assertEquals("putTag", mStream.getContentHash().get());
   }
 
+  @Test
+  public void writeWithMemoryBuffers() throws Exception {
+    List<Integer> partSizes = Collections.synchronizedList(new ArrayList<>());
+    when(mMockS3Client.uploadPart(any(UploadPartRequest.class)))
+        .thenAnswer((InvocationOnMock invocation) -> {
+          UploadPartRequest request = invocation.getArgument(0);
+          assertNull(request.getFile());
+          partSizes.add(IOUtils.toByteArray(request.getInputStream()).length);
+          UploadPartResult uploadResult = new UploadPartResult();
+          uploadResult.setPartNumber(request.getPartNumber());
+          return uploadResult;
+        });
+    sConf.set(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED, true);
+    try {
+      int partSize = (int) FormatUtils.parseSpaceSize(PARTITION_SIZE);
+      byte[] b = new byte[2 * partSize + 1];
+      S3ALowLevelOutputStream stream = new S3ALowLevelOutputStream(BUCKET_NAME, KEY,
+          mMockS3Client, MoreExecutors.newDirectExecutorService(), sConf);
+      stream.write(b, 0, b.length);
+      stream.close();
+      // the parts are uploaded from memory, no temp file is written
+      Mockito.verify(mMockOutputStream, never()).write(any(byte[].class), anyInt(), anyInt());
+      assertEquals(ImmutableList.of(partSize, partSize, 1), partSizes);
+      Mockito.verify(mMockS3Client)
+          .completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+      assertEquals("multiTag", stream.getContentHash().get());
+    } finally {
+      sConf.unset(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED);
+    }
+  }
+
+  @Test
+  public void writeSmallFileWithMemoryBuffers() throws Exception {
+    sConf.set(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED, true);
+    try {
+      S3ALowLevelOutputStream stream = new S3ALowLevelOutputStream(BUCKET_NAME, KEY,
+          mMockS3Client, mMockExecutor, sConf);
+      stream.write(new byte[] {1, 2, 3});
+      stream.close();
+      ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+      Mockito.verify(mMockS3Client).putObject(request.capture());
+      assertNull(request.getValue().getFile());
+      assertEquals(3, request.getValue().getMetadata().getContentLength());
+      assertTrue(request.getValue().getMetadata().getContentMD5() != null);
+      Mockito.verify(mMockOutputStream, never()).write(any(byte[].class), anyInt(), anyInt());
+    } finally {
+      sConf.unset(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED);
+    }
+  }
+
+  @Test
+  public void writeWithMemoryBuffersExhausted() throws Exception {
+    int partSize = (int) FormatUtils.parseSpaceSize(PARTITION_SIZE);
+    sConf.set(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED, true);
+    sConf.set(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE, partSize);
+    try {
+      List<ListenableFutureTask<?>> uploads = new ArrayList<>();
+      AtomicBoolean defer = new AtomicBoolean(true);
+      S3ALowLevelOutputStream stream = new S3ALowLevelOutputStream(BUCKET_NAME, KEY,
+          mMockS3Client, deferUploads(uploads, defer), sConf);
+      byte[] b = new byte[2 * partSize + 1];
+      stream.write(b, 0, b.length);
+      // the first part takes all the memory until it is uploaded
+      assertEquals(partSize, ObjectLowLevelOutputStream.getMemoryBufferUsedBytes());
+      Mockito.verify(mMockOutputStream).write(b, partSize, partSize);
+      Mockito.verify(mMockOutputStream).write(b, 2 * partSize, 1);
+
+      uploads.forEach(ListenableFutureTask::run);
+      assertEquals(0, ObjectLowLevelOutputStream.getMemoryBufferUsedBytes());
+      defer.set(false);
+      stream.close();
+      Mockito.verify(mMockS3Client)
+          .completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    } finally {
+      sConf.unset(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED);
+      sConf.unset(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE);
+    }
+  }
+
+  @Test
+  public void freeMemoryBuffersOfOtherSizes() throws Exception {
+    int partSize = (int) FormatUtils.parseSpaceSize(PARTITION_SIZE);
+    sConf.set(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED, true);
+    sConf.set(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE,
+        2 * partSize);
+    try {
+      List<ListenableFutureTask<?>> uploads = new ArrayList<>();
+      S3ALowLevelOutputStream stream = new S3ALowLevelOutputStream(BUCKET_NAME, KEY,
+          mMockS3Client, deferUploads(uploads, new AtomicBoolean(false)), sConf);
+      byte[] b = new byte[partSize + 1];
+      stream.write(b, 0, b.length);
+      stream.close();
+      // the two buffers of the partition size are kept for reuse
+      assertEquals(0, ObjectLowLevelOutputStream.getMemoryBufferUsedBytes());
+
+      sConf.set(PropertyKey.UNDERFS_S3_STREAMING_UPLOAD_PARTITION_SIZE, 2 * partSize);
+      AtomicBoolean defer = new AtomicBoolean(true);
+      stream = new S3ALowLevelOutputStream(BUCKET_NAME, KEY,
+          mMockS3Client, deferUploads(uploads, defer), sConf);
+      b = new byte[2 * partSize + 1];
+      stream.write(b, 0, b.length);
+      // the free buffers are freed to make room for a buffer of the new partition size
+      assertEquals(2L * partSize, ObjectLowLevelOutputStream.getMemoryBufferUsedBytes());
+      Mockito.verify(mMockOutputStream).write(b, 2 * partSize, 1);
+
+      uploads.forEach(ListenableFutureTask::run);
+      defer.set(false);
+      stream.close();
+      assertEquals(0, ObjectLowLevelOutputStream.getMemoryBufferUsedBytes());
+    } finally {
+      sConf.unset(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED);
+      sConf.unset(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_SIZE);
+      sConf.set(PropertyKey.UNDERFS_S3_STREAMING_UPLOAD_PARTITION_SIZE, PARTITION_SIZE);
+    }
+  }
+
+  @Test
+  public void releaseMemoryBuffersOfCancelledParts() throws Exception {
+    when(mMockS3Client.uploadPart(any(UploadPartRequest.class)))
+        .thenThrow(new IllegalStateException("upload failed"));
+    sConf.set(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED, true);
+    try {
+      int partSize = (int) FormatUtils.parseSpaceSize(PARTITION_SIZE);
+      List<ListenableFutureTask<?>> uploads = new ArrayList<>();
+      S3ALowLevelOutputStream stream = new S3ALowLevelOutputStream(BUCKET_NAME, KEY,
+          mMockS3Client, deferUploads(uploads, new AtomicBoolean(true)), sConf);
+      byte[] b = new byte[3 * partSize];
+      stream.write(b, 0, b.length);
+      assertEquals(2, uploads.size());
+      assertEquals(3L * partSize, ObjectLowLevelOutputStream.getMemoryBufferUsedBytes());
+      // the first part fails, and the parts not started yet are cancelled
+      uploads.get(0).run();
+      assertThrows(IOException.class, stream::flush);
+      assertEquals(3, uploads.size());
+      assertTrue(uploads.get(1).isCancelled());
+      assertTrue(uploads.get(2).isCancelled());
+      assertEquals(0, ObjectLowLevelOutputStream.getMemoryBufferUsedBytes());
+    } finally {
+      sConf.unset(PropertyKey.UNDERFS_OBJECT_STORE_STREAMING_UPLOAD_MEMORY_BUFFER_ENABLED);
+    }
+  }
+
+  /**
+   * @param uploads the uploads submitted to the executor, which are not run until the test runs
+   *        them
+   * @param defer whether the uploads are deferred, or run once they are submitted
+   * @return an executor deferring the uploads
+   */
+  private ListeningExecutorService deferUploads(List<ListenableFutureTask<?>> uploads,
+      AtomicBoolean defer) {
+    ListeningExecutorService executor = Mockito.mock(ListeningExecutorService.class);
+    when(executor.submit(any(Callable.class))).thenAnswer((InvocationOnMock invocation) -> {
+      ListenableFutureTask<?> task = ListenableFutureTask.create(
+          (Callable<?>) invocation.getArgument(0));
+      uploads.add(task);
+      if (!defer.get()) {
+        task.run();
+      }
+      return task;
+    });
+    return executor;
+  }
+
   /**
    * Mocks the S3 client and executor.
    */
@@ -13,11 +13,14 @@ package alluxio.underfs.s3a;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import alluxio.AlluxioURI;
 import alluxio.conf.Configuration;
 import alluxio.conf.InstancedConfiguration;
+import alluxio.conf.PropertyKey;
 import alluxio.file.options.DescendantType;
 import alluxio.underfs.UfsLoadResult;
 import alluxio.underfs.UfsStatus;
@@ -47,6 +50,7 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -68,6 +72,7 @@ public class S3AUnderFileSystemMockServerTest {
 
   private S3AUnderFileSystem mS3UnderFileSystem;
   private AmazonS3 mClient;
+  private S3AsyncClient mAsyncClient;
 
   @Rule
   public S3ProxyRule mS3Proxy = S3ProxyRule.builder()
@@ -95,7 +100,7 @@ public class S3AUnderFileSystemMockServerTest {
             new AwsClientBuilder.EndpointConfiguration(mS3Proxy.getUri().toString(),
                 Regions.US_WEST_2.getName()))
         .build();
-    S3AsyncClient asyncClient =
+    mAsyncClient =
         S3AsyncClient.builder().credentialsProvider(StaticCredentialsProvider.create(
                 AwsBasicCredentials.create(mS3Proxy.getAccessKey(), mS3Proxy.getSecretKey())))
             .endpointOverride(mS3Proxy.getUri()).region(Region.US_WEST_2).build();
@@ -103,7 +108,7 @@ public class S3AUnderFileSystemMockServerTest {
 
     mS3UnderFileSystem =
         new S3AUnderFileSystem(new AlluxioURI("s3://" + TEST_BUCKET), mClient,
-            asyncClient, TEST_BUCKET,
+            mAsyncClient, TEST_BUCKET,
             Executors.newSingleThreadExecutor(), new TransferManager(),
             UnderFileSystemConfiguration.defaults(CONF), false);
   }
@@ -227,4 +232,68 @@ public class S3AUnderFileSystemMockServerTest {
     Arrays.sort(statusesFromListing, Comparator.comparing(UfsStatus::getName));
     assertArrayEquals(statusesFromIterator, statusesFromListing);
   }
+
+  @Test
+  public void parallelIterator() throws IOException {
+    for (int i = 0; i < 5; ++i) {
+      mClient.putObject(TEST_BUCKET, String.format("file%d", i), TEST_CONTENT);
+      for (int j = 0; j < 5; ++j) {
+        for (int k = 0; k < 5; ++k) {
+          mClient.putObject(TEST_BUCKET, String.format("%d/%d/%d", i, j, k), TEST_CONTENT);
+        }
+      }
+    }
+    UfsStatus[] statusesFromListing =
+        mS3UnderFileSystem.listStatus("/", ListOptions.defaults().setRecursive(true));
+    assertNotNull(statusesFromListing);
+    Arrays.sort(statusesFromListing, Comparator.comparing(UfsStatus::getName));
+
+    for (boolean ordered : new boolean[] {true, false}) {
+      InstancedConfiguration conf = Configuration.copyGlobal();
+      conf.set(PropertyKey.UNDERFS_OBJECT_STORE_LISTING_PARALLELISM, 3);
+      conf.set(PropertyKey.UNDERFS_OBJECT_STORE_LISTING_ORDERED, ordered);
+      // several chunks for the top level and for each directory
+      conf.set(PropertyKey.UNDERFS_LISTING_LENGTH, 4);
+      S3AUnderFileSystem ufs = new S3AUnderFileSystem(new AlluxioURI("s3://" + TEST_BUCKET),
+          mClient, mAsyncClient, TEST_BUCKET, Executors.newSingleThreadExecutor(),
+          new TransferManager(), UnderFileSystemConfiguration.defaults(conf), false);
+      Iterator<UfsStatus> ufsStatusesIterator = ufs.listStatusIterable(
+          "/", ListOptions.defaults().setRecursive(true), null, 0);
+      assertNotNull(ufsStatusesIterator);
+      UfsStatus[] statusesFromIterator =
+          Iterators.toArray(ufsStatusesIterator, UfsStatus.class);
+      if (ordered) {
+        // each directory of the top level is followed by the statuses under it
+        assertEquals("0", statusesFromIterator[0].getName());
+        assertEquals("0/0", statusesFromIterator[1].getName());
+        assertEquals("1", statusesFromIterator[31].getName());
+      }
+      Arrays.sort(statusesFromIterator, Comparator.comparing(UfsStatus::getName));
+      assertArrayEquals(statusesFromListing, statusesFromIterator);
+    }
+  }
+
+  @Test
+  public void closeParallelIterator() throws IOException {
+    for (int i = 0; i < 5; ++i) {
+      for (int j = 0; j < 5; ++j) {
+        mClient.putObject(TEST_BUCKET, String.format("%d/%d", i, j), TEST_CONTENT);
+      }
+    }
+    InstancedConfiguration conf = Configuration.copyGlobal();
+    conf.set(PropertyKey.UNDERFS_OBJECT_STORE_LISTING_PARALLELISM, 3);
+    conf.set(PropertyKey.UNDERFS_LISTING_LENGTH, 2);
+    S3AUnderFileSystem ufs = new S3AUnderFileSystem(new AlluxioURI("s3://" + TEST_BUCKET),
+        mClient, mAsyncClient, TEST_BUCKET, Executors.newSingleThreadExecutor(),
+        new TransferManager(), UnderFileSystemConfiguration.defaults(conf), false);
+    Iterator<UfsStatus> ufsStatusesIterator = ufs.listStatusIterable(
+        "/", ListOptions.defaults().setRecursive(true), null, 0);
+    assertTrue(ufsStatusesIterator instanceof Closeable);
+    for (int i = 0; i < 3; i++) {
+      assertNotNull(ufsStatusesIterator.next());
+    }
+    // the directories being listed are cancelled, and nothing more is returned
+    ((Closeable) ufsStatusesIterator).close();
+    assertFalse(ufsStatusesIterator.hasNext());
+  }
 }
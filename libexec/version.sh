@@ -0,0 +1 @@
+VERSION=301-SNAPSHOT